@@ -18,6 +18,9 @@ import com.facebook.presto.common.block.ArrayBlock;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.block.DictionaryBlock;
+import com.facebook.presto.common.block.Int128ArrayBlock;
+import com.facebook.presto.common.block.LongArrayBlock;
+import com.facebook.presto.common.block.VariableWidthBlock;
 import com.facebook.presto.common.type.ArrayType;
 import com.facebook.presto.common.type.BigintType;
 import com.facebook.presto.common.type.BooleanType;
@@ -73,6 +76,7 @@ import java.util.Optional;
 
 import static com.facebook.presto.testing.TestingEnvironment.FUNCTION_AND_TYPE_MANAGER;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 
@@ -823,4 +827,97 @@ public class TestArrowBlockBuilder
             }
         }
     }
+
+    @Test
+    public void testBuildBlockFromFloat8VectorBuffers()
+    {
+        try (Float8Vector vector = new Float8Vector("Float8Vector", allocator)) {
+            vector.allocateNew(3);
+            vector.set(0, 1.5);
+            vector.setNull(1);
+            vector.set(2, -2.25);
+            vector.setValueCount(3);
+
+            Block block = arrowBlockBuilder.buildBlockFromFieldVector(vector, DoubleType.DOUBLE, null);
+
+            assertTrue(block instanceof LongArrayBlock);
+            assertEquals(block.getPositionCount(), 3);
+            assertEquals(DoubleType.DOUBLE.getDouble(block, 0), 1.5);
+            assertTrue(block.isNull(1));
+            assertEquals(DoubleType.DOUBLE.getDouble(block, 2), -2.25);
+        }
+    }
+
+    @Test
+    public void testBuildBlockFromVarCharVectorBuffers()
+    {
+        try (VarCharVector vector = new VarCharVector("VarCharVector", allocator)) {
+            vector.allocateNew(4);
+            vector.set(0, new Text("apple").getBytes());
+            vector.setNull(1);
+            vector.set(2, new Text("").getBytes());
+            vector.set(3, new Text("fig").getBytes());
+            vector.setValueCount(4);
+
+            Block block = arrowBlockBuilder.buildBlockFromFieldVector(vector, VarcharType.VARCHAR, null);
+
+            assertTrue(block instanceof VariableWidthBlock);
+            assertEquals(block.getPositionCount(), 4);
+            assertEquals(VarcharType.VARCHAR.getSlice(block, 0).toStringUtf8(), "apple");
+            assertTrue(block.isNull(1));
+            assertFalse(block.isNull(2));
+            assertEquals(VarcharType.VARCHAR.getSlice(block, 2).toStringUtf8(), "");
+            assertEquals(VarcharType.VARCHAR.getSlice(block, 3).toStringUtf8(), "fig");
+        }
+    }
+
+    @Test
+    public void testBuildBlockFromDecimalVectorBuffers()
+    {
+        List<BigDecimal> values = Arrays.asList(
+                new BigDecimal("1234567890.1234567890"),
+                new BigDecimal("-1234567890.1234567890"),
+                null,
+                new BigDecimal("-0.0000000001"),
+                new BigDecimal("0E-10"));
+        DecimalType longDecimalType = DecimalType.createDecimalType(38, 10);
+        try (DecimalVector vector = new DecimalVector("DecimalVector", allocator, 38, 10)) {
+            vector.allocateNew(values.size());
+            for (int i = 0; i < values.size(); i++) {
+                if (values.get(i) == null) {
+                    vector.setNull(i);
+                }
+                else {
+                    vector.set(i, values.get(i));
+                }
+            }
+            vector.setValueCount(values.size());
+
+            Block block = arrowBlockBuilder.buildBlockFromFieldVector(vector, longDecimalType, null);
+
+            assertTrue(block instanceof Int128ArrayBlock);
+            for (int i = 0; i < values.size(); i++) {
+                if (values.get(i) == null) {
+                    assertTrue(block.isNull(i));
+                }
+                else {
+                    assertEquals(longDecimalType.getObjectValue(null, block, i).toString(), values.get(i).toPlainString());
+                }
+            }
+        }
+
+        DecimalType shortDecimalType = DecimalType.createDecimalType(10, 2);
+        try (DecimalVector vector = new DecimalVector("DecimalVector", allocator, 10, 2)) {
+            vector.allocateNew(2);
+            vector.set(0, new BigDecimal("-123.45"));
+            vector.set(1, new BigDecimal("678.90"));
+            vector.setValueCount(2);
+
+            Block block = arrowBlockBuilder.buildBlockFromFieldVector(vector, shortDecimalType, null);
+
+            assertTrue(block instanceof LongArrayBlock);
+            assertEquals(shortDecimalType.getLong(block, 0), -12345L);
+            assertEquals(shortDecimalType.getLong(block, 1), 67890L);
+        }
+    }
 }
@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DynamicClassLoader
         extends ClassLoader
@@ -31,6 +32,7 @@ public class DynamicClassLoader
     private final ConcurrentMap<String, byte[]> pendingClasses = new ConcurrentHashMap<>();
     private final Map<Long, MethodHandle> callSiteBindings;
     private final Optional<ClassLoader> overrideClassLoader;
+    private final AtomicLong bytecodeSize = new AtomicLong();
 
     public DynamicClassLoader(ClassLoader parentClassLoader)
     {
@@ -55,6 +57,7 @@ public class DynamicClassLoader
 
     public Class<?> defineClass(String className, byte[] bytecode)
     {
+        bytecodeSize.addAndGet(bytecode.length);
         return defineClass(className, bytecode, 0, bytecode.length);
     }
 
@@ -83,6 +86,14 @@ public class DynamicClassLoader
         }
     }
 
+    /**
+     * Returns the total size of the bytecode of the classes defined by this class loader.
+     */
+    public long getBytecodeSize()
+    {
+        return bytecodeSize.get();
+    }
+
     public Map<Long, MethodHandle> getCallSiteBindings()
     {
         return callSiteBindings;
@@ -0,0 +1,230 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.common.type.StandardTypes;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.spi.page.PageCompressor;
+import com.facebook.presto.spi.page.PageDecompressor;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.facebook.presto.spi.page.SerializedPage;
+import com.google.common.collect.ImmutableList;
+import io.airlift.compress.Compressor;
+import io.airlift.compress.Decompressor;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.compress.zstd.ZstdCompressor;
+import io.airlift.compress.zstd.ZstdDecompressor;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import jakarta.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.CharType.createCharType;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DecimalType.createDecimalType;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.readSerializedPage;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.readSerializedPages;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Iterators.transform;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Decodes the binary data of query results, which is made of serialized pages, into rows backed
+ * by the blocks of the pages. Only the types that do not depend on session properties to be
+ * rendered can be decoded, so the client only asks for binary results when every column of the
+ * query has one of these types.
+ */
+final class BinaryDataDecoder
+{
+    private static final String NO_COMPRESSION = "NONE";
+
+    private final List<Type> types;
+    private final Map<String, PagesSerde> pagesSerdes = new HashMap<>();
+
+    public BinaryDataDecoder(List<Column> columns)
+    {
+        requireNonNull(columns, "columns is null");
+        ImmutableList.Builder<Type> types = ImmutableList.builder();
+        for (Column column : columns) {
+            types.add(getType(column.getTypeSignature())
+                    .orElseThrow(() -> new IllegalArgumentException("Binary results are not supported for type: " + column.getType())));
+        }
+        this.types = types.build();
+    }
+
+    public static boolean isSupported(List<Column> columns)
+    {
+        return columns.stream().allMatch(column -> getType(column.getTypeSignature()).isPresent());
+    }
+
+    /**
+     * Decodes the base64 encoded pages of the binary data of JSON query results, which are not compressed.
+     */
+    public List<List<Object>> decode(Iterable<String> binaryData)
+    {
+        requireNonNull(binaryData, "binaryData is null");
+        return decode(
+                transform(binaryData.iterator(), encodedPage -> readSerializedPage(Slices.wrappedBuffer(Base64.getDecoder().decode(encodedPage)).getInput())),
+                getPagesSerde(NO_COMPRESSION));
+    }
+
+    /**
+     * Decodes the serialized pages of a binary results response, which are compressed with the given codec.
+     */
+    public List<List<Object>> decode(Slice pagesData, @Nullable String compression)
+    {
+        requireNonNull(pagesData, "pagesData is null");
+        return decode(readSerializedPages(pagesData.getInput()), getPagesSerde(compression == null ? NO_COMPRESSION : compression));
+    }
+
+    private List<List<Object>> decode(Iterator<SerializedPage> serializedPages, PagesSerde pagesSerde)
+    {
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        while (serializedPages.hasNext()) {
+            Page page = pagesSerde.deserialize(serializedPages.next());
+            checkArgument(page.getChannelCount() == types.size(), "page/column size mismatch");
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                rows.add(new BinaryRow(types, page, position));
+            }
+        }
+        return rows.build();
+    }
+
+    private PagesSerde getPagesSerde(String compression)
+    {
+        // the decompressors are not thread safe, so each decoder has its own
+        return pagesSerdes.computeIfAbsent(compression, BinaryDataDecoder::createPagesSerde);
+    }
+
+    static PagesSerde createPagesSerde(String compression)
+    {
+        switch (compression) {
+            case NO_COMPRESSION:
+                return new PagesSerde(new BlockEncodingManager(), Optional.empty(), Optional.empty(), Optional.empty());
+            case "LZ4":
+                return createPagesSerde(new Lz4Compressor(), new Lz4Decompressor());
+            case "ZSTD":
+                return createPagesSerde(new ZstdCompressor(), new ZstdDecompressor());
+            default:
+                throw new IllegalArgumentException("Unsupported binary results compression: " + compression);
+        }
+    }
+
+    private static PagesSerde createPagesSerde(Compressor compressor, Decompressor decompressor)
+    {
+        PageCodec codec = new PageCodec(compressor, decompressor);
+        return new PagesSerde(new BlockEncodingManager(), Optional.of(codec), Optional.of(codec), Optional.empty());
+    }
+
+    private static Optional<Type> getType(ClientTypeSignature signature)
+    {
+        switch (signature.getRawType()) {
+            case StandardTypes.BOOLEAN:
+                return Optional.of(BOOLEAN);
+            case StandardTypes.TINYINT:
+                return Optional.of(TINYINT);
+            case StandardTypes.SMALLINT:
+                return Optional.of(SMALLINT);
+            case StandardTypes.INTEGER:
+                return Optional.of(INTEGER);
+            case StandardTypes.BIGINT:
+                return Optional.of(BIGINT);
+            case StandardTypes.REAL:
+                return Optional.of(REAL);
+            case StandardTypes.DOUBLE:
+                return Optional.of(DOUBLE);
+            case StandardTypes.DECIMAL:
+                return Optional.of(createDecimalType(getLongArgument(signature, 0), getLongArgument(signature, 1)));
+            case StandardTypes.VARCHAR:
+            case StandardTypes.JSON:
+                // the values of both types are utf-8 slices
+                return Optional.of(VARCHAR);
+            case StandardTypes.CHAR:
+                return Optional.of(createCharType(getLongArgument(signature, 0)));
+            case StandardTypes.VARBINARY:
+                return Optional.of(VARBINARY);
+            case StandardTypes.DATE:
+                return Optional.of(DATE);
+            default:
+                return Optional.empty();
+        }
+    }
+
+    private static int getLongArgument(ClientTypeSignature signature, int index)
+    {
+        return signature.getArguments().get(index).getLongLiteral().intValue();
+    }
+
+    private static class PageCodec
+            implements PageCompressor, PageDecompressor
+    {
+        private final Compressor compressor;
+        private final Decompressor decompressor;
+
+        public PageCodec(Compressor compressor, Decompressor decompressor)
+        {
+            this.compressor = requireNonNull(compressor, "compressor is null");
+            this.decompressor = requireNonNull(decompressor, "decompressor is null");
+        }
+
+        @Override
+        public int maxCompressedLength(int uncompressedSize)
+        {
+            return compressor.maxCompressedLength(uncompressedSize);
+        }
+
+        @Override
+        public int compress(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset, int maxOutputLength)
+        {
+            return compressor.compress(input, inputOffset, inputLength, output, outputOffset, maxOutputLength);
+        }
+
+        @Override
+        public void compress(ByteBuffer input, ByteBuffer output)
+        {
+            compressor.compress(input, output);
+        }
+
+        @Override
+        public int decompress(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset, int maxOutputLength)
+        {
+            return decompressor.decompress(input, inputOffset, inputLength, output, outputOffset, maxOutputLength);
+        }
+
+        @Override
+        public void decompress(ByteBuffer input, ByteBuffer output)
+        {
+            decompressor.decompress(input, output);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.type.DecimalType;
+import com.facebook.presto.common.type.SqlDate;
+import com.facebook.presto.common.type.SqlVarbinary;
+import com.facebook.presto.common.type.Type;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static java.lang.Float.intBitsToFloat;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A row of binary query results, which reads the values from the blocks of the result page.
+ * {@link #get(int)} returns the same objects as the rows decoded from JSON results, while the
+ * typed getters read primitive values without boxing them.
+ */
+public final class BinaryRow
+        extends AbstractList<Object>
+{
+    private final List<Type> types;
+    private final Page page;
+    private final int position;
+
+    BinaryRow(List<Type> types, Page page, int position)
+    {
+        this.types = requireNonNull(types, "types is null");
+        this.page = requireNonNull(page, "page is null");
+        this.position = position;
+    }
+
+    @Override
+    public int size()
+    {
+        return types.size();
+    }
+
+    @Override
+    public Object get(int field)
+    {
+        Type type = types.get(field);
+        Block block = page.getBlock(field);
+        if (block.isNull(position)) {
+            return null;
+        }
+        Object value = type.getObjectValue(null, block, position);
+        if (value instanceof SqlVarbinary) {
+            return ((SqlVarbinary) value).getBytes();
+        }
+        if (type instanceof DecimalType || value instanceof SqlDate) {
+            return value.toString();
+        }
+        return value;
+    }
+
+    public boolean isNull(int field)
+    {
+        return page.getBlock(field).isNull(position);
+    }
+
+    /**
+     * Returns whether the field is a tinyint, smallint, integer or bigint, which can be read with {@link #getLong(int)}.
+     */
+    public boolean isIntegral(int field)
+    {
+        Type type = types.get(field);
+        return type.equals(BIGINT) || type.equals(INTEGER) || type.equals(SMALLINT) || type.equals(TINYINT);
+    }
+
+    /**
+     * Returns whether the field is a real or double, which can be read with {@link #getDouble(int)}.
+     */
+    public boolean isFloatingPoint(int field)
+    {
+        Type type = types.get(field);
+        return type.equals(DOUBLE) || type.equals(REAL);
+    }
+
+    public long getLong(int field)
+    {
+        return types.get(field).getLong(page.getBlock(field), position);
+    }
+
+    public double getDouble(int field)
+    {
+        Type type = types.get(field);
+        if (type.equals(REAL)) {
+            return intBitsToFloat((int) type.getLong(page.getBlock(field), position));
+        }
+        return type.getDouble(page.getBlock(field), position);
+    }
+}
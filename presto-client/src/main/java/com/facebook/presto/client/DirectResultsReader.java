@@ -0,0 +1,365 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.airlift.units.Duration;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.errorprone.annotations.ThreadSafe;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import jakarta.annotation.Nullable;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_BUFFER_COMPLETE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_MAX_SIZE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_NEXT_TOKEN;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_TASK_INSTANCE_ID;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.String.format;
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+import static java.net.HttpURLConnection.HTTP_NO_CONTENT;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Reads the results of a query directly from the output buffers of the workers, which the coordinator
+ * returns as the segments of the query results. The segments are signed by the coordinator, so that
+ * they only give access to the output buffers of the query. Each segment has at most one request in
+ * flight, which runs on the dispatcher of the HTTP client, so reading does not need threads of its
+ * own. A segment stops fetching while enough rows are buffered, acknowledges the pages as soon as it
+ * has received them, so the worker can free them, and destroys the buffer once it is complete, so
+ * the task can finish.
+ */
+@ThreadSafe
+class DirectResultsReader
+        implements Closeable
+{
+    private static final String MAX_RESPONSE_SIZE = "16MB";
+    private static final int MAX_BUFFERED_BATCHES = 16;
+    // only delays the retries, which are sent on the dispatcher of the HTTP client
+    private static final ScheduledExecutorService RETRY_EXECUTOR = newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("direct-results-retry")
+            .setDaemon(true)
+            .build());
+
+    private final OkHttpClient httpClient;
+    private final List<Column> columns;
+    private final String compression;
+    private final Duration requestTimeout;
+
+    @GuardedBy("this")
+    private final Map<URI, SegmentReader> segments = new LinkedHashMap<>();
+    @GuardedBy("this")
+    private final Queue<SegmentReader> blockedSegments = new ArrayDeque<>();
+    @GuardedBy("this")
+    private boolean closed;
+
+    private final AtomicInteger runningSegments = new AtomicInteger();
+    private final BlockingQueue<List<List<Object>>> batches = new LinkedBlockingQueue<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    public DirectResultsReader(OkHttpClient httpClient, List<Column> columns, @Nullable String compression, Duration requestTimeout)
+    {
+        this.httpClient = requireNonNull(httpClient, "httpClient is null");
+        this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
+        this.compression = compression;
+        this.requestTimeout = requireNonNull(requestTimeout, "requestTimeout is null");
+    }
+
+    /**
+     * Starts reading the segments that are not read yet.
+     */
+    public void addSegments(List<URI> segments)
+    {
+        List<SegmentReader> newSegments = new ArrayList<>();
+        synchronized (this) {
+            for (URI segment : segments) {
+                if (!closed && !this.segments.containsKey(segment)) {
+                    SegmentReader reader = new SegmentReader(segment);
+                    this.segments.put(segment, reader);
+                    runningSegments.incrementAndGet();
+                    newSegments.add(reader);
+                }
+            }
+        }
+        newSegments.forEach(SegmentReader::fetch);
+    }
+
+    /**
+     * Returns the next batch of rows, or null if no rows are read within the timeout.
+     */
+    @Nullable
+    public List<List<Object>> poll(Duration timeout)
+            throws InterruptedException
+    {
+        List<List<Object>> rows = batches.poll(timeout.roundTo(NANOSECONDS), NANOSECONDS);
+        if (rows != null) {
+            resumeBlockedSegments();
+        }
+        return rows;
+    }
+
+    /**
+     * Returns whether all the rows of the segments that are known so far have been returned.
+     */
+    public boolean isFinished()
+    {
+        return runningSegments.get() == 0 && batches.isEmpty();
+    }
+
+    @Nullable
+    public Throwable getFailure()
+    {
+        return failure.get();
+    }
+
+    @Override
+    public void close()
+    {
+        List<SegmentReader> readers;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            readers = ImmutableList.copyOf(segments.values());
+            blockedSegments.clear();
+        }
+        // release the buffers that are not completely read
+        readers.forEach(SegmentReader::abort);
+        batches.clear();
+    }
+
+    private void resumeBlockedSegments()
+    {
+        List<SegmentReader> resumed = new ArrayList<>();
+        synchronized (this) {
+            while (!blockedSegments.isEmpty() && batches.size() < MAX_BUFFERED_BATCHES) {
+                resumed.add(blockedSegments.poll());
+            }
+        }
+        resumed.forEach(SegmentReader::fetch);
+    }
+
+    private synchronized boolean isClosed()
+    {
+        return closed;
+    }
+
+    private void send(Request request)
+    {
+        httpClient.newCall(request).enqueue(new Callback()
+        {
+            @Override
+            public void onFailure(Call call, IOException e) {}
+
+            @Override
+            public void onResponse(Call call, Response response)
+            {
+                response.close();
+            }
+        });
+    }
+
+    /**
+     * Reads a segment with the task results protocol. Only one request of a segment is in flight
+     * at a time, so its state is only accessed by one thread at a time.
+     */
+    private class SegmentReader
+            implements Callback
+    {
+        private final URI segment;
+        private final BinaryDataDecoder decoder = new BinaryDataDecoder(columns);
+
+        private String taskInstanceId;
+        private long token;
+        private long errorStart;
+        private int attempts;
+
+        @GuardedBy("DirectResultsReader.this")
+        private Call call;
+        private volatile boolean done;
+
+        public SegmentReader(URI segment)
+        {
+            this.segment = requireNonNull(segment, "segment is null");
+        }
+
+        public void fetch()
+        {
+            Request request = new Request.Builder()
+                    .url(HttpUrl.get(segment).newBuilder().addPathSegment(String.valueOf(token)).build())
+                    .header(PRESTO_MAX_SIZE, MAX_RESPONSE_SIZE)
+                    .build();
+            Call call = httpClient.newCall(request);
+            synchronized (DirectResultsReader.this) {
+                if (closed) {
+                    return;
+                }
+                this.call = call;
+            }
+            call.enqueue(this);
+        }
+
+        public void abort()
+        {
+            Call call;
+            synchronized (DirectResultsReader.this) {
+                call = this.call;
+            }
+            if (call != null) {
+                call.cancel();
+            }
+            if (!done) {
+                send(new Request.Builder().url(HttpUrl.get(segment)).delete().build());
+            }
+        }
+
+        @Override
+        public void onResponse(Call call, Response response)
+        {
+            byte[] pages;
+            long nextToken;
+            boolean complete;
+            try (Response ignored = response) {
+                if (response.code() >= HTTP_BAD_REQUEST && response.code() < HTTP_INTERNAL_ERROR) {
+                    // the segment is not valid, which is not resolved by retrying
+                    fail(new IOException(format("Error fetching %s: HTTP %s %s", call.request().url(), response.code(), response.message())));
+                    return;
+                }
+                if (response.code() != HTTP_OK && response.code() != HTTP_NO_CONTENT) {
+                    throw new IOException(format("Error fetching %s: HTTP %s %s", call.request().url(), response.code(), response.message()));
+                }
+
+                // a new task instance means the task that held the results is gone
+                String responseTaskInstanceId = requireNonNull(response.header(PRESTO_TASK_INSTANCE_ID), "task instance id is missing");
+                if (taskInstanceId == null) {
+                    taskInstanceId = responseTaskInstanceId;
+                }
+                else if (!taskInstanceId.equals(responseTaskInstanceId)) {
+                    throw new IllegalStateException(format("Results of %s are lost: task instance changed from %s to %s", segment, taskInstanceId, responseTaskInstanceId));
+                }
+
+                ResponseBody body = response.body();
+                pages = (response.code() == HTTP_OK && body != null) ? body.bytes() : new byte[0];
+                nextToken = Long.parseLong(requireNonNull(response.header(PRESTO_PAGE_NEXT_TOKEN), "next token is missing"));
+                complete = Boolean.parseBoolean(response.header(PRESTO_BUFFER_COMPLETE));
+            }
+            catch (IOException e) {
+                onFailure(call, e);
+                return;
+            }
+            catch (RuntimeException e) {
+                fail(e);
+                return;
+            }
+            attempts = 0;
+
+            try {
+                if (nextToken > token) {
+                    send(new Request.Builder()
+                            .url(HttpUrl.get(segment).newBuilder()
+                                    .addPathSegment(String.valueOf(nextToken))
+                                    .addPathSegment("acknowledge")
+                                    .build())
+                            .build());
+                    token = nextToken;
+                }
+                if (pages.length > 0) {
+                    List<List<Object>> rows = decoder.decode(wrappedBuffer(pages), compression);
+                    if (!rows.isEmpty()) {
+                        batches.add(rows);
+                    }
+                }
+            }
+            catch (RuntimeException e) {
+                fail(e);
+                return;
+            }
+
+            if (complete) {
+                done = true;
+                send(new Request.Builder().url(HttpUrl.get(segment)).delete().build());
+                runningSegments.decrementAndGet();
+                return;
+            }
+
+            synchronized (DirectResultsReader.this) {
+                if (closed) {
+                    return;
+                }
+                if (batches.size() >= MAX_BUFFERED_BATCHES) {
+                    // fetching resumes once the rows are consumed
+                    blockedSegments.add(this);
+                    return;
+                }
+            }
+            fetch();
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e)
+        {
+            if (isClosed()) {
+                return;
+            }
+            if (attempts == 0) {
+                errorStart = System.nanoTime();
+            }
+            if (Duration.nanosSince(errorStart).compareTo(requestTimeout) > 0) {
+                fail(e);
+                return;
+            }
+            attempts++;
+            try {
+                RETRY_EXECUTOR.schedule(this::fetch, attempts * 100L, MILLISECONDS);
+            }
+            catch (RejectedExecutionException rejected) {
+                fail(e);
+            }
+        }
+
+        private void fail(Throwable throwable)
+        {
+            failure.compareAndSet(null, throwable);
+            runningSegments.decrementAndGet();
+        }
+    }
+}
@@ -14,6 +14,8 @@
 package com.facebook.presto.client;
 
 import com.facebook.airlift.json.JsonCodec;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
 import jakarta.annotation.Nullable;
 import okhttp3.Headers;
 import okhttp3.MediaType;
@@ -27,11 +29,18 @@ import java.io.UncheckedIOException;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.net.HttpHeaders.LOCATION;
+import static io.airlift.slice.Slices.wrappedBuffer;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
 public final class JsonResponse<T>
 {
+    /**
+     * Media type of the binary query results. The body is the length prefixed JSON value,
+     * followed by the serialized pages of the results.
+     */
+    static final String PRESTO_PAGES = "application/X-presto-pages";
+
     private final int statusCode;
     private final String statusMessage;
     private final Headers headers;
@@ -39,6 +48,7 @@ public final class JsonResponse<T>
     private final boolean hasValue;
     private final T value;
     private final IllegalArgumentException exception;
+    private final Slice pagesData;
 
     private JsonResponse(int statusCode, String statusMessage, Headers headers, String responseBody)
     {
@@ -50,9 +60,10 @@ public final class JsonResponse<T>
         this.hasValue = false;
         this.value = null;
         this.exception = null;
+        this.pagesData = null;
     }
 
-    private JsonResponse(int statusCode, String statusMessage, Headers headers, String responseBody, JsonCodec<T> jsonCodec)
+    private JsonResponse(int statusCode, String statusMessage, Headers headers, String responseBody, JsonCodec<T> jsonCodec, @Nullable Slice pagesData)
     {
         this.statusCode = statusCode;
         this.statusMessage = statusMessage;
@@ -70,6 +81,7 @@ public final class JsonResponse<T>
         this.hasValue = (exception == null);
         this.value = value;
         this.exception = exception;
+        this.pagesData = pagesData;
     }
 
     public int getStatusCode()
@@ -111,6 +123,15 @@ public final class JsonResponse<T>
         return exception;
     }
 
+    /**
+     * Returns the serialized pages that follow the JSON value of a {@value #PRESTO_PAGES} response.
+     */
+    @Nullable
+    public Slice getPagesData()
+    {
+        return pagesData;
+    }
+
     @Override
     public String toString()
     {
@@ -137,9 +158,15 @@ public final class JsonResponse<T>
             }
 
             ResponseBody responseBody = requireNonNull(response.body());
+            if (isPrestoPages(responseBody.contentType())) {
+                // the pages are read in place from the response bytes
+                SliceInput input = wrappedBuffer(responseBody.bytes()).getInput();
+                String body = input.readSlice(input.readInt()).toStringUtf8();
+                return new JsonResponse<>(response.code(), response.message(), response.headers(), body, codec, input.readSlice(input.available()));
+            }
             String body = responseBody.string();
             if (isJson(responseBody.contentType())) {
-                return new JsonResponse<>(response.code(), response.message(), response.headers(), body, codec);
+                return new JsonResponse<>(response.code(), response.message(), response.headers(), body, codec, null);
             }
             return new JsonResponse<>(response.code(), response.message(), response.headers(), body);
         }
@@ -152,4 +179,9 @@ public final class JsonResponse<T>
     {
         return (type != null) && "application".equals(type.type()) && "json".equals(type.subtype());
     }
+
+    private static boolean isPrestoPages(MediaType type)
+    {
+        return (type != null) && "application".equals(type.type()) && "x-presto-pages".equals(type.subtype());
+    }
 }
@@ -41,6 +41,7 @@ public class QueryResults
     private final List<Column> columns;
     private final Iterable<List<Object>> data;
     private final Iterable<String> binaryData;
+    private final List<URI> segments;
     private final StatementStats stats;
     private final QueryError error;
     private final List<PrestoWarning> warnings;
@@ -56,6 +57,7 @@ public class QueryResults
             @JsonProperty("columns") List<Column> columns,
             @JsonProperty("data") List<List<Object>> data,
             @JsonProperty("binaryData") List<String> binaryData,
+            @JsonProperty("segments") List<URI> segments,
             @JsonProperty("stats") StatementStats stats,
             @JsonProperty("error") QueryError error,
             @JsonProperty("warnings") List<PrestoWarning> warnings,
@@ -70,6 +72,7 @@ public class QueryResults
                 columns,
                 fixData(columns, data),
                 binaryData,
+                segments,
                 stats,
                 error,
                 firstNonNull(warnings, ImmutableList.of()),
@@ -90,6 +93,24 @@ public class QueryResults
             List<PrestoWarning> warnings,
             String updateType,
             Long updateCount)
+    {
+        this(id, infoUri, partialCancelUri, nextUri, columns, data, binaryData, null, stats, error, warnings, updateType, updateCount);
+    }
+
+    public QueryResults(
+            String id,
+            URI infoUri,
+            URI partialCancelUri,
+            URI nextUri,
+            List<Column> columns,
+            Iterable<List<Object>> data,
+            Iterable<String> binaryData,
+            List<URI> segments,
+            StatementStats stats,
+            QueryError error,
+            List<PrestoWarning> warnings,
+            String updateType,
+            Long updateCount)
     {
         this.id = requireNonNull(id, "id is null");
         this.infoUri = requireNonNull(infoUri, "infoUri is null");
@@ -98,7 +119,8 @@ public class QueryResults
         this.columns = (columns != null) ? ImmutableList.copyOf(columns) : null;
         this.data = (data != null) ? unmodifiableIterable(data) : null;
         this.binaryData = (binaryData != null) ? unmodifiableIterable(binaryData) : null;
-        checkArgument((data == null && binaryData == null) || columns != null, "data present without columns");
+        this.segments = (segments != null) ? ImmutableList.copyOf(segments) : null;
+        checkArgument((data == null && binaryData == null && segments == null) || columns != null, "data present without columns");
         this.stats = requireNonNull(stats, "stats is null");
         this.error = error;
         this.warnings = ImmutableList.copyOf(requireNonNull(warnings, "warnings is null"));
@@ -183,6 +205,17 @@ public class QueryResults
         return binaryData;
     }
 
+    /**
+     * Returns the signed URIs of the output buffers of the workers, which hold the payload (results) in
+     * binary format when the client reads the results directly from the workers
+     */
+    @Nullable
+    @JsonProperty
+    public List<URI> getSegments()
+    {
+        return segments;
+    }
+
     /**
      * Returns cumulative statistics on the query being executed
      * @return {@link com.facebook.presto.client.StatementStats}
@@ -252,6 +285,7 @@ public class QueryResults
                 .add("columns", columns)
                 .add("hasData", data != null)
                 .add("hasBinaryData", binaryData != null)
+                .add("segments", segments)
                 .add("stats", stats)
                 .add("error", error)
                 .add("updateType", updateType)
@@ -24,6 +24,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.annotations.ThreadSafe;
+import io.airlift.slice.Slice;
 import jakarta.annotation.Nullable;
 import okhttp3.Headers;
 import okhttp3.HttpUrl;
@@ -43,9 +44,11 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.facebook.airlift.json.JsonCodec.jsonCodec;
+import static com.facebook.presto.client.JsonResponse.PRESTO_PAGES;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_ADDED_PREPARE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_ADDED_SESSION_FUNCTION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CATALOG;
@@ -56,6 +59,7 @@ import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLIENT_TAGS;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_DEALLOCATED_PREPARE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_EXTRA_CREDENTIAL;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_LANGUAGE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGES_COMPRESSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PREPARED_STATEMENT;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_REMOVED_SESSION_FUNCTION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_RESOURCE_ESTIMATE;
@@ -75,6 +79,7 @@ import static com.facebook.presto.client.PrestoHeaders.PRESTO_USER;
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Sets.newConcurrentHashSet;
+import static com.google.common.net.HttpHeaders.ACCEPT;
 import static com.google.common.net.HttpHeaders.ACCEPT_ENCODING;
 import static com.google.common.net.HttpHeaders.USER_AGENT;
 import static java.lang.String.format;
@@ -83,6 +88,8 @@ import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
 import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 @ThreadSafe
 class StatementClientV1
@@ -90,6 +97,8 @@ class StatementClientV1
 {
     private static final MediaType MEDIA_TYPE_TEXT = MediaType.parse("text/plain; charset=utf-8");
     private static final JsonCodec<QueryResults> QUERY_RESULTS_CODEC = jsonCodec(QueryResults.class);
+    private static final Duration DIRECT_RESULTS_STATUS_INTERVAL = new Duration(1, SECONDS);
+    private static final Duration DIRECT_RESULTS_FINISH_POLL_TIME = new Duration(100, MILLISECONDS);
 
     private static final Splitter SESSION_HEADER_SPLITTER = Splitter.on('=').limit(2).trimResults();
     private static final String USER_AGENT_VALUE = StatementClientV1.class.getSimpleName() +
@@ -99,6 +108,10 @@ class StatementClientV1
     private final OkHttpClient httpClient;
     private final String query;
     private final AtomicReference<QueryResults> currentResults = new AtomicReference<>();
+    private final AtomicReference<QueryData> currentData = new AtomicReference<>();
+    private final AtomicReference<BinaryDataDecoder> binaryDataDecoder = new AtomicReference<>();
+    private final AtomicReference<DirectResultsReader> directResultsReader = new AtomicReference<>();
+    private final AtomicLong nextStatusRequestNanos = new AtomicLong();
     private final AtomicReference<String> setCatalog = new AtomicReference<>();
     private final AtomicReference<String> setSchema = new AtomicReference<>();
     private final Map<String, String> setSessionProperties = new ConcurrentHashMap<>();
@@ -112,6 +125,7 @@ class StatementClientV1
     private final Duration requestTimeoutNanos;
     private final String user;
     private final boolean compressionDisabled;
+    private final boolean binaryResults;
     private final Map<String, String> addedSessionFunctions = new ConcurrentHashMap<>();
     private final Set<String> removedSessionFunctions = newConcurrentHashSet();
     private final boolean validateNextUriSource;
@@ -130,6 +144,7 @@ class StatementClientV1
         this.requestTimeoutNanos = session.getClientRequestTimeout();
         this.user = session.getUser();
         this.compressionDisabled = session.isCompressionDisabled();
+        this.binaryResults = session.isBinaryResults();
         this.validateNextUriSource = session.validateNextUriSource();
 
         Request request = buildQueryRequest(session, query);
@@ -140,7 +155,7 @@ class StatementClientV1
             throw requestFailedException("starting query", request, response);
         }
 
-        processResponse(response.getHeaders(), response.getValue());
+        processResponse(response.getHeaders(), response.getValue(), null);
         this.responseHeaders = toHeaderMap(response.getHeaders());
     }
 
@@ -272,7 +287,7 @@ class StatementClientV1
     public QueryData currentData()
     {
         checkState(isRunning(), "current position is not valid (cursor past end)");
-        return currentResults.get();
+        return currentData.get();
     }
 
     @Override
@@ -369,13 +384,48 @@ class StatementClientV1
         }
 
         URI nextUri = currentStatusInfo().getNextUri();
+
+        // the rows read directly from the workers are returned between the status requests, which keep the query alive,
+        // and the rows that are left when the query finishes are returned before finishing
+        DirectResultsReader reader = directResultsReader.get();
+        if (reader != null && reader.getFailure() == null && currentResults.get().getError() == null) {
+            List<List<Object>> rows = pollDirectResults(reader, nextUri == null);
+            if (rows != null) {
+                currentData.set(() -> rows);
+                return true;
+            }
+        }
+
         if (nextUri == null) {
+            if (reader != null) {
+                reader.close();
+                // the rows that could not be read from the workers are missing from the results
+                Throwable directResultsFailure = reader.getFailure();
+                if (directResultsFailure != null && currentResults.get().getError() == null) {
+                    state.set(State.CLIENT_ERROR);
+                    throw new RuntimeException("Error reading query results from the workers", directResultsFailure);
+                }
+            }
             state.compareAndSet(State.RUNNING, State.FINISHED);
             return false;
         }
         validateNextUriSource(nextUri, currentStatusInfo().getInfoUri());
 
-        Request request = prepareRequest(HttpUrl.get(nextUri)).build();
+        HttpUrl url = HttpUrl.get(nextUri);
+        Request.Builder builder;
+        if (binaryDataDecoder.get() != null) {
+            url = url.newBuilder().setQueryParameter("binaryResults", "true").build();
+            if (reader != null && !reader.isFinished()) {
+                // the rows come from the workers, so the status is returned without waiting for the coordinator to have rows
+                url = url.newBuilder().setQueryParameter("maxWait", "0ms").build();
+            }
+            // servers that cannot send the pages in the response body respond with JSON
+            builder = prepareRequest(url).header(ACCEPT, PRESTO_PAGES + ", application/json");
+        }
+        else {
+            builder = prepareRequest(url);
+        }
+        Request request = builder.build();
 
         Exception cause = null;
         long start = System.nanoTime();
@@ -420,7 +470,14 @@ class StatementClientV1
             }
 
             if ((response.getStatusCode() == HTTP_OK) && response.hasValue()) {
-                processResponse(response.getHeaders(), response.getValue());
+                processResponse(response.getHeaders(), response.getValue(), response.getPagesData());
+                // the failure to read the rows from the workers is only reported when the query itself did not fail
+                Throwable directResultsFailure = reader == null ? null : reader.getFailure();
+                if (directResultsFailure != null && response.getValue().getError() == null) {
+                    close();
+                    state.set(State.CLIENT_ERROR);
+                    throw new RuntimeException("Error reading query results from the workers", directResultsFailure);
+                }
                 return true;
             }
 
@@ -431,6 +488,40 @@ class StatementClientV1
         }
     }
 
+    /**
+     * Returns the next rows read from the workers, or null when it is time for the next status request, or
+     * when the reader has returned all the rows of the segments if waiting for the query to finish.
+     */
+    @Nullable
+    private List<List<Object>> pollDirectResults(DirectResultsReader reader, boolean untilFinished)
+    {
+        try {
+            while (!reader.isFinished()) {
+                Duration timeout = untilFinished
+                        ? DIRECT_RESULTS_FINISH_POLL_TIME
+                        : new Duration(Math.max(nextStatusRequestNanos.get() - System.nanoTime(), 0), NANOSECONDS);
+                List<List<Object>> rows = reader.poll(timeout);
+                if (rows != null) {
+                    return rows;
+                }
+                if (!untilFinished || reader.getFailure() != null) {
+                    return null;
+                }
+            }
+            return null;
+        }
+        catch (InterruptedException e) {
+            try {
+                close();
+            }
+            finally {
+                Thread.currentThread().interrupt();
+            }
+            state.compareAndSet(State.RUNNING, State.CLIENT_ERROR);
+            throw new RuntimeException("StatementClient thread was interrupted");
+        }
+    }
+
     private void validateNextUriSource(final URI nextUri, final URI infoUri)
     {
         if (!validateNextUriSource) {
@@ -454,7 +545,7 @@ class StatementClientV1
         return builder.build();
     }
 
-    private void processResponse(Headers headers, QueryResults results)
+    private void processResponse(Headers headers, QueryResults results, @Nullable Slice pagesData)
     {
         setCatalog.set(headers.get(PRESTO_SET_CATALOG));
         setSchema.set(headers.get(PRESTO_SET_SCHEMA));
@@ -506,6 +597,37 @@ class StatementClientV1
             removedSessionFunctions.add(urlDecode(signature));
         }
 
+        // once the columns are known, ask for the next results as serialized pages if the client can decode all the column types
+        if (binaryResults && binaryDataDecoder.get() == null && results.getColumns() != null && BinaryDataDecoder.isSupported(results.getColumns())) {
+            binaryDataDecoder.set(new BinaryDataDecoder(results.getColumns()));
+        }
+        // the segments are only returned to clients that asked for raw binary results
+        if (results.getSegments() != null && !results.getSegments().isEmpty()) {
+            DirectResultsReader reader = directResultsReader.get();
+            if (reader == null) {
+                checkState(binaryDataDecoder.get() != null, "Received result segments that were not requested");
+                reader = new DirectResultsReader(httpClient, results.getColumns(), headers.get(PRESTO_PAGES_COMPRESSION), requestTimeoutNanos);
+                directResultsReader.set(reader);
+            }
+            reader.addSegments(results.getSegments());
+            nextStatusRequestNanos.set(System.nanoTime() + DIRECT_RESULTS_STATUS_INTERVAL.roundTo(NANOSECONDS));
+        }
+
+        if (pagesData != null && pagesData.length() > 0) {
+            BinaryDataDecoder decoder = binaryDataDecoder.get();
+            checkState(decoder != null, "Received binary results that were not requested");
+            List<List<Object>> rows = decoder.decode(pagesData, headers.get(PRESTO_PAGES_COMPRESSION));
+            currentData.set(() -> rows);
+        }
+        else if (results.getBinaryData() != null) {
+            BinaryDataDecoder decoder = binaryDataDecoder.get();
+            checkState(decoder != null, "Received binary results that were not requested");
+            List<List<Object>> rows = decoder.decode(results.getBinaryData());
+            currentData.set(() -> rows);
+        }
+        else {
+            currentData.set(results);
+        }
         currentResults.set(results);
     }
 
@@ -545,6 +667,10 @@ class StatementClientV1
     @Override
     public void close()
     {
+        DirectResultsReader reader = directResultsReader.get();
+        if (reader != null) {
+            reader.close();
+        }
         // If the query is not done, abort the query.
         if (state.compareAndSet(State.RUNNING, State.CLIENT_ABORTED)) {
             URI uri = currentResults.get().getNextUri();
@@ -0,0 +1,167 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.common.type.ArrayType;
+import com.facebook.presto.common.type.DecimalType;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.facebook.presto.spi.page.SerializedPage;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.DynamicSliceOutput;
+import org.testng.annotations.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.CharType.createCharType;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DecimalType.createDecimalType;
+import static com.facebook.presto.common.type.Decimals.encodeUnscaledValue;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.spi.page.PageCodecMarker.COMPRESSED;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPage;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Float.floatToRawIntBits;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestBinaryDataDecoder
+{
+    private static final PagesSerde PAGES_SERDE = new PagesSerde(new BlockEncodingManager(), Optional.empty(), Optional.empty(), Optional.empty());
+
+    @Test
+    public void testDecode()
+    {
+        DecimalType shortDecimal = createDecimalType(10, 2);
+        DecimalType longDecimal = createDecimalType(30, 1);
+        List<Type> types = ImmutableList.of(BOOLEAN, INTEGER, BIGINT, REAL, DOUBLE, shortDecimal, longDecimal, VARCHAR, createCharType(4), VARBINARY, DATE);
+        BlockBuilder[] blockBuilders = types.stream()
+                .map(type -> type.createBlockBuilder(null, 2))
+                .toArray(BlockBuilder[]::new);
+        BOOLEAN.writeBoolean(blockBuilders[0], true);
+        INTEGER.writeLong(blockBuilders[1], 42);
+        BIGINT.writeLong(blockBuilders[2], 1L << 40);
+        REAL.writeLong(blockBuilders[3], floatToRawIntBits(1.5f));
+        DOUBLE.writeDouble(blockBuilders[4], 2.25);
+        shortDecimal.writeLong(blockBuilders[5], 12345);
+        longDecimal.writeSlice(blockBuilders[6], encodeUnscaledValue(new BigInteger("123456789012345678901")));
+        VARCHAR.writeSlice(blockBuilders[7], utf8Slice("hello"));
+        createCharType(4).writeSlice(blockBuilders[8], utf8Slice("ab"));
+        VARBINARY.writeSlice(blockBuilders[9], wrappedBuffer(new byte[] {1, 2}));
+        DATE.writeLong(blockBuilders[10], 17575);
+        for (BlockBuilder blockBuilder : blockBuilders) {
+            blockBuilder.appendNull();
+        }
+        Page page = new Page(Arrays.stream(blockBuilders).map(BlockBuilder::build).toArray(Block[]::new));
+
+        List<Column> columns = types.stream()
+                .map(type -> new Column(type.getDisplayName(), type))
+                .collect(toImmutableList());
+        assertTrue(BinaryDataDecoder.isSupported(columns));
+        List<List<Object>> rows = new BinaryDataDecoder(columns).decode(ImmutableList.of(encode(page)));
+        assertEquals(rows.size(), 2);
+
+        List<Object> row = rows.get(0);
+        assertEquals(row.get(0), true);
+        assertEquals(row.get(1), 42);
+        assertEquals(row.get(2), 1L << 40);
+        assertEquals(row.get(3), 1.5f);
+        assertEquals(row.get(4), 2.25);
+        assertEquals(row.get(5), "123.45");
+        assertEquals(row.get(6), "12345678901234567890.1");
+        assertEquals(row.get(7), "hello");
+        assertEquals(row.get(8), "ab  ");
+        assertEquals(row.get(9), new byte[] {1, 2});
+        assertEquals(row.get(10), "2018-02-13");
+
+        BinaryRow binaryRow = (BinaryRow) row;
+        assertTrue(binaryRow.isIntegral(2));
+        assertEquals(binaryRow.getLong(2), 1L << 40);
+        assertTrue(binaryRow.isFloatingPoint(3));
+        assertEquals(binaryRow.getDouble(3), 1.5);
+        assertFalse(binaryRow.isIntegral(5));
+        assertFalse(binaryRow.isFloatingPoint(5));
+
+        List<Object> nullRow = rows.get(1);
+        for (int field = 0; field < types.size(); field++) {
+            assertNull(nullRow.get(field));
+            assertTrue(((BinaryRow) nullRow).isNull(field));
+        }
+    }
+
+    @Test
+    public void testDecodePages()
+    {
+        List<Column> columns = ImmutableList.of(new Column("id", BIGINT), new Column("name", VARCHAR));
+        for (String compression : ImmutableList.of("NONE", "LZ4", "ZSTD")) {
+            PagesSerde pagesSerde = BinaryDataDecoder.createPagesSerde(compression);
+            DynamicSliceOutput output = new DynamicSliceOutput(1000);
+            for (int start = 0; start < 3000; start += 1000) {
+                SerializedPage serializedPage = pagesSerde.serialize(createPage(start, start + 1000));
+                assertEquals(COMPRESSED.isSet(serializedPage.getPageCodecMarkers()), !compression.equals("NONE"));
+                writeSerializedPage(output, serializedPage);
+            }
+
+            List<List<Object>> rows = new BinaryDataDecoder(columns).decode(output.slice(), compression);
+            assertEquals(rows.size(), 3000);
+            for (int i = 0; i < rows.size(); i++) {
+                assertEquals(rows.get(i), ImmutableList.of((long) i, "name_" + (i % 10)));
+            }
+        }
+    }
+
+    @Test
+    public void testUnsupportedTypes()
+    {
+        assertFalse(BinaryDataDecoder.isSupported(ImmutableList.of(new Column("a", BIGINT), new Column("b", TIMESTAMP))));
+        assertFalse(BinaryDataDecoder.isSupported(ImmutableList.of(new Column("a", new ArrayType(BIGINT)))));
+    }
+
+    private static Page createPage(int start, int end)
+    {
+        BlockBuilder ids = BIGINT.createBlockBuilder(null, end - start);
+        BlockBuilder names = VARCHAR.createBlockBuilder(null, end - start);
+        for (int i = start; i < end; i++) {
+            BIGINT.writeLong(ids, i);
+            VARCHAR.writeSlice(names, utf8Slice("name_" + (i % 10)));
+        }
+        return new Page(ids.build(), names.build());
+    }
+
+    private static String encode(Page page)
+    {
+        DynamicSliceOutput output = new DynamicSliceOutput(1000);
+        writeSerializedPage(output, PAGES_SERDE.serialize(page));
+        return Base64.getEncoder().encodeToString(output.slice().getBytes());
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.airlift.units.Duration;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.DynamicSliceOutput;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_BUFFER_COMPLETE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_NEXT_TOKEN;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_TASK_INSTANCE_ID;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPage;
+import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
+import static java.net.HttpURLConnection.HTTP_NO_CONTENT;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestDirectResultsReader
+{
+    private static final List<Column> COLUMNS = ImmutableList.of(new Column("id", BIGINT));
+    private static final PagesSerde PAGES_SERDE = BinaryDataDecoder.createPagesSerde("NONE");
+
+    private OkHttpClient httpClient;
+    private final List<MockWebServer> workers = new ArrayList<>();
+
+    @BeforeMethod
+    public void setUp()
+    {
+        httpClient = new OkHttpClient();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        for (MockWebServer worker : workers) {
+            worker.close();
+        }
+        workers.clear();
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+
+    @Test
+    public void testMultipleWorkers()
+            throws Exception
+    {
+        OutputBuffer first = new OutputBuffer(0, 3, true);
+        OutputBuffer second = new OutputBuffer(3, 5, true);
+        DirectResultsReader reader = createReader();
+        reader.addSegments(ImmutableList.of(startWorker(first), startWorker(second)));
+
+        List<List<Object>> rows = readAll(reader);
+        assertNull(reader.getFailure());
+        Set<Object> ids = new HashSet<>();
+        rows.forEach(row -> ids.add(row.get(0)));
+        assertEquals(rows.size(), 800);
+        assertEquals(ids.size(), 800);
+
+        // each buffer is acknowledged as it is read, and destroyed once it is complete
+        assertTrue(first.awaitDestroyed());
+        assertTrue(second.awaitDestroyed());
+        assertTrue(first.awaitAcknowledged(3));
+        assertTrue(second.awaitAcknowledged(5));
+        reader.close();
+    }
+
+    @Test
+    public void testBufferedRowsAreBounded()
+            throws Exception
+    {
+        OutputBuffer buffer = new OutputBuffer(0, 100, true);
+        DirectResultsReader reader = createReader();
+        reader.addSegments(ImmutableList.of(startWorker(buffer)));
+
+        // the segment stops fetching while the rows are not consumed
+        MILLISECONDS.sleep(500);
+        assertTrue(buffer.getPageRequestCount() <= 17, "fetched " + buffer.getPageRequestCount() + " pages");
+
+        assertEquals(readAll(reader).size(), 100 * 100);
+        assertTrue(buffer.awaitDestroyed());
+        reader.close();
+    }
+
+    @Test
+    public void testInvalidSegment()
+            throws Exception
+    {
+        MockWebServer worker = new MockWebServer();
+        workers.add(worker);
+        worker.enqueue(new MockResponse().setResponseCode(HTTP_FORBIDDEN));
+        worker.start();
+
+        DirectResultsReader reader = createReader();
+        reader.addSegments(ImmutableList.of(worker.url("/v1/results/20261019_000000_00000_aaaaa.0.0.0.0/0/invalid").uri()));
+        readAll(reader);
+        assertNotNull(reader.getFailure());
+        assertTrue(reader.getFailure().getMessage().contains("HTTP 403"), reader.getFailure().getMessage());
+        // the segment is not retried
+        assertEquals(worker.getRequestCount(), 1);
+        reader.close();
+    }
+
+    @Test
+    public void testCloseDestroysBuffers()
+            throws Exception
+    {
+        OutputBuffer buffer = new OutputBuffer(0, 1, false);
+        DirectResultsReader reader = createReader();
+        reader.addSegments(ImmutableList.of(startWorker(buffer)));
+
+        assertNotNull(reader.poll(new Duration(10, SECONDS)));
+        assertFalse(reader.isFinished());
+        assertFalse(buffer.isDestroyed());
+
+        reader.close();
+        assertTrue(buffer.awaitDestroyed());
+    }
+
+    private DirectResultsReader createReader()
+    {
+        return new DirectResultsReader(httpClient, COLUMNS, "NONE", new Duration(10, SECONDS));
+    }
+
+    private URI startWorker(OutputBuffer buffer)
+            throws IOException
+    {
+        MockWebServer worker = new MockWebServer();
+        workers.add(worker);
+        worker.setDispatcher(buffer);
+        worker.start();
+        return worker.url("/v1/results/20261019_000000_00000_aaaaa.0.0.0.0/0/signature").uri();
+    }
+
+    private static List<List<Object>> readAll(DirectResultsReader reader)
+            throws InterruptedException
+    {
+        List<List<Object>> rows = new ArrayList<>();
+        long deadline = System.nanoTime() + MINUTES.toNanos(1);
+        while (!reader.isFinished()) {
+            assertTrue(System.nanoTime() < deadline, "results are not read");
+            List<List<Object>> batch = reader.poll(new Duration(100, MILLISECONDS));
+            if (batch != null) {
+                rows.addAll(batch);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * An output buffer of a worker, which returns a page of 100 rows for each token.
+     */
+    private static class OutputBuffer
+            extends Dispatcher
+    {
+        private final int firstPage;
+        private final int pageCount;
+        private final boolean complete;
+        private final AtomicInteger pageRequests = new AtomicInteger();
+        private final AtomicInteger acknowledgedToken = new AtomicInteger();
+        private final CountDownLatch destroyed = new CountDownLatch(1);
+
+        public OutputBuffer(int firstPage, int pageCount, boolean complete)
+        {
+            this.firstPage = firstPage;
+            this.pageCount = pageCount;
+            this.complete = complete;
+        }
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request)
+        {
+            List<String> path = request.getRequestUrl().pathSegments();
+            if (request.getMethod().equals("DELETE")) {
+                destroyed.countDown();
+                return new MockResponse().setResponseCode(HTTP_NO_CONTENT);
+            }
+            if (path.get(path.size() - 1).equals("acknowledge")) {
+                acknowledgedToken.accumulateAndGet(Integer.parseInt(path.get(path.size() - 2)), Math::max);
+                return new MockResponse().setResponseCode(HTTP_NO_CONTENT);
+            }
+
+            pageRequests.incrementAndGet();
+            int token = Integer.parseInt(path.get(path.size() - 1));
+            MockResponse response = new MockResponse()
+                    .addHeader(PRESTO_TASK_INSTANCE_ID, "instance");
+            if (token < pageCount) {
+                return response.setResponseCode(HTTP_OK)
+                        .addHeader(PRESTO_PAGE_NEXT_TOKEN, token + 1)
+                        .addHeader(PRESTO_BUFFER_COMPLETE, false)
+                        .setBody(new Buffer().write(serializePage(firstPage + token)));
+            }
+            // a worker waits for pages before it responds without any
+            return response.setResponseCode(HTTP_NO_CONTENT)
+                    .addHeader(PRESTO_PAGE_NEXT_TOKEN, token)
+                    .addHeader(PRESTO_BUFFER_COMPLETE, complete)
+                    .setHeadersDelay(complete ? 0 : 50, MILLISECONDS);
+        }
+
+        public int getPageRequestCount()
+        {
+            return pageRequests.get();
+        }
+
+        public boolean awaitAcknowledged(int token)
+                throws InterruptedException
+        {
+            long deadline = System.nanoTime() + SECONDS.toNanos(10);
+            while (acknowledgedToken.get() < token && System.nanoTime() < deadline) {
+                MILLISECONDS.sleep(10);
+            }
+            return acknowledgedToken.get() == token;
+        }
+
+        public boolean isDestroyed()
+        {
+            return destroyed.getCount() == 0;
+        }
+
+        public boolean awaitDestroyed()
+                throws InterruptedException
+        {
+            return destroyed.await(10, SECONDS);
+        }
+
+        private static byte[] serializePage(int page)
+        {
+            BlockBuilder ids = BIGINT.createBlockBuilder(null, 100);
+            for (int i = 0; i < 100; i++) {
+                BIGINT.writeLong(ids, page * 100L + i);
+            }
+            DynamicSliceOutput output = new DynamicSliceOutput(1000);
+            writeSerializedPage(output, PAGES_SERDE.serialize(new Page(ids.build())));
+            return output.slice().getBytes();
+        }
+    }
+}
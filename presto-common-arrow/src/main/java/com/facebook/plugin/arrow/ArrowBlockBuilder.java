@@ -15,7 +15,13 @@ package com.facebook.plugin.arrow;
 
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.ByteArrayBlock;
 import com.facebook.presto.common.block.DictionaryBlock;
+import com.facebook.presto.common.block.Int128ArrayBlock;
+import com.facebook.presto.common.block.IntArrayBlock;
+import com.facebook.presto.common.block.LongArrayBlock;
+import com.facebook.presto.common.block.ShortArrayBlock;
+import com.facebook.presto.common.block.VariableWidthBlock;
 import com.facebook.presto.common.type.ArrayType;
 import com.facebook.presto.common.type.BigintType;
 import com.facebook.presto.common.type.BooleanType;
@@ -40,6 +46,9 @@ import com.google.common.base.CharMatcher;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import jakarta.inject.Inject;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.BaseVariableWidthVector;
 import org.apache.arrow.vector.BigIntVector;
 import org.apache.arrow.vector.BitVector;
 import org.apache.arrow.vector.DateDayVector;
@@ -73,6 +82,7 @@ import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Field;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalTime;
@@ -85,6 +95,7 @@ import static com.facebook.presto.common.Utils.checkArgument;
 import static com.facebook.presto.common.type.TypeSignature.parseTypeSignature;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.lang.String.format;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static java.util.Objects.requireNonNull;
 
 public class ArrowBlockBuilder
@@ -103,17 +114,119 @@ public class ArrowBlockBuilder
             Dictionary dictionary = dictionaryProvider.lookup(vector.getField().getDictionary().getId());
             if (dictionary != null) {
                 Type prestoType = getPrestoTypeFromArrowField(dictionary.getVector().getField());
-                BlockBuilder dictionaryBuilder = prestoType.createBlockBuilder(null, vector.getValueCount());
-                assignBlockFromValueVector(dictionary.getVector(), prestoType, dictionaryBuilder, 0, dictionary.getVector().getValueCount());
-                return buildDictionaryBlock(vector, dictionaryBuilder.build());
+                return buildDictionaryBlock(vector, buildBlockFromValueVector(dictionary.getVector(), prestoType));
             }
         }
 
+        return buildBlockFromValueVector(vector, type);
+    }
+
+    private Block buildBlockFromValueVector(ValueVector vector, Type type)
+    {
+        Optional<Block> block = copyBlockFromVectorBuffers(vector, type);
+        if (block.isPresent()) {
+            return block.get();
+        }
+
         BlockBuilder builder = type.createBlockBuilder(null, vector.getValueCount());
         assignBlockFromValueVector(vector, type, builder, 0, vector.getValueCount());
         return builder.build();
     }
 
+    /**
+     * Builds the block of the vectors whose values are stored in the same little-endian layout as in
+     * the block, with one bulk copy of the value buffer, rather than writing the values one by one.
+     * The buffers are copied because the Flight stream reuses them for the next record batch.
+     */
+    private static Optional<Block> copyBlockFromVectorBuffers(ValueVector vector, Type type)
+    {
+        int positionCount = vector.getValueCount();
+        if (positionCount == 0) {
+            return Optional.empty();
+        }
+        if ((vector instanceof BigIntVector && type.equals(BigintType.BIGINT)) ||
+                (vector instanceof Float8Vector && type.equals(DoubleType.DOUBLE)) ||
+                (vector instanceof TimeStampMilliVector && type.equals(TimestampType.TIMESTAMP))) {
+            long[] values = new long[positionCount];
+            getValueBuffer((BaseFixedWidthVector) vector, Long.BYTES).asLongBuffer().get(values);
+            return Optional.of(new LongArrayBlock(positionCount, getValueIsNull(vector), values));
+        }
+        if ((vector instanceof IntVector && type.equals(IntegerType.INTEGER)) ||
+                (vector instanceof Float4Vector && type.equals(RealType.REAL)) ||
+                (vector instanceof DateDayVector && type.equals(DateType.DATE))) {
+            int[] values = new int[positionCount];
+            getValueBuffer((BaseFixedWidthVector) vector, Integer.BYTES).asIntBuffer().get(values);
+            return Optional.of(new IntArrayBlock(positionCount, getValueIsNull(vector), values));
+        }
+        if (vector instanceof SmallIntVector && type.equals(SmallintType.SMALLINT)) {
+            short[] values = new short[positionCount];
+            getValueBuffer((BaseFixedWidthVector) vector, Short.BYTES).asShortBuffer().get(values);
+            return Optional.of(new ShortArrayBlock(positionCount, getValueIsNull(vector), values));
+        }
+        if (vector instanceof TinyIntVector && type.equals(TinyintType.TINYINT)) {
+            byte[] values = new byte[positionCount];
+            getValueBuffer((BaseFixedWidthVector) vector, Byte.BYTES).get(values);
+            return Optional.of(new ByteArrayBlock(positionCount, getValueIsNull(vector), values));
+        }
+        if (vector instanceof DecimalVector && type instanceof DecimalType) {
+            return Optional.of(copyBlockFromDecimalVector((DecimalVector) vector, (DecimalType) type));
+        }
+        if ((vector instanceof VarCharVector && type instanceof VarcharType) ||
+                (vector instanceof VarBinaryVector && type instanceof VarbinaryType)) {
+            BaseVariableWidthVector variableWidthVector = (BaseVariableWidthVector) vector;
+            int[] offsets = new int[positionCount + 1];
+            variableWidthVector.getOffsetBuffer().nioBuffer(0, offsets.length * Integer.BYTES).order(LITTLE_ENDIAN).asIntBuffer().get(offsets);
+            byte[] data = new byte[offsets[positionCount]];
+            variableWidthVector.getDataBuffer().getBytes(0, data);
+            return Optional.of(new VariableWidthBlock(positionCount, Slices.wrappedBuffer(data), offsets, getValueIsNull(vector)));
+        }
+        return Optional.empty();
+    }
+
+    private static Block copyBlockFromDecimalVector(DecimalVector vector, DecimalType type)
+    {
+        // Arrow stores the decimals as 128-bit little-endian two's complement integers
+        int positionCount = vector.getValueCount();
+        long[] values = new long[positionCount * 2];
+        getValueBuffer(vector, DecimalVector.TYPE_WIDTH).asLongBuffer().get(values);
+        if (type.isShort()) {
+            long[] shortValues = new long[positionCount];
+            for (int position = 0; position < positionCount; position++) {
+                shortValues[position] = values[position * 2];
+            }
+            return new LongArrayBlock(positionCount, getValueIsNull(vector), shortValues);
+        }
+
+        // while Presto stores the long decimals as the magnitude and the sign bit
+        for (int position = 0; position < positionCount; position++) {
+            long low = values[position * 2];
+            long high = values[position * 2 + 1];
+            if (high < 0) {
+                values[position * 2] = -low;
+                values[position * 2 + 1] = (~high + (low == 0 ? 1 : 0)) | Long.MIN_VALUE;
+            }
+        }
+        return new Int128ArrayBlock(positionCount, getValueIsNull(vector), values);
+    }
+
+    private static ByteBuffer getValueBuffer(BaseFixedWidthVector vector, int valueWidth)
+    {
+        ArrowBuf dataBuffer = vector.getDataBuffer();
+        return dataBuffer.nioBuffer(0, vector.getValueCount() * valueWidth).order(LITTLE_ENDIAN);
+    }
+
+    private static Optional<boolean[]> getValueIsNull(ValueVector vector)
+    {
+        if (vector.getNullCount() == 0) {
+            return Optional.empty();
+        }
+        boolean[] valueIsNull = new boolean[vector.getValueCount()];
+        for (int position = 0; position < valueIsNull.length; position++) {
+            valueIsNull[position] = vector.isNull(position);
+        }
+        return Optional.of(valueIsNull);
+    }
+
     public Type getPrestoTypeFromArrowField(Field field)
     {
         switch (field.getType().getTypeID()) {
@@ -196,12 +309,10 @@ public class ArrowBlockBuilder
     private DictionaryBlock buildDictionaryBlock(FieldVector fieldVector, Block dictionaryblock)
     {
         if (fieldVector instanceof IntVector) {
-            // Get the Arrow indices vector
+            // Copy the Arrow indices vector, which has the layout of the ids
             IntVector indicesVector = (IntVector) fieldVector;
             int[] ids = new int[indicesVector.getValueCount()];
-            for (int i = 0; i < indicesVector.getValueCount(); i++) {
-                ids[i] = indicesVector.get(i);
-            }
+            getValueBuffer(indicesVector, Integer.BYTES).asIntBuffer().get(ids);
             return new DictionaryBlock(ids.length, dictionaryblock, ids);
         }
         else if (fieldVector instanceof SmallIntVector) {
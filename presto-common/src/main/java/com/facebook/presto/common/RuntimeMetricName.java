@@ -75,6 +75,12 @@ public class RuntimeMetricName
     public static final String TASK_UPDATE_ROUND_TRIP_TIME = "taskUpdateRoundTripTime";
     public static final String TASK_UPDATE_SERIALIZED_CPU_TIME_NANOS = "taskUpdateSerializedCpuNanos";
     public static final String TASK_PLAN_SERIALIZED_CPU_TIME_NANOS = "taskPlanSerializedCpuNanos";
+    // Time spent generating the classes that the task compiled while it was planned, and their size. Classes served from the compiler caches are not counted.
+    public static final String TASK_COMPILE_TIME_NANOS = "taskCompileTimeNanos";
+    public static final String TASK_GENERATED_BYTECODE_BYTES = "taskGeneratedBytecodeBytes";
+    // Wall time taken to build the hash table of a join partition, and the number of threads that built it
+    public static final String JOIN_HASH_BUILD_WALL_TIME_NANOS = "joinHashBuildWallTimeNanos";
+    public static final String JOIN_HASH_BUILD_PARALLELISM = "joinHashBuildParallelism";
     // Time for event loop to execute a method
     public static final String EVENT_LOOP_METHOD_EXECUTION_CPU_TIME_NANOS = "eventLoopMethodExecutionCpuNanos";
     // Time taken for a read call to storage
@@ -13,13 +13,19 @@
  */
 package com.facebook.presto.delta;
 
+import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.TypeSignature;
+import com.facebook.presto.hive.CacheStatsMBean;
 import com.facebook.presto.hive.HdfsContext;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.StandardErrorCode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.delta.kernel.ScanBuilder;
 import io.delta.kernel.Snapshot;
 import io.delta.kernel.Table;
 import io.delta.kernel.data.FilteredColumnarBatch;
@@ -27,24 +33,40 @@ import io.delta.kernel.data.Row;
 import io.delta.kernel.defaults.engine.DefaultEngine;
 import io.delta.kernel.engine.Engine;
 import io.delta.kernel.exceptions.TableNotFoundException;
+import io.delta.kernel.expressions.Predicate;
 import io.delta.kernel.internal.InternalScanFileUtils;
 import io.delta.kernel.internal.SnapshotImpl;
+import io.delta.kernel.internal.checkpoints.Checkpointer;
 import io.delta.kernel.utils.CloseableIterator;
+import io.delta.kernel.utils.FileStatus;
 import jakarta.inject.Inject;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
+import static com.facebook.presto.delta.DeltaPredicateUtils.toDataSkippingPredicate;
+import static com.facebook.presto.delta.DeltaSessionProperties.isDataSkippingEnabled;
 import static com.facebook.presto.delta.DeltaTable.DataFormat.PARQUET;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static io.delta.kernel.internal.util.FileNames.checkpointVersion;
+import static io.delta.kernel.internal.util.FileNames.deltaVersion;
+import static io.delta.kernel.internal.util.FileNames.isCheckpointFile;
+import static io.delta.kernel.internal.util.FileNames.isPublishedDeltaFile;
+import static io.delta.kernel.internal.util.FileNames.listingPrefix;
 import static java.lang.String.format;
 import static java.util.Locale.US;
 import static java.util.Objects.requireNonNull;
@@ -55,12 +77,28 @@ import static java.util.Objects.requireNonNull;
 public class DeltaClient
 {
     private static final String TABLE_NOT_FOUND_ERROR_TEMPLATE = "Delta table (%s.%s) no longer exists.";
+    private static final String DELTA_LOG_DIRECTORY = "_delta_log";
     private final HdfsEnvironment hdfsEnvironment;
+    // snapshots of a given version are immutable, so they are shared by queries reading the same version
+    private final Cache<SnapshotKey, Snapshot> snapshotCache;
+    private final CacheStatsMBean snapshotCacheStats;
 
     @Inject
-    public DeltaClient(HdfsEnvironment hdfsEnvironment)
+    public DeltaClient(HdfsEnvironment hdfsEnvironment, DeltaConfig config)
     {
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
+        this.snapshotCache = CacheBuilder.newBuilder()
+                .maximumSize(requireNonNull(config, "config is null").getSnapshotCacheMaximumSize())
+                .recordStats()
+                .build();
+        this.snapshotCacheStats = new CacheStatsMBean(snapshotCache);
+    }
+
+    @Managed
+    @Nested
+    public CacheStatsMBean getSnapshotCacheStats()
+    {
+        return snapshotCacheStats;
     }
 
     /**
@@ -88,8 +126,10 @@ public class DeltaClient
         }
 
         Table deltaTable = loadDeltaTable(location.toString(), deltaEngine.get());
-        Snapshot snapshot = getSnapshot(deltaTable, deltaEngine.get(), schemaTableName, snapshotId,
+        Snapshot snapshot = getSnapshot(deltaTable, deltaEngine.get(), tableLocation, schemaTableName, snapshotId,
                 snapshotAsOfTimestampMillis);
+        // the splits of the query are listed from the same snapshot version
+        snapshotCache.put(new SnapshotKey(tableLocation, snapshot.getVersion()), snapshot);
         return Optional.of(new DeltaTable(
                 schemaTableName.getSchemaName(),
                 schemaTableName.getTableName(),
@@ -101,6 +141,7 @@ public class DeltaClient
     private Snapshot getSnapshot(
             Table deltaTable,
             Engine deltaEngine,
+            String tableLocation,
             SchemaTableName schemaTableName,
             Optional<Long> snapshotId,
             Optional<Long> snapshotAsOfTimestampMillis)
@@ -111,20 +152,27 @@ public class DeltaClient
         // version when the underlying delta table is changing while the query is running.
         Snapshot snapshot;
         if (snapshotId.isPresent()) {
-            snapshot = getSnapshotById(deltaTable, deltaEngine, snapshotId.get(), schemaTableName);
+            snapshot = getSnapshotById(deltaTable, deltaEngine, tableLocation, snapshotId.get(), schemaTableName);
         }
         else if (snapshotAsOfTimestampMillis.isPresent()) {
             snapshot = getSnapshotAsOfTimestamp(deltaTable, deltaEngine,
                     snapshotAsOfTimestampMillis.get(), schemaTableName);
         }
         else {
-            try {
-                snapshot = deltaTable.getLatestSnapshot(deltaEngine); // get the latest snapshot
+            // finding the latest version only lists the log, so the snapshot of an unchanged table is not loaded again
+            Optional<Long> latestVersion = getLatestVersion(deltaEngine, tableLocation);
+            if (latestVersion.isPresent()) {
+                snapshot = getSnapshotById(deltaTable, deltaEngine, tableLocation, latestVersion.get(), schemaTableName);
             }
-            catch (TableNotFoundException e) {
-                throw new PrestoException(StandardErrorCode.NOT_FOUND,
-                        format("Could not move to latest snapshot on table '%s.%s'", schemaTableName.getSchemaName(),
-                                schemaTableName.getTableName()), e);
+            else {
+                try {
+                    snapshot = deltaTable.getLatestSnapshot(deltaEngine); // get the latest snapshot
+                }
+                catch (TableNotFoundException e) {
+                    throw new PrestoException(StandardErrorCode.NOT_FOUND,
+                            format("Could not move to latest snapshot on table '%s.%s'", schemaTableName.getSchemaName(),
+                                    schemaTableName.getTableName()), e);
+                }
             }
         }
 
@@ -139,11 +187,12 @@ public class DeltaClient
     }
 
     /**
-     * Get the list of files corresponding to the given Delta table.
+     * Get the list of files corresponding to the given Delta table. Unless data skipping is disabled, files whose
+     * column statistics do not match the predicate are skipped.
      *
      * @return Closeable iterator of files. It is responsibility of the caller to close the iterator.
      */
-    public CloseableIterator<FilteredColumnarBatch> listFiles(ConnectorSession session, DeltaTable deltaTable)
+    public CloseableIterator<FilteredColumnarBatch> listFiles(ConnectorSession session, DeltaTable deltaTable, TupleDomain<DeltaColumnHandle> predicate)
     {
         requireNonNull(deltaTable, "deltaTable is null");
         checkArgument(deltaTable.getSnapshotId().isPresent(), "Snapshot id is missing from the Delta table");
@@ -161,9 +210,19 @@ public class DeltaClient
         }
 
         try {
-            return sourceTable.getSnapshotAsOfVersion(deltaEngine.get(),
-                            deltaTable.getSnapshotId().get()).getScanBuilder().build()
-                    .getScanFiles(deltaEngine.get());
+            Snapshot snapshot = getSnapshotById(
+                    sourceTable,
+                    deltaEngine.get(),
+                    deltaTable.getTableLocation(),
+                    deltaTable.getSnapshotId().get(),
+                    new SchemaTableName(deltaTable.getSchemaName(), deltaTable.getTableName()));
+            ScanBuilder scanBuilder = snapshot.getScanBuilder();
+            Optional<Predicate> dataSkippingPredicate = isDataSkippingEnabled(session) ?
+                    toDataSkippingPredicate(predicate, snapshot.getSchema()) : Optional.empty();
+            if (dataSkippingPredicate.isPresent()) {
+                scanBuilder = scanBuilder.withFilter(dataSkippingPredicate.get());
+            }
+            return scanBuilder.build().getScanFiles(deltaEngine.get());
         }
         catch (TableNotFoundException e) {
             throw new PrestoException(StandardErrorCode.NOT_FOUND,
@@ -198,7 +257,53 @@ public class DeltaClient
         return Table.forPath(deltaEngine, tableLocation);
     }
 
-    private static Snapshot getSnapshotById(Table deltaTable, Engine deltaEngine, long snapshotId, SchemaTableName schemaTableName)
+    /**
+     * Returns the latest version of the Delta table, which is the highest version of the commit and checkpoint files
+     * in the log from the last checkpoint on, or empty if the table has no log.
+     */
+    private static Optional<Long> getLatestVersion(Engine deltaEngine, String tableLocation)
+    {
+        io.delta.kernel.internal.fs.Path logPath = new io.delta.kernel.internal.fs.Path(tableLocation, DELTA_LOG_DIRECTORY);
+        long startVersion = new Checkpointer(logPath).readLastCheckpointFile(deltaEngine)
+                .map(checkpoint -> checkpoint.version)
+                .orElse(0L);
+        long latestVersion = -1;
+        try (CloseableIterator<FileStatus> files = deltaEngine.getFileSystemClient().listFrom(listingPrefix(logPath, startVersion))) {
+            while (files.hasNext()) {
+                String path = files.next().getPath();
+                if (isPublishedDeltaFile(path)) {
+                    latestVersion = Math.max(latestVersion, deltaVersion(path));
+                }
+                else if (isCheckpointFile(path)) {
+                    latestVersion = Math.max(latestVersion, checkpointVersion(path));
+                }
+            }
+        }
+        catch (FileNotFoundException e) {
+            return Optional.empty();
+        }
+        catch (IOException e) {
+            throw new PrestoException(DeltaErrorCode.DELTA_ERROR_LOADING_METADATA,
+                    format("Failed to list the Delta log of '%s'", tableLocation), e);
+        }
+        return latestVersion < 0 ? Optional.empty() : Optional.of(latestVersion);
+    }
+
+    private Snapshot getSnapshotById(Table deltaTable, Engine deltaEngine, String tableLocation, long snapshotId, SchemaTableName schemaTableName)
+    {
+        try {
+            return snapshotCache.get(
+                    new SnapshotKey(tableLocation, snapshotId),
+                    () -> loadSnapshotById(deltaTable, deltaEngine, snapshotId, schemaTableName));
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfUnchecked(e.getCause());
+            throw new PrestoException(DeltaErrorCode.DELTA_ERROR_LOADING_SNAPSHOT,
+                    format("Failed to load snapshot version %d of Delta table '%s'", snapshotId, schemaTableName), e.getCause());
+        }
+    }
+
+    private static Snapshot loadSnapshotById(Table deltaTable, Engine deltaEngine, long snapshotId, SchemaTableName schemaTableName)
     {
         try {
             return deltaTable.getSnapshotAsOfVersion(deltaEngine, snapshotId);
@@ -278,4 +383,37 @@ public class DeltaClient
             throw new UncheckedIOException("Could not close columnar batch row", e);
         }
     }
+
+    private static final class SnapshotKey
+    {
+        private final String tableLocation;
+        private final long version;
+
+        SnapshotKey(String tableLocation, long version)
+        {
+            this.tableLocation = requireNonNull(tableLocation, "tableLocation is null");
+            this.version = version;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(tableLocation, version);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if ((obj == null) || (getClass() != obj.getClass())) {
+                return false;
+            }
+
+            SnapshotKey other = (SnapshotKey) obj;
+            return Objects.equals(this.tableLocation, other.tableLocation) &&
+                    this.version == other.version;
+        }
+    }
 }
@@ -14,6 +14,8 @@
 package com.facebook.presto.delta;
 
 import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
 public class DeltaConfig
@@ -21,6 +23,8 @@ public class DeltaConfig
     private int maxSplitsBatchSize = 200;
     private boolean parquetDereferencePushdownEnabled = true;
     private boolean caseSensitivePartitionsEnabled = true;
+    private boolean dataSkippingEnabled = true;
+    private long snapshotCacheMaximumSize = 1000;
 
     @NotNull
     public boolean isParquetDereferencePushdownEnabled()
@@ -58,4 +62,31 @@ public class DeltaConfig
         this.caseSensitivePartitionsEnabled = caseSensitivePartitionsEnabled;
         return this;
     }
+
+    public boolean isDataSkippingEnabled()
+    {
+        return dataSkippingEnabled;
+    }
+
+    @Config("delta.data-skipping-enabled")
+    @ConfigDescription("Skip data files using the column statistics in the Delta log")
+    public DeltaConfig setDataSkippingEnabled(boolean dataSkippingEnabled)
+    {
+        this.dataSkippingEnabled = dataSkippingEnabled;
+        return this;
+    }
+
+    @Min(0)
+    public long getSnapshotCacheMaximumSize()
+    {
+        return snapshotCacheMaximumSize;
+    }
+
+    @Config("delta.snapshot-cache-maximum-size")
+    @ConfigDescription("Maximum number of loaded table snapshots, including their parsed checkpoints, cached on the coordinator")
+    public DeltaConfig setSnapshotCacheMaximumSize(long snapshotCacheMaximumSize)
+    {
+        this.snapshotCacheMaximumSize = snapshotCacheMaximumSize;
+        return this;
+    }
 }
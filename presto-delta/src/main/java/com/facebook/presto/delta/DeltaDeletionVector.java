@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.delta;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+import java.util.OptionalInt;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Descriptor of the deletion vector of a data file, as recorded in the {@code deletionVector} field of its
+ * {@code add} action. The deleted rows are read on the worker with {@link DeltaDeletionVectors}.
+ */
+public final class DeltaDeletionVector
+{
+    public static final String STORAGE_TYPE_INLINE = "i";
+    public static final String STORAGE_TYPE_UUID_RELATIVE_PATH = "u";
+    public static final String STORAGE_TYPE_ABSOLUTE_PATH = "p";
+
+    private final String storageType;
+    private final String pathOrInlineDv;
+    private final OptionalInt offset;
+    private final int sizeInBytes;
+    private final long cardinality;
+
+    @JsonCreator
+    public DeltaDeletionVector(
+            @JsonProperty("storageType") String storageType,
+            @JsonProperty("pathOrInlineDv") String pathOrInlineDv,
+            @JsonProperty("offset") OptionalInt offset,
+            @JsonProperty("sizeInBytes") int sizeInBytes,
+            @JsonProperty("cardinality") long cardinality)
+    {
+        checkArgument(sizeInBytes >= 0, "sizeInBytes must be non-negative");
+        checkArgument(cardinality >= 0, "cardinality must be non-negative");
+
+        this.storageType = requireNonNull(storageType, "storageType is null");
+        this.pathOrInlineDv = requireNonNull(pathOrInlineDv, "pathOrInlineDv is null");
+        this.offset = requireNonNull(offset, "offset is null");
+        this.sizeInBytes = sizeInBytes;
+        this.cardinality = cardinality;
+    }
+
+    @JsonProperty
+    public String getStorageType()
+    {
+        return storageType;
+    }
+
+    @JsonProperty
+    public String getPathOrInlineDv()
+    {
+        return pathOrInlineDv;
+    }
+
+    @JsonProperty
+    public OptionalInt getOffset()
+    {
+        return offset;
+    }
+
+    @JsonProperty
+    public int getSizeInBytes()
+    {
+        return sizeInBytes;
+    }
+
+    @JsonProperty
+    public long getCardinality()
+    {
+        return cardinality;
+    }
+
+    public boolean isInline()
+    {
+        return STORAGE_TYPE_INLINE.equals(storageType);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(storageType, pathOrInlineDv, offset, sizeInBytes, cardinality);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        DeltaDeletionVector other = (DeltaDeletionVector) obj;
+        return Objects.equals(this.storageType, other.storageType) &&
+                Objects.equals(this.pathOrInlineDv, other.pathOrInlineDv) &&
+                Objects.equals(this.offset, other.offset) &&
+                this.sizeInBytes == other.sizeInBytes &&
+                this.cardinality == other.cardinality;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("storageType", storageType)
+                .add("pathOrInlineDv", pathOrInlineDv)
+                .add("offset", offset)
+                .add("sizeInBytes", sizeInBytes)
+                .add("cardinality", cardinality)
+                .toString();
+    }
+}
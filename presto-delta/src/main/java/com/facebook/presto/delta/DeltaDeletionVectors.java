@@ -0,0 +1,179 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.delta;
+
+import com.facebook.presto.spi.PrestoException;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+import static com.facebook.presto.delta.DeltaDeletionVector.STORAGE_TYPE_ABSOLUTE_PATH;
+import static com.facebook.presto.delta.DeltaDeletionVector.STORAGE_TYPE_INLINE;
+import static com.facebook.presto.delta.DeltaDeletionVector.STORAGE_TYPE_UUID_RELATIVE_PATH;
+import static com.facebook.presto.delta.DeltaErrorCode.DELTA_BAD_DATA;
+import static com.facebook.presto.delta.DeltaErrorCode.DELTA_CANNOT_OPEN_SPLIT;
+import static java.lang.String.format;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * Reads Delta deletion vectors, which are Roaring bitmaps of the deleted row indexes of a data file.
+ * Small deletion vectors are inlined in the Delta log as Z85 encoded strings, larger ones are stored
+ * in deletion vector files next to the data files.
+ */
+public final class DeltaDeletionVectors
+{
+    // magic number of a bitmap array in the portable 64-bit Roaring format
+    private static final int PORTABLE_ROARING_BITMAP_MAGIC_NUMBER = 1681511377;
+    private static final int ENCODED_UUID_LENGTH = 20;
+    private static final String Z85_ALPHABET = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ.-:+=^!/*?&<>()[]{}@%$#";
+    private static final byte[] Z85_DECODE_TABLE = new byte[128];
+
+    static {
+        Arrays.fill(Z85_DECODE_TABLE, (byte) -1);
+        for (int i = 0; i < Z85_ALPHABET.length(); i++) {
+            Z85_DECODE_TABLE[Z85_ALPHABET.charAt(i)] = (byte) i;
+        }
+    }
+
+    private DeltaDeletionVectors()
+    {
+    }
+
+    /**
+     * Returns the row indexes deleted by the deletion vector of a data file of the table at {@code tableLocation}.
+     */
+    public static Roaring64NavigableMap readDeletedRows(FileSystem fileSystem, String tableLocation, DeltaDeletionVector deletionVector)
+    {
+        byte[] serializedBitmap;
+        switch (deletionVector.getStorageType()) {
+            case STORAGE_TYPE_INLINE:
+                serializedBitmap = Arrays.copyOf(decodeZ85(deletionVector.getPathOrInlineDv()), deletionVector.getSizeInBytes());
+                break;
+            case STORAGE_TYPE_UUID_RELATIVE_PATH:
+            case STORAGE_TYPE_ABSOLUTE_PATH:
+                serializedBitmap = readDeletionVectorFile(fileSystem, getDeletionVectorPath(tableLocation, deletionVector), deletionVector);
+                break;
+            default:
+                throw new PrestoException(DELTA_BAD_DATA, format("Unsupported deletion vector storage type: %s", deletionVector.getStorageType()));
+        }
+
+        Roaring64NavigableMap deletedRows = deserializeBitmap(serializedBitmap);
+        if (deletedRows.getLongCardinality() != deletionVector.getCardinality()) {
+            throw new PrestoException(DELTA_BAD_DATA, format(
+                    "Deletion vector %s has %s deleted rows, expected %s",
+                    deletionVector,
+                    deletedRows.getLongCardinality(),
+                    deletionVector.getCardinality()));
+        }
+        return deletedRows;
+    }
+
+    static Path getDeletionVectorPath(String tableLocation, DeltaDeletionVector deletionVector)
+    {
+        String pathOrInlineDv = deletionVector.getPathOrInlineDv();
+        if (deletionVector.getStorageType().equals(STORAGE_TYPE_ABSOLUTE_PATH)) {
+            return new Path(pathOrInlineDv);
+        }
+
+        if (pathOrInlineDv.length() < ENCODED_UUID_LENGTH) {
+            throw new PrestoException(DELTA_BAD_DATA, format("Invalid deletion vector path: %s", pathOrInlineDv));
+        }
+        // the encoded UUID of the file name may be preceded by a random directory prefix
+        int prefixLength = pathOrInlineDv.length() - ENCODED_UUID_LENGTH;
+        ByteBuffer uuid = ByteBuffer.wrap(decodeZ85(pathOrInlineDv.substring(prefixLength)));
+        String fileName = format("deletion_vector_%s.bin", new UUID(uuid.getLong(), uuid.getLong()));
+        if (prefixLength == 0) {
+            return new Path(tableLocation, fileName);
+        }
+        return new Path(new Path(tableLocation, pathOrInlineDv.substring(0, prefixLength)), fileName);
+    }
+
+    private static byte[] readDeletionVectorFile(FileSystem fileSystem, Path path, DeltaDeletionVector deletionVector)
+    {
+        // each deletion vector in the file is stored as its size, the serialized bitmap and a checksum of the bitmap
+        try (FSDataInputStream inputStream = fileSystem.open(path)) {
+            inputStream.seek(deletionVector.getOffset().orElse(1));
+            int size = inputStream.readInt();
+            if (size != deletionVector.getSizeInBytes()) {
+                throw new PrestoException(DELTA_BAD_DATA, format("Deletion vector in %s has size %s, expected %s", path, size, deletionVector.getSizeInBytes()));
+            }
+            byte[] serializedBitmap = new byte[size];
+            inputStream.readFully(serializedBitmap);
+            int checksum = inputStream.readInt();
+
+            CRC32 crc = new CRC32();
+            crc.update(serializedBitmap);
+            if ((int) crc.getValue() != checksum) {
+                throw new PrestoException(DELTA_BAD_DATA, format("Checksum mismatch of deletion vector in %s", path));
+            }
+            return serializedBitmap;
+        }
+        catch (IOException e) {
+            throw new PrestoException(DELTA_CANNOT_OPEN_SPLIT, format("Failed to read deletion vector %s", path), e);
+        }
+    }
+
+    private static Roaring64NavigableMap deserializeBitmap(byte[] serializedBitmap)
+    {
+        if (serializedBitmap.length < Integer.BYTES) {
+            throw new PrestoException(DELTA_BAD_DATA, "Deletion vector is truncated");
+        }
+        int magicNumber = ByteBuffer.wrap(serializedBitmap).order(LITTLE_ENDIAN).getInt();
+        if (magicNumber != PORTABLE_ROARING_BITMAP_MAGIC_NUMBER) {
+            throw new PrestoException(DELTA_BAD_DATA, format("Unsupported deletion vector format: %s", magicNumber));
+        }
+
+        Roaring64NavigableMap bitmap = new Roaring64NavigableMap();
+        try {
+            bitmap.deserializePortable(new DataInputStream(new ByteArrayInputStream(serializedBitmap, Integer.BYTES, serializedBitmap.length - Integer.BYTES)));
+        }
+        catch (IOException e) {
+            throw new PrestoException(DELTA_BAD_DATA, "Invalid deletion vector", e);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Decodes a Z85 string, in which each block of five characters encodes four big-endian bytes.
+     */
+    static byte[] decodeZ85(String encoded)
+    {
+        if (encoded.length() % 5 != 0) {
+            throw new PrestoException(DELTA_BAD_DATA, format("Invalid Z85 encoded deletion vector: %s", encoded));
+        }
+        ByteBuffer decoded = ByteBuffer.allocate(encoded.length() / 5 * 4);
+        for (int block = 0; block < encoded.length(); block += 5) {
+            long value = 0;
+            for (int i = block; i < block + 5; i++) {
+                char character = encoded.charAt(i);
+                int digit = character < Z85_DECODE_TABLE.length ? Z85_DECODE_TABLE[character] : -1;
+                if (digit < 0) {
+                    throw new PrestoException(DELTA_BAD_DATA, format("Invalid Z85 encoded deletion vector: %s", encoded));
+                }
+                value = value * 85 + digit;
+            }
+            decoded.putInt((int) value);
+        }
+        return decoded.array();
+    }
+}
@@ -19,12 +19,15 @@ import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.RunLengthEncodedBlock;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.PrestoException;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
+import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.delta.DeltaColumnHandle.ColumnType.PARTITION;
 import static com.facebook.presto.delta.DeltaErrorCode.DELTA_READ_DATA_ERROR;
 import static java.util.Objects.requireNonNull;
@@ -33,6 +36,7 @@ import static java.util.Objects.requireNonNull;
  * {@link ConnectorPageSource} implementation for Delta tables that prefills
  * partition column blocks and combines them with regular column blocks returned
  * by the underlying file reader {@link ConnectorPageSource} implementation.
+ * Rows deleted by the deletion vector of the file are removed from the pages.
  */
 public class DeltaPageSource
         implements ConnectorPageSource
@@ -40,6 +44,7 @@ public class DeltaPageSource
     private final List<DeltaColumnHandle> columnHandles;
     private final ConnectorPageSource dataPageSource;
     private final Map<String, Block> partitionValues;
+    private final Optional<Roaring64NavigableMap> deletedRows;
 
     /**
      * Create a DeltaPageSource
@@ -47,15 +52,19 @@ public class DeltaPageSource
      * @param columnHandles   List of columns (includes partition and regular) in order for which data needed in output.
      * @param partitionValues Partition values (partition column -> partition value map).
      * @param dataPageSource  Initialized underlying file reader which returns the data for regular columns.
+     * @param deletedRows     Row indexes deleted by the deletion vector of the file. When present, the last block
+     *                        of the pages returned by the data page source holds the row indexes in the file.
      */
     public DeltaPageSource(
             List<DeltaColumnHandle> columnHandles,
             Map<String, Block> partitionValues,
-            ConnectorPageSource dataPageSource)
+            ConnectorPageSource dataPageSource,
+            Optional<Roaring64NavigableMap> deletedRows)
     {
         this.columnHandles = requireNonNull(columnHandles, "columnHandles is null");
         this.partitionValues = requireNonNull(partitionValues, "partitionValues is null");
         this.dataPageSource = requireNonNull(dataPageSource, "dataPageSource is null");
+        this.deletedRows = requireNonNull(deletedRows, "deletedRows is null");
     }
 
     @Override
@@ -66,6 +75,12 @@ public class DeltaPageSource
             if (dataPage == null) {
                 return null; // reader is done
             }
+            if (deletedRows.isPresent()) {
+                dataPage = removeDeletedRows(dataPage, deletedRows.get());
+                if (dataPage == null) {
+                    return null; // all rows of the page are deleted
+                }
+            }
             int positionCount = dataPage.getPositionCount();
 
             int dataColumnIndex = 0;
@@ -93,6 +108,42 @@ public class DeltaPageSource
         }
     }
 
+    private Page removeDeletedRows(Page dataPage, Roaring64NavigableMap deletedRows)
+    {
+        int positionCount = dataPage.getPositionCount();
+        int rowIndexChannel = dataPage.getChannelCount() - 1;
+        Block rowIndexes = dataPage.getBlock(rowIndexChannel);
+        Page page = dataPage.dropColumn(rowIndexChannel);
+
+        // when the rows of a page are consecutive rows of the file, the deleted rows are counted with the ranks of its first and last row
+        long firstRow = BIGINT.getLong(rowIndexes, 0);
+        long lastRow = BIGINT.getLong(rowIndexes, positionCount - 1);
+        if (lastRow - firstRow + 1 == positionCount) {
+            long deletedCount = deletedRows.rankLong(lastRow) - (firstRow == 0 ? 0 : deletedRows.rankLong(firstRow - 1));
+            if (deletedCount == 0) {
+                return page;
+            }
+            if (deletedCount == positionCount) {
+                return null;
+            }
+        }
+
+        int[] retainedPositions = new int[positionCount];
+        int retainedCount = 0;
+        for (int position = 0; position < positionCount; position++) {
+            if (!deletedRows.contains(BIGINT.getLong(rowIndexes, position))) {
+                retainedPositions[retainedCount++] = position;
+            }
+        }
+        if (retainedCount == 0) {
+            return null;
+        }
+        if (retainedCount == positionCount) {
+            return page;
+        }
+        return page.getPositions(retainedPositions, 0, retainedCount);
+    }
+
     private void closeWithSuppression(Throwable throwable)
     {
         requireNonNull(throwable, "throwable is null");
@@ -64,6 +64,7 @@ import org.apache.parquet.io.ColumnIO;
 import org.apache.parquet.io.MessageColumnIO;
 import org.apache.parquet.schema.GroupType;
 import org.apache.parquet.schema.MessageType;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -74,11 +75,13 @@ import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.stream.Collectors;
 
+import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.delta.DeltaColumnHandle.ColumnType.PARTITION;
 import static com.facebook.presto.delta.DeltaColumnHandle.ColumnType.REGULAR;
 import static com.facebook.presto.delta.DeltaColumnHandle.ColumnType.SUBFIELD;
 import static com.facebook.presto.delta.DeltaColumnHandle.getPushedDownSubfield;
 import static com.facebook.presto.delta.DeltaColumnHandle.isPushedDownSubfield;
+import static com.facebook.presto.delta.DeltaDeletionVectors.readDeletedRows;
 import static com.facebook.presto.delta.DeltaErrorCode.DELTA_BAD_DATA;
 import static com.facebook.presto.delta.DeltaErrorCode.DELTA_CANNOT_OPEN_SPLIT;
 import static com.facebook.presto.delta.DeltaErrorCode.DELTA_MISSING_DATA;
@@ -116,6 +119,8 @@ import static org.apache.parquet.io.ColumnIOConverter.findNestedColumnIO;
 public class DeltaPageSourceProvider
         implements ConnectorPageSourceProvider
 {
+    private static final String ROW_INDEX_COLUMN_NAME = "$row_index";
+
     private final HdfsEnvironment hdfsEnvironment;
     private final TypeManager typeManager;
     private final FileFormatDataSourceStats fileFormatDataSourceStats;
@@ -160,6 +165,9 @@ public class DeltaPageSourceProvider
                 .filter(columnHandle -> columnHandle.getColumnType() != PARTITION)
                 .collect(Collectors.toList());
 
+        Optional<Roaring64NavigableMap> deletedRows = deltaSplit.getDeletionVector()
+                .map(deletionVector -> readDeletionVector(session, deltaSplit, deltaTableHandle.getDeltaTable().getTableLocation(), deletionVector));
+
         ConnectorPageSource dataPageSource = createParquetPageSource(
                 hdfsEnvironment,
                 session,
@@ -172,12 +180,27 @@ public class DeltaPageSourceProvider
                 deltaTableHandle.toSchemaTableName(),
                 typeManager,
                 deltaTableLayoutHandle.getPredicate(),
+                deletedRows.isPresent(),
                 fileFormatDataSourceStats);
 
         return new DeltaPageSource(
                 deltaColumnHandles,
                 convertPartitionValues(deltaColumnHandles, deltaSplit.getPartitionValues()),
-                dataPageSource);
+                dataPageSource,
+                deletedRows);
+    }
+
+    private Roaring64NavigableMap readDeletionVector(ConnectorSession session, DeltaSplit split, String tableLocation, DeltaDeletionVector deletionVector)
+    {
+        Path location = new Path(tableLocation);
+        HdfsContext hdfsContext = new HdfsContext(session, split.getSchema(), split.getTable(), tableLocation, false);
+        try {
+            ExtendedFileSystem fileSystem = hdfsEnvironment.getFileSystem(hdfsContext, location);
+            return hdfsEnvironment.doAs(session.getUser(), () -> readDeletedRows(fileSystem, tableLocation, deletionVector));
+        }
+        catch (IOException e) {
+            throw new PrestoException(DELTA_CANNOT_OPEN_SPLIT, format("Failed to read deletion vector of %s", split.getFilePath()), e);
+        }
     }
 
     /**
@@ -212,6 +235,7 @@ public class DeltaPageSourceProvider
             SchemaTableName tableName,
             TypeManager typeManager,
             TupleDomain<DeltaColumnHandle> effectivePredicate,
+            boolean includeRowIndex,
             FileFormatDataSourceStats stats)
     {
         AggregatedMemoryContext systemMemoryContext = newSimpleAggregatedMemoryContext();
@@ -255,14 +279,18 @@ public class DeltaPageSourceProvider
             MessageType requestedSchema = message.orElseGet(() -> new MessageType(fileSchema.getName(), ImmutableList.of()));
 
             ImmutableList.Builder<BlockMetaData> footerBlocks = ImmutableList.builder();
+            ImmutableList.Builder<Long> footerBlockStarts = ImmutableList.builder();
+            long nextStart = 0;
             for (BlockMetaData block : parquetMetadata.getBlocks()) {
                 Optional<Integer> firstIndex = findFirstNonHiddenColumnId(block);
                 if (firstIndex.isPresent()) {
                     long firstDataPage = block.getColumns().get(firstIndex.get()).getFirstDataPageOffset();
                     if (firstDataPage >= start && firstDataPage < start + length) {
                         footerBlocks.add(block);
+                        footerBlockStarts.add(nextStart);
                     }
                 }
+                nextStart += block.getRowCount();
             }
 
             Map<List<String>, RichColumnDescriptor> descriptorsByPath = getDescriptors(fileSchema, requestedSchema);
@@ -270,11 +298,16 @@ public class DeltaPageSourceProvider
             Predicate parquetPredicate = buildPredicate(requestedSchema, parquetTupleDomain, descriptorsByPath);
             final ParquetDataSource finalDataSource = dataSource;
             ImmutableList.Builder<BlockMetaData> blocks = ImmutableList.builder();
+            ImmutableList.Builder<Long> blockStarts = ImmutableList.builder();
             List<ColumnIndexStore> blockIndexStores = new ArrayList<>();
-            for (BlockMetaData block : footerBlocks.build()) {
+            List<BlockMetaData> candidateBlocks = footerBlocks.build();
+            List<Long> candidateBlockStarts = footerBlockStarts.build();
+            for (int i = 0; i < candidateBlocks.size(); i++) {
+                BlockMetaData block = candidateBlocks.get(i);
                 Optional<ColumnIndexStore> columnIndexStore = getColumnIndexStore(parquetPredicate, finalDataSource, block, descriptorsByPath, false);
                 if (predicateMatches(parquetPredicate, block, finalDataSource, descriptorsByPath, parquetTupleDomain, columnIndexStore, false, Optional.of(session.getWarningCollector()))) {
                     blocks.add(block);
+                    blockStarts.add(candidateBlockStarts.get(i));
                     blockIndexStores.add(columnIndexStore.orElse(null));
                 }
             }
@@ -282,7 +315,7 @@ public class DeltaPageSourceProvider
             ParquetReader parquetReader = new ParquetReader(
                     messageColumnIO,
                     blocks.build(),
-                    Optional.empty(),
+                    Optional.of(blockStarts.build()),
                     dataSource,
                     systemMemoryContext,
                     getParquetMaxReadBlockSize(session),
@@ -296,6 +329,7 @@ public class DeltaPageSourceProvider
             ImmutableList.Builder<String> namesBuilder = ImmutableList.builder();
             ImmutableList.Builder<Type> typesBuilder = ImmutableList.builder();
             ImmutableList.Builder<Optional<Field>> fieldsBuilder = ImmutableList.builder();
+            ImmutableList.Builder<Boolean> rowIndexLocationsBuilder = ImmutableList.builder();
             for (DeltaColumnHandle column : columns) {
                 checkArgument(column.getColumnType() == REGULAR || column.getColumnType() == SUBFIELD,
                         "column type must be regular or subfield column");
@@ -305,6 +339,7 @@ public class DeltaPageSourceProvider
 
                 namesBuilder.add(name);
                 typesBuilder.add(type);
+                rowIndexLocationsBuilder.add(false);
 
                 if (isPushedDownSubfield(column)) {
                     Subfield pushedDownSubfield = getPushedDownSubfield(column);
@@ -324,7 +359,14 @@ public class DeltaPageSourceProvider
                     fieldsBuilder.add(Optional.empty());
                 }
             }
-            return new ParquetPageSource(parquetReader, typesBuilder.build(), fieldsBuilder.build(), namesBuilder.build(), new RuntimeStats());
+            if (includeRowIndex) {
+                // the row indexes in the file, to which the deletion vector applies, follow the requested columns
+                namesBuilder.add(ROW_INDEX_COLUMN_NAME);
+                typesBuilder.add(BIGINT);
+                fieldsBuilder.add(Optional.empty());
+                rowIndexLocationsBuilder.add(true);
+            }
+            return new ParquetPageSource(parquetReader, typesBuilder.build(), fieldsBuilder.build(), rowIndexLocationsBuilder.build(), namesBuilder.build(), new RuntimeStats());
         }
         catch (Exception exception) {
             try {
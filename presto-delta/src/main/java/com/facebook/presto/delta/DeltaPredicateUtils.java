@@ -0,0 +1,184 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.delta;
+
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.delta.kernel.expressions.And;
+import io.delta.kernel.expressions.Column;
+import io.delta.kernel.expressions.Expression;
+import io.delta.kernel.expressions.Literal;
+import io.delta.kernel.expressions.Or;
+import io.delta.kernel.expressions.Predicate;
+import io.delta.kernel.types.BooleanType;
+import io.delta.kernel.types.ByteType;
+import io.delta.kernel.types.DataType;
+import io.delta.kernel.types.DateType;
+import io.delta.kernel.types.IntegerType;
+import io.delta.kernel.types.LongType;
+import io.delta.kernel.types.ShortType;
+import io.delta.kernel.types.StringType;
+import io.delta.kernel.types.StructField;
+import io.delta.kernel.types.StructType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static com.facebook.presto.delta.DeltaColumnHandle.ColumnType.REGULAR;
+import static java.lang.Math.toIntExact;
+import static java.util.Locale.US;
+
+/**
+ * Converts the pushed down predicate of a Delta table scan into a Delta kernel {@link Predicate}, which the
+ * kernel evaluates against the per-file min, max and null count statistics of the {@code add} actions to skip
+ * data files. Only domains the statistics can be compared with are converted, so the resulting predicate is
+ * implied by the pushed down predicate and never skips a file with matching rows.
+ */
+public final class DeltaPredicateUtils
+{
+    private static final int MAX_RANGES_PER_COLUMN = 32;
+
+    private DeltaPredicateUtils()
+    {
+    }
+
+    public static Optional<Predicate> toDataSkippingPredicate(TupleDomain<DeltaColumnHandle> predicate, StructType tableSchema)
+    {
+        if (predicate.isNone() || !predicate.getDomains().isPresent()) {
+            return Optional.empty();
+        }
+
+        Predicate conjuncts = null;
+        for (Map.Entry<DeltaColumnHandle, Domain> entry : predicate.getDomains().get().entrySet()) {
+            DeltaColumnHandle column = entry.getKey();
+            if (column.getColumnType() != REGULAR) {
+                // partition columns are pruned with the partition values and nested columns have no usable statistics
+                continue;
+            }
+            Optional<StructField> field = findField(tableSchema, column.getName());
+            if (!field.isPresent()) {
+                continue;
+            }
+            Optional<Predicate> columnPredicate = toPredicate(new Column(field.get().getName()), field.get().getDataType(), entry.getValue());
+            if (columnPredicate.isPresent()) {
+                conjuncts = conjuncts == null ? columnPredicate.get() : new And(conjuncts, columnPredicate.get());
+            }
+        }
+        return Optional.ofNullable(conjuncts);
+    }
+
+    private static Optional<StructField> findField(StructType tableSchema, String columnName)
+    {
+        // column handles are lower cased unless case sensitive partitions are enabled
+        return tableSchema.fields().stream()
+                .filter(field -> field.getName().equals(columnName))
+                .findFirst()
+                .map(Optional::of)
+                .orElseGet(() -> tableSchema.fields().stream()
+                        .filter(field -> field.getName().toLowerCase(US).equals(columnName))
+                        .findFirst());
+    }
+
+    private static Optional<Predicate> toPredicate(Column column, DataType type, Domain domain)
+    {
+        Optional<Function<Object, Literal>> literalFactory = getLiteralFactory(type);
+        if (!literalFactory.isPresent() || domain.isAll()) {
+            return Optional.empty();
+        }
+        if (domain.isNone()) {
+            // contradicting domains make the predicate none, so this is never reached by a pushed down predicate
+            return Optional.empty();
+        }
+        if (domain.isOnlyNull()) {
+            return Optional.of(new Predicate("IS_NULL", ImmutableList.<Expression>of(column)));
+        }
+        if (domain.getValues().isAll()) {
+            // only the nulls are excluded
+            return Optional.of(new Predicate("IS_NOT_NULL", ImmutableList.<Expression>of(column)));
+        }
+
+        List<Range> ranges = domain.getValues().getRanges().getOrderedRanges();
+        if (ranges.size() > MAX_RANGES_PER_COLUMN) {
+            ranges = ImmutableList.of(domain.getValues().getRanges().getSpan());
+        }
+
+        Predicate disjuncts = null;
+        for (Range range : ranges) {
+            Predicate rangePredicate = toPredicate(column, range, literalFactory.get());
+            if (rangePredicate == null) {
+                return Optional.empty();
+            }
+            disjuncts = disjuncts == null ? rangePredicate : new Or(disjuncts, rangePredicate);
+        }
+        if (domain.isNullAllowed()) {
+            disjuncts = new Or(disjuncts, new Predicate("IS_NULL", ImmutableList.<Expression>of(column)));
+        }
+        return Optional.ofNullable(disjuncts);
+    }
+
+    private static Predicate toPredicate(Column column, Range range, Function<Object, Literal> literalFactory)
+    {
+        if (range.isSingleValue()) {
+            return new Predicate("=", column, literalFactory.apply(range.getSingleValue()));
+        }
+
+        Predicate low = null;
+        if (!range.isLowUnbounded()) {
+            low = new Predicate(range.isLowInclusive() ? ">=" : ">", column, literalFactory.apply(range.getLowBoundedValue()));
+        }
+        Predicate high = null;
+        if (!range.isHighUnbounded()) {
+            high = new Predicate(range.isHighInclusive() ? "<=" : "<", column, literalFactory.apply(range.getHighBoundedValue()));
+        }
+        if (low != null && high != null) {
+            return new And(low, high);
+        }
+        return low != null ? low : high;
+    }
+
+    /**
+     * Returns the conversion of Presto native values to kernel literals for the types with comparable statistics.
+     * Floating point columns are not converted as their statistics do not account for NaN values.
+     */
+    private static Optional<Function<Object, Literal>> getLiteralFactory(DataType type)
+    {
+        if (type instanceof BooleanType) {
+            return Optional.of(value -> Literal.ofBoolean((Boolean) value));
+        }
+        if (type instanceof ByteType) {
+            return Optional.of(value -> Literal.ofByte((byte) (long) (Long) value));
+        }
+        if (type instanceof ShortType) {
+            return Optional.of(value -> Literal.ofShort((short) (long) (Long) value));
+        }
+        if (type instanceof IntegerType) {
+            return Optional.of(value -> Literal.ofInt(toIntExact((Long) value)));
+        }
+        if (type instanceof LongType) {
+            return Optional.of(value -> Literal.ofLong((Long) value));
+        }
+        if (type instanceof DateType) {
+            return Optional.of(value -> Literal.ofDate(toIntExact((Long) value)));
+        }
+        if (type instanceof StringType) {
+            return Optional.of(value -> Literal.ofString(((Slice) value).toStringUtf8()));
+        }
+        return Optional.empty();
+    }
+}
@@ -24,6 +24,7 @@ import com.google.common.collect.ImmutableMap;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.OptionalLong;
 
 import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.SOFT_AFFINITY;
@@ -42,6 +43,7 @@ public class DeltaSplit
     private final long fileSize;
     private final Map<String, String> partitionValues;
     private final NodeSelectionStrategy nodeSelectionStrategy;
+    private final Optional<DeltaDeletionVector> deletionVector;
 
     @JsonCreator
     public DeltaSplit(
@@ -53,7 +55,8 @@ public class DeltaSplit
             @JsonProperty("length") long length,
             @JsonProperty("fileSize") long fileSize,
             @JsonProperty("partitionValues") Map<String, String> partitionValues,
-            @JsonProperty("nodeSelectionStrategy") NodeSelectionStrategy nodeSelectionStrategy)
+            @JsonProperty("nodeSelectionStrategy") NodeSelectionStrategy nodeSelectionStrategy,
+            @JsonProperty("deletionVector") Optional<DeltaDeletionVector> deletionVector)
     {
         checkArgument(start >= 0, "start must be non-negative");
         checkArgument(length >= 0, "length must be non-negative");
@@ -68,6 +71,7 @@ public class DeltaSplit
         this.fileSize = fileSize;
         this.partitionValues = ImmutableMap.copyOf(requireNonNull(partitionValues, "partitionValues id is null"));
         this.nodeSelectionStrategy = nodeSelectionStrategy;
+        this.deletionVector = requireNonNull(deletionVector, "deletionVector is null");
     }
 
     @JsonProperty
@@ -118,6 +122,12 @@ public class DeltaSplit
         return partitionValues;
     }
 
+    @JsonProperty
+    public Optional<DeltaDeletionVector> getDeletionVector()
+    {
+        return deletionVector;
+    }
+
     @Override
     public NodeSelectionStrategy getNodeSelectionStrategy()
     {
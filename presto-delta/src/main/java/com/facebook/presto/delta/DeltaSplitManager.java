@@ -24,6 +24,7 @@ import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
 import com.google.common.collect.ImmutableList;
 import io.delta.kernel.data.Row;
 import io.delta.kernel.internal.InternalScanFileUtils;
+import io.delta.kernel.internal.actions.DeletionVectorDescriptor;
 import io.delta.kernel.utils.CloseableIterator;
 import io.delta.kernel.utils.FileStatus;
 import jakarta.inject.Inject;
@@ -32,6 +33,8 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.concurrent.CompletableFuture;
 
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getNodeSelectionStrategy;
@@ -79,7 +82,7 @@ public class DeltaSplitManager
             this.session = requireNonNull(session, "session is null");
             this.deltaTable = deltaTableHandle.getTable().getDeltaTable();
             this.rowIterator = DeltaExpressionUtils.iterateWithPartitionPruning(
-                    deltaClient.listFiles(session, deltaTable),
+                    deltaClient.listFiles(session, deltaTable, deltaTableHandle.getPredicate()),
                     deltaTableHandle.getPredicate(),
                     typeManager);
             this.maxBatchSize = deltaConfig.getMaxSplitsBatchSize();
@@ -102,7 +105,8 @@ public class DeltaSplitManager
                         addFileStatus.getSize() /* split length - default is read the entire file in one split */,
                         addFileStatus.getSize(),
                         removeNullPartitionValues(InternalScanFileUtils.getPartitionValues(row)),
-                        getNodeSelectionStrategy(session)));
+                        getNodeSelectionStrategy(session),
+                        getDeletionVector(row)));
                 currentSplitCount++;
             }
 
@@ -127,6 +131,20 @@ public class DeltaSplitManager
         }
     }
 
+    private static Optional<DeltaDeletionVector> getDeletionVector(Row row)
+    {
+        DeletionVectorDescriptor descriptor = InternalScanFileUtils.getDeletionVectorDescriptorFromRow(row);
+        if (descriptor == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new DeltaDeletionVector(
+                descriptor.getStorageType(),
+                descriptor.getPathOrInlineDv(),
+                descriptor.getOffset().map(OptionalInt::of).orElseGet(OptionalInt::empty),
+                descriptor.getSizeInBytes(),
+                descriptor.getCardinality()));
+    }
+
     /**
      * Utility method to remove the null value partition values.
      * These null values cause problems later when used with Guava Immutable map structures.
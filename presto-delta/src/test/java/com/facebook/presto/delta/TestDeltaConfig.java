@@ -27,7 +27,9 @@ public class TestDeltaConfig
         ConfigAssertions.assertRecordedDefaults(ConfigAssertions.recordDefaults(DeltaConfig.class)
                 .setMaxSplitsBatchSize(200)
                 .setParquetDereferencePushdownEnabled(true)
-                .setCaseSensitivePartitionsEnabled(true));
+                .setCaseSensitivePartitionsEnabled(true)
+                .setDataSkippingEnabled(true)
+                .setSnapshotCacheMaximumSize(1000));
     }
 
     @Test
@@ -37,12 +39,16 @@ public class TestDeltaConfig
                 .put("delta.max-splits-batch-size", "400")
                 .put("delta.parquet-dereference-pushdown-enabled", "false")
                 .put("delta.case-sensitive-partitions-enabled", "false")
+                .put("delta.data-skipping-enabled", "false")
+                .put("delta.snapshot-cache-maximum-size", "50")
                 .build();
 
         DeltaConfig expected = new DeltaConfig()
                 .setMaxSplitsBatchSize(400)
                 .setParquetDereferencePushdownEnabled(false)
-                .setCaseSensitivePartitionsEnabled(false);
+                .setCaseSensitivePartitionsEnabled(false)
+                .setDataSkippingEnabled(false)
+                .setSnapshotCacheMaximumSize(50);
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
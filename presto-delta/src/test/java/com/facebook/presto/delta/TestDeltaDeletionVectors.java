@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.delta;
+
+import com.facebook.presto.spi.PrestoException;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.OptionalInt;
+import java.util.zip.CRC32;
+
+import static com.facebook.presto.delta.DeltaDeletionVectors.getDeletionVectorPath;
+import static com.facebook.presto.delta.DeltaDeletionVectors.readDeletedRows;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Test reading inline and on disk deletion vectors.
+ */
+public class TestDeltaDeletionVectors
+{
+    private static final String Z85_ALPHABET = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ.-:+=^!/*?&<>()[]{}@%$#";
+    private static final long[] DELETED_ROWS = {0, 3, 4, 70_000, (1L << 32) + 5};
+
+    @Test
+    public void testDeletionVectorPath()
+    {
+        // example of the Delta protocol specification
+        DeltaDeletionVector deletionVector = new DeltaDeletionVector("u", "ab^-aqEH.-t@S}K{vb[*k^", OptionalInt.of(4), 40, 6);
+        assertEquals(
+                getDeletionVectorPath("s3://mytable/", deletionVector),
+                new Path("s3://mytable/ab/deletion_vector_d2c639aa-8816-431a-aaf6-d3fe2512ff61.bin"));
+
+        deletionVector = new DeltaDeletionVector("p", "s3://mytable/deletion_vector.bin", OptionalInt.of(1), 40, 6);
+        assertEquals(getDeletionVectorPath("s3://mytable/", deletionVector), new Path("s3://mytable/deletion_vector.bin"));
+    }
+
+    @Test
+    public void testInlineDeletionVector()
+            throws IOException
+    {
+        byte[] serializedBitmap = serializeBitmap(DELETED_ROWS);
+        DeltaDeletionVector deletionVector = new DeltaDeletionVector("i", encodeZ85(serializedBitmap), OptionalInt.empty(), serializedBitmap.length, DELETED_ROWS.length);
+        assertEquals(readDeletedRows(null, "unused", deletionVector).toArray(), DELETED_ROWS);
+    }
+
+    @Test
+    public void testOnDiskDeletionVector()
+            throws IOException
+    {
+        byte[] serializedBitmap = serializeBitmap(DELETED_ROWS);
+        File file = File.createTempFile("deletion_vector", ".bin");
+        file.deleteOnExit();
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(file.toPath()))) {
+            // format version followed by the size, content and checksum of each deletion vector
+            output.writeByte(1);
+            output.writeInt(serializedBitmap.length);
+            output.write(serializedBitmap);
+            CRC32 crc = new CRC32();
+            crc.update(serializedBitmap);
+            output.writeInt((int) crc.getValue());
+        }
+
+        FileSystem fileSystem = FileSystem.get(file.toURI(), new Configuration());
+        DeltaDeletionVector deletionVector = new DeltaDeletionVector("p", file.toURI().toString(), OptionalInt.of(1), serializedBitmap.length, DELETED_ROWS.length);
+        assertEquals(readDeletedRows(fileSystem, "unused", deletionVector).toArray(), DELETED_ROWS);
+    }
+
+    @Test(expectedExceptions = PrestoException.class, expectedExceptionsMessageRegExp = "Deletion vector .* has 5 deleted rows, expected 4")
+    public void testCardinalityMismatch()
+            throws IOException
+    {
+        byte[] serializedBitmap = serializeBitmap(DELETED_ROWS);
+        DeltaDeletionVector deletionVector = new DeltaDeletionVector("i", encodeZ85(serializedBitmap), OptionalInt.empty(), serializedBitmap.length, 4);
+        readDeletedRows(null, "unused", deletionVector);
+    }
+
+    private static byte[] serializeBitmap(long... values)
+            throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(ByteBuffer.allocate(Integer.BYTES).order(LITTLE_ENDIAN).putInt(1681511377).array());
+        Roaring64NavigableMap.bitmapOf(values).serializePortable(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static String encodeZ85(byte[] data)
+    {
+        ByteBuffer padded = ByteBuffer.wrap(Arrays.copyOf(data, (data.length + 3) / 4 * 4));
+        StringBuilder encoded = new StringBuilder();
+        while (padded.hasRemaining()) {
+            long value = padded.getInt() & 0xFFFF_FFFFL;
+            char[] block = new char[5];
+            for (int i = 4; i >= 0; i--) {
+                block[i] = Z85_ALPHABET.charAt((int) (value % 85));
+                value /= 85;
+            }
+            encoded.append(block);
+        }
+        return encoded.toString();
+    }
+}
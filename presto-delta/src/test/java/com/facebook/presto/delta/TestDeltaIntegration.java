@@ -125,6 +125,20 @@ public class TestDeltaIntegration
         assertQuery(testQueryV3, expResultsQueryV3);
     }
 
+    @Test
+    public void readTableWithDeletionVectors()
+    {
+        // version 2 of the table deletes two rows of each file, with an inline deletion vector
+        // for one file and a deletion vector in a file next to the data files for the other
+        String tablePath = goldenTablePathWithPrefix(DELTA_V3, "deletion-vectors");
+        String testQuery = format("SELECT as_int, as_string FROM \"%s\".\"%s\"", PATH_SCHEMA, tablePath);
+        assertQuery(testQuery, "VALUES (NULL, NULL), (1, '1'), (2, '2'), (5, '5'), (7, '7'), (8, '8'), (9, '9')");
+        assertQuery(format("SELECT count(*) FROM \"%s\".\"%s\" WHERE as_int > 4", PATH_SCHEMA, tablePath), "VALUES 4");
+
+        // the deleted rows are read from the version before the delete
+        assertQuery(format("SELECT count(*) FROM \"%s\".\"%s@v1\"", PATH_SCHEMA, tablePath), "VALUES 11");
+    }
+
     @Test(dataProvider = "deltaReaderVersions")
     public void readSpecificSnapshotAtGivenTimestamp(String version)
             throws Exception
@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.delta;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.FixedPageSource;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.delta.DeltaColumnHandle.ColumnType.PARTITION;
+import static com.facebook.presto.delta.DeltaColumnHandle.ColumnType.REGULAR;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Test the rows deleted by a deletion vector are removed from the pages of a {@link DeltaPageSource}.
+ */
+public class TestDeltaPageSource
+{
+    private static final List<DeltaColumnHandle> COLUMNS = ImmutableList.of(
+            new DeltaColumnHandle("value", BIGINT.getTypeSignature(), REGULAR, Optional.empty()),
+            new DeltaColumnHandle("part", BIGINT.getTypeSignature(), PARTITION, Optional.empty()));
+
+    @Test
+    public void testRemoveDeletedRows()
+    {
+        // pages of rows 0 to 4, 5 to 9 and 10 to 14 of the file, followed by the row indexes
+        ConnectorPageSource pageSource = createPageSource(
+                Optional.of(Roaring64NavigableMap.bitmapOf(1, 3, 5, 6, 7, 8, 9, 20)),
+                dataPage(0, 5, true),
+                dataPage(5, 10, true),
+                dataPage(10, 15, true));
+
+        assertPage(pageSource.getNextPage(), 0, 20, 40);
+        // all the rows of the page are deleted
+        assertNull(pageSource.getNextPage());
+        assertPage(pageSource.getNextPage(), 100, 110, 120, 130, 140);
+        assertNull(pageSource.getNextPage());
+    }
+
+    @Test
+    public void testRemoveDeletedRowsOfNonConsecutiveRows()
+    {
+        // rows 0, 2, 4, 6 and 8 of the file, as when pages are filtered with the column indexes
+        Page dataPage = new Page(
+                createLongsBlock(0L, 20L, 40L, 60L, 80L),
+                createLongsBlock(0L, 2L, 4L, 6L, 8L));
+        // as many rows are deleted between the first and the last row as the page has rows, but only two of them are in the page
+        ConnectorPageSource pageSource = createPageSource(Optional.of(Roaring64NavigableMap.bitmapOf(1, 3, 4, 5, 8)), dataPage);
+        assertPage(pageSource.getNextPage(), 0, 20, 60);
+        assertNull(pageSource.getNextPage());
+
+        // none of the rows of the page is deleted
+        pageSource = createPageSource(Optional.of(Roaring64NavigableMap.bitmapOf(1, 3, 5, 7)), dataPage);
+        assertPage(pageSource.getNextPage(), 0, 20, 40, 60, 80);
+        assertNull(pageSource.getNextPage());
+    }
+
+    @Test
+    public void testWithoutDeletionVector()
+    {
+        ConnectorPageSource pageSource = createPageSource(Optional.empty(), dataPage(0, 3, false));
+        assertPage(pageSource.getNextPage(), 0, 10, 20);
+        assertNull(pageSource.getNextPage());
+    }
+
+    private static ConnectorPageSource createPageSource(Optional<Roaring64NavigableMap> deletedRows, Page... pages)
+    {
+        return new DeltaPageSource(
+                COLUMNS,
+                ImmutableMap.of("part", createLongsBlock(7L)),
+                new FixedPageSource(ImmutableList.copyOf(pages)),
+                deletedRows);
+    }
+
+    private static Page dataPage(int startRow, int endRow, boolean withRowIndexes)
+    {
+        List<Long> values = new ArrayList<>();
+        for (long row = startRow; row < endRow; row++) {
+            values.add(row * 10);
+        }
+        Block valueBlock = createLongsBlock(values);
+        if (!withRowIndexes) {
+            return new Page(valueBlock);
+        }
+        return new Page(valueBlock, createLongSequenceBlock(startRow, endRow));
+    }
+
+    private static void assertPage(Page page, long... expectedValues)
+    {
+        assertEquals(page.getChannelCount(), 2);
+        assertEquals(page.getPositionCount(), expectedValues.length);
+        for (int position = 0; position < expectedValues.length; position++) {
+            assertEquals(BIGINT.getLong(page.getBlock(0), position), expectedValues[position]);
+            assertEquals(BIGINT.getLong(page.getBlock(1), position), 7L);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.delta;
+
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.predicate.ValueSet;
+import com.facebook.presto.common.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.delta.kernel.expressions.And;
+import io.delta.kernel.expressions.Column;
+import io.delta.kernel.expressions.Expression;
+import io.delta.kernel.expressions.Literal;
+import io.delta.kernel.expressions.Or;
+import io.delta.kernel.expressions.Predicate;
+import io.delta.kernel.types.DoubleType;
+import io.delta.kernel.types.IntegerType;
+import io.delta.kernel.types.LongType;
+import io.delta.kernel.types.StringType;
+import io.delta.kernel.types.StructType;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.delta.DeltaColumnHandle.ColumnType.PARTITION;
+import static com.facebook.presto.delta.DeltaColumnHandle.ColumnType.REGULAR;
+import static com.facebook.presto.delta.DeltaPredicateUtils.toDataSkippingPredicate;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Test the conversion of pushed down predicates to the Delta kernel predicates that skip data files.
+ */
+public class TestDeltaPredicateUtils
+{
+    private static final StructType SCHEMA = new StructType()
+            .add("as_int", IntegerType.INTEGER)
+            .add("As_Long", LongType.LONG)
+            .add("as_double", DoubleType.DOUBLE)
+            .add("as_string", StringType.STRING);
+
+    private static final DeltaColumnHandle AS_INT = column("as_int", INTEGER);
+    private static final DeltaColumnHandle AS_LONG = column("as_long", BIGINT);
+    private static final DeltaColumnHandle AS_DOUBLE = column("as_double", DOUBLE);
+    private static final DeltaColumnHandle AS_STRING = column("as_string", VARCHAR);
+
+    @Test
+    public void testAllAndNone()
+    {
+        assertEquals(toDataSkippingPredicate(TupleDomain.all(), SCHEMA), Optional.empty());
+        assertEquals(toDataSkippingPredicate(TupleDomain.none(), SCHEMA), Optional.empty());
+        assertEquals(toDataSkippingPredicate(withDomain(AS_INT, Domain.all(INTEGER)), SCHEMA), Optional.empty());
+    }
+
+    @Test
+    public void testSingleValue()
+    {
+        assertPredicate(
+                withDomain(AS_INT, Domain.singleValue(INTEGER, 5L)),
+                new Predicate("=", new Column("as_int"), Literal.ofInt(5)));
+        assertPredicate(
+                withDomain(AS_STRING, Domain.singleValue(VARCHAR, utf8Slice("abc"))),
+                new Predicate("=", new Column("as_string"), Literal.ofString("abc")));
+    }
+
+    @Test
+    public void testRanges()
+    {
+        Column column = new Column("as_int");
+        assertPredicate(
+                withDomain(AS_INT, Domain.create(ValueSet.ofRanges(Range.range(INTEGER, 1L, true, 10L, false)), false)),
+                new And(new Predicate(">=", column, Literal.ofInt(1)), new Predicate("<", column, Literal.ofInt(10))));
+        assertPredicate(
+                withDomain(AS_INT, Domain.create(ValueSet.ofRanges(Range.greaterThan(INTEGER, 1L), Range.lessThanOrEqual(INTEGER, -1L)), false)),
+                new Or(new Predicate("<=", column, Literal.ofInt(-1)), new Predicate(">", column, Literal.ofInt(1))));
+    }
+
+    @Test
+    public void testNulls()
+    {
+        Column column = new Column("as_int");
+        assertPredicate(withDomain(AS_INT, Domain.onlyNull(INTEGER)), new Predicate("IS_NULL", ImmutableList.<Expression>of(column)));
+        assertPredicate(withDomain(AS_INT, Domain.notNull(INTEGER)), new Predicate("IS_NOT_NULL", ImmutableList.<Expression>of(column)));
+        assertPredicate(
+                withDomain(AS_INT, Domain.create(ValueSet.of(INTEGER, 5L), true)),
+                new Or(new Predicate("=", column, Literal.ofInt(5)), new Predicate("IS_NULL", ImmutableList.<Expression>of(column))));
+    }
+
+    @Test
+    public void testTooManyRangesUseSpan()
+    {
+        Domain domain = Domain.multipleValues(BIGINT, LongStream.range(0, 100).map(value -> value * 2).boxed().collect(toImmutableList()));
+        Column column = new Column("As_Long");
+        assertPredicate(
+                withDomain(AS_LONG, domain),
+                new And(new Predicate(">=", column, Literal.ofLong(0)), new Predicate("<=", column, Literal.ofLong(198))));
+    }
+
+    @Test
+    public void testUnsupportedColumnsAreIgnored()
+    {
+        // floating point statistics do not account for NaN values
+        assertEquals(toDataSkippingPredicate(withDomain(AS_DOUBLE, Domain.singleValue(DOUBLE, 1.0)), SCHEMA), Optional.empty());
+        // partition columns are pruned with the partition values
+        assertEquals(toDataSkippingPredicate(withDomain(new DeltaColumnHandle("as_int", INTEGER.getTypeSignature(), PARTITION, Optional.empty()), Domain.singleValue(INTEGER, 1L)), SCHEMA), Optional.empty());
+        assertEquals(toDataSkippingPredicate(withDomain(column("missing", INTEGER), Domain.singleValue(INTEGER, 1L)), SCHEMA), Optional.empty());
+
+        assertPredicate(
+                TupleDomain.withColumnDomains(ImmutableMap.of(
+                        AS_DOUBLE, Domain.singleValue(DOUBLE, 1.0),
+                        AS_INT, Domain.singleValue(INTEGER, 5L))),
+                new Predicate("=", new Column("as_int"), Literal.ofInt(5)));
+    }
+
+    private static void assertPredicate(TupleDomain<DeltaColumnHandle> tupleDomain, Predicate expected)
+    {
+        Optional<Predicate> predicate = toDataSkippingPredicate(tupleDomain, SCHEMA);
+        assertEquals(predicate.map(Predicate::toString), Optional.of(expected.toString()));
+    }
+
+    private static TupleDomain<DeltaColumnHandle> withDomain(DeltaColumnHandle column, Domain domain)
+    {
+        return TupleDomain.withColumnDomains(ImmutableMap.of(column, domain));
+    }
+
+    private static DeltaColumnHandle column(String name, Type type)
+    {
+        return new DeltaColumnHandle(name, type.getTypeSignature(), REGULAR, Optional.empty());
+    }
+}
@@ -18,6 +18,9 @@ import com.facebook.presto.spi.schedule.NodeSelectionStrategy;
 import com.google.common.collect.ImmutableMap;
 import org.testng.annotations.Test;
 
+import java.util.Optional;
+import java.util.OptionalInt;
+
 import static org.testng.Assert.assertEquals;
 
 /**
@@ -39,7 +42,8 @@ public class TestDeltaSplit
                 200,
                 500,
                 ImmutableMap.of("part1", "part1Val"),
-                NodeSelectionStrategy.NO_PREFERENCE);
+                NodeSelectionStrategy.NO_PREFERENCE,
+                Optional.of(new DeltaDeletionVector("u", "ab^-aqEH.-t@S}K{vb[*k^", OptionalInt.of(4), 40, 6)));
 
         String json = codec.toJson(expected);
         DeltaSplit actual = codec.fromJson(json);
@@ -53,5 +57,6 @@ public class TestDeltaSplit
         assertEquals(actual.getFileSize(), expected.getFileSize());
         assertEquals(actual.getSplitSizeInBytes(), expected.getSplitSizeInBytes());
         assertEquals(actual.getPartitionValues(), expected.getPartitionValues());
+        assertEquals(actual.getDeletionVector(), expected.getDeletionVector());
     }
 }
@@ -194,6 +194,7 @@ public class S3SelectTestHelper
                 config.getMinPartitionBatchSize(),
                 config.getMaxPartitionBatchSize(),
                 config.getSplitLoaderConcurrency(),
+                config.getFileStatusCachePrefetchPartitions(),
                 config.getRecursiveDirWalkerEnabled(),
                 new ConfigBasedCacheQuotaRequirementProvider(cacheConfig),
                 new HiveEncryptionInformationProvider(ImmutableSet.of()),
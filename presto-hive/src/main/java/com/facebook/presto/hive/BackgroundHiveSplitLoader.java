@@ -20,9 +20,11 @@ import com.facebook.presto.hive.util.ResumableTask;
 import com.facebook.presto.hive.util.ResumableTasks;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.PrestoException;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.Map;
@@ -80,15 +82,45 @@ public class BackgroundHiveSplitLoader
             DirectoryLister directoryLister,
             Executor executor,
             int loaderConcurrency,
+            int partitionPrefetchCount,
             boolean recursiveDirWalkerEnabled,
             boolean schedulerUsesHostAddresses,
             boolean partialAggregationsPushedDown)
     {
         this.loaderConcurrency = loaderConcurrency;
         checkArgument(loaderConcurrency > 0, "loaderConcurrency must be > 0, found: %s", loaderConcurrency);
+        checkArgument(partitionPrefetchCount >= 0, "partitionPrefetchCount must be >= 0, found: %s", partitionPrefetchCount);
         this.executor = requireNonNull(executor, "executor is null");
-        this.partitions = new ConcurrentLazyQueue<>(requireNonNull(partitions, "partitions is null"));
         this.delegatingPartitionLoader = new DelegatingPartitionLoader(table, infoColumnConstraints, tableBucketInfo, session, hdfsEnvironment, namenodeStats, directoryLister, fileIterators, recursiveDirWalkerEnabled, schedulerUsesHostAddresses, partialAggregationsPushedDown);
+        requireNonNull(partitions, "partitions is null");
+        this.partitions = new ConcurrentLazyQueue<>(partitionPrefetchCount == 0 ? partitions : prefetching(partitions, partitionPrefetchCount));
+    }
+
+    /**
+     * Keeps {@code prefetchCount} partitions ahead of the loader tasks, and prefetches each partition
+     * as it is read, so that the directories of many partitions are listed concurrently.
+     */
+    private Iterable<HivePartitionMetadata> prefetching(Iterable<HivePartitionMetadata> partitions, int prefetchCount)
+    {
+        return () -> new AbstractIterator<HivePartitionMetadata>()
+        {
+            private final Iterator<HivePartitionMetadata> iterator = partitions.iterator();
+            private final Deque<HivePartitionMetadata> prefetched = new ArrayDeque<>();
+
+            @Override
+            protected HivePartitionMetadata computeNext()
+            {
+                while (prefetched.size() <= prefetchCount && iterator.hasNext()) {
+                    HivePartitionMetadata partition = iterator.next();
+                    delegatingPartitionLoader.prefetchPartition(partition);
+                    prefetched.addLast(partition);
+                }
+                if (prefetched.isEmpty()) {
+                    return endOfData();
+                }
+                return prefetched.removeFirst();
+            }
+        };
     }
 
     @Override
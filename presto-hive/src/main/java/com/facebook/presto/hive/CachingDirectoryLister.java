@@ -13,9 +13,11 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.airlift.log.Logger;
 import com.facebook.airlift.units.DataSize;
 import com.facebook.airlift.units.Duration;
 import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.hive.DirectoryListingSnapshot.DirectoryListing;
 import com.facebook.presto.hive.filesystem.ExtendedFileSystem;
 import com.facebook.presto.hive.metastore.Partition;
 import com.facebook.presto.hive.metastore.Table;
@@ -25,37 +27,85 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.Weigher;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import org.apache.hadoop.fs.Path;
 import org.openjdk.jol.info.ClassLayout;
 import org.weakref.jmx.Managed;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.presto.common.RuntimeMetricName.DIRECTORY_LISTING_CACHE_HIT;
 import static com.facebook.presto.common.RuntimeMetricName.DIRECTORY_LISTING_CACHE_MISS;
 import static com.facebook.presto.common.RuntimeMetricName.DIRECTORY_LISTING_TIME_NANOS;
 import static com.facebook.presto.common.RuntimeMetricName.FILES_READ_COUNT;
 import static com.facebook.presto.common.RuntimeUnit.NANO;
 import static com.facebook.presto.common.RuntimeUnit.NONE;
+import static com.facebook.presto.hive.NestedDirectoryPolicy.RECURSE;
 import static com.facebook.presto.spi.StandardErrorCode.INVALID_PROCEDURE_ARGUMENT;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
+/**
+ * Caches directory listings of the tables in {@code hive.file-status-cache-tables}.
+ * <p>
+ * When modification time validation is enabled, each listing records the modification
+ * time of its directory, and a listing older than the validation interval is only served
+ * after checking that the directory has not changed since. An unchanged directory costs
+ * a single file status call rather than a new listing. With background refresh, the
+ * previous listing is served while the check runs on the listing executor, so hot
+ * tables are kept up to date without blocking split enumeration. Directory modification
+ * times only reflect files added or removed directly in the directory, and object stores
+ * such as S3 report zero for them, so recursive listings and listings of such file systems
+ * are listed again once the validation interval has passed rather than validated. A
+ * validated listing still expires once the expiration time has passed since it was listed.
+ * <p>
+ * Listings can be prefetched on the listing executor, which bounds the number of
+ * directories listed concurrently. Listings are saved to the snapshot file, if any, on
+ * shutdown and restored on startup. Restored listings are always validated before use.
+ */
 public class CachingDirectoryLister
         implements DirectoryLister
 {
+    private static final Logger log = Logger.get(CachingDirectoryLister.class);
+
+    private static final long UNKNOWN_MODIFICATION_TIME = -1;
+
     private final Cache<String, ValueHolder> cache;
+    private final Map<String, ListenableFuture<ValueHolder>> pendingListings = new ConcurrentHashMap<>();
     private final CachedTableChecker cachedTableChecker;
     private final DirectoryLister delegate;
+    private final boolean validateModificationTime;
+    private final long validationIntervalNanos;
+    private final boolean backgroundRefreshEnabled;
+    private final Optional<File> snapshotFile;
+    private final Executor listingExecutor;
+    private final long expireAfterWriteNanos;
 
     @Inject
     public CachingDirectoryLister(@ForCachingDirectoryLister DirectoryLister delegate, HiveClientConfig hiveClientConfig)
@@ -64,10 +114,29 @@ public class CachingDirectoryLister
                 delegate,
                 hiveClientConfig.getFileStatusCacheExpireAfterWrite(),
                 hiveClientConfig.getFileStatusCacheMaxRetainedSize(),
-                hiveClientConfig.getFileStatusCacheTables());
+                hiveClientConfig.getFileStatusCacheTables(),
+                hiveClientConfig.isFileStatusCacheValidateModificationTime(),
+                hiveClientConfig.getFileStatusCacheValidationInterval(),
+                hiveClientConfig.isFileStatusCacheBackgroundRefreshEnabled(),
+                Optional.ofNullable(hiveClientConfig.getFileStatusCacheSnapshotPath()).map(File::new),
+                newFixedThreadPool(hiveClientConfig.getFileStatusCacheListingConcurrency(), daemonThreadsNamed("hive-directory-lister-%s")));
     }
 
     public CachingDirectoryLister(DirectoryLister delegate, Duration expireAfterWrite, DataSize maxSize, List<String> tables)
+    {
+        this(delegate, expireAfterWrite, maxSize, tables, false, new Duration(0, TimeUnit.SECONDS), false, Optional.empty(), directExecutor());
+    }
+
+    public CachingDirectoryLister(
+            DirectoryLister delegate,
+            Duration expireAfterWrite,
+            DataSize maxSize,
+            List<String> tables,
+            boolean validateModificationTime,
+            Duration validationInterval,
+            boolean backgroundRefreshEnabled,
+            Optional<File> snapshotFile,
+            Executor listingExecutor)
     {
         this.delegate = requireNonNull(delegate, "delegate is null");
         cache = CacheBuilder.newBuilder()
@@ -77,6 +146,22 @@ public class CachingDirectoryLister
                 .recordStats()
                 .build();
         this.cachedTableChecker = new CachedTableChecker(requireNonNull(tables, "tables is null"));
+        this.validateModificationTime = validateModificationTime;
+        this.validationIntervalNanos = requireNonNull(validationInterval, "validationInterval is null").roundTo(NANOSECONDS);
+        this.backgroundRefreshEnabled = backgroundRefreshEnabled;
+        this.snapshotFile = requireNonNull(snapshotFile, "snapshotFile is null");
+        this.listingExecutor = requireNonNull(listingExecutor, "listingExecutor is null");
+        this.expireAfterWriteNanos = expireAfterWrite.roundTo(NANOSECONDS);
+        snapshotFile.ifPresent(this::restoreSnapshot);
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        if (listingExecutor instanceof ExecutorService) {
+            ((ExecutorService) listingExecutor).shutdownNow();
+        }
+        snapshotFile.ifPresent(this::saveSnapshot);
     }
 
     @Override
@@ -93,7 +178,7 @@ public class CachingDirectoryLister
         if (hiveDirectoryContext.isCacheable()) {
             // DO NOT USE Caching, when cache is disabled.
             // This is useful for debugging issues, when cache is explicitly disabled via session property.
-            ValueHolder value = Optional.ofNullable(cache.getIfPresent(path.toString())).orElse(null);
+            ValueHolder value = getCachedListing(fileSystem, table, path, partition, namenodeStats, hiveDirectoryContext);
             if (value != null) {
                 List<HiveFileInfo> files = value.getFiles();
                 runtimeStats.addMetricValue(DIRECTORY_LISTING_CACHE_HIT, NONE, 1);
@@ -104,15 +189,171 @@ public class CachingDirectoryLister
         }
 
         runtimeStats.addMetricValue(DIRECTORY_LISTING_CACHE_MISS, NONE, 1);
+        boolean enableCaching = hiveDirectoryContext.isCacheable() && cachedTableChecker.isCachedTable(table.getSchemaTableName());
+        // the modification time is read before listing, so that changes made during the listing invalidate it
+        long modificationTime = enableCaching ? getModificationTime(fileSystem, path, hiveDirectoryContext) : UNKNOWN_MODIFICATION_TIME;
         Iterator<HiveFileInfo> iterator = delegate.list(fileSystem, table, path, partition, namenodeStats, hiveDirectoryContext);
         runtimeStats.addMetricValue(DIRECTORY_LISTING_TIME_NANOS, NANO, System.nanoTime() - startTime);
-        if (hiveDirectoryContext.isCacheable() && cachedTableChecker.isCachedTable(table.getSchemaTableName())) {
-            return fileCountTrackingIterator(iterator, path, runtimeStats, true);
+        return fileCountTrackingIterator(iterator, path, modificationTime, runtimeStats, enableCaching);
+    }
+
+    @Override
+    public void prefetch(
+            ExtendedFileSystem fileSystem,
+            Table table,
+            Path path,
+            Optional<Partition> partition,
+            NamenodeStats namenodeStats,
+            HiveDirectoryContext hiveDirectoryContext)
+    {
+        if (!hiveDirectoryContext.isCacheable() || !cachedTableChecker.isCachedTable(table.getSchemaTableName())) {
+            return;
+        }
+        // look up through the map view, which does not count as a cache request
+        ValueHolder value = cache.asMap().get(path.toString());
+        if (value != null && isExpired(value)) {
+            value = null;
         }
-        return fileCountTrackingIterator(iterator, path, runtimeStats, false);
+        if (value != null && !needsValidation(value)) {
+            return;
+        }
+        Optional<ValueHolder> cachedValue = Optional.ofNullable(value);
+        submitListing(path.toString(), () -> loadListing(fileSystem, table, path, partition, namenodeStats, hiveDirectoryContext, cachedValue));
     }
 
-    private Iterator<HiveFileInfo> fileCountTrackingIterator(Iterator<HiveFileInfo> iterator, Path path, RuntimeStats runtimeStats, boolean enableCaching)
+    private ValueHolder getCachedListing(
+            ExtendedFileSystem fileSystem,
+            Table table,
+            Path path,
+            Optional<Partition> partition,
+            NamenodeStats namenodeStats,
+            HiveDirectoryContext hiveDirectoryContext)
+    {
+        String key = path.toString();
+        // a pending listing is put in the cache before it is removed from the pending listings
+        ListenableFuture<ValueHolder> pendingListing = pendingListings.get(key);
+        ValueHolder value = cache.getIfPresent(key);
+        if (pendingListing != null && (value == null || !backgroundRefreshEnabled)) {
+            Optional<ValueHolder> listing = getPendingListing(pendingListing);
+            if (listing.isPresent()) {
+                return listing.get();
+            }
+        }
+        if (value != null && isExpired(value)) {
+            // the cache only expires a listing after it was last put, which validation does
+            cache.invalidate(key);
+            return null;
+        }
+        if (value == null || !needsValidation(value)) {
+            return value;
+        }
+        if (backgroundRefreshEnabled && !value.isRestored()) {
+            submitListing(key, () -> loadListing(fileSystem, table, path, partition, namenodeStats, hiveDirectoryContext, Optional.of(value)));
+            return value;
+        }
+
+        long modificationTime = getModificationTime(fileSystem, path, hiveDirectoryContext);
+        if (modificationTime == UNKNOWN_MODIFICATION_TIME || modificationTime != value.getModificationTime()) {
+            cache.invalidate(key);
+            return null;
+        }
+        ValueHolder validated = value.validated(System.nanoTime());
+        cache.put(key, validated);
+        return validated;
+    }
+
+    private boolean isExpired(ValueHolder value)
+    {
+        return System.nanoTime() - value.getListingTimeNanos() >= expireAfterWriteNanos;
+    }
+
+    private boolean needsValidation(ValueHolder value)
+    {
+        return value.isRestored() || (validateModificationTime && System.nanoTime() - value.getValidationTimeNanos() >= validationIntervalNanos);
+    }
+
+    private ValueHolder loadListing(
+            ExtendedFileSystem fileSystem,
+            Table table,
+            Path path,
+            Optional<Partition> partition,
+            NamenodeStats namenodeStats,
+            HiveDirectoryContext hiveDirectoryContext,
+            Optional<ValueHolder> cachedValue)
+    {
+        String key = path.toString();
+        try {
+            long validationTime = System.nanoTime();
+            long modificationTime = getModificationTime(fileSystem, path, hiveDirectoryContext);
+            ValueHolder value;
+            if (cachedValue.isPresent() && modificationTime != UNKNOWN_MODIFICATION_TIME && modificationTime == cachedValue.get().getModificationTime()) {
+                // the directory has not changed, so only the validation time is updated
+                value = cachedValue.get().validated(validationTime);
+            }
+            else {
+                value = new ValueHolder(
+                        ImmutableList.copyOf(delegate.list(fileSystem, table, path, partition, namenodeStats, hiveDirectoryContext)),
+                        modificationTime,
+                        validationTime,
+                        validationTime,
+                        false);
+            }
+            cache.put(key, value);
+            return value;
+        }
+        catch (RuntimeException e) {
+            cache.invalidate(key);
+            throw e;
+        }
+    }
+
+    private void submitListing(String key, Callable<ValueHolder> loader)
+    {
+        ListenableFutureTask<ValueHolder> task = ListenableFutureTask.create(loader);
+        if (pendingListings.putIfAbsent(key, task) != null) {
+            return;
+        }
+        task.addListener(() -> pendingListings.remove(key, task), directExecutor());
+        try {
+            listingExecutor.execute(task);
+        }
+        catch (RejectedExecutionException e) {
+            task.cancel(false);
+        }
+    }
+
+    private static Optional<ValueHolder> getPendingListing(ListenableFuture<ValueHolder> pendingListing)
+    {
+        try {
+            return Optional.of(pendingListing.get());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        catch (ExecutionException | RuntimeException e) {
+            // the directory is listed again by the caller, which reports the failure
+            return Optional.empty();
+        }
+    }
+
+    private long getModificationTime(ExtendedFileSystem fileSystem, Path path, HiveDirectoryContext hiveDirectoryContext)
+    {
+        if ((!validateModificationTime && !snapshotFile.isPresent()) || hiveDirectoryContext.getNestedDirectoryPolicy() == RECURSE) {
+            // changes to nested directories do not update the modification time of the directory
+            return UNKNOWN_MODIFICATION_TIME;
+        }
+        try {
+            long modificationTime = fileSystem.getFileStatus(path).getModificationTime();
+            // object stores report a modification time of zero for directories
+            return modificationTime > 0 ? modificationTime : UNKNOWN_MODIFICATION_TIME;
+        }
+        catch (IOException e) {
+            return UNKNOWN_MODIFICATION_TIME;
+        }
+    }
+
+    private Iterator<HiveFileInfo> fileCountTrackingIterator(Iterator<HiveFileInfo> iterator, Path path, long modificationTime, RuntimeStats runtimeStats, boolean enableCaching)
     {
         return new Iterator<HiveFileInfo>()
         {
@@ -125,7 +366,8 @@ public class CachingDirectoryLister
                 if (!hasNext) {
                     runtimeStats.addMetricValue(FILES_READ_COUNT, NONE, files.size());
                     if (enableCaching) {
-                        cache.put(path.toString(), new ValueHolder(files));
+                        long listingTime = System.nanoTime();
+                        cache.put(path.toString(), new ValueHolder(files, modificationTime, listingTime, listingTime, false));
                     }
                 }
                 return hasNext;
@@ -171,6 +413,47 @@ public class CachingDirectoryLister
         cache.invalidateAll();
     }
 
+    @Managed
+    public long getPendingListingCount()
+    {
+        return pendingListings.size();
+    }
+
+    private void restoreSnapshot(File file)
+    {
+        if (!file.exists()) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            for (Entry<String, DirectoryListing> entry : DirectoryListingSnapshot.read(file).entrySet()) {
+                if (entry.getValue().getModificationTime() > 0) {
+                    cache.put(entry.getKey(), new ValueHolder(entry.getValue().getFiles(), entry.getValue().getModificationTime(), now, now, true));
+                }
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Failed to restore directory listing cache from %s", file);
+        }
+    }
+
+    private void saveSnapshot(File file)
+    {
+        ImmutableMap.Builder<String, DirectoryListing> listings = ImmutableMap.builder();
+        for (Entry<String, ValueHolder> entry : cache.asMap().entrySet()) {
+            ValueHolder value = entry.getValue();
+            if (value.getModificationTime() > 0) {
+                listings.put(entry.getKey(), new DirectoryListing(value.getModificationTime(), value.getFiles()));
+            }
+        }
+        try {
+            DirectoryListingSnapshot.write(file, listings.build());
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Failed to save directory listing cache to %s", file);
+        }
+    }
+
     @Managed
     public Double getHitRate()
     {
@@ -218,10 +501,18 @@ public class CachingDirectoryLister
         private static final long INSTANCE_SIZE = ClassLayout.parseClass(ValueHolder.class).instanceSize();
 
         private final List<HiveFileInfo> files;
+        private final long modificationTime;
+        private final long listingTimeNanos;
+        private final long validationTimeNanos;
+        private final boolean restored;
 
-        public ValueHolder(List<HiveFileInfo> files)
+        public ValueHolder(List<HiveFileInfo> files, long modificationTime, long listingTimeNanos, long validationTimeNanos, boolean restored)
         {
             this.files = ImmutableList.copyOf(requireNonNull(files, "files is null"));
+            this.modificationTime = modificationTime;
+            this.listingTimeNanos = listingTimeNanos;
+            this.validationTimeNanos = validationTimeNanos;
+            this.restored = restored;
         }
 
         public List<HiveFileInfo> getFiles()
@@ -229,6 +520,31 @@ public class CachingDirectoryLister
             return files;
         }
 
+        public long getModificationTime()
+        {
+            return modificationTime;
+        }
+
+        public long getListingTimeNanos()
+        {
+            return listingTimeNanos;
+        }
+
+        public long getValidationTimeNanos()
+        {
+            return validationTimeNanos;
+        }
+
+        public boolean isRestored()
+        {
+            return restored;
+        }
+
+        public ValueHolder validated(long validationTimeNanos)
+        {
+            return new ValueHolder(files, modificationTime, listingTimeNanos, validationTimeNanos, false);
+        }
+
         public long getRetainedSizeInBytes()
         {
             return INSTANCE_SIZE + files.stream().map(HiveFileInfo::getRetainedSizeInBytes).reduce(0L, Long::sum);
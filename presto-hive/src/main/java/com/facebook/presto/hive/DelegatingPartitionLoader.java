@@ -78,6 +78,14 @@ public class DelegatingPartitionLoader
         return storagePartitionLoader.loadPartition(partition, hiveSplitSource, stopped);
     }
 
+    @Override
+    public void prefetchPartition(HivePartitionMetadata partition)
+    {
+        if (!isListFilesLoadedPartition(session, partition.getPartition())) {
+            storagePartitionLoader.prefetchPartition(partition);
+        }
+    }
+
     private static boolean isListFilesLoadedPartition(ConnectorSession session, Optional<Partition> partition)
     {
         if (partition.isPresent() && isPreferManifestsToListFiles(session)) {
@@ -35,4 +35,17 @@ public interface DirectoryLister
     {
         return false;
     }
+
+    /**
+     * Hints that {@code path} will be listed soon, so that the listing can be started in the background.
+     */
+    default void prefetch(
+            ExtendedFileSystem fileSystem,
+            Table table,
+            Path path,
+            Optional<Partition> partition,
+            NamenodeStats namenodeStats,
+            HiveDirectoryContext hiveDirectoryContext)
+    {
+    }
 }
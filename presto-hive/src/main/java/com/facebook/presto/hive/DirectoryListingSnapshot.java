@@ -0,0 +1,178 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Binary snapshot of cached directory listings, keyed by directory path. The snapshot is
+ * written to a temporary file which then replaces the previous snapshot, so a snapshot
+ * interrupted by a crash never replaces a complete one.
+ */
+final class DirectoryListingSnapshot
+{
+    private static final int MAGIC = 0x48444c53;
+    private static final int VERSION = 1;
+
+    private DirectoryListingSnapshot() {}
+
+    public static void write(File file, Map<String, DirectoryListing> listings)
+            throws IOException
+    {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile.toPath())))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(listings.size());
+            for (Entry<String, DirectoryListing> entry : listings.entrySet()) {
+                output.writeUTF(entry.getKey());
+                output.writeLong(entry.getValue().getModificationTime());
+                List<HiveFileInfo> files = entry.getValue().getFiles();
+                output.writeInt(files.size());
+                for (HiveFileInfo fileInfo : files) {
+                    writeFile(output, fileInfo);
+                }
+            }
+        }
+        Files.move(tempFile.toPath(), file.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    public static Map<String, DirectoryListing> read(File file)
+            throws IOException
+    {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Not a directory listing snapshot: " + file);
+            }
+            int version = input.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported directory listing snapshot version " + version + ": " + file);
+            }
+            int listingCount = input.readInt();
+            ImmutableMap.Builder<String, DirectoryListing> listings = ImmutableMap.builder();
+            for (int i = 0; i < listingCount; i++) {
+                String path = input.readUTF();
+                long modificationTime = input.readLong();
+                int fileCount = input.readInt();
+                ImmutableList.Builder<HiveFileInfo> files = ImmutableList.builderWithExpectedSize(fileCount);
+                for (int j = 0; j < fileCount; j++) {
+                    files.add(readFile(input));
+                }
+                listings.put(path, new DirectoryListing(modificationTime, files.build()));
+            }
+            return listings.build();
+        }
+    }
+
+    private static void writeFile(DataOutputStream output, HiveFileInfo file)
+            throws IOException
+    {
+        output.writeUTF(file.getPath());
+        output.writeBoolean(file.isDirectory());
+        output.writeLong(file.getLength());
+        output.writeLong(file.getFileModifiedTime());
+        output.writeInt(file.getBlockLocations().size());
+        for (BlockLocation blockLocation : file.getBlockLocations()) {
+            output.writeLong(blockLocation.getOffset());
+            output.writeLong(blockLocation.getLength());
+            output.writeInt(blockLocation.getHosts().size());
+            for (String host : blockLocation.getHosts()) {
+                output.writeUTF(host);
+            }
+        }
+        output.writeBoolean(file.getExtraFileInfo().isPresent());
+        if (file.getExtraFileInfo().isPresent()) {
+            byte[] extraFileInfo = file.getExtraFileInfo().get();
+            output.writeInt(extraFileInfo.length);
+            output.write(extraFileInfo);
+        }
+        output.writeInt(file.getCustomSplitInfo().size());
+        for (Entry<String, String> entry : file.getCustomSplitInfo().entrySet()) {
+            output.writeUTF(entry.getKey());
+            output.writeUTF(entry.getValue());
+        }
+    }
+
+    private static HiveFileInfo readFile(DataInputStream input)
+            throws IOException
+    {
+        String path = input.readUTF();
+        boolean directory = input.readBoolean();
+        long length = input.readLong();
+        long fileModifiedTime = input.readLong();
+        int blockLocationCount = input.readInt();
+        ImmutableList.Builder<BlockLocation> blockLocations = ImmutableList.builderWithExpectedSize(blockLocationCount);
+        for (int i = 0; i < blockLocationCount; i++) {
+            long offset = input.readLong();
+            long blockLength = input.readLong();
+            int hostCount = input.readInt();
+            ImmutableList.Builder<String> hosts = ImmutableList.builderWithExpectedSize(hostCount);
+            for (int j = 0; j < hostCount; j++) {
+                hosts.add(input.readUTF());
+            }
+            blockLocations.add(new BlockLocation(hosts.build(), offset, blockLength));
+        }
+        Optional<byte[]> extraFileInfo = Optional.empty();
+        if (input.readBoolean()) {
+            byte[] bytes = new byte[input.readInt()];
+            input.readFully(bytes);
+            extraFileInfo = Optional.of(bytes);
+        }
+        int customSplitInfoCount = input.readInt();
+        ImmutableMap.Builder<String, String> customSplitInfo = ImmutableMap.builder();
+        for (int i = 0; i < customSplitInfoCount; i++) {
+            customSplitInfo.put(input.readUTF(), input.readUTF());
+        }
+        return new HiveFileInfo(path, directory, blockLocations.build(), length, fileModifiedTime, extraFileInfo, customSplitInfo.build());
+    }
+
+    public static class DirectoryListing
+    {
+        private final long modificationTime;
+        private final List<HiveFileInfo> files;
+
+        public DirectoryListing(long modificationTime, List<HiveFileInfo> files)
+        {
+            this.modificationTime = modificationTime;
+            this.files = ImmutableList.copyOf(requireNonNull(files, "files is null"));
+        }
+
+        public long getModificationTime()
+        {
+            return modificationTime;
+        }
+
+        public List<HiveFileInfo> getFiles()
+        {
+            return files;
+        }
+    }
+}
@@ -163,6 +163,12 @@ public class HiveClientConfig
     private Duration fileStatusCacheExpireAfterWrite = new Duration(0, TimeUnit.SECONDS);
     private DataSize fileStatusCacheMaxRetainedSize = new DataSize(0, KILOBYTE);
     private List<String> fileStatusCacheTables = ImmutableList.of();
+    private boolean fileStatusCacheValidateModificationTime;
+    private Duration fileStatusCacheValidationInterval = new Duration(0, TimeUnit.SECONDS);
+    private boolean fileStatusCacheBackgroundRefreshEnabled;
+    private int fileStatusCacheListingConcurrency = 16;
+    private int fileStatusCachePrefetchPartitions;
+    private String fileStatusCacheSnapshotPath;
 
     private DataSize pageFileStripeMaxSize = new DataSize(24, MEGABYTE);
     private boolean parquetDereferencePushdownEnabled;
@@ -221,6 +227,9 @@ public class HiveClientConfig
     private boolean optimizeParsingOfPartitionValues;
     private int optimizeParsingOfPartitionValuesThreshold = 500;
     private boolean symlinkOptimizedReaderEnabled = true;
+    private boolean orcStripePrefetchEnabled;
+    private DataSize orcStripePrefetchMaxBufferSize = new DataSize(64, MEGABYTE);
+    private int maxOrcStripePrefetchThreads = 64;
 
     @Min(0)
     public int getMaxInitialSplits()
@@ -838,6 +847,87 @@ public class HiveClientConfig
         return this;
     }
 
+    public boolean isFileStatusCacheValidateModificationTime()
+    {
+        return fileStatusCacheValidateModificationTime;
+    }
+
+    @Config("hive.file-status-cache.validate-modification-time")
+    @ConfigDescription("Validate cached directory listings against the modification time of the directory")
+    public HiveClientConfig setFileStatusCacheValidateModificationTime(boolean fileStatusCacheValidateModificationTime)
+    {
+        this.fileStatusCacheValidateModificationTime = fileStatusCacheValidateModificationTime;
+        return this;
+    }
+
+    @NotNull
+    public Duration getFileStatusCacheValidationInterval()
+    {
+        return fileStatusCacheValidationInterval;
+    }
+
+    @Config("hive.file-status-cache.validation-interval")
+    @ConfigDescription("Time after which a cached directory listing is validated again")
+    public HiveClientConfig setFileStatusCacheValidationInterval(Duration fileStatusCacheValidationInterval)
+    {
+        this.fileStatusCacheValidationInterval = fileStatusCacheValidationInterval;
+        return this;
+    }
+
+    public boolean isFileStatusCacheBackgroundRefreshEnabled()
+    {
+        return fileStatusCacheBackgroundRefreshEnabled;
+    }
+
+    @Config("hive.file-status-cache.background-refresh-enabled")
+    @ConfigDescription("Serve cached directory listings while they are validated and refreshed in the background")
+    public HiveClientConfig setFileStatusCacheBackgroundRefreshEnabled(boolean fileStatusCacheBackgroundRefreshEnabled)
+    {
+        this.fileStatusCacheBackgroundRefreshEnabled = fileStatusCacheBackgroundRefreshEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getFileStatusCacheListingConcurrency()
+    {
+        return fileStatusCacheListingConcurrency;
+    }
+
+    @Config("hive.file-status-cache.listing-concurrency")
+    @ConfigDescription("Maximum number of directories listed concurrently by the file status cache")
+    public HiveClientConfig setFileStatusCacheListingConcurrency(int fileStatusCacheListingConcurrency)
+    {
+        this.fileStatusCacheListingConcurrency = fileStatusCacheListingConcurrency;
+        return this;
+    }
+
+    @Min(0)
+    public int getFileStatusCachePrefetchPartitions()
+    {
+        return fileStatusCachePrefetchPartitions;
+    }
+
+    @Config("hive.file-status-cache.prefetch-partitions")
+    @ConfigDescription("Number of partitions ahead of the split loader whose directories are listed in the background")
+    public HiveClientConfig setFileStatusCachePrefetchPartitions(int fileStatusCachePrefetchPartitions)
+    {
+        this.fileStatusCachePrefetchPartitions = fileStatusCachePrefetchPartitions;
+        return this;
+    }
+
+    public String getFileStatusCacheSnapshotPath()
+    {
+        return fileStatusCacheSnapshotPath;
+    }
+
+    @Config("hive.file-status-cache.snapshot-path")
+    @ConfigDescription("Local file the file status cache is saved to on shutdown and restored from on startup")
+    public HiveClientConfig setFileStatusCacheSnapshotPath(String fileStatusCacheSnapshotPath)
+    {
+        this.fileStatusCacheSnapshotPath = fileStatusCacheSnapshotPath;
+        return this;
+    }
+
     public enum HdfsAuthenticationType
     {
         NONE,
@@ -1845,4 +1935,45 @@ public class HiveClientConfig
         this.symlinkOptimizedReaderEnabled = symlinkOptimizedReaderEnabled;
         return this;
     }
+
+    public boolean isOrcStripePrefetchEnabled()
+    {
+        return orcStripePrefetchEnabled;
+    }
+
+    @Config("hive.orc.stripe-prefetch-enabled")
+    @ConfigDescription("Read the next ORC stripe in the background while the current stripe is decoded")
+    public HiveClientConfig setOrcStripePrefetchEnabled(boolean orcStripePrefetchEnabled)
+    {
+        this.orcStripePrefetchEnabled = orcStripePrefetchEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getOrcStripePrefetchMaxBufferSize()
+    {
+        return orcStripePrefetchMaxBufferSize;
+    }
+
+    @Config("hive.orc.stripe-prefetch-max-buffer-size")
+    @ConfigDescription("Maximum size of the prefetched data of a single ORC reader")
+    public HiveClientConfig setOrcStripePrefetchMaxBufferSize(DataSize orcStripePrefetchMaxBufferSize)
+    {
+        this.orcStripePrefetchMaxBufferSize = orcStripePrefetchMaxBufferSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getMaxOrcStripePrefetchThreads()
+    {
+        return maxOrcStripePrefetchThreads;
+    }
+
+    @Config("hive.orc.max-stripe-prefetch-threads")
+    @ConfigDescription("Maximum number of threads used to prefetch ORC stripes")
+    public HiveClientConfig setMaxOrcStripePrefetchThreads(int maxOrcStripePrefetchThreads)
+    {
+        this.maxOrcStripePrefetchThreads = maxOrcStripePrefetchThreads;
+        return this;
+    }
 }
@@ -263,6 +263,16 @@ public class HiveClientModule
                                 hiveClientConfig.getMaxConcurrentFileRenames())));
     }
 
+    @ForOrcStripePrefetch
+    @Singleton
+    @Provides
+    public ExecutorService createOrcStripePrefetchExecutor(HiveConnectorId hiveClientId, HiveClientConfig hiveClientConfig)
+    {
+        return newFixedThreadPool(
+                hiveClientConfig.getMaxOrcStripePrefetchThreads(),
+                daemonThreadsNamed("hive-orc-stripe-prefetch-" + hiveClientId + "-%s"));
+    }
+
     @ForZeroRowFileCreator
     @Singleton
     @Provides
@@ -35,6 +35,7 @@ public class HiveInsertTableHandle
             @JsonProperty("locationHandle") LocationHandle locationHandle,
             @JsonProperty("bucketProperty") Optional<HiveBucketProperty> bucketProperty,
             @JsonProperty("preferredOrderingColumns") List<SortingColumn> preferredOrderingColumns,
+            @JsonProperty("zOrderedBy") List<String> zOrderedBy,
             @JsonProperty("tableStorageFormat") HiveStorageFormat tableStorageFormat,
             @JsonProperty("partitionStorageFormat") HiveStorageFormat partitionStorageFormat,
             @JsonProperty("actualStorageFormat") HiveStorageFormat actualStorageFormat,
@@ -49,6 +50,7 @@ public class HiveInsertTableHandle
                 locationHandle,
                 bucketProperty,
                 preferredOrderingColumns,
+                zOrderedBy,
                 tableStorageFormat,
                 partitionStorageFormat,
                 actualStorageFormat,
@@ -45,6 +45,7 @@ import com.facebook.presto.hive.metastore.StorageFormat;
 import com.facebook.presto.hive.metastore.Table;
 import com.facebook.presto.hive.metastore.thrift.ThriftMetastoreUtil;
 import com.facebook.presto.hive.statistics.HiveStatisticsProvider;
+import com.facebook.presto.hive.util.ZOrderCurve;
 import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ColumnMetadata;
 import com.facebook.presto.spi.ConnectorDeleteTableHandle;
@@ -265,6 +266,7 @@ import static com.facebook.presto.hive.HiveTableProperties.TEXTFILE_COLLECTION_D
 import static com.facebook.presto.hive.HiveTableProperties.TEXTFILE_ESCAPE_DELIM;
 import static com.facebook.presto.hive.HiveTableProperties.TEXTFILE_FIELD_DELIM;
 import static com.facebook.presto.hive.HiveTableProperties.TEXTFILE_MAPKEY_DELIM;
+import static com.facebook.presto.hive.HiveTableProperties.Z_ORDERED_BY_PROPERTY;
 import static com.facebook.presto.hive.HiveTableProperties.getAvroSchemaUrl;
 import static com.facebook.presto.hive.HiveTableProperties.getBucketProperty;
 import static com.facebook.presto.hive.HiveTableProperties.getDwrfEncryptionAlgorithm;
@@ -280,6 +282,7 @@ import static com.facebook.presto.hive.HiveTableProperties.getOrcBloomFilterFpp;
 import static com.facebook.presto.hive.HiveTableProperties.getPartitionedBy;
 import static com.facebook.presto.hive.HiveTableProperties.getPreferredOrderingColumns;
 import static com.facebook.presto.hive.HiveTableProperties.getSingleCharacterProperty;
+import static com.facebook.presto.hive.HiveTableProperties.getZOrderedBy;
 import static com.facebook.presto.hive.HiveTableProperties.isExternalTable;
 import static com.facebook.presto.hive.HiveType.HIVE_BINARY;
 import static com.facebook.presto.hive.HiveType.toHiveType;
@@ -761,6 +764,12 @@ public class HiveMetadata
             properties.put(PREFERRED_ORDERING_COLUMNS, preferredOrderingColumns);
         }
 
+        // Z-order clustering columns
+        List<String> zOrderedBy = decodeZOrderedByFromStorage(table.get().getStorage());
+        if (!zOrderedBy.isEmpty()) {
+            properties.put(Z_ORDERED_BY_PROPERTY, zOrderedBy);
+        }
+
         // ORC format specific properties
         String orcBloomFilterColumns = table.get().getParameters().get(ORC_BLOOM_FILTER_COLUMNS_KEY);
         if (orcBloomFilterColumns != null) {
@@ -1077,6 +1086,7 @@ public class HiveMetadata
         List<HiveColumnHandle> columnHandles = getColumnHandles(tableMetadata, ImmutableSet.copyOf(partitionedBy), typeTranslator);
         HiveStorageFormat hiveStorageFormat = getHiveStorageFormat(tableMetadata.getProperties());
         List<SortingColumn> preferredOrderingColumns = getPreferredOrderingColumns(tableMetadata.getProperties());
+        List<String> zOrderedBy = getZOrderedBy(tableMetadata.getProperties());
 
         Optional<TableEncryptionProperties> tableEncryptionProperties = getTableEncryptionPropertiesFromTableProperties(tableMetadata, hiveStorageFormat, partitionedBy);
 
@@ -1108,7 +1118,7 @@ public class HiveMetadata
                     externalLocation);
         }
         else if (tableType.equals(MANAGED_TABLE) || tableType.equals(MATERIALIZED_VIEW)) {
-            LocationHandle locationHandle = locationService.forNewTable(metastore, session, schemaName, tableName, isTempPathRequired(session, bucketProperty, preferredOrderingColumns));
+            LocationHandle locationHandle = locationService.forNewTable(metastore, session, schemaName, tableName, isTempPathRequired(session, bucketProperty, preferredOrderingColumns, zOrderedBy));
             targetPath = locationService.getQueryWriteInfo(locationHandle).getTargetPath();
             if (getFooterSkipCount(tableMetadata.getProperties()).isPresent()) {
                 throw new PrestoException(NOT_SUPPORTED, format("Cannot create non external table with %s property", SKIP_FOOTER_COUNT_KEY));
@@ -1134,6 +1144,7 @@ public class HiveMetadata
                 partitionedBy,
                 bucketProperty,
                 preferredOrderingColumns,
+                zOrderedBy,
                 tableProperties,
                 targetPath,
                 tableType,
@@ -1471,6 +1482,7 @@ public class HiveMetadata
             List<String> partitionedBy,
             Optional<HiveBucketProperty> bucketProperty,
             List<SortingColumn> preferredOrderingColumns,
+            List<String> zOrderedBy,
             Map<String, String> additionalTableParameters,
             Path targetPath,
             PrestoTableType tableType,
@@ -1520,10 +1532,16 @@ public class HiveMetadata
                 .setPartitionColumns(partitionColumns)
                 .setParameters(tableParameters.build());
 
+        ImmutableMap.Builder<String, String> storageParameters = ImmutableMap.<String, String>builder()
+                .put(PREFERRED_ORDERING_COLUMNS, encodePreferredOrderingColumns(preferredOrderingColumns));
+        if (!zOrderedBy.isEmpty()) {
+            storageParameters.put(Z_ORDERED_BY_PROPERTY, Joiner.on(COMMA).join(zOrderedBy));
+        }
+
         tableBuilder.getStorageBuilder()
                 .setStorageFormat(fromHiveStorageFormat(hiveStorageFormat))
                 .setBucketProperty(bucketProperty)
-                .setParameters(ImmutableMap.of(PREFERRED_ORDERING_COLUMNS, encodePreferredOrderingColumns(preferredOrderingColumns)))
+                .setParameters(storageParameters.build())
                 .setSerdeParameters(serdeParameters)
                 .setLocation(targetPath.toString());
 
@@ -1750,6 +1768,7 @@ public class HiveMetadata
         List<String> partitionedBy = getPartitionedBy(tableMetadata.getProperties());
         Optional<HiveBucketProperty> bucketProperty = getBucketProperty(tableMetadata.getProperties());
         List<SortingColumn> preferredOrderingColumns = getPreferredOrderingColumns(tableMetadata.getProperties());
+        List<String> zOrderedBy = getZOrderedBy(tableMetadata.getProperties());
 
         // get the root directory for the database
         SchemaTableName schemaTableName = tableMetadata.getTable();
@@ -1783,7 +1802,7 @@ public class HiveMetadata
                 .collect(toList());
         checkPartitionTypesSupported(partitionColumns);
 
-        LocationHandle locationHandle = locationService.forNewTable(metastore, session, schemaName, tableName, isTempPathRequired(session, bucketProperty, preferredOrderingColumns));
+        LocationHandle locationHandle = locationService.forNewTable(metastore, session, schemaName, tableName, isTempPathRequired(session, bucketProperty, preferredOrderingColumns, zOrderedBy));
 
         HdfsContext context = new HdfsContext(session, schemaName, tableName, locationHandle.getTargetPath().toString(), true);
         Map<String, String> tableProperties = getEmptyTableProperties(
@@ -1804,6 +1823,7 @@ public class HiveMetadata
                 partitionedBy,
                 bucketProperty,
                 preferredOrderingColumns,
+                zOrderedBy,
                 session.getUser(),
                 tableProperties,
                 encryptionInformationProvider.getWriteEncryptionInformation(session, tableEncryptionProperties, schemaName, tableName));
@@ -1855,6 +1875,7 @@ public class HiveMetadata
                 handle.getPartitionedBy(),
                 handle.getBucketProperty(),
                 handle.getPreferredOrderingColumns(),
+                handle.getZOrderedBy(),
                 ImmutableMap.<String, String>builder()
                         .putAll(handle.getAdditionalTableParameters())
                         .putAll(tableEncryptionParameters)
@@ -2107,7 +2128,8 @@ public class HiveMetadata
         boolean tempPathRequired = isTempPathRequired(
                 session,
                 table.getStorage().getBucketProperty(),
-                decodePreferredOrderingColumnsFromStorage(table.getStorage()));
+                decodePreferredOrderingColumnsFromStorage(table.getStorage()),
+                decodeZOrderedByFromStorage(table.getStorage()));
         if (isTemporaryTable) {
             locationHandle = locationService.forTemporaryTable(metastore, session, table, tempPathRequired);
         }
@@ -2148,6 +2170,7 @@ public class HiveMetadata
                 locationHandle,
                 table.getStorage().getBucketProperty(),
                 decodePreferredOrderingColumnsFromStorage(table.getStorage()),
+                decodeZOrderedByFromStorage(table.getStorage()),
                 tableStorageFormat,
                 partitionStorageFormat,
                 actualStorageFormat,
@@ -2404,9 +2427,9 @@ public class HiveMetadata
         }
     }
 
-    private static boolean isTempPathRequired(ConnectorSession session, Optional<HiveBucketProperty> bucketProperty, List<SortingColumn> preferredOrderingColumns)
+    private static boolean isTempPathRequired(ConnectorSession session, Optional<HiveBucketProperty> bucketProperty, List<SortingColumn> preferredOrderingColumns, List<String> zOrderedBy)
     {
-        boolean hasSortedWrite = bucketProperty.map(property -> !property.getSortedBy().isEmpty()).orElse(false) || !preferredOrderingColumns.isEmpty();
+        boolean hasSortedWrite = bucketProperty.map(property -> !property.getSortedBy().isEmpty()).orElse(false) || !preferredOrderingColumns.isEmpty() || !zOrderedBy.isEmpty();
         return isSortedWriteToTempPathEnabled(session) && hasSortedWrite;
     }
 
@@ -3254,6 +3277,7 @@ public class HiveMetadata
     {
         validatePartitionColumns(tableMetadata);
         validateBucketColumns(tableMetadata);
+        validateZOrderColumns(tableMetadata);
         validateCsvColumns(tableMetadata);
         Optional<HiveBucketProperty> bucketProperty = getBucketProperty(tableMetadata.getProperties());
         if (!bucketProperty.isPresent()) {
@@ -3580,6 +3604,16 @@ public class HiveMetadata
                 .collect(toImmutableList());
     }
 
+    @VisibleForTesting
+    static List<String> decodeZOrderedByFromStorage(Storage storage)
+    {
+        if (!storage.getParameters().containsKey(Z_ORDERED_BY_PROPERTY)) {
+            return ImmutableList.of();
+        }
+
+        return Splitter.on(COMMA).trimResults().omitEmptyStrings().splitToList(storage.getParameters().get(Z_ORDERED_BY_PROPERTY));
+    }
+
     private static void validateBucketColumns(ConnectorTableMetadata tableMetadata)
     {
         Optional<HiveBucketProperty> bucketProperty = getBucketProperty(tableMetadata.getProperties());
@@ -3603,6 +3637,29 @@ public class HiveMetadata
         }
     }
 
+    private static void validateZOrderColumns(ConnectorTableMetadata tableMetadata)
+    {
+        List<String> zOrderedBy = getZOrderedBy(tableMetadata.getProperties());
+        if (zOrderedBy.isEmpty()) {
+            return;
+        }
+        Map<String, Type> columnTypes = tableMetadata.getColumns().stream()
+                .collect(toImmutableMap(ColumnMetadata::getName, ColumnMetadata::getType));
+        Set<String> partitionedBy = ImmutableSet.copyOf(getPartitionedBy(tableMetadata.getProperties()));
+        for (String column : zOrderedBy) {
+            Type type = columnTypes.get(column);
+            if (type == null) {
+                throw new PrestoException(INVALID_TABLE_PROPERTY, format("Z-order column %s not present in schema", column));
+            }
+            if (partitionedBy.contains(column)) {
+                throw new PrestoException(INVALID_TABLE_PROPERTY, format("Z-order column %s must not be a partition column", column));
+            }
+            if (!ZOrderCurve.isSupportedType(type)) {
+                throw new PrestoException(INVALID_TABLE_PROPERTY, format("Z-order column %s has unsupported type %s", column, type));
+            }
+        }
+    }
+
     private static Column columnHandleToColumn(MetastoreContext metastoreContext, HiveColumnHandle handle)
     {
         return new Column(
@@ -3744,6 +3801,7 @@ public class HiveMetadata
     {
         validatePartitionColumns(tableMetadata);
         validateBucketColumns(tableMetadata);
+        validateZOrderColumns(tableMetadata);
         validateCsvColumns(tableMetadata);
         return getColumnHandles(tableMetadata.getColumns(), partitionColumnNames, typeTranslator);
     }
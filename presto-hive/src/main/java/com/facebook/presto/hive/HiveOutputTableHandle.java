@@ -49,6 +49,7 @@ public class HiveOutputTableHandle
             @JsonProperty("partitionedBy") List<String> partitionedBy,
             @JsonProperty("bucketProperty") Optional<HiveBucketProperty> bucketProperty,
             @JsonProperty("preferredOrderingColumns") List<SortingColumn> preferredOrderingColumns,
+            @JsonProperty("zOrderedBy") List<String> zOrderedBy,
             @JsonProperty("tableOwner") String tableOwner,
             @JsonProperty("additionalTableParameters") Map<String, String> additionalTableParameters,
             @JsonProperty("encryptionInformation") Optional<EncryptionInformation> encryptionInformation)
@@ -61,6 +62,7 @@ public class HiveOutputTableHandle
                 locationHandle,
                 bucketProperty,
                 preferredOrderingColumns,
+                zOrderedBy,
                 tableStorageFormat,
                 partitionStorageFormat,
                 actualStorageFormat,
@@ -163,6 +163,7 @@ public class HivePageSinkProvider
                 additionalTableParameters,
                 bucketCount,
                 sortedBy,
+                handle.getZOrderedBy(),
                 handle.getLocationHandle(),
                 locationService,
                 session.getQueryId(),
@@ -70,6 +70,8 @@ public final class HiveSessionProperties
     private static final String MAX_SPLIT_SIZE = "max_split_size";
     private static final String MAX_INITIAL_SPLIT_SIZE = "max_initial_split_size";
     private static final String SYMLINK_OPTIMIZED_READER_ENABLED = "symlink_optimized_reader_enabled";
+    private static final String ORC_STRIPE_PREFETCH_ENABLED = "orc_stripe_prefetch_enabled";
+    private static final String ORC_STRIPE_PREFETCH_MAX_BUFFER_SIZE = "orc_stripe_prefetch_max_buffer_size";
     public static final String RCFILE_OPTIMIZED_WRITER_ENABLED = "rcfile_optimized_writer_enabled";
     private static final String RCFILE_OPTIMIZED_WRITER_VALIDATE = "rcfile_optimized_writer_validate";
     private static final String SORTED_WRITING_ENABLED = "sorted_writing_enabled";
@@ -674,6 +676,16 @@ public final class HiveSessionProperties
                         "When OPTIMIZE_PARSING_OF_PARTITION_VALUES is set to true, enable this optimizations when number of partitions exceed the threshold here",
                         hiveClientConfig.getOptimizeParsingOfPartitionValuesThreshold(),
                         false),
+                booleanProperty(
+                        ORC_STRIPE_PREFETCH_ENABLED,
+                        "Read the next ORC stripe in the background while the current stripe is decoded",
+                        hiveClientConfig.isOrcStripePrefetchEnabled(),
+                        false),
+                dataSizeSessionProperty(
+                        ORC_STRIPE_PREFETCH_MAX_BUFFER_SIZE,
+                        "Maximum size of the prefetched data of a single ORC reader",
+                        hiveClientConfig.getOrcStripePrefetchMaxBufferSize(),
+                        false),
                 booleanProperty(
                         NATIVE_STATS_BASED_FILTER_REORDER_DISABLED,
                         "Native Execution only. Disable stats based filter reordering.",
@@ -1186,4 +1198,14 @@ public final class HiveSessionProperties
     {
         return session.getProperty(SYMLINK_OPTIMIZED_READER_ENABLED, Boolean.class);
     }
+
+    public static boolean isOrcStripePrefetchEnabled(ConnectorSession session)
+    {
+        return session.getProperty(ORC_STRIPE_PREFETCH_ENABLED, Boolean.class);
+    }
+
+    public static DataSize getOrcStripePrefetchMaxBufferSize(ConnectorSession session)
+    {
+        return session.getProperty(ORC_STRIPE_PREFETCH_MAX_BUFFER_SIZE, DataSize.class);
+    }
 }
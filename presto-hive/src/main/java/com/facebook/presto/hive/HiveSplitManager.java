@@ -145,6 +145,7 @@ public class HiveSplitManager
     private final int minPartitionBatchSize;
     private final int maxPartitionBatchSize;
     private final int splitLoaderConcurrency;
+    private final int partitionPrefetchCount;
     private final boolean recursiveDfsWalkerEnabled;
     private final CounterStat highMemorySplitSourceCounter;
     private final CacheQuotaRequirementProvider cacheQuotaRequirementProvider;
@@ -177,6 +178,7 @@ public class HiveSplitManager
                 hiveClientConfig.getMinPartitionBatchSize(),
                 hiveClientConfig.getMaxPartitionBatchSize(),
                 hiveClientConfig.getSplitLoaderConcurrency(),
+                hiveClientConfig.getFileStatusCachePrefetchPartitions(),
                 hiveClientConfig.getRecursiveDirWalkerEnabled(),
                 cacheQuotaRequirementProvider,
                 encryptionInformationProvider,
@@ -196,6 +198,7 @@ public class HiveSplitManager
             int minPartitionBatchSize,
             int maxPartitionBatchSize,
             int splitLoaderConcurrency,
+            int partitionPrefetchCount,
             boolean recursiveDfsWalkerEnabled,
             CacheQuotaRequirementProvider cacheQuotaRequirementProvider,
             HiveEncryptionInformationProvider encryptionInformationProvider,
@@ -214,6 +217,8 @@ public class HiveSplitManager
         this.minPartitionBatchSize = minPartitionBatchSize;
         this.maxPartitionBatchSize = maxPartitionBatchSize;
         this.splitLoaderConcurrency = splitLoaderConcurrency;
+        checkArgument(partitionPrefetchCount >= 0, "partitionPrefetchCount must not be negative");
+        this.partitionPrefetchCount = partitionPrefetchCount;
         this.recursiveDfsWalkerEnabled = recursiveDfsWalkerEnabled;
         this.cacheQuotaRequirementProvider = requireNonNull(cacheQuotaRequirementProvider, "cacheQuotaRequirementProvider is null");
         this.encryptionInformationProvider = requireNonNull(encryptionInformationProvider, "encryptionInformationProvider is null");
@@ -312,6 +317,7 @@ public class HiveSplitManager
                 directoryLister,
                 executor,
                 min(splitLoaderConcurrency, partitions.size()), // Avoid over-committing split loader concurrency
+                partitionPrefetchCount,
                 recursiveDfsWalkerEnabled,
                 splitSchedulingContext.schedulerUsesHostAddresses(),
                 layout.isPartialAggregationsPushedDown());
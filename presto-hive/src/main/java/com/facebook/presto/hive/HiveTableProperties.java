@@ -50,6 +50,7 @@ public class HiveTableProperties
     public static final String ORC_BLOOM_FILTER_FPP = "orc_bloom_filter_fpp";
     public static final String AVRO_SCHEMA_URL = "avro_schema_url";
     public static final String PREFERRED_ORDERING_COLUMNS = "preferred_ordering_columns";
+    public static final String Z_ORDERED_BY_PROPERTY = "z_ordered_by";
     public static final String ENCRYPT_COLUMNS = "encrypt_columns";
     public static final String ENCRYPT_TABLE = "encrypt_table";
     public static final String DWRF_ENCRYPTION_ALGORITHM = "dwrf_encryption_algorithm";
@@ -156,6 +157,18 @@ public class HiveTableProperties
                                 .map(SortingColumn.class::cast)
                                 .map(SortingColumn::sortingColumnToString)
                                 .collect(toImmutableList())),
+                new PropertyMetadata<>(
+                        Z_ORDERED_BY_PROPERTY,
+                        "Columns to cluster the written files on in Z-order",
+                        typeManager.getType(parseTypeSignature("array(varchar)")),
+                        List.class,
+                        ImmutableList.of(),
+                        false,
+                        value -> ((Collection<?>) value).stream()
+                                .map(String.class::cast)
+                                .map(name -> name.toLowerCase(ENGLISH))
+                                .collect(toImmutableList()),
+                        value -> value),
                 stringProperty(ENCRYPT_TABLE, "Key reference for encrypting the whole table", null, false),
                 stringProperty(DWRF_ENCRYPTION_ALGORITHM, "Algorithm used for encryption data in DWRF", null, false),
                 stringProperty(DWRF_ENCRYPTION_PROVIDER, "Provider for encryption keys in provider", null, false),
@@ -283,6 +296,23 @@ public class HiveTableProperties
         return preferredOrderingColumns;
     }
 
+    @SuppressWarnings("unchecked")
+    public static List<String> getZOrderedBy(Map<String, Object> tableProperties)
+    {
+        List<String> zOrderedBy = (List<String>) tableProperties.get(Z_ORDERED_BY_PROPERTY);
+        if (zOrderedBy == null || zOrderedBy.isEmpty()) {
+            return ImmutableList.of();
+        }
+        if (!getPreferredOrderingColumns(tableProperties).isEmpty()) {
+            throw new PrestoException(INVALID_TABLE_PROPERTY, format("%s must not be specified when %s is specified", Z_ORDERED_BY_PROPERTY, PREFERRED_ORDERING_COLUMNS));
+        }
+        Optional<HiveBucketProperty> bucketProperty = getBucketProperty(tableProperties);
+        if (bucketProperty.isPresent() && !bucketProperty.get().getSortedBy().isEmpty()) {
+            throw new PrestoException(INVALID_TABLE_PROPERTY, format("%s must not be specified when %s is specified", Z_ORDERED_BY_PROPERTY, SORTED_BY_PROPERTY));
+        }
+        return ImmutableList.copyOf(zOrderedBy);
+    }
+
     public static String getEncryptTable(Map<String, Object> tableProperties)
     {
         return (String) tableProperties.get(ENCRYPT_TABLE);
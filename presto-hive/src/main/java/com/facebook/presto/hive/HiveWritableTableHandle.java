@@ -36,6 +36,7 @@ public class HiveWritableTableHandle
     private final LocationHandle locationHandle;
     private final Optional<HiveBucketProperty> bucketProperty;
     private final List<SortingColumn> preferredOrderingColumns;
+    private final List<String> zOrderedBy;
     private final HiveStorageFormat tableStorageFormat;
     private final HiveStorageFormat partitionStorageFormat;
     private final HiveStorageFormat actualStorageFormat;
@@ -50,6 +51,7 @@ public class HiveWritableTableHandle
             LocationHandle locationHandle,
             Optional<HiveBucketProperty> bucketProperty,
             List<SortingColumn> preferredOrderingColumns,
+            List<String> zOrderedBy,
             HiveStorageFormat tableStorageFormat,
             HiveStorageFormat partitionStorageFormat,
             HiveStorageFormat actualStorageFormat,
@@ -63,6 +65,7 @@ public class HiveWritableTableHandle
         this.locationHandle = requireNonNull(locationHandle, "locationHandle is null");
         this.bucketProperty = requireNonNull(bucketProperty, "bucketProperty is null");
         this.preferredOrderingColumns = requireNonNull(preferredOrderingColumns, "preferredOrderingColumns is null");
+        this.zOrderedBy = ImmutableList.copyOf(requireNonNull(zOrderedBy, "zOrderedBy is null"));
         this.tableStorageFormat = requireNonNull(tableStorageFormat, "tableStorageFormat is null");
         this.partitionStorageFormat = requireNonNull(partitionStorageFormat, "partitionStorageFormat is null");
         this.actualStorageFormat = requireNonNull(actualStorageFormat, "actualStorageFormat is null");
@@ -122,6 +125,12 @@ public class HiveWritableTableHandle
         return preferredOrderingColumns;
     }
 
+    @JsonProperty("zOrderedBy")
+    public List<String> getZOrderedBy()
+    {
+        return zOrderedBy;
+    }
+
     /* Use {@link #getActualStorageFormat()}*/
     @Deprecated
     @JsonProperty
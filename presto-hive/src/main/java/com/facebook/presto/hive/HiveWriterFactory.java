@@ -162,6 +162,7 @@ public class HiveWriterFactory
             Map<String, String> additionalTableParameters,
             OptionalInt bucketCount,
             List<SortingColumn> sortedBy,
+            List<String> zOrderedBy,
             LocationHandle locationHandle,
             LocationService locationService,
             String queryId,
@@ -261,7 +262,9 @@ public class HiveWriterFactory
                 writePath),
                 compressionCodec);
 
-        if (!sortedBy.isEmpty()) {
+        requireNonNull(zOrderedBy, "zOrderedBy is null");
+        if (!sortedBy.isEmpty() || !zOrderedBy.isEmpty()) {
+            checkArgument(sortedBy.isEmpty() || zOrderedBy.isEmpty(), "sortedBy and zOrderedBy cannot both be specified");
             List<Type> types = this.dataColumns.stream()
                     .map(column -> column.getHiveType().getType(typeManager))
                     .collect(toImmutableList());
@@ -281,6 +284,13 @@ public class HiveWriterFactory
                 sortFields.add(index);
                 sortOrders.add(column.getOrder().getSortOrder());
             }
+            for (String column : zOrderedBy) {
+                Integer index = columnIndexes.get(column);
+                if (index == null) {
+                    throw new PrestoException(HIVE_INVALID_METADATA, format("Z-order column '%s' does not exist in table '%s.%s'", column, schemaName, tableName));
+                }
+                sortFields.add(index);
+            }
 
             this.sortingFileWriterFactory = Optional.of(new SortingFileWriterFactory(
                     hdfsEnvironment,
@@ -289,6 +299,7 @@ public class HiveWriterFactory
                     types,
                     sortFields,
                     sortOrders,
+                    !zOrderedBy.isEmpty(),
                     sortBufferSize,
                     maxOpenSortFiles,
                     pageSorter,
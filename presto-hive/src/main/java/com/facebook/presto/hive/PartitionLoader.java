@@ -39,6 +39,13 @@ public abstract class PartitionLoader
     public abstract ListenableFuture<?> loadPartition(HivePartitionMetadata partition, HiveSplitSource hiveSplitSource, boolean stopped)
             throws IOException;
 
+    /**
+     * Hints that {@code partition} will be loaded soon. Failures are not reported, since they surface when the partition is loaded.
+     */
+    public void prefetchPartition(HivePartitionMetadata partition)
+    {
+    }
+
     public List<HivePartitionKey> getPartitionKeys(Table table, Optional<Partition> partition, String partitionName)
     {
         if (!partition.isPresent()) {
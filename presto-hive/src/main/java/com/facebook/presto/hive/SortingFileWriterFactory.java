@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_WRITER_OPEN_ERROR;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -42,6 +43,7 @@ public class SortingFileWriterFactory
     private final List<Type> types;
     private final List<Integer> sortFields;
     private final List<SortOrder> sortOrders;
+    private final boolean zOrdered;
     private final DataSize sortBufferSize;
     private final int maxOpenSortFiles;
     private final PageSorter pageSorter;
@@ -56,6 +58,7 @@ public class SortingFileWriterFactory
             List<Type> types,
             List<Integer> sortFields,
             List<SortOrder> sortOrders,
+            boolean zOrdered,
             DataSize sortBufferSize,
             int maxOpenSortFiles,
             PageSorter pageSorter,
@@ -69,6 +72,8 @@ public class SortingFileWriterFactory
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
         this.sortFields = ImmutableList.copyOf(requireNonNull(sortFields, "sortFields is null"));
         this.sortOrders = ImmutableList.copyOf(requireNonNull(sortOrders, "sortOrders is null"));
+        this.zOrdered = zOrdered;
+        checkArgument(zOrdered ? sortOrders.isEmpty() : sortOrders.size() == sortFields.size(), "sortOrders do not match sortFields");
         this.sortBufferSize = requireNonNull(sortBufferSize, "sortBufferSize is null");
         this.maxOpenSortFiles = maxOpenSortFiles;
         this.pageSorter = requireNonNull(pageSorter, "pageSorter is null");
@@ -77,7 +82,7 @@ public class SortingFileWriterFactory
         this.sortedWriteTempFileSubdirectoryCount = sortedWriteTempFileSubdirectoryCount;
     }
 
-    public SortingFileWriter createSortingFileWriter(Path path, HiveFileWriter outputWriter, int fileNumber, Optional<Path> tempPath)
+    public HiveFileWriter createSortingFileWriter(Path path, HiveFileWriter outputWriter, int fileNumber, Optional<Path> tempPath)
     {
         checkState(tempPath.isPresent() == sortedWriteToTempPathEnabled, "tempPath existence is not consistent with sortedWriteToTempPathEnabled config");
 
@@ -92,6 +97,20 @@ public class SortingFileWriterFactory
         Path prefix = sortedWriteToTempPathEnabled
                 ? new Path(tempPath.get(), format(".tmp-sort-%s/.tmp-sort-%s", fileNumber % sortedWriteTempFileSubdirectoryCount, path.getName()))
                 : new Path(path.getParent(), ".tmp-sort." + path.getName());
+        if (zOrdered) {
+            // sort fields are the Z-order clustering columns
+            return new ZOrderSortingFileWriter(
+                    fileSystem,
+                    prefix,
+                    outputWriter,
+                    sortBufferSize,
+                    maxOpenSortFiles,
+                    types,
+                    sortFields,
+                    pageSorter,
+                    (fs, p) -> orcFileWriterFactory.createDataSink(session, fs, p),
+                    sortedWriteToTempPathEnabled);
+        }
         return new SortingFileWriter(
                 fileSystem,
                 prefix,
@@ -495,6 +495,28 @@ public class StoragePartitionLoader
         return COMPLETED_FUTURE;
     }
 
+    @Override
+    public void prefetchPartition(HivePartitionMetadata partition)
+    {
+        // bucketed partitions are listed with a different nested directory policy
+        if (tableBucketInfo.isPresent() || !isUseListDirectoryCache(session)) {
+            return;
+        }
+        String location = getPartitionLocation(table, partition.getPartition());
+        if (location.isEmpty()) {
+            return;
+        }
+        Path path = new Path(location);
+        ExtendedFileSystem fileSystem;
+        try {
+            fileSystem = hdfsEnvironment.getFileSystem(hdfsContext, path);
+        }
+        catch (IOException e) {
+            return;
+        }
+        directoryLister.prefetch(fileSystem, table, path, partition.getPartition(), namenodeStats, createDirectoryContext(partition.getPartition()));
+    }
+
     private ListenableFuture<?> addSplitsToSource(InputSplit[] targetSplits, InternalHiveSplitFactory splitFactory, HiveSplitSource hiveSplitSource, boolean stopped)
             throws IOException
     {
@@ -517,6 +539,15 @@ public class StoragePartitionLoader
             InternalHiveSplitFactory splitFactory,
             boolean splittable,
             Optional<Partition> partition)
+    {
+        return stream(directoryLister.list(fileSystem, table, path, partition, namenodeStats, createDirectoryContext(partition)))
+                .map(hiveFileInfo -> splitFactory.createInternalHiveSplit(hiveFileInfo, splittable))
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .iterator();
+    }
+
+    private HiveDirectoryContext createDirectoryContext(Optional<Partition> partition)
     {
         boolean cacheable = isUseListDirectoryCache(session);
         if (partition.isPresent()) {
@@ -524,18 +555,13 @@ public class StoragePartitionLoader
             cacheable &= partition.get().isSealedPartition();
         }
 
-        HiveDirectoryContext hiveDirectoryContext = new HiveDirectoryContext(
+        return new HiveDirectoryContext(
                 recursiveDirWalkerEnabled ? RECURSE : IGNORED,
                 cacheable,
                 isSkipEmptyFilesEnabled(session),
                 hdfsContext.getIdentity(),
                 buildDirectoryContextProperties(session),
                 session.getRuntimeStats());
-        return stream(directoryLister.list(fileSystem, table, path, partition, namenodeStats, hiveDirectoryContext))
-                .map(hiveFileInfo -> splitFactory.createInternalHiveSplit(hiveFileInfo, splittable))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .iterator();
     }
 
     private List<InternalHiveSplit> getBucketedSplits(
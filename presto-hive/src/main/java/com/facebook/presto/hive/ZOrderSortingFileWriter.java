@@ -0,0 +1,241 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.hive.SortingFileWriter.TempFileSinkFactory;
+import com.facebook.presto.hive.util.ZOrderCurve;
+import com.facebook.presto.spi.PageSorter;
+import com.google.common.collect.ImmutableList;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.presto.common.block.SortOrder.ASC_NULLS_LAST;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Clusters the written rows in Z-order over several columns. Each page is extended with its
+ * Z-order key, sorted on the key with a {@link SortingFileWriter}, and the key is dropped
+ * again before the rows reach the output writer.
+ * <p>
+ * The keys are normalized to the range of the values of the clustering columns. The rows are
+ * buffered until the sort buffer is full, so that the range covers all the rows of files that
+ * are sorted in memory, and the range of the buffered rows is used for the rest of the file.
+ * The memory limit of the writer is split evenly between this buffer and the sort buffer.
+ */
+public class ZOrderSortingFileWriter
+        implements HiveFileWriter
+{
+    private final ZOrderCurve zOrderCurve;
+    private final HiveFileWriter outputWriter;
+    private final SortingFileWriter sortingFileWriter;
+    private final long maxBufferedBytes;
+
+    private final Queue<Page> bufferedPages = new ArrayDeque<>();
+    private long bufferedBytes;
+    private boolean boundsFixed;
+
+    public ZOrderSortingFileWriter(
+            FileSystem fileSystem,
+            Path tempFilePrefix,
+            HiveFileWriter outputWriter,
+            DataSize maxMemory,
+            int maxOpenTempFiles,
+            List<Type> types,
+            List<Integer> clusteringFields,
+            PageSorter pageSorter,
+            TempFileSinkFactory tempFileSinkFactory,
+            boolean sortedWriteToTempPathEnabled)
+    {
+        requireNonNull(types, "types is null");
+        requireNonNull(clusteringFields, "clusteringFields is null");
+        this.zOrderCurve = new ZOrderCurve(
+                clusteringFields,
+                clusteringFields.stream()
+                        .map(types::get)
+                        .collect(toImmutableList()));
+        this.outputWriter = requireNonNull(outputWriter, "outputWriter is null");
+        requireNonNull(maxMemory, "maxMemory is null");
+        this.maxBufferedBytes = maxMemory.toBytes() / 2;
+        int keyChannel = types.size();
+        this.sortingFileWriter = new SortingFileWriter(
+                fileSystem,
+                tempFilePrefix,
+                new KeyDroppingFileWriter(outputWriter, keyChannel),
+                new DataSize(maxMemory.toBytes() - maxBufferedBytes, BYTE),
+                maxOpenTempFiles,
+                ImmutableList.<Type>builder().addAll(types).add(VARBINARY).build(),
+                ImmutableList.of(keyChannel),
+                ImmutableList.of(ASC_NULLS_LAST),
+                pageSorter,
+                tempFileSinkFactory,
+                sortedWriteToTempPathEnabled);
+    }
+
+    @Override
+    public long getWrittenBytes()
+    {
+        return sortingFileWriter.getWrittenBytes();
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return bufferedBytes + sortingFileWriter.getSystemMemoryUsage();
+    }
+
+    @Override
+    public void appendRows(Page page)
+    {
+        if (boundsFixed) {
+            sortingFileWriter.appendRows(page.appendColumn(zOrderCurve.getKeys(page)));
+            return;
+        }
+        zOrderCurve.addBounds(page);
+        bufferedPages.add(page);
+        bufferedBytes += page.getRetainedSizeInBytes();
+        if (bufferedBytes >= maxBufferedBytes) {
+            flushBufferedPages();
+        }
+    }
+
+    @Override
+    public Optional<Page> commit()
+    {
+        flushBufferedPages();
+        return sortingFileWriter.commit();
+    }
+
+    @Override
+    public void rollback()
+    {
+        bufferedPages.clear();
+        bufferedBytes = 0;
+        sortingFileWriter.rollback();
+    }
+
+    @Override
+    public long getValidationCpuNanos()
+    {
+        return sortingFileWriter.getValidationCpuNanos();
+    }
+
+    @Override
+    public Optional<Runnable> getVerificationTask()
+    {
+        return sortingFileWriter.getVerificationTask();
+    }
+
+    @Override
+    public long getFileSizeInBytes()
+    {
+        return sortingFileWriter.getFileSizeInBytes();
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("outputWriter", outputWriter)
+                .toString();
+    }
+
+    private void flushBufferedPages()
+    {
+        boundsFixed = true;
+        while (!bufferedPages.isEmpty()) {
+            Page page = bufferedPages.poll();
+            bufferedBytes -= page.getRetainedSizeInBytes();
+            sortingFileWriter.appendRows(page.appendColumn(zOrderCurve.getKeys(page)));
+        }
+    }
+
+    private static class KeyDroppingFileWriter
+            implements HiveFileWriter
+    {
+        private final HiveFileWriter delegate;
+        private final int keyChannel;
+
+        public KeyDroppingFileWriter(HiveFileWriter delegate, int keyChannel)
+        {
+            this.delegate = requireNonNull(delegate, "delegate is null");
+            this.keyChannel = keyChannel;
+        }
+
+        @Override
+        public long getWrittenBytes()
+        {
+            return delegate.getWrittenBytes();
+        }
+
+        @Override
+        public long getSystemMemoryUsage()
+        {
+            return delegate.getSystemMemoryUsage();
+        }
+
+        @Override
+        public void appendRows(Page page)
+        {
+            delegate.appendRows(page.dropColumn(keyChannel));
+        }
+
+        @Override
+        public Optional<Page> commit()
+        {
+            return delegate.commit();
+        }
+
+        @Override
+        public void rollback()
+        {
+            delegate.rollback();
+        }
+
+        @Override
+        public long getValidationCpuNanos()
+        {
+            return delegate.getValidationCpuNanos();
+        }
+
+        @Override
+        public Optional<Runnable> getVerificationTask()
+        {
+            return delegate.getVerificationTask();
+        }
+
+        @Override
+        public long getFileSizeInBytes()
+        {
+            return delegate.getFileSizeInBytes();
+        }
+
+        @Override
+        public String toString()
+        {
+            return delegate.toString();
+        }
+    }
+}
@@ -28,6 +28,7 @@ import com.facebook.presto.expressions.DynamicFilters.DynamicFilterExtractResult
 import com.facebook.presto.hive.BucketAdaptation;
 import com.facebook.presto.hive.EncryptionInformation;
 import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.ForOrcStripePrefetch;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveClientConfig;
 import com.facebook.presto.hive.HiveCoercer;
@@ -87,6 +88,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.IntStream;
@@ -106,8 +109,10 @@ import static com.facebook.presto.hive.HiveCommonSessionProperties.isOrcBloomFil
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isOrcZstdJniDecompressionEnabled;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isUseOrcColumnNames;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_INVALID_BUCKET_FILES;
+import static com.facebook.presto.hive.HiveSessionProperties.getOrcStripePrefetchMaxBufferSize;
 import static com.facebook.presto.hive.HiveSessionProperties.isAdaptiveFilterReorderingEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isLegacyTimestampBucketing;
+import static com.facebook.presto.hive.HiveSessionProperties.isOrcStripePrefetchEnabled;
 import static com.facebook.presto.hive.HiveUtil.getPhysicalHiveColumnHandles;
 import static com.facebook.presto.hive.HiveUtil.typedPartitionKey;
 import static com.facebook.presto.hive.MetadataUtils.isEntireColumn;
@@ -139,6 +144,7 @@ public class OrcSelectivePageSourceFactory
     private final OrcFileTailSource orcFileTailSource;
     private final StripeMetadataSourceFactory stripeMetadataSourceFactory;
     private final TupleDomainFilterCache tupleDomainFilterCache;
+    private final Executor stripePrefetchExecutor;
 
     @Inject
     public OrcSelectivePageSourceFactory(
@@ -150,7 +156,8 @@ public class OrcSelectivePageSourceFactory
             FileFormatDataSourceStats stats,
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory,
-            TupleDomainFilterCache tupleDomainFilterCache)
+            TupleDomainFilterCache tupleDomainFilterCache,
+            @ForOrcStripePrefetch ExecutorService stripePrefetchExecutor)
     {
         this(
                 typeManager,
@@ -161,7 +168,8 @@ public class OrcSelectivePageSourceFactory
                 config.getDomainCompactionThreshold(),
                 orcFileTailSource,
                 stripeMetadataSourceFactory,
-                tupleDomainFilterCache);
+                tupleDomainFilterCache,
+                stripePrefetchExecutor);
     }
 
     public OrcSelectivePageSourceFactory(
@@ -173,7 +181,8 @@ public class OrcSelectivePageSourceFactory
             int domainCompactionThreshold,
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory,
-            TupleDomainFilterCache tupleDomainFilterCache)
+            TupleDomainFilterCache tupleDomainFilterCache,
+            Executor stripePrefetchExecutor)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
@@ -184,6 +193,7 @@ public class OrcSelectivePageSourceFactory
         this.orcFileTailSource = requireNonNull(orcFileTailSource, "orcFileTailCache is null");
         this.stripeMetadataSourceFactory = requireNonNull(stripeMetadataSourceFactory, "stripeMetadataSourceFactory is null");
         this.tupleDomainFilterCache = requireNonNull(tupleDomainFilterCache, "tupleDomainFilterCache is null");
+        this.stripePrefetchExecutor = requireNonNull(stripePrefetchExecutor, "stripePrefetchExecutor is null");
     }
 
     @Override
@@ -237,6 +247,7 @@ public class OrcSelectivePageSourceFactory
                 domainCompactionThreshold,
                 orcFileTailSource,
                 stripeMetadataSourceFactory,
+                stripePrefetchExecutor,
                 hiveFileContext,
                 tupleDomainFilterCache,
                 encryptionInformation,
@@ -268,6 +279,7 @@ public class OrcSelectivePageSourceFactory
             int domainCompactionThreshold,
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory,
+            Executor stripePrefetchExecutor,
             HiveFileContext hiveFileContext,
             TupleDomainFilterCache tupleDomainFilterCache,
             Optional<EncryptionInformation> encryptionInformation,
@@ -288,13 +300,18 @@ public class OrcSelectivePageSourceFactory
         DataSize maxMergeDistance = getOrcMaxMergeDistance(session);
         DataSize tinyStripeThreshold = getOrcTinyStripeThreshold(session);
         DataSize maxReadBlockSize = getOrcMaxReadBlockSize(session);
-        OrcReaderOptions orcReaderOptions = OrcReaderOptions.builder()
+        OrcReaderOptions.Builder orcReaderOptionsBuilder = OrcReaderOptions.builder()
                 .withMaxMergeDistance(maxMergeDistance)
                 .withTinyStripeThreshold(tinyStripeThreshold)
                 .withMaxBlockSize(maxReadBlockSize)
                 .withZstdJniDecompressionEnabled(isOrcZstdJniDecompressionEnabled(session))
-                .withAppendRowNumber(appendRowNumberEnabled || supplyRowIDs)
-                .build();
+                .withAppendRowNumber(appendRowNumberEnabled || supplyRowIDs);
+        if (isOrcStripePrefetchEnabled(session)) {
+            orcReaderOptionsBuilder
+                    .withStripePrefetchExecutor(stripePrefetchExecutor)
+                    .withStripePrefetchMaxBufferSize(getOrcStripePrefetchMaxBufferSize(session));
+        }
+        OrcReaderOptions orcReaderOptions = orcReaderOptionsBuilder.build();
         OrcAggregatedMemoryContext systemMemoryUsage = new HiveOrcAggregatedMemoryContext();
         try {
             checkArgument(!domainPredicate.isNone(), "Unexpected NONE domain");
@@ -0,0 +1,226 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.util;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.BigintType;
+import com.facebook.presto.common.type.BooleanType;
+import com.facebook.presto.common.type.CharType;
+import com.facebook.presto.common.type.DateType;
+import com.facebook.presto.common.type.DecimalType;
+import com.facebook.presto.common.type.DoubleType;
+import com.facebook.presto.common.type.IntegerType;
+import com.facebook.presto.common.type.RealType;
+import com.facebook.presto.common.type.SmallintType;
+import com.facebook.presto.common.type.TimestampType;
+import com.facebook.presto.common.type.TinyintType;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.VarbinaryType;
+import com.facebook.presto.common.type.VarcharType;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Double.doubleToLongBits;
+import static java.lang.Float.floatToIntBits;
+import static java.lang.Float.intBitsToFloat;
+import static java.lang.Long.compareUnsigned;
+import static java.lang.Long.numberOfLeadingZeros;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Computes Z-order (Morton order) keys over several columns. Each value is mapped to
+ * 64 bits whose unsigned order matches the order of the values, and the bits of all
+ * columns are interleaved into a single binary key. Sorting rows by the key clusters
+ * them on all columns at once, so min/max statistics of the written stripes and row
+ * groups are selective for predicates on any of the columns.
+ * <p>
+ * Before the bits are interleaved, the values of each column are normalized to the range
+ * of the values added with {@link #addBounds(Page)}, so that every column contributes its
+ * significant bits to the top of the key. Otherwise a column with a narrow range, such as
+ * small integers, would only differ in low bits, and the key would effectively be a linear
+ * sort on the columns with wide ranges. Values outside of the range are clamped to it.
+ */
+public final class ZOrderCurve
+{
+    private final List<Integer> channels;
+    private final List<Type> types;
+    // the range of the order-preserving bits of the non-null values of each column, empty while min > max
+    private final long[] minValues;
+    private final long[] maxValues;
+    private final long[] values;
+    private final byte[] key;
+
+    public ZOrderCurve(List<Integer> channels, List<Type> types)
+    {
+        this.channels = ImmutableList.copyOf(requireNonNull(channels, "channels is null"));
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        checkArgument(!channels.isEmpty(), "channels is empty");
+        checkArgument(channels.size() == types.size(), "channels and types have different sizes");
+        for (Type type : types) {
+            checkArgument(isSupportedType(type), "Type %s is not supported for Z-order clustering", type);
+        }
+        this.minValues = new long[channels.size()];
+        this.maxValues = new long[channels.size()];
+        Arrays.fill(minValues, -1);
+        this.values = new long[channels.size()];
+        this.key = new byte[channels.size() * Long.BYTES];
+    }
+
+    public static boolean isSupportedType(Type type)
+    {
+        return type instanceof BooleanType ||
+                type instanceof TinyintType ||
+                type instanceof SmallintType ||
+                type instanceof IntegerType ||
+                type instanceof BigintType ||
+                type instanceof DateType ||
+                type instanceof TimestampType ||
+                type instanceof RealType ||
+                type instanceof DoubleType ||
+                (type instanceof DecimalType && ((DecimalType) type).isShort()) ||
+                type instanceof VarcharType ||
+                type instanceof CharType ||
+                type instanceof VarbinaryType;
+    }
+
+    /**
+     * Widens the range of each column to include its values in {@code page}.
+     */
+    public void addBounds(Page page)
+    {
+        for (int i = 0; i < values.length; i++) {
+            Block block = page.getBlock(channels.get(i));
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                if (!block.isNull(position)) {
+                    long bits = toOrderPreservingBits(types.get(i), block, position);
+                    if (compareUnsigned(bits, minValues[i]) < 0) {
+                        minValues[i] = bits;
+                    }
+                    if (compareUnsigned(bits, maxValues[i]) > 0) {
+                        maxValues[i] = bits;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a VARBINARY block with the Z-order key of each position of {@code page}.
+     */
+    public Block getKeys(Page page)
+    {
+        int positionCount = page.getPositionCount();
+        BlockBuilder blockBuilder = VARBINARY.createBlockBuilder(null, positionCount, key.length);
+        for (int position = 0; position < positionCount; position++) {
+            for (int i = 0; i < values.length; i++) {
+                Block block = page.getBlock(channels.get(i));
+                if (block.isNull(position)) {
+                    // nulls are clustered after all other values
+                    values[i] = -1;
+                }
+                else {
+                    values[i] = normalize(toOrderPreservingBits(types.get(i), block, position), minValues[i], maxValues[i]);
+                }
+            }
+            interleave(values, key);
+            VARBINARY.writeSlice(blockBuilder, Slices.wrappedBuffer(key));
+        }
+        return blockBuilder.build();
+    }
+
+    /**
+     * Scales {@code bits} from the range from {@code min} to {@code max} to the most significant bits,
+     * by a power of two, so that the order of the values is preserved.
+     */
+    static long normalize(long bits, long min, long max)
+    {
+        if (compareUnsigned(min, max) >= 0) {
+            return 0;
+        }
+        if (compareUnsigned(bits, min) < 0) {
+            bits = min;
+        }
+        else if (compareUnsigned(bits, max) > 0) {
+            bits = max;
+        }
+        return (bits - min) << numberOfLeadingZeros(max - min);
+    }
+
+    /**
+     * Interleaves the bits of {@code values}, most significant bits first, into {@code key}.
+     */
+    static void interleave(long[] values, byte[] key)
+    {
+        int keyBit = 0;
+        int current = 0;
+        for (int bit = Long.SIZE - 1; bit >= 0; bit--) {
+            for (long value : values) {
+                current = (current << 1) | (int) ((value >>> bit) & 1);
+                keyBit++;
+                if ((keyBit & 7) == 0) {
+                    key[(keyBit >>> 3) - 1] = (byte) current;
+                    current = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps the value at {@code position} to 64 bits that compare as unsigned in the same order as the values.
+     * Nulls are mapped to the largest key, so they are clustered after all other values.
+     */
+    static long toOrderPreservingBits(Type type, Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return -1;
+        }
+        if (type instanceof BooleanType) {
+            return type.getBoolean(block, position) ? Long.MIN_VALUE : 0;
+        }
+        if (type instanceof RealType) {
+            int bits = floatToIntBits(intBitsToFloat((int) type.getLong(block, position)));
+            // flip all bits of negative values, and the sign bit of positive values
+            bits ^= (bits >> 31) | Integer.MIN_VALUE;
+            return ((long) bits) << 32;
+        }
+        if (type instanceof DoubleType) {
+            long bits = doubleToLongBits(type.getDouble(block, position));
+            return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+        }
+        if (type instanceof VarcharType || type instanceof CharType || type instanceof VarbinaryType) {
+            // the first 8 bytes in big endian order, padded with zeros
+            Slice slice = type.getSlice(block, position);
+            long bits = 0;
+            int length = min(slice.length(), Long.BYTES);
+            for (int i = 0; i < Long.BYTES; i++) {
+                bits <<= 8;
+                if (i < length) {
+                    bits |= slice.getByte(i) & 0xFF;
+                }
+            }
+            return bits;
+        }
+        // integral types, dates, timestamps and short decimals are stored as signed longs
+        return type.getLong(block, position) ^ Long.MIN_VALUE;
+    }
+}
@@ -244,6 +244,7 @@ public abstract class AbstractTestHiveFileSystem
                 config.getMinPartitionBatchSize(),
                 config.getMaxPartitionBatchSize(),
                 config.getSplitLoaderConcurrency(),
+                config.getFileStatusCachePrefetchPartitions(),
                 config.getRecursiveDirWalkerEnabled(),
                 new ConfigBasedCacheQuotaRequirementProvider(cacheConfig),
                 new HiveEncryptionInformationProvider(ImmutableSet.of()),
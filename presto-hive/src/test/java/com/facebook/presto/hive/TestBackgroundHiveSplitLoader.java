@@ -315,6 +315,49 @@ public class TestBackgroundHiveSplitLoader
                         "*,test_dbname.test_table"));
     }
 
+    @Test
+    public void testPartitionPrefetch()
+            throws Exception
+    {
+        CachingDirectoryLister cachingDirectoryLister = new CachingDirectoryLister(
+                new HadoopDirectoryLister(),
+                new Duration(5, TimeUnit.MINUTES),
+                new DataSize(100, KILOBYTE),
+                ImmutableList.of("*"));
+        ConnectorSession connectorSession = new TestingConnectorSession(getAllSessionProperties(
+                new HiveClientConfig().setMaxSplitSize(new DataSize(1.0, GIGABYTE))
+                        .setFileStatusCacheTables("*"),
+                new HiveCommonClientConfig()));
+        List<HivePartitionMetadata> partitions = ImmutableList.<HivePartitionMetadata>builder()
+                .addAll(samplePartitionMetadatas())
+                .addAll(samplePartitionMetadatas())
+                .addAll(samplePartitionMetadatas())
+                .build();
+
+        BackgroundHiveSplitLoader backgroundHiveSplitLoader = new BackgroundHiveSplitLoader(
+                SIMPLE_TABLE,
+                partitions,
+                ImmutableMap.of(),
+                createBucketSplitInfo(Optional.empty(), Optional.empty()),
+                connectorSession,
+                new TestingHdfsEnvironment(TEST_FILES),
+                new NamenodeStats(),
+                cachingDirectoryLister,
+                EXECUTOR,
+                2,
+                2,
+                false,
+                false,
+                false);
+        HiveSplitSource hiveSplitSource = hiveSplitSource(backgroundHiveSplitLoader);
+        backgroundHiveSplitLoader.start(hiveSplitSource);
+
+        assertEquals(drainSplits(hiveSplitSource).size(), partitions.size() * TEST_FILES.size());
+        // the directory is listed once by the prefetch, and every load is served from the cache
+        assertEquals(cachingDirectoryLister.getRequestCount(), partitions.size());
+        assertEquals(cachingDirectoryLister.getMissCount(), 0);
+    }
+
     @Test
     public void testSplittableNotCheckedOnSmallFiles()
             throws Exception
@@ -536,6 +579,7 @@ public class TestBackgroundHiveSplitLoader
                 new CachingDirectoryLister(new HadoopDirectoryLister(), new HiveClientConfig()),
                 EXECUTOR,
                 2,
+                0,
                 false,
                 false,
                 false);
@@ -571,6 +615,7 @@ public class TestBackgroundHiveSplitLoader
                 directoryLister,
                 EXECUTOR,
                 2,
+                0,
                 false,
                 false,
                 false);
@@ -593,6 +638,7 @@ public class TestBackgroundHiveSplitLoader
                 new CachingDirectoryLister(new HadoopDirectoryLister(), new HiveClientConfig()),
                 directExecutor(),
                 2,
+                0,
                 false,
                 false,
                 false);
@@ -0,0 +1,374 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.airlift.units.Duration;
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.hive.filesystem.ExtendedFileSystem;
+import com.facebook.presto.hive.metastore.Partition;
+import com.facebook.presto.hive.metastore.Table;
+import com.facebook.presto.spi.security.ConnectorIdentity;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.HadoopExtendedFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.facebook.presto.hive.NestedDirectoryPolicy.IGNORED;
+import static com.facebook.presto.hive.NestedDirectoryPolicy.RECURSE;
+import static com.facebook.presto.hive.TestBackgroundHiveSplitLoader.SIMPLE_TABLE;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestCachingDirectoryLister
+{
+    private File tempDirectory;
+    private ExtendedFileSystem fileSystem;
+
+    @BeforeClass
+    public void setUp()
+            throws IOException
+    {
+        tempDirectory = createTempDir();
+        RawLocalFileSystem localFileSystem = new RawLocalFileSystem();
+        localFileSystem.initialize(URI.create("file:///"), new Configuration(false));
+        fileSystem = new HadoopExtendedFileSystem(localFileSystem);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(tempDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testModificationTimeValidation()
+            throws IOException
+    {
+        File directory = createDirectory("validation", "a");
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        CachingDirectoryLister lister = createLister(delegate, false, Optional.empty(), directExecutor());
+
+        assertEquals(list(lister, directory), ImmutableList.of("a"));
+        assertEquals(list(lister, directory), ImmutableList.of("a"));
+        assertEquals(delegate.getListCount(), 1);
+
+        addFile(directory, "b");
+        assertEquals(list(lister, directory), ImmutableList.of("a", "b"));
+        assertEquals(list(lister, directory), ImmutableList.of("a", "b"));
+        assertEquals(delegate.getListCount(), 2);
+    }
+
+    @Test
+    public void testUnknownModificationTime()
+            throws IOException
+    {
+        File directory = createDirectory("unknown", "a");
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        CachingDirectoryLister lister = createLister(delegate, false, Optional.empty(), directExecutor());
+        RawLocalFileSystem localFileSystem = new RawLocalFileSystem()
+        {
+            @Override
+            public FileStatus getFileStatus(Path path)
+                    throws IOException
+            {
+                // object stores report a modification time of zero for directories
+                FileStatus status = super.getFileStatus(path);
+                return new FileStatus(status.getLen(), status.isDirectory(), status.getReplication(), status.getBlockSize(), 0, status.getPath());
+            }
+        };
+        localFileSystem.initialize(URI.create("file:///"), new Configuration(false));
+        ExtendedFileSystem fileSystem = new HadoopExtendedFileSystem(localFileSystem);
+
+        assertEquals(list(lister, fileSystem, directory, IGNORED), ImmutableList.of("a"));
+        addFile(directory, "b");
+        assertEquals(list(lister, fileSystem, directory, IGNORED), ImmutableList.of("a", "b"));
+        assertEquals(delegate.getListCount(), 2);
+    }
+
+    @Test
+    public void testRecursiveListing()
+            throws IOException
+    {
+        File directory = createDirectory("recursive", "a");
+        File nested = new File(directory, "nested");
+        assertTrue(nested.mkdir());
+        assertTrue(new File(nested, "b").createNewFile());
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        CachingDirectoryLister lister = createLister(delegate, false, Optional.empty(), directExecutor());
+
+        assertEquals(list(lister, fileSystem, directory, RECURSE), ImmutableList.of("a", "b"));
+        // adding a file to a nested directory does not change the modification time of the directory
+        long modificationTime = directory.lastModified();
+        addFile(nested, "c");
+        assertTrue(directory.setLastModified(modificationTime));
+        assertEquals(list(lister, fileSystem, directory, RECURSE), ImmutableList.of("a", "b", "c"));
+        assertEquals(delegate.getListCount(), 2);
+    }
+
+    @Test
+    public void testValidationDoesNotExtendExpiration()
+            throws Exception
+    {
+        File directory = createDirectory("expiration", "a");
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        CachingDirectoryLister lister = new CachingDirectoryLister(
+                delegate,
+                new Duration(2, TimeUnit.SECONDS),
+                new DataSize(1, MEGABYTE),
+                ImmutableList.of("*"),
+                true,
+                new Duration(0, TimeUnit.SECONDS),
+                false,
+                Optional.empty(),
+                directExecutor());
+
+        assertEquals(list(lister, directory), ImmutableList.of("a"));
+        Thread.sleep(1_000);
+        // the unchanged directory is validated, which puts the listing in the cache again
+        assertEquals(list(lister, directory), ImmutableList.of("a"));
+        Thread.sleep(1_500);
+        assertEquals(list(lister, directory), ImmutableList.of("a"));
+        assertEquals(delegate.getListCount(), 2);
+    }
+
+    @Test
+    public void testBackgroundRefresh()
+            throws IOException
+    {
+        File directory = createDirectory("refresh", "a");
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        QueuedExecutor executor = new QueuedExecutor();
+        CachingDirectoryLister lister = createLister(delegate, true, Optional.empty(), executor);
+
+        assertEquals(list(lister, directory), ImmutableList.of("a"));
+        addFile(directory, "b");
+
+        // the previous listing is served while the directory is listed again in the background
+        assertEquals(list(lister, directory), ImmutableList.of("a"));
+        assertEquals(list(lister, directory), ImmutableList.of("a"));
+        assertEquals(lister.getPendingListingCount(), 1);
+        executor.runPending();
+        assertEquals(lister.getPendingListingCount(), 0);
+        assertEquals(delegate.getListCount(), 2);
+
+        assertEquals(list(lister, directory), ImmutableList.of("a", "b"));
+        // an unchanged directory is not listed again
+        executor.runPending();
+        assertEquals(delegate.getListCount(), 2);
+    }
+
+    @Test
+    public void testPrefetch()
+            throws IOException
+    {
+        File first = createDirectory("prefetch1", "a");
+        File second = createDirectory("prefetch2", "b", "c");
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        QueuedExecutor executor = new QueuedExecutor();
+        CachingDirectoryLister lister = createLister(delegate, false, Optional.empty(), executor);
+
+        prefetch(lister, first);
+        prefetch(lister, second);
+        prefetch(lister, second);
+        assertEquals(lister.getPendingListingCount(), 2);
+        assertEquals(delegate.getListCount(), 0);
+
+        executor.runPending();
+        assertEquals(delegate.getListCount(), 2);
+        assertTrue(lister.isPathCached(new Path(first.toURI())));
+        assertEquals(list(lister, first), ImmutableList.of("a"));
+        assertEquals(list(lister, second), ImmutableList.of("b", "c"));
+        assertEquals(delegate.getListCount(), 2);
+
+        // directories of tables that are not cached are not prefetched
+        CachingDirectoryLister uncachedLister = new CachingDirectoryLister(
+                delegate,
+                new Duration(5, TimeUnit.MINUTES),
+                new DataSize(1, MEGABYTE),
+                ImmutableList.of("other_schema.other_table"),
+                true,
+                new Duration(0, TimeUnit.SECONDS),
+                false,
+                Optional.empty(),
+                executor);
+        prefetch(uncachedLister, first);
+        assertEquals(uncachedLister.getPendingListingCount(), 0);
+    }
+
+    @Test
+    public void testSnapshot()
+            throws IOException
+    {
+        File directory = createDirectory("snapshot", "a", "b");
+        File snapshotFile = new File(tempDirectory, "snapshot.bin");
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+
+        CachingDirectoryLister lister = createLister(delegate, false, Optional.of(snapshotFile), directExecutor());
+        assertEquals(list(lister, directory), ImmutableList.of("a", "b"));
+        lister.destroy();
+        assertTrue(snapshotFile.exists());
+
+        // restored listings are validated before they are used
+        CachingDirectoryLister restoredLister = createLister(delegate, false, Optional.of(snapshotFile), directExecutor());
+        assertTrue(restoredLister.isPathCached(new Path(directory.toURI())));
+        assertEquals(list(restoredLister, directory), ImmutableList.of("a", "b"));
+        assertEquals(delegate.getListCount(), 1);
+
+        lister.destroy();
+        addFile(directory, "c");
+        restoredLister = createLister(delegate, false, Optional.of(snapshotFile), directExecutor());
+        assertEquals(list(restoredLister, directory), ImmutableList.of("a", "b", "c"));
+        assertEquals(delegate.getListCount(), 2);
+
+        // a corrupted snapshot is ignored
+        assertTrue(snapshotFile.delete());
+        Files.write(snapshotFile.toPath(), new byte[] {1, 2, 3});
+        restoredLister = createLister(delegate, false, Optional.of(snapshotFile), directExecutor());
+        assertFalse(restoredLister.isPathCached(new Path(directory.toURI())));
+    }
+
+    private static CachingDirectoryLister createLister(DirectoryLister delegate, boolean backgroundRefreshEnabled, Optional<File> snapshotFile, Executor executor)
+    {
+        return new CachingDirectoryLister(
+                delegate,
+                new Duration(5, TimeUnit.MINUTES),
+                new DataSize(1, MEGABYTE),
+                ImmutableList.of("*"),
+                true,
+                new Duration(0, TimeUnit.SECONDS),
+                backgroundRefreshEnabled,
+                snapshotFile,
+                executor);
+    }
+
+    private List<String> list(CachingDirectoryLister lister, File directory)
+    {
+        return list(lister, fileSystem, directory, IGNORED);
+    }
+
+    private static List<String> list(CachingDirectoryLister lister, ExtendedFileSystem fileSystem, File directory, NestedDirectoryPolicy nestedDirectoryPolicy)
+    {
+        Iterator<HiveFileInfo> files = lister.list(fileSystem, SIMPLE_TABLE, new Path(directory.toURI()), Optional.empty(), new NamenodeStats(), createDirectoryContext(nestedDirectoryPolicy));
+        return ImmutableList.copyOf(files).stream()
+                .map(HiveFileInfo::getFileName)
+                .sorted()
+                .collect(toImmutableList());
+    }
+
+    private void prefetch(CachingDirectoryLister lister, File directory)
+    {
+        lister.prefetch(fileSystem, SIMPLE_TABLE, new Path(directory.toURI()), Optional.empty(), new NamenodeStats(), createDirectoryContext(IGNORED));
+    }
+
+    private static HiveDirectoryContext createDirectoryContext(NestedDirectoryPolicy nestedDirectoryPolicy)
+    {
+        return new HiveDirectoryContext(
+                nestedDirectoryPolicy,
+                true,
+                false,
+                new ConnectorIdentity("test", Optional.empty(), Optional.empty()),
+                ImmutableMap.of(),
+                new RuntimeStats());
+    }
+
+    private File createDirectory(String name, String... files)
+            throws IOException
+    {
+        File directory = new File(tempDirectory, name);
+        assertTrue(directory.mkdir());
+        for (String file : files) {
+            assertTrue(new File(directory, file).createNewFile());
+        }
+        return directory;
+    }
+
+    private static void addFile(File directory, String name)
+            throws IOException
+    {
+        long modificationTime = directory.lastModified();
+        assertTrue(new File(directory, name).createNewFile());
+        // the modification time may have a coarse resolution
+        assertTrue(directory.setLastModified(modificationTime + 10_000));
+    }
+
+    private static class CountingDirectoryLister
+            implements DirectoryLister
+    {
+        private final DirectoryLister delegate = new HadoopDirectoryLister();
+        private int listCount;
+
+        @Override
+        public synchronized Iterator<HiveFileInfo> list(
+                ExtendedFileSystem fileSystem,
+                Table table,
+                Path path,
+                Optional<Partition> partition,
+                NamenodeStats namenodeStats,
+                HiveDirectoryContext hiveDirectoryContext)
+        {
+            listCount++;
+            return delegate.list(fileSystem, table, path, partition, namenodeStats, hiveDirectoryContext);
+        }
+
+        public synchronized int getListCount()
+        {
+            return listCount;
+        }
+    }
+
+    private static class QueuedExecutor
+            implements Executor
+    {
+        private final List<Runnable> pending = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command)
+        {
+            pending.add(command);
+        }
+
+        public void runPending()
+        {
+            List<Runnable> tasks = ImmutableList.copyOf(pending);
+            pending.clear();
+            tasks.forEach(Runnable::run);
+        }
+    }
+}
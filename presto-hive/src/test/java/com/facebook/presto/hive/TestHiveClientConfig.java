@@ -123,6 +123,12 @@ public class TestHiveClientConfig
                 .setFileStatusCacheExpireAfterWrite(new Duration(0, TimeUnit.SECONDS))
                 .setFileStatusCacheMaxRetainedSize(new DataSize(0, KILOBYTE))
                 .setFileStatusCacheTables("")
+                .setFileStatusCacheValidateModificationTime(false)
+                .setFileStatusCacheValidationInterval(new Duration(0, TimeUnit.SECONDS))
+                .setFileStatusCacheBackgroundRefreshEnabled(false)
+                .setFileStatusCacheListingConcurrency(16)
+                .setFileStatusCachePrefetchPartitions(0)
+                .setFileStatusCacheSnapshotPath(null)
                 .setPageFileStripeMaxSize(new DataSize(24, Unit.MEGABYTE))
                 .setBucketFunctionTypeForExchange(HIVE_COMPATIBLE)
                 .setBucketFunctionTypeForCteMaterialization(PRESTO_NATIVE)
@@ -167,7 +173,10 @@ public class TestHiveClientConfig
                 .setOptimizeParsingOfPartitionValues(false)
                 .setOptimizeParsingOfPartitionValuesThreshold(500)
                 .setLegacyTimestampBucketing(false)
-                .setSymlinkOptimizedReaderEnabled(true));
+                .setSymlinkOptimizedReaderEnabled(true)
+                .setOrcStripePrefetchEnabled(false)
+                .setOrcStripePrefetchMaxBufferSize(new DataSize(64, Unit.MEGABYTE))
+                .setMaxOrcStripePrefetchThreads(64));
     }
 
     @Test
@@ -250,6 +259,12 @@ public class TestHiveClientConfig
                 .put("hive.file-status-cache-tables", "foo.bar1, foo.bar2")
                 .put("hive.file-status-cache.max-retained-size", "500MB")
                 .put("hive.file-status-cache-expire-time", "30m")
+                .put("hive.file-status-cache.validate-modification-time", "true")
+                .put("hive.file-status-cache.validation-interval", "1m")
+                .put("hive.file-status-cache.background-refresh-enabled", "true")
+                .put("hive.file-status-cache.listing-concurrency", "32")
+                .put("hive.file-status-cache.prefetch-partitions", "100")
+                .put("hive.file-status-cache.snapshot-path", "/tmp/file-status-cache")
                 .put("hive.pagefile.writer.stripe-max-size", "1kB")
                 .put("hive.bucket-function-type-for-exchange", "PRESTO_NATIVE")
                 .put("hive.bucket-function-type-for-cte-materialization", "HIVE_COMPATIBLE")
@@ -295,6 +310,9 @@ public class TestHiveClientConfig
                 .put("hive.optimize-parsing-of-partition-values-threshold", "100")
                 .put("hive.legacy-timestamp-bucketing", "true")
                 .put("hive.experimental.symlink.optimized-reader.enabled", "false")
+                .put("hive.orc.stripe-prefetch-enabled", "true")
+                .put("hive.orc.stripe-prefetch-max-buffer-size", "32MB")
+                .put("hive.orc.max-stripe-prefetch-threads", "16")
                 .build();
 
         HiveClientConfig expected = new HiveClientConfig()
@@ -373,6 +391,12 @@ public class TestHiveClientConfig
                 .setFileStatusCacheTables("foo.bar1,foo.bar2")
                 .setFileStatusCacheMaxRetainedSize((new DataSize(500, MEGABYTE)))
                 .setFileStatusCacheExpireAfterWrite(new Duration(30, TimeUnit.MINUTES))
+                .setFileStatusCacheValidateModificationTime(true)
+                .setFileStatusCacheValidationInterval(new Duration(1, TimeUnit.MINUTES))
+                .setFileStatusCacheBackgroundRefreshEnabled(true)
+                .setFileStatusCacheListingConcurrency(32)
+                .setFileStatusCachePrefetchPartitions(100)
+                .setFileStatusCacheSnapshotPath("/tmp/file-status-cache")
                 .setPageFileStripeMaxSize(new DataSize(1, Unit.KILOBYTE))
                 .setBucketFunctionTypeForExchange(PRESTO_NATIVE)
                 .setBucketFunctionTypeForCteMaterialization(HIVE_COMPATIBLE)
@@ -417,7 +441,10 @@ public class TestHiveClientConfig
                 .setOptimizeParsingOfPartitionValues(true)
                 .setOptimizeParsingOfPartitionValuesThreshold(100)
                 .setLegacyTimestampBucketing(true)
-                .setSymlinkOptimizedReaderEnabled(false);
+                .setSymlinkOptimizedReaderEnabled(false)
+                .setOrcStripePrefetchEnabled(true)
+                .setOrcStripePrefetchMaxBufferSize(new DataSize(32, Unit.MEGABYTE))
+                .setMaxOrcStripePrefetchThreads(16);
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
@@ -77,6 +77,7 @@ import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import static com.facebook.airlift.json.JsonCodec.jsonCodec;
+import static com.facebook.airlift.testing.Assertions.assertLessThan;
 import static com.facebook.presto.SystemSessionProperties.COLOCATED_JOIN;
 import static com.facebook.presto.SystemSessionProperties.CONCURRENT_LIFESPANS_PER_NODE;
 import static com.facebook.presto.SystemSessionProperties.EXCHANGE_MATERIALIZATION_STRATEGY;
@@ -2530,6 +2531,45 @@ public class TestHiveIntegrationSmokeTest
         }
     }
 
+    @Test
+    public void testWriteZOrderedTable()
+    {
+        // a single file with stripes of 100 rows, whose statistics show how well the rows are clustered
+        Session session = Session.builder(getSession())
+                .setSystemProperty("redistribute_writes", "false")
+                .setSystemProperty("scale_writers", "false")
+                .setSystemProperty("task_writer_count", "1")
+                .setCatalogSessionProperty(catalog, "orc_optimized_writer_max_stripe_rows", "100")
+                .build();
+        // y has a much wider range than x, which the Z-order key normalizes away
+        String grid = "SELECT x, y * 1000000 AS y FROM UNNEST(sequence(0, 99)) AS t(x) CROSS JOIN UNNEST(sequence(0, 99)) AS u(y)";
+        try {
+            assertUpdate(session, "CREATE TABLE test_z_ordered WITH (format = 'ORC', z_ordered_by = ARRAY['x', 'y']) AS " + grid, 10_000);
+            assertEquals(computeScalar("SELECT count(DISTINCT \"$path\") FROM test_z_ordered"), 1L);
+            assertEqualsIgnoreOrder(computeActual("SELECT x, y FROM test_z_ordered"), computeActual(grid));
+
+            // a predicate on either column skips most of the stripes
+            assertLessThan(getRawInputPositions("SELECT count(*) FROM test_z_ordered WHERE x = 50"), 3_000L);
+            assertLessThan(getRawInputPositions("SELECT count(*) FROM test_z_ordered WHERE y = 50000000"), 3_000L);
+
+            // a linear sort only clusters the rows on its leading column
+            assertUpdate(session, "CREATE TABLE test_linear_ordered WITH (format = 'ORC', preferred_ordering_columns = ARRAY['x']) AS " + grid, 10_000);
+            assertLessThan(getRawInputPositions("SELECT count(*) FROM test_linear_ordered WHERE x = 50"), 3_000L);
+            assertEquals(getRawInputPositions("SELECT count(*) FROM test_linear_ordered WHERE y = 50000000"), 10_000L);
+        }
+        finally {
+            assertUpdate("DROP TABLE IF EXISTS test_z_ordered");
+            assertUpdate("DROP TABLE IF EXISTS test_linear_ordered");
+        }
+    }
+
+    private long getRawInputPositions(@Language("SQL") String sql)
+    {
+        DistributedQueryRunner queryRunner = (DistributedQueryRunner) getQueryRunner();
+        ResultWithQueryId<MaterializedResult> result = queryRunner.executeWithQueryId(getSession(), sql);
+        return queryRunner.getQueryInfo(result.getQueryId()).getQueryStats().getRawInputPositions();
+    }
+
     @Test
     public void testScaleWriters()
     {
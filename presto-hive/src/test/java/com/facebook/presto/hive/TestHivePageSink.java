@@ -325,6 +325,7 @@ public class TestHivePageSink
                 ImmutableList.of(),
                 Optional.empty(),
                 ImmutableList.of(),
+                ImmutableList.of(),
                 "test",
                 ImmutableMap.of(),
                 Optional.empty());
@@ -548,6 +548,7 @@ public class TestHiveSplitManager
                 hiveClientConfig.getMinPartitionBatchSize(),
                 hiveClientConfig.getMaxPartitionBatchSize(),
                 hiveClientConfig.getSplitLoaderConcurrency(),
+                hiveClientConfig.getFileStatusCachePrefetchPartitions(),
                 false,
                 new ConfigBasedCacheQuotaRequirementProvider(new CacheConfig()),
                 new HiveEncryptionInformationProvider(ImmutableList.of()),
@@ -695,6 +696,7 @@ public class TestHiveSplitManager
                 hiveClientConfig.getMinPartitionBatchSize(),
                 hiveClientConfig.getMaxPartitionBatchSize(),
                 hiveClientConfig.getSplitLoaderConcurrency(),
+                hiveClientConfig.getFileStatusCachePrefetchPartitions(),
                 false,
                 new ConfigBasedCacheQuotaRequirementProvider(new CacheConfig()),
                 encryptionInformationProvider,
@@ -0,0 +1,165 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.util;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.ArrayType;
+import com.facebook.presto.common.type.Type;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.hive.util.ZOrderCurve.interleave;
+import static com.facebook.presto.hive.util.ZOrderCurve.isSupportedType;
+import static com.facebook.presto.hive.util.ZOrderCurve.normalize;
+import static com.facebook.presto.hive.util.ZOrderCurve.toOrderPreservingBits;
+import static java.lang.Float.floatToRawIntBits;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestZOrderCurve
+{
+    @Test
+    public void testInterleave()
+    {
+        byte[] key = new byte[16];
+        interleave(new long[] {-1L, 0L}, key);
+        for (byte value : key) {
+            assertEquals(value, (byte) 0b10101010);
+        }
+
+        interleave(new long[] {0L, 1L}, key);
+        for (int i = 0; i < key.length - 1; i++) {
+            assertEquals(key[i], 0);
+        }
+        assertEquals(key[key.length - 1], 1);
+    }
+
+    @Test
+    public void testOrderPreservingBits()
+    {
+        assertOrdered(BIGINT, createBlock(BIGINT, Long.MIN_VALUE, -1L, 0L, 1L, Long.MAX_VALUE - 1));
+        assertOrdered(DOUBLE, createBlock(DOUBLE, Double.NEGATIVE_INFINITY, -1.5, -0.0, 0.0, 2.5, Double.POSITIVE_INFINITY));
+        assertOrdered(REAL, createBlock(REAL, (long) floatToRawIntBits(-3.0f), (long) floatToRawIntBits(-1.0f), (long) floatToRawIntBits(0.0f), (long) floatToRawIntBits(7.0f)));
+        assertOrdered(VARCHAR, createBlock(VARCHAR, "", "a", "ab", "b", "bcdefghi"));
+
+        // nulls are mapped to the largest key
+        assertEquals(toOrderPreservingBits(BIGINT, createBlock(BIGINT, (Object) null), 0), -1L);
+    }
+
+    @Test
+    public void testKeys()
+    {
+        List<Integer> channels = ImmutableList.of(0, 1);
+        ZOrderCurve curve = new ZOrderCurve(channels, ImmutableList.of(BIGINT, BIGINT));
+        // the 2x2 grid of (x, y) in Z-order is (0, 0), (0, 1), (1, 0), (1, 1)
+        Page page = new Page(
+                createBlock(BIGINT, 1L, 0L, 1L, 0L),
+                createBlock(BIGINT, 1L, 1L, 0L, 0L));
+        curve.addBounds(page);
+        Block keys = curve.getKeys(page);
+        assertEquals(keys.getPositionCount(), 4);
+        assertTrue(compareKeys(keys, 3, 1) < 0);
+        assertTrue(compareKeys(keys, 1, 2) < 0);
+        assertTrue(compareKeys(keys, 2, 0) < 0);
+    }
+
+    @Test
+    public void testKeysAreNormalized()
+    {
+        // x only has small values, and y has values that differ in the high bits
+        ZOrderCurve curve = new ZOrderCurve(ImmutableList.of(0, 1), ImmutableList.of(BIGINT, BIGINT));
+        Page page = new Page(
+                createBlock(BIGINT, 0L, 1L, 2L, 3L, 0L, 3L, null),
+                createBlock(BIGINT, 0L, 0L, 0L, 0L, 1L << 40, 1L << 40, 0L));
+        curve.addBounds(page);
+        Block keys = curve.getKeys(page);
+        // both columns contribute their most significant bit first, so the largest x
+        // comes after the smallest x with the largest y
+        assertTrue(compareKeys(keys, 4, 3) < 0);
+        assertTrue(compareKeys(keys, 0, 1) < 0);
+        assertTrue(compareKeys(keys, 1, 2) < 0);
+        assertTrue(compareKeys(keys, 3, 5) < 0);
+        // a null comes after all the values of its column
+        assertTrue(compareKeys(keys, 3, 6) < 0);
+
+        // values outside of the bounds are clamped to them
+        Block clampedKeys = curve.getKeys(new Page(createBlock(BIGINT, -5L, 10L), createBlock(BIGINT, -1L, 1L << 50)));
+        assertEquals(VARBINARY.getSlice(clampedKeys, 0), VARBINARY.getSlice(keys, 0));
+        assertEquals(VARBINARY.getSlice(clampedKeys, 1), VARBINARY.getSlice(keys, 5));
+    }
+
+    @Test
+    public void testNormalize()
+    {
+        assertEquals(normalize(5, 5, 5), 0);
+        assertEquals(normalize(4, 4, 7), 0);
+        assertEquals(normalize(7, 4, 7), 0b11L << 62);
+        assertEquals(normalize(5, 4, 7), 1L << 62);
+        assertEquals(normalize(0, 4, 7), 0);
+        assertEquals(normalize(-1, 4, 7), 0b11L << 62);
+    }
+
+    @Test
+    public void testSupportedTypes()
+    {
+        assertTrue(isSupportedType(BIGINT));
+        assertTrue(isSupportedType(VARCHAR));
+        assertTrue(isSupportedType(VARBINARY));
+        assertFalse(isSupportedType(new ArrayType(BIGINT)));
+    }
+
+    private static void assertOrdered(Type type, Block block)
+    {
+        for (int position = 1; position < block.getPositionCount(); position++) {
+            long previous = toOrderPreservingBits(type, block, position - 1);
+            long current = toOrderPreservingBits(type, block, position);
+            assertTrue(Long.compareUnsigned(previous, current) < 0, "position " + position);
+        }
+    }
+
+    private static int compareKeys(Block keys, int left, int right)
+    {
+        return VARBINARY.getSlice(keys, left).compareTo(VARBINARY.getSlice(keys, right));
+    }
+
+    private static Block createBlock(Type type, Object... values)
+    {
+        BlockBuilder blockBuilder = type.createBlockBuilder(null, values.length);
+        for (Object value : values) {
+            if (value == null) {
+                blockBuilder.appendNull();
+            }
+            else if (value instanceof String) {
+                VARCHAR.writeString(blockBuilder, (String) value);
+            }
+            else if (value instanceof Double) {
+                type.writeDouble(blockBuilder, (Double) value);
+            }
+            else {
+                type.writeLong(blockBuilder, (Long) value);
+            }
+        }
+        return blockBuilder.build();
+    }
+}
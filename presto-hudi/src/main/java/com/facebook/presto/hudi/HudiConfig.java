@@ -33,6 +33,7 @@ public class HudiConfig
     private int maxOutstandingSplits = 1000;
     private int splitLoaderParallelism = 4;
     private int splitGeneratorParallelism = 4;
+    private boolean columnarMergeOnReadEnabled = true;
 
     public boolean isMetadataTableEnabled()
     {
@@ -132,4 +133,18 @@ public class HudiConfig
         this.splitLoaderParallelism = splitLoaderParallelism;
         return this;
     }
+
+    public boolean isColumnarMergeOnReadEnabled()
+    {
+        return columnarMergeOnReadEnabled;
+    }
+
+    @Config("hudi.columnar-merge-on-read-enabled")
+    @ConfigDescription("Read merge on read splits with the Parquet reader and merge the log records by record key, " +
+            "instead of reading them row by row with the record reader of the Hudi realtime input format.")
+    public HudiConfig setColumnarMergeOnReadEnabled(boolean columnarMergeOnReadEnabled)
+    {
+        this.columnarMergeOnReadEnabled = columnarMergeOnReadEnabled;
+        return this;
+    }
 }
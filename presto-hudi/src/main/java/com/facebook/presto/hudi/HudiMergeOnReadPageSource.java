@@ -0,0 +1,497 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.presto.hudi;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.type.DecimalType;
+import com.facebook.presto.common.type.Decimals;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.TypeManager;
+import com.facebook.presto.common.type.VarcharType;
+import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.HdfsContext;
+import com.facebook.presto.hive.HdfsEnvironment;
+import com.facebook.presto.hive.HiveType;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.PrestoException;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
+import io.airlift.slice.Slice;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hudi.common.model.HoodieFileFormat;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.model.OverwriteWithLatestAvroPayload;
+import org.apache.hudi.common.table.HoodieTableConfig;
+import org.apache.hudi.common.table.HoodieTableMetaClient;
+import org.apache.hudi.common.table.TableSchemaResolver;
+import org.apache.hudi.common.table.log.HoodieMergedLogRecordScanner;
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.org.apache.avro.LogicalType;
+import org.apache.hudi.org.apache.avro.Schema;
+import org.apache.hudi.org.apache.avro.generic.GenericFixed;
+import org.apache.hudi.org.apache.avro.generic.IndexedRecord;
+import org.apache.hudi.org.apache.avro.util.Utf8;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.hudi.HudiErrorCode.HUDI_CANNOT_OPEN_SPLIT;
+import static com.facebook.presto.hudi.HudiErrorCode.HUDI_CURSOR_ERROR;
+import static com.facebook.presto.hudi.HudiParquetPageSources.createParquetPageSource;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Float.floatToRawIntBits;
+import static java.lang.Math.floorDiv;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static org.apache.hudi.common.model.HoodieRecord.RECORD_KEY_METADATA_FIELD;
+import static org.apache.hudi.hadoop.config.HoodieRealtimeConfig.DEFAULT_MAX_DFS_STREAM_BUFFER_SIZE;
+import static org.apache.hudi.hadoop.config.HoodieRealtimeConfig.DEFAULT_SPILLABLE_MAP_BASE_PATH;
+import static org.apache.hudi.hadoop.fs.HadoopFSUtils.getStorageConfWithCopy;
+
+/**
+ * Merge on read page source of a file slice of a Hudi table, which reads the base file with the
+ * Parquet reader and merges the log records of the file slice by record key.
+ * <p>
+ * The record keys of the merged log records are collected into a {@link HudiRecordKeySet}. A base
+ * file row whose record key is in the set has been updated or deleted by the log files, so it is
+ * removed from the page read from the base file. After the base file has been read, the log records
+ * that are not deletes are emitted, which covers both the updated rows and the rows inserted into
+ * the log files. This is the merge of {@link OverwriteWithLatestAvroPayload}, so the page source is
+ * only used for tables with that payload.
+ */
+public class HudiMergeOnReadPageSource
+        implements ConnectorPageSource
+{
+    // same as the default of the spillable map used by the record reader of the Hudi realtime input format
+    private static final long MAX_LOG_RECORDS_MEMORY_IN_BYTES = 1024 * 1024 * 1024;
+
+    private final List<Type> types;
+    private final Optional<ConnectorPageSource> baseFilePageSource;
+    private final int recordKeyChannel;
+    private final int[] dataChannels;
+    private final HoodieMergedLogRecordScanner logRecordScanner;
+    private final HudiRecordKeySet logRecordKeys;
+    private final Schema logRecordSchema;
+    private final int[] logRecordFields;
+    private final Schema[] logRecordFieldSchemas;
+    private final Properties payloadProperties = new Properties();
+    private final PageBuilder pageBuilder;
+
+    private Iterator<HoodieRecord> logRecords;
+    private long logRecordPositions;
+    private long logReadTimeNanos;
+    private boolean finished;
+
+    public HudiMergeOnReadPageSource(
+            List<HudiColumnHandle> columns,
+            List<Type> types,
+            Optional<ConnectorPageSource> baseFilePageSource,
+            int recordKeyChannel,
+            HoodieMergedLogRecordScanner logRecordScanner,
+            Schema logRecordSchema,
+            long logReadTimeNanos)
+    {
+        requireNonNull(columns, "columns is null");
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        checkArgument(columns.size() == types.size(), "columns and types do not match");
+        this.baseFilePageSource = requireNonNull(baseFilePageSource, "baseFilePageSource is null");
+        this.recordKeyChannel = recordKeyChannel;
+        this.logRecordScanner = requireNonNull(logRecordScanner, "logRecordScanner is null");
+        this.logRecordSchema = requireNonNull(logRecordSchema, "logRecordSchema is null");
+        this.logReadTimeNanos = logReadTimeNanos;
+
+        dataChannels = new int[columns.size()];
+        logRecordFields = new int[columns.size()];
+        logRecordFieldSchemas = new Schema[columns.size()];
+        for (int channel = 0; channel < columns.size(); channel++) {
+            dataChannels[channel] = channel;
+            Schema.Field field = getField(logRecordSchema, columns.get(channel).getName());
+            logRecordFields[channel] = field == null ? -1 : field.pos();
+            logRecordFieldSchemas[channel] = field == null ? null : getNonNullSchema(field.schema());
+        }
+
+        logRecordKeys = new HudiRecordKeySet(logRecordScanner.getRecords().size());
+        for (String recordKey : logRecordScanner.getRecords().keySet()) {
+            logRecordKeys.add(utf8Slice(recordKey));
+        }
+        pageBuilder = new PageBuilder(this.types);
+    }
+
+    /**
+     * Creates the page source of a merge on read split, or returns empty if the log records of the
+     * table cannot be merged by this page source and the split has to be read with the record reader
+     * of the Hudi realtime input format.
+     */
+    public static Optional<ConnectorPageSource> createMergeOnReadPageSource(
+            TypeManager typeManager,
+            HdfsEnvironment hdfsEnvironment,
+            ConnectorSession session,
+            HudiSplit split,
+            List<HudiColumnHandle> dataColumns,
+            FileFormatDataSourceStats fileFormatDataSourceStats)
+    {
+        List<Type> types = dataColumns.stream()
+                .map(column -> column.getHiveType().getType(typeManager))
+                .collect(toImmutableList());
+        if (!types.stream().allMatch(HudiMergeOnReadPageSource::isSupportedType)) {
+            return Optional.empty();
+        }
+        if (split.getBaseFile().isPresent() && !split.getBaseFile().get().getPath().endsWith(HoodieFileFormat.PARQUET.getFileExtension())) {
+            return Optional.empty();
+        }
+
+        HudiTableHandle table = split.getTable();
+        HudiFile file = split.getBaseFile().orElseGet(() -> split.getLogFiles().get(0));
+        Configuration configuration = hdfsEnvironment.getConfiguration(
+                new HdfsContext(session, table.getSchemaName(), table.getTableName(), file.getPath(), false),
+                new Path(file.getPath()));
+
+        long start = System.nanoTime();
+        HoodieMergedLogRecordScanner logRecordScanner;
+        Schema logRecordSchema;
+        try {
+            HoodieTableMetaClient metaClient = hdfsEnvironment.doAs(session.getUser(), () -> HoodieTableMetaClient.builder()
+                    .setConf(getStorageConfWithCopy(configuration))
+                    .setBasePath(table.getPath())
+                    .build());
+            HoodieTableConfig tableConfig = metaClient.getTableConfig();
+            if (!tableConfig.populateMetaFields() || !OverwriteWithLatestAvroPayload.class.getName().equals(tableConfig.getPayloadClass())) {
+                return Optional.empty();
+            }
+            logRecordSchema = hdfsEnvironment.doAs(session.getUser(), () -> new TableSchemaResolver(metaClient).getTableAvroSchema());
+            logRecordScanner = hdfsEnvironment.doAs(session.getUser(), () -> HoodieMergedLogRecordScanner.newBuilder()
+                    .withStorage(metaClient.getStorage())
+                    .withBasePath(table.getPath())
+                    .withLogFilePaths(split.getLogFiles().stream().map(HudiFile::getPath).collect(toImmutableList()))
+                    .withReaderSchema(logRecordSchema)
+                    .withLatestInstantTime(split.getInstantTime())
+                    .withReverseReader(false)
+                    .withBufferSize(DEFAULT_MAX_DFS_STREAM_BUFFER_SIZE)
+                    .withMaxMemorySizeInBytes(MAX_LOG_RECORDS_MEMORY_IN_BYTES)
+                    .withSpillableMapBasePath(DEFAULT_SPILLABLE_MAP_BASE_PATH)
+                    .build());
+        }
+        catch (Exception e) {
+            throwIfInstanceOf(e, PrestoException.class);
+            throw new PrestoException(HUDI_CANNOT_OPEN_SPLIT, format("Error reading log files of Hudi split %s: %s", split, e.getMessage()), e);
+        }
+        long logReadTimeNanos = System.nanoTime() - start;
+
+        try {
+            Optional<ConnectorPageSource> baseFilePageSource = Optional.empty();
+            int recordKeyChannel = -1;
+            if (split.getBaseFile().isPresent()) {
+                List<HudiColumnHandle> baseFileColumns = dataColumns;
+                recordKeyChannel = dataColumns.stream()
+                        .map(HudiColumnHandle::getName)
+                        .collect(toImmutableList())
+                        .indexOf(RECORD_KEY_METADATA_FIELD);
+                if (recordKeyChannel < 0) {
+                    // the record key of the base file rows is read after the requested columns
+                    baseFileColumns = ImmutableList.<HudiColumnHandle>builder()
+                            .addAll(dataColumns)
+                            .add(new HudiColumnHandle(-1, RECORD_KEY_METADATA_FIELD, HiveType.HIVE_STRING, Optional.empty(), HudiColumnHandle.ColumnType.REGULAR))
+                            .build();
+                    recordKeyChannel = dataColumns.size();
+                }
+                HudiFile baseFile = split.getBaseFile().get();
+                baseFilePageSource = Optional.of(createParquetPageSource(
+                        typeManager,
+                        hdfsEnvironment,
+                        session,
+                        configuration,
+                        new Path(baseFile.getPath()),
+                        baseFile.getStart(),
+                        baseFile.getLength(),
+                        baseFileColumns,
+                        TupleDomain.all(),
+                        fileFormatDataSourceStats));
+            }
+            return Optional.of(new HudiMergeOnReadPageSource(dataColumns, types, baseFilePageSource, recordKeyChannel, logRecordScanner, logRecordSchema, logReadTimeNanos));
+        }
+        catch (RuntimeException e) {
+            logRecordScanner.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return baseFilePageSource.map(ConnectorPageSource::getCompletedBytes).orElse(0L);
+    }
+
+    @Override
+    public long getCompletedPositions()
+    {
+        return baseFilePageSource.map(ConnectorPageSource::getCompletedPositions).orElse(0L) + logRecordPositions;
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return baseFilePageSource.map(ConnectorPageSource::getReadTimeNanos).orElse(0L) + logReadTimeNanos;
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return finished;
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        try {
+            if (baseFilePageSource.isPresent() && !baseFilePageSource.get().isFinished()) {
+                Page page = baseFilePageSource.get().getNextPage();
+                if (page == null) {
+                    return null;
+                }
+                return removeMergedRows(page);
+            }
+            return getNextLogRecordsPage();
+        }
+        catch (IOException | RuntimeException e) {
+            closeWithSuppression(e);
+            throwIfInstanceOf(e, PrestoException.class);
+            throw new PrestoException(HUDI_CURSOR_ERROR, e);
+        }
+    }
+
+    private Page removeMergedRows(Page page)
+    {
+        Page dataPage = page.extractChannels(dataChannels);
+        Block recordKeys = page.getBlock(recordKeyChannel);
+        int positionCount = page.getPositionCount();
+        int[] retainedPositions = new int[positionCount];
+        int retainedPositionCount = 0;
+        for (int position = 0; position < positionCount; position++) {
+            if (!logRecordKeys.contains(recordKeys, position)) {
+                retainedPositions[retainedPositionCount] = position;
+                retainedPositionCount++;
+            }
+        }
+
+        if (retainedPositionCount == positionCount) {
+            return dataPage;
+        }
+        if (retainedPositionCount == 0) {
+            return null;
+        }
+        return dataPage.getPositions(retainedPositions, 0, retainedPositionCount);
+    }
+
+    private Page getNextLogRecordsPage()
+            throws IOException
+    {
+        long start = System.nanoTime();
+        if (logRecords == null) {
+            logRecords = logRecordScanner.iterator();
+        }
+
+        while (!pageBuilder.isFull() && logRecords.hasNext()) {
+            HoodieRecord<?> logRecord = logRecords.next();
+            Option<IndexedRecord> value = ((HoodieRecordPayload<?>) logRecord.getData()).getInsertValue(logRecordSchema, payloadProperties);
+            if (!value.isPresent()) {
+                // deleted by the log files
+                continue;
+            }
+            IndexedRecord record = value.get();
+            pageBuilder.declarePosition();
+            for (int channel = 0; channel < types.size(); channel++) {
+                BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(channel);
+                if (logRecordFields[channel] < 0) {
+                    blockBuilder.appendNull();
+                }
+                else {
+                    appendValue(blockBuilder, types.get(channel), record.get(logRecordFields[channel]), logRecordFieldSchemas[channel]);
+                }
+            }
+        }
+        if (!logRecords.hasNext()) {
+            finished = true;
+        }
+        logReadTimeNanos += System.nanoTime() - start;
+
+        if (pageBuilder.isEmpty()) {
+            return null;
+        }
+        Page page = pageBuilder.build();
+        pageBuilder.reset();
+        logRecordPositions += page.getPositionCount();
+        return page;
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return baseFilePageSource.map(ConnectorPageSource::getSystemMemoryUsage).orElse(0L) +
+                logRecordKeys.getRetainedSizeInBytes() +
+                pageBuilder.getRetainedSizeInBytes();
+    }
+
+    @Override
+    public void close()
+    {
+        try (Closer closer = Closer.create()) {
+            closer.register(logRecordScanner::close);
+            if (baseFilePageSource.isPresent()) {
+                closer.register(baseFilePageSource.get());
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeWithSuppression(Throwable throwable)
+    {
+        requireNonNull(throwable, "throwable is null");
+        try {
+            close();
+        }
+        catch (RuntimeException e) {
+            // Self-suppression not permitted
+            if (throwable != e) {
+                throwable.addSuppressed(e);
+            }
+        }
+    }
+
+    private static boolean isSupportedType(Type type)
+    {
+        return type.equals(BOOLEAN) ||
+                type.equals(TINYINT) ||
+                type.equals(SMALLINT) ||
+                type.equals(INTEGER) ||
+                type.equals(BIGINT) ||
+                type.equals(REAL) ||
+                type.equals(DOUBLE) ||
+                type.equals(DATE) ||
+                type.equals(TIMESTAMP) ||
+                type.equals(VARBINARY) ||
+                type instanceof VarcharType ||
+                type instanceof DecimalType;
+    }
+
+    private static void appendValue(BlockBuilder blockBuilder, Type type, Object value, Schema schema)
+    {
+        if (value == null) {
+            blockBuilder.appendNull();
+        }
+        else if (type.equals(BOOLEAN)) {
+            type.writeBoolean(blockBuilder, (Boolean) value);
+        }
+        else if (type.equals(TINYINT) || type.equals(SMALLINT) || type.equals(INTEGER) || type.equals(BIGINT) || type.equals(DATE)) {
+            type.writeLong(blockBuilder, ((Number) value).longValue());
+        }
+        else if (type.equals(REAL)) {
+            type.writeLong(blockBuilder, floatToRawIntBits(((Number) value).floatValue()));
+        }
+        else if (type.equals(DOUBLE)) {
+            type.writeDouble(blockBuilder, ((Number) value).doubleValue());
+        }
+        else if (type.equals(TIMESTAMP)) {
+            LogicalType logicalType = schema.getLogicalType();
+            long timestamp = ((Number) value).longValue();
+            boolean millis = logicalType != null && logicalType.getName().endsWith("timestamp-millis");
+            type.writeLong(blockBuilder, millis ? timestamp : floorDiv(timestamp, 1000));
+        }
+        else if (type instanceof VarcharType) {
+            if (value instanceof Utf8) {
+                Utf8 utf8 = (Utf8) value;
+                type.writeSlice(blockBuilder, wrappedBuffer(utf8.getBytes(), 0, utf8.getByteLength()));
+            }
+            else {
+                type.writeSlice(blockBuilder, utf8Slice(value.toString()));
+            }
+        }
+        else if (type.equals(VARBINARY)) {
+            type.writeSlice(blockBuilder, toSlice(value));
+        }
+        else if (type instanceof DecimalType) {
+            BigInteger unscaledValue = new BigInteger(toSlice(value).getBytes());
+            if (((DecimalType) type).isShort()) {
+                type.writeLong(blockBuilder, unscaledValue.longValueExact());
+            }
+            else {
+                type.writeSlice(blockBuilder, Decimals.encodeUnscaledValue(unscaledValue));
+            }
+        }
+        else {
+            throw new PrestoException(HUDI_CURSOR_ERROR, "Unsupported type of log record value: " + type);
+        }
+    }
+
+    private static Slice toSlice(Object value)
+    {
+        if (value instanceof GenericFixed) {
+            return wrappedBuffer(((GenericFixed) value).bytes());
+        }
+        return wrappedBuffer(((ByteBuffer) value).duplicate());
+    }
+
+    private static Schema.Field getField(Schema schema, String name)
+    {
+        Schema.Field field = schema.getField(name);
+        if (field != null) {
+            return field;
+        }
+        // Hive column names are lower case
+        return schema.getFields().stream()
+                .filter(candidate -> candidate.name().equalsIgnoreCase(name))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static Schema getNonNullSchema(Schema schema)
+    {
+        if (schema.getType() != Schema.Type.UNION) {
+            return schema;
+        }
+        return schema.getTypes().stream()
+                .filter(type -> type.getType() != Schema.Type.NULL)
+                .findFirst()
+                .orElse(schema);
+    }
+}
@@ -44,7 +44,9 @@ import java.util.Properties;
 
 import static com.facebook.presto.hive.metastore.MetastoreUtil.getHiveSchema;
 import static com.facebook.presto.hudi.HudiErrorCode.HUDI_CANNOT_OPEN_SPLIT;
+import static com.facebook.presto.hudi.HudiMergeOnReadPageSource.createMergeOnReadPageSource;
 import static com.facebook.presto.hudi.HudiParquetPageSources.createParquetPageSource;
+import static com.facebook.presto.hudi.HudiSessionProperties.isColumnarMergeOnReadEnabled;
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.Objects.requireNonNull;
@@ -109,27 +111,17 @@ public class HudiPageSourceProvider
                     fileFormatDataSourceStats);
         }
         else if (tableType == HudiTableType.MOR) {
-            Properties schema = getHiveSchema(
-                    hudiSplit.getPartition().getStorage(),
-                    toMetastoreColumns(hudiSplit.getPartition().getDataColumns()),
-                    toMetastoreColumns(layout.getDataColumns()),
-                    layout.getTableParameters(),
-                    layout.getTable().getSchemaName(),
-                    layout.getTable().getTableName(),
-                    layout.getPartitionColumns().stream().map(HudiColumnHandle::getName).collect(toImmutableList()),
-                    layout.getPartitionColumns().stream().map(HudiColumnHandle::getHiveType).collect(toImmutableList()));
-            RecordCursor recordCursor = HudiRecordCursors.createRealtimeRecordCursor(
-                    hdfsEnvironment,
-                    session,
-                    schema,
-                    hudiSplit,
-                    dataColumns,
-                    ZoneId.of("UTC"), // TODO configurable
-                    typeManager);
-            List<Type> types = dataColumns.stream()
-                    .map(column -> column.getHiveType().getType(typeManager))
-                    .collect(toImmutableList());
-            dataColumnPageSource = new RecordPageSource(types, recordCursor);
+            Optional<ConnectorPageSource> mergeOnReadPageSource = Optional.empty();
+            if (isColumnarMergeOnReadEnabled(session)) {
+                mergeOnReadPageSource = createMergeOnReadPageSource(
+                        typeManager,
+                        hdfsEnvironment,
+                        session,
+                        hudiSplit,
+                        dataColumns,
+                        fileFormatDataSourceStats);
+            }
+            dataColumnPageSource = mergeOnReadPageSource.orElseGet(() -> createRealtimePageSource(session, layout, hudiSplit, dataColumns));
         }
         else {
             throw new PrestoException(NOT_SUPPORTED, "Could not create page source for table type " + tableType);
@@ -143,6 +135,31 @@ public class HudiPageSourceProvider
                 typeManager);
     }
 
+    private ConnectorPageSource createRealtimePageSource(ConnectorSession session, HudiTableLayoutHandle layout, HudiSplit hudiSplit, List<HudiColumnHandle> dataColumns)
+    {
+        Properties schema = getHiveSchema(
+                hudiSplit.getPartition().getStorage(),
+                toMetastoreColumns(hudiSplit.getPartition().getDataColumns()),
+                toMetastoreColumns(layout.getDataColumns()),
+                layout.getTableParameters(),
+                layout.getTable().getSchemaName(),
+                layout.getTable().getTableName(),
+                layout.getPartitionColumns().stream().map(HudiColumnHandle::getName).collect(toImmutableList()),
+                layout.getPartitionColumns().stream().map(HudiColumnHandle::getHiveType).collect(toImmutableList()));
+        RecordCursor recordCursor = HudiRecordCursors.createRealtimeRecordCursor(
+                hdfsEnvironment,
+                session,
+                schema,
+                hudiSplit,
+                dataColumns,
+                ZoneId.of("UTC"), // TODO configurable
+                typeManager);
+        List<Type> types = dataColumns.stream()
+                .map(column -> column.getHiveType().getType(typeManager))
+                .collect(toImmutableList());
+        return new RecordPageSource(types, recordCursor);
+    }
+
     private static List<Column> toMetastoreColumns(List<HudiColumnHandle> hudiColumnHandles)
     {
         return hudiColumnHandles.stream()
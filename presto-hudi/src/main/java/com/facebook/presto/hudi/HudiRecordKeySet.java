@@ -0,0 +1,161 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.presto.hudi;
+
+import com.facebook.presto.common.block.Block;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.XxHash64;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.max;
+
+/**
+ * Open addressing hash set of the record keys of a file group's log records. The keys are
+ * appended to a single slice and the hash table only holds primitive offsets into it, so
+ * probing with the record key of a base file row neither allocates nor copies the key.
+ */
+final class HudiRecordKeySet
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(HudiRecordKeySet.class).instanceSize();
+    private static final float FILL_RATIO = 0.75f;
+    private static final int EMPTY_SLOT = -1;
+
+    private final DynamicSliceOutput keys = new DynamicSliceOutput(1024);
+    private int[] keyOffsets = new int[1024 + 1];
+    private long[] keyHashes = new long[1024];
+    private int size;
+
+    private int[] hashTable;
+    private int mask;
+    private int maxFill;
+
+    public HudiRecordKeySet(int expectedSize)
+    {
+        int hashSize = max(16, highestOneBit((int) Math.ceil(max(expectedSize, 1) / FILL_RATIO)) * 2);
+        hashTable = new int[hashSize];
+        Arrays.fill(hashTable, EMPTY_SLOT);
+        mask = hashSize - 1;
+        maxFill = calculateMaxFill(hashSize);
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Adds the key, returning false if it was already present.
+     */
+    public boolean add(Slice key)
+    {
+        long hash = XxHash64.hash(key);
+        int slot = (int) hash & mask;
+        while (hashTable[slot] != EMPTY_SLOT) {
+            int keyId = hashTable[slot];
+            if (keyHashes[keyId] == hash && keyEquals(keyId, key)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size == keyHashes.length) {
+            keyHashes = Arrays.copyOf(keyHashes, size * 2);
+            keyOffsets = Arrays.copyOf(keyOffsets, size * 2 + 1);
+        }
+        keys.writeBytes(key);
+        keyHashes[size] = hash;
+        keyOffsets[size + 1] = keys.size();
+        hashTable[slot] = size;
+        size++;
+
+        if (size >= maxFill) {
+            rehash();
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the varchar value at {@code position} of {@code block} is one of the keys.
+     */
+    public boolean contains(Block block, int position)
+    {
+        if (size == 0 || block.isNull(position)) {
+            return false;
+        }
+        int length = block.getSliceLength(position);
+        long hash = block.hash(position, 0, length);
+        int slot = (int) hash & mask;
+        Slice keySlice = keys.getUnderlyingSlice();
+        while (hashTable[slot] != EMPTY_SLOT) {
+            int keyId = hashTable[slot];
+            int keyOffset = keyOffsets[keyId];
+            if (keyHashes[keyId] == hash &&
+                    keyOffsets[keyId + 1] - keyOffset == length &&
+                    block.bytesEqual(position, 0, keySlice, keyOffset, length)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + keys.getRetainedSize() + sizeOf(keyOffsets) + sizeOf(keyHashes) + sizeOf(hashTable);
+    }
+
+    private boolean keyEquals(int keyId, Slice key)
+    {
+        int keyOffset = keyOffsets[keyId];
+        int keyLength = keyOffsets[keyId + 1] - keyOffset;
+        return keys.getUnderlyingSlice().equals(keyOffset, keyLength, key, 0, key.length());
+    }
+
+    private void rehash()
+    {
+        long newHashSize = (long) hashTable.length * 2;
+        checkState(newHashSize <= Integer.MAX_VALUE, "Too many record keys: %s", size);
+
+        int[] newHashTable = new int[(int) newHashSize];
+        Arrays.fill(newHashTable, EMPTY_SLOT);
+        int newMask = newHashTable.length - 1;
+        for (int keyId = 0; keyId < size; keyId++) {
+            int slot = (int) keyHashes[keyId] & newMask;
+            while (newHashTable[slot] != EMPTY_SLOT) {
+                slot = (slot + 1) & newMask;
+            }
+            newHashTable[slot] = keyId;
+        }
+
+        hashTable = newHashTable;
+        mask = newMask;
+        maxFill = calculateMaxFill(newHashTable.length);
+    }
+
+    private static int calculateMaxFill(int hashSize)
+    {
+        int maxFill = (int) Math.ceil(hashSize * FILL_RATIO);
+        if (maxFill == hashSize) {
+            maxFill--;
+        }
+        return maxFill;
+    }
+}
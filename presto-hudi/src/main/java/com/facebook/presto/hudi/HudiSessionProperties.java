@@ -41,6 +41,7 @@ public class HudiSessionProperties
     private static final String MINIMUM_ASSIGNED_SPLIT_WEIGHT = "minimum_assigned_split_weight";
     private static final String MAX_OUTSTANDING_SPLITS = "max_outstanding_splits";
     private static final String SPLIT_GENERATOR_PARALLELISM = "split_generator_parallelism";
+    private static final String COLUMNAR_MERGE_ON_READ_ENABLED = "columnar_merge_on_read_enabled";
 
     @Inject
     public HudiSessionProperties(HudiConfig hudiConfig)
@@ -91,6 +92,11 @@ public class HudiSessionProperties
                         SPLIT_GENERATOR_PARALLELISM,
                         "Number of threads used to generate splits from partitions",
                         hudiConfig.getSplitGeneratorParallelism(),
+                        false),
+                booleanProperty(
+                        COLUMNAR_MERGE_ON_READ_ENABLED,
+                        "Read merge on read splits with the Parquet reader and merge the log records by record key",
+                        hudiConfig.isColumnarMergeOnReadEnabled(),
                         false));
     }
 
@@ -128,4 +134,9 @@ public class HudiSessionProperties
     {
         return session.getProperty(SPLIT_GENERATOR_PARALLELISM, Integer.class);
     }
+
+    public static boolean isColumnarMergeOnReadEnabled(ConnectorSession session)
+    {
+        return session.getProperty(COLUMNAR_MERGE_ON_READ_ENABLED, Boolean.class);
+    }
 }
@@ -37,7 +37,8 @@ public class TestHudiConfig
                 .setMinimumAssignedSplitWeight(0.05)
                 .setMaxOutstandingSplits(1000)
                 .setSplitLoaderParallelism(4)
-                .setSplitGeneratorParallelism(4));
+                .setSplitGeneratorParallelism(4)
+                .setColumnarMergeOnReadEnabled(true));
     }
 
     @Test
@@ -51,6 +52,7 @@ public class TestHudiConfig
                 .put("hudi.max-outstanding-splits", "300")
                 .put("hudi.split-loader-parallelism", "2")
                 .put("hudi.split-generator-parallelism", "8")
+                .put("hudi.columnar-merge-on-read-enabled", "false")
                 .build();
 
         HudiConfig expected = new HudiConfig()
@@ -60,7 +62,8 @@ public class TestHudiConfig
                 .setMinimumAssignedSplitWeight(0.1)
                 .setMaxOutstandingSplits(300)
                 .setSplitLoaderParallelism(2)
-                .setSplitGeneratorParallelism(8);
+                .setSplitGeneratorParallelism(8)
+                .setColumnarMergeOnReadEnabled(false);
 
         assertFullMapping(properties, expected);
     }
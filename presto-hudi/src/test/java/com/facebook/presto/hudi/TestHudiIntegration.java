@@ -14,6 +14,7 @@
 
 package com.facebook.presto.hudi;
 
+import com.facebook.presto.Session;
 import com.facebook.presto.testing.QueryRunner;
 import org.intellij.lang.annotations.Language;
 import org.testng.annotations.Test;
@@ -42,4 +43,23 @@ public class TestHudiIntegration
                 "('GOOG', '2018-08-31 10:59:00', '2018-08-31')";
         assertQuery(format(sqlTemplate, "stock_ticks_cow"), sqlResult);
     }
+
+    @Test
+    public void testMergeOnReadWithRecordReader()
+    {
+        Session session = Session.builder(getSession())
+                .setCatalogSessionProperty("hudi", "columnar_merge_on_read_enabled", "false")
+                .build();
+        @Language("SQL") String sqlTemplate = "SELECT \"_hoodie_record_key\", symbol, ts, volume, open, close FROM %s WHERE symbol = 'GOOG'";
+        @Language("SQL") String sqlResult = "SELECT * FROM VALUES " +
+                "('GOOG_2018-08-31 09', 'GOOG', '2018-08-31 09:59:00', 6330, 1230.5, 1230.02), " +
+                "('GOOG_2018-08-31 10', 'GOOG', '2018-08-31 10:59:00', 9021, 1227.1993, 1227.215)";
+
+        assertQuery(session, format(sqlTemplate, "stock_ticks_mor_rt"), sqlResult);
+        assertQuery(session, format(sqlTemplate, "stock_ticks_morn_rt"), sqlResult);
+
+        // the updated rows of the base file are replaced by those of the log file
+        assertQuery("SELECT count(*) FROM stock_ticks_mor_rt", "SELECT 197");
+        assertQuery(session, "SELECT count(*) FROM stock_ticks_mor_rt", "SELECT 197");
+    }
 }
@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.facebook.presto.hudi;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.DictionaryBlock;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestHudiRecordKeySet
+{
+    @Test
+    public void testContains()
+    {
+        HudiRecordKeySet keys = new HudiRecordKeySet(0);
+        for (int i = 0; i < 10_000; i += 2) {
+            assertTrue(keys.add(utf8Slice("key_" + i)));
+        }
+        assertFalse(keys.add(utf8Slice("key_0")));
+        assertTrue(keys.add(utf8Slice("")));
+        assertEquals(keys.size(), 5_001);
+
+        BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, 10_002);
+        for (int i = 0; i < 10_000; i++) {
+            VARCHAR.writeSlice(blockBuilder, utf8Slice("key_" + i));
+        }
+        VARCHAR.writeSlice(blockBuilder, utf8Slice(""));
+        blockBuilder.appendNull();
+        Block block = blockBuilder.build();
+
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(keys.contains(block, i), i % 2 == 0);
+        }
+        assertTrue(keys.contains(block, 10_000));
+        assertFalse(keys.contains(block, 10_001));
+
+        Block dictionaryBlock = new DictionaryBlock(block, new int[] {1, 2, 10_001});
+        assertFalse(keys.contains(dictionaryBlock, 0));
+        assertTrue(keys.contains(dictionaryBlock, 1));
+        assertFalse(keys.contains(dictionaryBlock, 2));
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        HudiRecordKeySet keys = new HudiRecordKeySet(100);
+        BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, 1);
+        VARCHAR.writeSlice(blockBuilder, utf8Slice("key"));
+        assertFalse(keys.contains(blockBuilder.build(), 0));
+        assertEquals(keys.size(), 0);
+    }
+}
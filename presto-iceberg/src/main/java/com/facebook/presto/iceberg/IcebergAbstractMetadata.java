@@ -210,6 +210,7 @@ import static com.facebook.presto.iceberg.IcebergSessionProperties.isPushdownFil
 import static com.facebook.presto.iceberg.IcebergTableProperties.LOCATION_PROPERTY;
 import static com.facebook.presto.iceberg.IcebergTableProperties.PARTITIONING_PROPERTY;
 import static com.facebook.presto.iceberg.IcebergTableProperties.SORTED_BY_PROPERTY;
+import static com.facebook.presto.iceberg.IcebergTableProperties.Z_ORDERED_BY_PROPERTY;
 import static com.facebook.presto.iceberg.IcebergTableType.CHANGELOG;
 import static com.facebook.presto.iceberg.IcebergTableType.DATA;
 import static com.facebook.presto.iceberg.IcebergTableType.EQUALITY_DELETES;
@@ -228,6 +229,7 @@ import static com.facebook.presto.iceberg.IcebergUtil.getPartitions;
 import static com.facebook.presto.iceberg.IcebergUtil.getSnapshotIdTimeOperator;
 import static com.facebook.presto.iceberg.IcebergUtil.getSortFields;
 import static com.facebook.presto.iceberg.IcebergUtil.getTableComment;
+import static com.facebook.presto.iceberg.IcebergUtil.getZOrderColumnNames;
 import static com.facebook.presto.iceberg.IcebergUtil.opsFromTable;
 import static com.facebook.presto.iceberg.IcebergUtil.resolveSnapshotIdByName;
 import static com.facebook.presto.iceberg.IcebergUtil.toHiveColumns;
@@ -1042,6 +1044,11 @@ public abstract class IcebergAbstractMetadata
             List<String> sortColumnNames = toSortFields(sortOrder);
             properties.put(SORTED_BY_PROPERTY, sortColumnNames);
         }
+
+        List<String> zOrderedBy = getZOrderColumnNames(icebergTable);
+        if (!zOrderedBy.isEmpty()) {
+            properties.put(Z_ORDERED_BY_PROPERTY, zOrderedBy);
+        }
         return properties.build();
     }
 
@@ -1356,6 +1363,17 @@ public abstract class IcebergAbstractMetadata
         return calculateStatisticsConsideringLayout(filterStatsCalculatorService, rowExpressionService, baseStatistics, session, tableLayoutHandle);
     }
 
+    @Override
+    public Optional<String> getTableVersion(ConnectorSession session, ConnectorTableHandle tableHandle, Optional<ConnectorTableLayoutHandle> tableLayoutHandle)
+    {
+        // committed snapshots never change, so the snapshot the handle reads identifies its data
+        IcebergTableHandle handle = (IcebergTableHandle) tableHandle;
+        if (handle.getIcebergTableName().getTableType() != DATA) {
+            return Optional.empty();
+        }
+        return handle.getIcebergTableName().getSnapshotId().map(String::valueOf);
+    }
+
     @Override
     public IcebergTableHandle getTableHandle(ConnectorSession session, SchemaTableName tableName)
     {
@@ -41,6 +41,9 @@ import com.facebook.presto.hive.datasink.OutputStreamDataSinkFactory;
 import com.facebook.presto.hive.gcs.GcsConfigurationInitializer;
 import com.facebook.presto.hive.gcs.HiveGcsConfig;
 import com.facebook.presto.hive.gcs.HiveGcsConfigurationInitializer;
+import com.facebook.presto.iceberg.delete.DecodedDeleteFile;
+import com.facebook.presto.iceberg.delete.DeleteFileCache;
+import com.facebook.presto.iceberg.delete.DeleteFileCacheKey;
 import com.facebook.presto.iceberg.nessie.IcebergNessieConfig;
 import com.facebook.presto.iceberg.optimizer.IcebergPlanOptimizerProvider;
 import com.facebook.presto.iceberg.procedure.ExpireSnapshotsProcedure;
@@ -97,10 +100,12 @@ import com.google.inject.Scopes;
 import com.google.inject.TypeLiteral;
 import com.google.inject.multibindings.Multibinder;
 import jakarta.inject.Singleton;
+import org.apache.iceberg.DataFile;
 import org.weakref.jmx.MBeanExporter;
 
 import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 
@@ -114,6 +119,7 @@ import static com.facebook.presto.orc.StripeMetadataSource.CacheableSlice;
 import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static com.google.inject.multibindings.Multibinder.newSetBinder;
 import static com.google.inject.multibindings.OptionalBinder.newOptionalBinder;
+import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
 import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -224,6 +230,34 @@ public class IcebergCommonModule
         return statisticsFileCache;
     }
 
+    @Singleton
+    @Provides
+    public DeleteFileCache createDeleteFileCache(IcebergConfig config, MBeanExporter exporter)
+    {
+        Cache<DeleteFileCacheKey, DecodedDeleteFile> delegate = CacheBuilder.newBuilder()
+                .maximumWeight(config.getMaxDeleteFileCacheSize().toBytes())
+                .<DeleteFileCacheKey, DecodedDeleteFile>weigher((key, entry) -> (int) min(entry.getRetainedSizeInBytes(), Integer.MAX_VALUE))
+                .recordStats()
+                .build();
+        DeleteFileCache deleteFileCache = new DeleteFileCache(delegate, config.isDeleteFileCachingEnabled());
+        exporter.export(generatedNameOf(DeleteFileCache.class, connectorId), deleteFileCache);
+        return deleteFileCache;
+    }
+
+    @Singleton
+    @Provides
+    public ManifestDataFileCache createManifestDataFileCache(IcebergConfig config, MBeanExporter exporter)
+    {
+        Cache<ManifestFileCacheKey, List<DataFile>> delegate = CacheBuilder.newBuilder()
+                .maximumWeight(config.getMaxManifestDataFileCacheSize().toBytes())
+                .<ManifestFileCacheKey, List<DataFile>>weigher((key, entry) -> (int) min(ManifestDataFileCache.estimateRetainedSize(entry), Integer.MAX_VALUE))
+                .recordStats()
+                .build();
+        ManifestDataFileCache manifestDataFileCache = new ManifestDataFileCache(delegate, config.isManifestDataFileCachingEnabled());
+        exporter.export(generatedNameOf(ManifestDataFileCache.class, connectorId), manifestDataFileCache);
+        return manifestDataFileCache;
+    }
+
     @Singleton
     @Provides
     public ManifestFileCache createManifestFileCache(IcebergConfig config, MBeanExporter exporter)
@@ -31,6 +31,7 @@ import org.apache.iceberg.hadoop.HadoopFileIO;
 import java.util.EnumSet;
 import java.util.List;
 
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.airlift.units.DataSize.succinctDataSize;
 import static com.facebook.presto.hive.HiveCompressionCodec.ZSTD;
@@ -61,6 +62,7 @@ public class IcebergConfig
     private boolean pushdownFilterEnabled;
     private boolean deleteAsJoinRewriteEnabled = true;
     private int deleteAsJoinRewriteMaxDeleteColumns = 400;
+    private DataSize equalityDeleteHashSetMaxSize = succinctDataSize(0, BYTE);
     private int rowsForMetadataOptimizationThreshold = 1000;
     private int metadataPreviousVersionsMax = METADATA_PREVIOUS_VERSIONS_MAX_DEFAULT;
     private boolean metadataDeleteAfterCommit = METADATA_DELETE_AFTER_COMMIT_ENABLED_DEFAULT;
@@ -76,6 +78,10 @@ public class IcebergConfig
     private DataSize manifestCacheMaxChunkSize = succinctDataSize(2, MEGABYTE);
     private int splitManagerThreads = Runtime.getRuntime().availableProcessors();
     private DataSize maxStatisticsFileCacheSize = succinctDataSize(256, MEGABYTE);
+    private boolean deleteFileCachingEnabled;
+    private DataSize maxDeleteFileCacheSize = succinctDataSize(256, MEGABYTE);
+    private boolean manifestDataFileCachingEnabled;
+    private DataSize maxManifestDataFileCacheSize = succinctDataSize(256, MEGABYTE);
     private String materializedViewStoragePrefix = "__mv_storage__";
     private int materializedViewMaxChangedPartitions = 100;
 
@@ -303,6 +309,21 @@ public class IcebergConfig
         return deleteAsJoinRewriteMaxDeleteColumns;
     }
 
+    @NotNull
+    public DataSize getEqualityDeleteHashSetMaxSize()
+    {
+        return equalityDeleteHashSetMaxSize;
+    }
+
+    @Config("iceberg.equality-delete-hash-set-max-size")
+    @ConfigDescription("Apply equality deletes in the table scan from one hash set per set of equality fields, instead of rewriting them into a join, " +
+            "when the delete files with the same equality fields are no larger than this size in total. 0 disables it.")
+    public IcebergConfig setEqualityDeleteHashSetMaxSize(DataSize equalityDeleteHashSetMaxSize)
+    {
+        this.equalityDeleteHashSetMaxSize = equalityDeleteHashSetMaxSize;
+        return this;
+    }
+
     @Config("iceberg.rows-for-metadata-optimization-threshold")
     @ConfigDescription("The max partitions number to utilize metadata optimization. 0 means skip the metadata optimization directly.")
     public IcebergConfig setRowsForMetadataOptimizationThreshold(int rowsForMetadataOptimizationThreshold)
@@ -467,6 +488,60 @@ public class IcebergConfig
         return this;
     }
 
+    public boolean isDeleteFileCachingEnabled()
+    {
+        return deleteFileCachingEnabled;
+    }
+
+    @Config("iceberg.delete-file-cache-enabled")
+    @ConfigDescription("Cache decoded position and equality delete files on workers, so splits sharing a delete file read it once")
+    public IcebergConfig setDeleteFileCachingEnabled(boolean deleteFileCachingEnabled)
+    {
+        this.deleteFileCachingEnabled = deleteFileCachingEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxDeleteFileCacheSize()
+    {
+        return maxDeleteFileCacheSize;
+    }
+
+    @Config("iceberg.max-delete-file-cache-size")
+    @ConfigDescription("The maximum size in bytes the decoded delete file cache should consume")
+    public IcebergConfig setMaxDeleteFileCacheSize(DataSize maxDeleteFileCacheSize)
+    {
+        this.maxDeleteFileCacheSize = maxDeleteFileCacheSize;
+        return this;
+    }
+
+    public boolean isManifestDataFileCachingEnabled()
+    {
+        return manifestDataFileCachingEnabled;
+    }
+
+    @Config("iceberg.manifest-data-file-cache-enabled")
+    @ConfigDescription("Plan splits from data manifests read in parallel, caching the decoded data files of each manifest")
+    public IcebergConfig setManifestDataFileCachingEnabled(boolean manifestDataFileCachingEnabled)
+    {
+        this.manifestDataFileCachingEnabled = manifestDataFileCachingEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxManifestDataFileCacheSize()
+    {
+        return maxManifestDataFileCacheSize;
+    }
+
+    @Config("iceberg.max-manifest-data-file-cache-size")
+    @ConfigDescription("The maximum size in bytes the decoded manifest data file cache should consume")
+    public IcebergConfig setMaxManifestDataFileCacheSize(DataSize maxManifestDataFileCacheSize)
+    {
+        this.maxManifestDataFileCacheSize = maxManifestDataFileCacheSize;
+        return this;
+    }
+
     public int getStatisticsKllSketchKParameter()
     {
         return this.statisticsKllSketchKParameter;
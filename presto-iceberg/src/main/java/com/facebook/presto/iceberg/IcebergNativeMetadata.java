@@ -67,9 +67,11 @@ import java.util.stream.Stream;
 import static com.facebook.presto.iceberg.CatalogType.HADOOP;
 import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_COMMIT_ERROR;
 import static com.facebook.presto.iceberg.IcebergSessionProperties.getCompressionCodec;
+import static com.facebook.presto.iceberg.IcebergTableProperties.WRITE_Z_ORDER_COLUMNS;
 import static com.facebook.presto.iceberg.IcebergTableProperties.getPartitioning;
 import static com.facebook.presto.iceberg.IcebergTableProperties.getSortOrder;
 import static com.facebook.presto.iceberg.IcebergTableProperties.getTableLocation;
+import static com.facebook.presto.iceberg.IcebergTableProperties.getZOrderedBy;
 import static com.facebook.presto.iceberg.IcebergTableType.DATA;
 import static com.facebook.presto.iceberg.IcebergUtil.VIEW_OWNER;
 import static com.facebook.presto.iceberg.IcebergUtil.createIcebergViewProperties;
@@ -78,6 +80,7 @@ import static com.facebook.presto.iceberg.IcebergUtil.getNativeIcebergTable;
 import static com.facebook.presto.iceberg.IcebergUtil.getNativeIcebergView;
 import static com.facebook.presto.iceberg.IcebergUtil.getViewComment;
 import static com.facebook.presto.iceberg.IcebergUtil.populateTableProperties;
+import static com.facebook.presto.iceberg.IcebergUtil.toZOrderColumnsProperty;
 import static com.facebook.presto.iceberg.IcebergUtil.validateViewDefinitionForBranches;
 import static com.facebook.presto.iceberg.PartitionFields.parsePartitionFields;
 import static com.facebook.presto.iceberg.PartitionSpecConverter.toPrestoPartitionSpec;
@@ -474,6 +477,19 @@ public class IcebergNativeMetadata
             throw new PrestoException(ICEBERG_COMMIT_ERROR, "Failed to set the sorted_by property", e);
         }
 
+        // the Z-order columns are stored by the field ids that the new schema assigns
+        List<String> zOrderedBy = getZOrderedBy(tableMetadata.getProperties());
+        if (!zOrderedBy.isEmpty()) {
+            try {
+                icebergTable.updateProperties()
+                        .set(WRITE_Z_ORDER_COLUMNS, toZOrderColumnsProperty(icebergTable.schema(), zOrderedBy))
+                        .commit();
+            }
+            catch (RuntimeException e) {
+                throw new PrestoException(ICEBERG_COMMIT_ERROR, "Failed to set the z_ordered_by property", e);
+            }
+        }
+
         return new IcebergOutputTableHandle(
                 schemaName,
                 new IcebergTableName(tableName, DATA, Optional.empty(), Optional.empty(), Optional.empty()),
@@ -75,6 +75,7 @@ import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_INVALID_METAD
 import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_TOO_MANY_OPEN_PARTITIONS;
 import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_WRITER_OPEN_ERROR;
 import static com.facebook.presto.iceberg.IcebergUtil.getColumnsForWrite;
+import static com.facebook.presto.iceberg.IcebergUtil.getZOrderFieldIds;
 import static com.facebook.presto.iceberg.PartitionTransforms.getColumnTransform;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
@@ -121,6 +122,7 @@ public class IcebergPageSink
     private final List<Type> columnTypes;
     private final List<Integer> sortColumnIndexes;
     private final List<SortOrder> sortOrders;
+    private final List<Integer> zOrderColumnIndexes;
     private final SortParameters sortParameters;
 
     public IcebergPageSink(
@@ -179,6 +181,16 @@ public class IcebergPageSink
             this.sortColumnIndexes = ImmutableList.of();
             this.sortOrders = ImmutableList.of();
         }
+
+        ImmutableList.Builder<Integer> zOrderColumnIndexes = ImmutableList.builder();
+        for (int fieldId : getZOrderFieldIds(table)) {
+            Types.NestedField column = outputSchema.findField(fieldId);
+            if (column == null) {
+                throw new PrestoException(ICEBERG_INVALID_METADATA, "Unable to find Z-order column in the table schema: " + fieldId);
+            }
+            zOrderColumnIndexes.add(outputSchema.columns().indexOf(column));
+        }
+        this.zOrderColumnIndexes = zOrderColumnIndexes.build();
     }
 
     @Override
@@ -367,6 +379,20 @@ public class IcebergPageSink
                             sortParameters);
                     writer = new WriteContext(sortedFileWriter, outputPath, partitionData);
                 }
+                else if (!zOrderColumnIndexes.isEmpty()) {
+                    Path tempFilePrefix = new Path(tempDirectory, format("sorting-file-writer-%s-%s", session.getQueryId(), randomUUID()));
+                    WriteContext writerContext = createWriter(partitionData, outputPath);
+                    IcebergFileWriter zOrderedFileWriter = new IcebergSortingFileWriter(
+                            fileSystem,
+                            tempFilePrefix,
+                            writerContext.getWriter(),
+                            columnTypes,
+                            zOrderColumnIndexes,
+                            false,
+                            session,
+                            sortParameters);
+                    writer = new WriteContext(zOrderedFileWriter, outputPath, partitionData);
+                }
                 else {
                     writer = createWriter(partitionData, outputPath);
                 }
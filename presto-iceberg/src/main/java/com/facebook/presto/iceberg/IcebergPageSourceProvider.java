@@ -42,8 +42,12 @@ import com.facebook.presto.hive.orc.OrcBatchPageSource;
 import com.facebook.presto.hive.orc.ProjectionBasedDwrfKeyProvider;
 import com.facebook.presto.hive.parquet.ParquetPageSource;
 import com.facebook.presto.iceberg.changelog.ChangelogPageSource;
+import com.facebook.presto.iceberg.delete.DecodedDeleteFile;
 import com.facebook.presto.iceberg.delete.DeleteFile;
+import com.facebook.presto.iceberg.delete.DeleteFileCache;
+import com.facebook.presto.iceberg.delete.DeleteFileCacheKey;
 import com.facebook.presto.iceberg.delete.DeleteFilter;
+import com.facebook.presto.iceberg.delete.EqualityDeleteSet;
 import com.facebook.presto.iceberg.delete.IcebergDeletePageSink;
 import com.facebook.presto.iceberg.delete.PositionDeleteFilter;
 import com.facebook.presto.iceberg.delete.RowPredicate;
@@ -83,6 +87,7 @@ import com.google.common.base.VerifyException;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.airlift.slice.Slice;
 import jakarta.inject.Inject;
 import org.apache.hadoop.conf.Configuration;
@@ -108,18 +113,20 @@ import org.apache.parquet.internal.filter2.columnindex.ColumnIndexStore;
 import org.apache.parquet.io.ColumnIO;
 import org.apache.parquet.io.MessageColumnIO;
 import org.apache.parquet.schema.MessageType;
-import org.roaringbitmap.longlong.LongBitmapDataProvider;
 import org.roaringbitmap.longlong.Roaring64Bitmap;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -153,12 +160,16 @@ import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_MISSING_COLUM
 import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_MISSING_DATA;
 import static com.facebook.presto.iceberg.IcebergMetadataColumn.MERGE_PARTITION_DATA;
 import static com.facebook.presto.iceberg.IcebergOrcColumn.ROOT_COLUMN_ID;
+import static com.facebook.presto.iceberg.IcebergSessionProperties.getEqualityDeleteHashSetMaxSize;
 import static com.facebook.presto.iceberg.IcebergUtil.getColumns;
 import static com.facebook.presto.iceberg.IcebergUtil.getLocationProvider;
 import static com.facebook.presto.iceberg.IcebergUtil.getShallowWrappedIcebergTable;
 import static com.facebook.presto.iceberg.TypeConverter.ORC_ICEBERG_ID_KEY;
 import static com.facebook.presto.iceberg.TypeConverter.toHiveType;
+import static com.facebook.presto.iceberg.delete.EqualityDeleteFilter.decodeEqualityDeletes;
 import static com.facebook.presto.iceberg.delete.EqualityDeleteFilter.readEqualityDeletes;
+import static com.facebook.presto.iceberg.delete.EqualityDeleteSetFilter.readEqualityDeleteSet;
+import static com.facebook.presto.iceberg.delete.PositionDeleteFilter.decodePositionDeletes;
 import static com.facebook.presto.iceberg.delete.PositionDeleteFilter.readPositionDeletes;
 import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static com.facebook.presto.orc.OrcEncoding.ORC;
@@ -178,6 +189,7 @@ import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Predicates.not;
 import static com.google.common.base.Suppliers.memoize;
+import static com.google.common.base.Throwables.throwIfInstanceOf;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
@@ -213,6 +225,7 @@ public class IcebergPageSourceProvider
     private final PageIndexerFactory pageIndexerFactory;
     private final int maxOpenPartitions;
     private final SortParameters sortParameters;
+    private final DeleteFileCache deleteFileCache;
 
     @Inject
     public IcebergPageSourceProvider(
@@ -228,7 +241,8 @@ public class IcebergPageSourceProvider
             JsonCodec<CommitTaskData> jsonCodec,
             PageIndexerFactory pageIndexerFactory,
             IcebergConfig icebergConfig,
-            SortParameters sortParameters)
+            SortParameters sortParameters,
+            DeleteFileCache deleteFileCache)
     {
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.fileFormatDataSourceStats = requireNonNull(fileFormatDataSourceStats, "fileFormatDataSourceStats is null");
@@ -244,6 +258,7 @@ public class IcebergPageSourceProvider
         requireNonNull(icebergConfig, "icebergConfig is null");
         this.maxOpenPartitions = icebergConfig.getMaxPartitionsPerWriter();
         this.sortParameters = requireNonNull(sortParameters, "sortParameters is null");
+        this.deleteFileCache = requireNonNull(deleteFileCache, "deleteFileCache is null");
     }
 
     private static ConnectorPageSourceWithRowPositions createParquetPageSource(
@@ -980,7 +995,7 @@ public class IcebergPageSourceProvider
 
         Slice targetPath = utf8Slice(dataFilePath);
         List<DeleteFilter> filters = new ArrayList<>();
-        LongBitmapDataProvider deletedRows = new Roaring64Bitmap();
+        Roaring64Bitmap deletedRows = new Roaring64Bitmap();
 
         IcebergColumnHandle deleteFilePath = IcebergColumnHandle.create(DELETE_FILE_PATH, typeManager, IcebergColumnHandle.ColumnType.REGULAR);
         IcebergColumnHandle deleteFilePos = IcebergColumnHandle.create(DELETE_FILE_POS, typeManager, IcebergColumnHandle.ColumnType.REGULAR);
@@ -992,7 +1007,50 @@ public class IcebergPageSourceProvider
             deleteDomain = deleteDomain.intersect(positionDomain);
         }
 
-        for (DeleteFile delete : deleteFiles) {
+        List<DeleteFile> remainingDeletes = deleteFiles;
+        long equalityDeleteHashSetMaxSize = getEqualityDeleteHashSetMaxSize(session).toBytes();
+        if (equalityDeleteHashSetMaxSize > 0 && !storeDeleteFilePath) {
+            // Apply the equality deletes with the same equality fields from a single hash set, shared by all splits with the same deletes
+            Map<List<Integer>, List<DeleteFile>> equalityDeletesByFields = deleteFiles.stream()
+                    .filter(delete -> delete.content() == EQUALITY_DELETES)
+                    .collect(Collectors.groupingBy(delete -> ImmutableList.sortedCopyOf(delete.equalityFieldIds())));
+            Set<String> appliedDeletes = new HashSet<>();
+            for (Map.Entry<List<Integer>, List<DeleteFile>> entry : equalityDeletesByFields.entrySet()) {
+                List<IcebergColumnHandle> columns = entry.getKey().stream()
+                        .map(id -> IcebergColumnHandle.create(schema.findField(id), typeManager, IcebergColumnHandle.ColumnType.REGULAR))
+                        .collect(toImmutableList());
+                long deleteFilesSize = entry.getValue().stream()
+                        .mapToLong(DeleteFile::fileSizeInBytes)
+                        .sum();
+                if (deleteFilesSize > equalityDeleteHashSetMaxSize || !columns.stream().map(IcebergColumnHandle::getType).allMatch(EqualityDeleteSet::isSupportedType)) {
+                    continue;
+                }
+
+                List<DeleteFile> deletes = entry.getValue();
+                DecodedDeleteFile decodedDeletes;
+                if (deleteFileCache.isEnabled()) {
+                    decodedDeletes = getDecodedDeleteFile(
+                            DeleteFileCacheKey.forEqualityDeleteSet(
+                                    entry.getKey(),
+                                    columns.stream()
+                                            .map(IcebergColumnHandle::getType)
+                                            .collect(toImmutableList()),
+                                    deletes),
+                            format("Cannot open Iceberg equality delete files for field IDs %s", entry.getKey()),
+                            () -> decodeEqualityDeleteSet(session, columns, deletes));
+                }
+                else {
+                    decodedDeletes = decodeEqualityDeleteSet(session, columns, deletes);
+                }
+                filters.add(decodedDeletes.createEqualityDeleteSetFilter());
+                deletes.forEach(delete -> appliedDeletes.add(delete.path()));
+            }
+            remainingDeletes = deleteFiles.stream()
+                    .filter(delete -> !appliedDeletes.contains(delete.path()))
+                    .collect(toImmutableList());
+        }
+
+        for (DeleteFile delete : remainingDeletes) {
             if (delete.content() == POSITION_DELETES) {
                 if (startRowPosition.isPresent()) {
                     byte[] lowerBoundBytes = delete.getLowerBounds().get(DELETE_FILE_POS.fieldId());
@@ -1009,6 +1067,21 @@ public class IcebergPageSourceProvider
                     }
                 }
 
+                if (deleteFileCache.isEnabled()) {
+                    Roaring64Bitmap cachedDeletedRows = getDecodedDeleteFile(delete, () -> {
+                        try (ConnectorPageSource pageSource = openDeletes(session, delete, deleteColumns, TupleDomain.all())) {
+                            return decodePositionDeletes(pageSource);
+                        }
+                    }).getDeletedRows(dataFilePath);
+                    if (storeDeleteFilePath) {
+                        filters.add(new PositionDeleteFilter(cachedDeletedRows, delete.path()));
+                    }
+                    else {
+                        deletedRows.or(cachedDeletedRows);
+                    }
+                    continue;
+                }
+
                 try (ConnectorPageSource pageSource = openDeletes(session, delete, deleteColumns, deleteDomain)) {
                     readPositionDeletes(pageSource, targetPath, deletedRows);
                 }
@@ -1027,6 +1100,24 @@ public class IcebergPageSourceProvider
                         .map(id -> IcebergColumnHandle.create(schema.findField(id), typeManager, IcebergColumnHandle.ColumnType.REGULAR))
                         .collect(toImmutableList());
 
+                if (deleteFileCache.isEnabled()) {
+                    // the deletes are decoded with the current types of the columns, which change when a type is promoted
+                    DeleteFileCacheKey key = DeleteFileCacheKey.forEqualityDeletes(
+                            delete.path(),
+                            delete.fileSizeInBytes(),
+                            fieldIds,
+                            columns.stream()
+                                    .map(IcebergColumnHandle::getType)
+                                    .collect(toImmutableList()));
+                    DecodedDeleteFile decodedDeletes = getDecodedDeleteFile(key, format("Cannot open Iceberg delete file: %s", delete.path()), () -> {
+                        try (ConnectorPageSource pageSource = openDeletes(session, delete, columns, TupleDomain.all())) {
+                            return decodeEqualityDeletes(pageSource, columns);
+                        }
+                    });
+                    filters.add(decodedDeletes.createEqualityDeleteFilter(storeDeleteFilePath ? delete.path() : null));
+                    continue;
+                }
+
                 try (ConnectorPageSource pageSource = openDeletes(session, delete, columns, TupleDomain.all())) {
                     filters.add(readEqualityDeletes(pageSource, columns, storeDeleteFilePath ? delete.path() : null));
                 }
@@ -1046,6 +1137,48 @@ public class IcebergPageSourceProvider
         return filters;
     }
 
+    private DecodedDeleteFile decodeEqualityDeleteSet(ConnectorSession session, List<IcebergColumnHandle> columns, List<DeleteFile> deletes)
+    {
+        EqualityDeleteSet.Builder deleteSet = EqualityDeleteSet.builder(columns.stream()
+                .map(IcebergColumnHandle::getType)
+                .collect(toImmutableList()));
+        for (DeleteFile delete : deletes) {
+            try (ConnectorPageSource pageSource = openDeletes(session, delete, columns, TupleDomain.all())) {
+                readEqualityDeleteSet(pageSource, deleteSet);
+            }
+            catch (IOException e) {
+                throw new PrestoException(ICEBERG_CANNOT_OPEN_SPLIT, format("Cannot open Iceberg delete file: %s", delete.path()), e);
+            }
+        }
+        List<Integer> equalityFieldIds = columns.stream()
+                .map(IcebergColumnHandle::getId)
+                .collect(toImmutableList());
+        return DecodedDeleteFile.equalityDeleteSet(equalityFieldIds, deleteSet.build());
+    }
+
+    private DecodedDeleteFile getDecodedDeleteFile(DeleteFile delete, Callable<DecodedDeleteFile> loader)
+    {
+        return getDecodedDeleteFile(
+                new DeleteFileCacheKey(delete.path(), delete.fileSizeInBytes()),
+                format("Cannot open Iceberg delete file: %s", delete.path()),
+                loader);
+    }
+
+    private DecodedDeleteFile getDecodedDeleteFile(DeleteFileCacheKey key, String errorMessage, Callable<DecodedDeleteFile> loader)
+    {
+        try {
+            return deleteFileCache.get(key, () -> {
+                DecodedDeleteFile decodedDeletes = loader.call();
+                deleteFileCache.recordDecodedSize(decodedDeletes.getRetainedSizeInBytes());
+                return decodedDeletes;
+            });
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfInstanceOf(e.getCause(), PrestoException.class);
+            throw new PrestoException(ICEBERG_CANNOT_OPEN_SPLIT, errorMessage, e.getCause());
+        }
+    }
+
     private ConnectorPageSource openDeletes(
             ConnectorSession session,
             DeleteFile delete,
@@ -66,6 +66,7 @@ public final class IcebergSessionProperties
     public static final String PUSHDOWN_FILTER_ENABLED = "pushdown_filter_enabled";
     public static final String DELETE_AS_JOIN_REWRITE_ENABLED = "delete_as_join_rewrite_enabled";
     public static final String DELETE_AS_JOIN_REWRITE_MAX_DELETE_COLUMNS = "delete_as_join_rewrite_max_delete_columns";
+    public static final String EQUALITY_DELETE_HASH_SET_MAX_SIZE = "equality_delete_hash_set_max_size";
     public static final String HIVE_METASTORE_STATISTICS_MERGE_STRATEGY = "hive_statistics_merge_strategy";
     public static final String STATISTIC_SNAPSHOT_RECORD_DIFFERENCE_WEIGHT = "statistic_snapshot_record_difference_weight";
     public static final String ROWS_FOR_METADATA_OPTIMIZATION_THRESHOLD = "rows_for_metadata_optimization_threshold";
@@ -205,6 +206,12 @@ public final class IcebergSessionProperties
                             return intValue;
                         },
                         integer -> integer))
+                .add(dataSizeSessionProperty(
+                        EQUALITY_DELETE_HASH_SET_MAX_SIZE,
+                        "Apply equality deletes in the table scan from one hash set per set of equality fields, instead of rewriting them into a join, " +
+                                "when the delete files with the same equality fields are no larger than this size in total. 0 disables it.",
+                        icebergConfig.getEqualityDeleteHashSetMaxSize(),
+                        false))
                 .add(integerProperty(
                         ROWS_FOR_METADATA_OPTIMIZATION_THRESHOLD,
                         "The max partitions number to utilize metadata optimization. When partitions number " +
@@ -369,6 +376,11 @@ public final class IcebergSessionProperties
         return session.getProperty(DELETE_AS_JOIN_REWRITE_MAX_DELETE_COLUMNS, Integer.class);
     }
 
+    public static DataSize getEqualityDeleteHashSetMaxSize(ConnectorSession session)
+    {
+        return session.getProperty(EQUALITY_DELETE_HASH_SET_MAX_SIZE, DataSize.class);
+    }
+
     public static int getRowsForMetadataOptimizationThreshold(ConnectorSession session)
     {
         return session.getProperty(ROWS_FOR_METADATA_OPTIMIZATION_THRESHOLD, Integer.class);
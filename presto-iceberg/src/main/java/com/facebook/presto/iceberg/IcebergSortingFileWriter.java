@@ -16,7 +16,9 @@ package com.facebook.presto.iceberg;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.SortOrder;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.hive.HiveFileWriter;
 import com.facebook.presto.hive.SortingFileWriter;
+import com.facebook.presto.hive.ZOrderSortingFileWriter;
 import com.facebook.presto.spi.ConnectorSession;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -31,7 +33,7 @@ public class IcebergSortingFileWriter
         implements IcebergFileWriter
 {
     private final IcebergFileWriter outputWriter;
-    private final SortingFileWriter sortingFileWriter;
+    private final HiveFileWriter sortingFileWriter;
 
     public IcebergSortingFileWriter(
             FileSystem fileSystem,
@@ -59,6 +61,33 @@ public class IcebergSortingFileWriter
                 sortedWriteToTempPathEnabled);
     }
 
+    /**
+     * Creates a writer that clusters the rows in Z-order on {@code zOrderFields} instead of sorting them.
+     */
+    public IcebergSortingFileWriter(
+            FileSystem fileSystem,
+            Path tempFilePrefix,
+            IcebergFileWriter outputWriter,
+            List<Type> types,
+            List<Integer> zOrderFields,
+            boolean sortedWriteToTempPathEnabled,
+            ConnectorSession session,
+            SortParameters sortParameters)
+    {
+        this.outputWriter = requireNonNull(outputWriter, "outputWriter is null");
+        this.sortingFileWriter = new ZOrderSortingFileWriter(
+                fileSystem,
+                tempFilePrefix,
+                outputWriter,
+                sortParameters.getSortingFileWriterConfig().getWriterSortBufferSize(),
+                sortParameters.getSortingFileWriterConfig().getMaxOpenSortFiles(),
+                types,
+                zOrderFields,
+                sortParameters.getPageSorter(),
+                (fs, p) -> sortParameters.getOrcFileWriterFactory().createDataSink(session, fs, p),
+                sortedWriteToTempPathEnabled);
+    }
+
     @Override
     public Metrics getMetrics()
     {
@@ -29,6 +29,7 @@ import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
 import com.google.common.collect.ImmutableList;
 import jakarta.inject.Inject;
 import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.IncrementalChangelogScan;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.TableScan;
@@ -47,6 +48,7 @@ import static com.facebook.presto.iceberg.IcebergTableType.EQUALITY_DELETES;
 import static com.facebook.presto.iceberg.IcebergUtil.getIcebergTable;
 import static com.facebook.presto.iceberg.IcebergUtil.getMetadataColumnConstraints;
 import static com.facebook.presto.iceberg.IcebergUtil.getNonMetadataColumnConstraints;
+import static com.facebook.presto.iceberg.IcebergUtil.getTargetSplitSize;
 import static java.util.Objects.requireNonNull;
 
 public class IcebergSplitManager
@@ -56,17 +58,20 @@ public class IcebergSplitManager
     private final TypeManager typeManager;
     private final ExecutorService executor;
     private final ThreadPoolExecutorMBean executorServiceMBean;
+    private final ManifestDataFileCache manifestDataFileCache;
 
     @Inject
     public IcebergSplitManager(
             IcebergTransactionManager transactionManager,
             TypeManager typeManager,
-            @ForIcebergSplitManager ExecutorService executor)
+            @ForIcebergSplitManager ExecutorService executor,
+            ManifestDataFileCache manifestDataFileCache)
     {
         this.transactionManager = requireNonNull(transactionManager, "transactionManager is null");
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.executor = requireNonNull(executor, "executor is null");
         this.executorServiceMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) executor);
+        this.manifestDataFileCache = requireNonNull(manifestDataFileCache, "manifestDataFileCache is null");
     }
 
     @Override
@@ -127,11 +132,23 @@ public class IcebergSplitManager
                     .flatMap(context -> context.customizeSplitSource(session, tableScan, metadataColumnConstraints))
                     .orElseGet(() -> new IcebergSplitSource(
                             session,
-                            tableScan,
+                            getTargetSplitSize(session, tableScan).toBytes(),
+                            planFiles(icebergTable, tableScan),
                             metadataColumnConstraints));
         }
     }
 
+    private CloseableIterable<FileScanTask> planFiles(Table icebergTable, TableScan tableScan)
+    {
+        if (manifestDataFileCache.isEnabled()) {
+            Optional<CloseableIterable<FileScanTask>> fileScanTasks = ManifestFileScanPlanner.planFiles(icebergTable, tableScan, executor, manifestDataFileCache);
+            if (fileScanTasks.isPresent()) {
+                return fileScanTasks.get();
+            }
+        }
+        return tableScan.planFiles();
+    }
+
     @Managed
     @Nested
     public ThreadPoolExecutorMBean getExecutor()
@@ -15,6 +15,7 @@ package com.facebook.presto.iceberg;
 
 import com.facebook.presto.common.type.ArrayType;
 import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.PrestoWarning;
 import com.facebook.presto.spi.session.PropertyMetadata;
 import com.google.common.annotations.VisibleForTesting;
@@ -36,6 +37,7 @@ import java.util.function.Function;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.common.type.VarcharType.createUnboundedVarcharType;
 import static com.facebook.presto.iceberg.IcebergWarningCode.USE_OF_DEPRECATED_TABLE_PROPERTY;
+import static com.facebook.presto.spi.StandardErrorCode.INVALID_TABLE_PROPERTY;
 import static com.facebook.presto.spi.session.PropertyMetadata.booleanProperty;
 import static com.facebook.presto.spi.session.PropertyMetadata.integerProperty;
 import static com.facebook.presto.spi.session.PropertyMetadata.longProperty;
@@ -62,6 +64,8 @@ public class IcebergTableProperties
     public static final String FILE_FORMAT_PROPERTY = "format";
     public static final String PARTITIONING_PROPERTY = "partitioning";
     public static final String SORTED_BY_PROPERTY = "sorted_by";
+    public static final String Z_ORDERED_BY_PROPERTY = "z_ordered_by";
+    public static final String WRITE_Z_ORDER_COLUMNS = "write.z-order.columns";
     public static final String LOCATION_PROPERTY = "location";
 
     /**
@@ -155,6 +159,17 @@ public class IcebergTableProperties
                         false,
                         value -> (List<?>) value,
                         value -> value))
+                .add(new PropertyMetadata<>(
+                        Z_ORDERED_BY_PROPERTY,
+                        "Columns to cluster the written files on in Z-order",
+                        new ArrayType(VARCHAR),
+                        List.class,
+                        ImmutableList.of(),
+                        false,
+                        value -> ((Collection<?>) value).stream()
+                                .map(name -> ((String) name).toLowerCase(ENGLISH))
+                                .collect(toImmutableList()),
+                        value -> value))
                 .add(new PropertyMetadata<>(
                         TableProperties.DEFAULT_FILE_FORMAT,
                         "File format for the table",
@@ -316,6 +331,19 @@ public class IcebergTableProperties
         return sortedBy == null ? ImmutableList.of() : ImmutableList.copyOf(sortedBy);
     }
 
+    @SuppressWarnings("unchecked")
+    public static List<String> getZOrderedBy(Map<String, Object> tableProperties)
+    {
+        List<String> zOrderedBy = (List<String>) tableProperties.get(Z_ORDERED_BY_PROPERTY);
+        if (zOrderedBy == null || zOrderedBy.isEmpty()) {
+            return ImmutableList.of();
+        }
+        if (!getSortOrder(tableProperties).isEmpty()) {
+            throw new PrestoException(INVALID_TABLE_PROPERTY, format("%s must not be specified when %s is specified", Z_ORDERED_BY_PROPERTY, SORTED_BY_PROPERTY));
+        }
+        return ImmutableList.copyOf(zOrderedBy);
+    }
+
     public static String getTableLocation(Map<String, Object> tableProperties)
     {
         return (String) tableProperties.get(LOCATION_PROPERTY);
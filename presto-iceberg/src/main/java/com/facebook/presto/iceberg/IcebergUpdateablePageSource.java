@@ -271,6 +271,9 @@ public class IcebergUpdateablePageSource
             }
             else if (deleteFilterPredicate.isPresent()) {
                 dataPage = deleteFilterPredicate.get().filterPage(dataPage);
+                if (dataPage == null) {
+                    return null;
+                }
             }
 
             return setRowIdBlock(dataPage);
@@ -38,7 +38,9 @@ import com.facebook.presto.hive.PartitionSet;
 import com.facebook.presto.hive.metastore.Column;
 import com.facebook.presto.hive.metastore.ExtendedHiveMetastore;
 import com.facebook.presto.hive.metastore.MetastoreContext;
+import com.facebook.presto.hive.util.ZOrderCurve;
 import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.ColumnMetadata;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorTableHandle;
 import com.facebook.presto.spi.ConnectorTableMetadata;
@@ -48,6 +50,7 @@ import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.TableNotFoundException;
 import com.facebook.presto.spi.connector.ConnectorMetadata;
 import com.facebook.presto.spi.connector.ConnectorTableVersion.VersionOperator;
+import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -150,11 +153,13 @@ import static com.facebook.presto.iceberg.IcebergMetadataColumn.isMetadataColumn
 import static com.facebook.presto.iceberg.IcebergPartitionType.IDENTITY;
 import static com.facebook.presto.iceberg.IcebergSessionProperties.getCompressionCodec;
 import static com.facebook.presto.iceberg.IcebergSessionProperties.isMergeOnReadModeEnabled;
+import static com.facebook.presto.iceberg.IcebergTableProperties.WRITE_Z_ORDER_COLUMNS;
 import static com.facebook.presto.iceberg.IcebergTableProperties.getWriteDataLocation;
 import static com.facebook.presto.iceberg.IcebergTableProperties.isHiveLocksEnabled;
 import static com.facebook.presto.iceberg.TypeConverter.toIcebergType;
 import static com.facebook.presto.iceberg.util.IcebergPrestoModelConverters.toIcebergTableIdentifier;
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static com.facebook.presto.spi.StandardErrorCode.INVALID_TABLE_PROPERTY;
 import static com.facebook.presto.spi.StandardErrorCode.NOT_FOUND;
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -185,6 +190,7 @@ import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.joining;
 import static org.apache.iceberg.BaseMetastoreTableOperations.ICEBERG_TABLE_TYPE_VALUE;
 import static org.apache.iceberg.BaseMetastoreTableOperations.TABLE_TYPE_PROP;
 import static org.apache.iceberg.CatalogProperties.IO_MANIFEST_CACHE_ENABLED;
@@ -1258,6 +1264,22 @@ public final class IcebergUtil
 
         isHiveLocksEnabled(tableMetadata.getProperties()).ifPresent(value -> propertiesBuilder.put(HIVE_LOCK_ENABLED, value));
 
+        List<String> zOrderedBy = IcebergTableProperties.getZOrderedBy(tableMetadata.getProperties());
+        if (!zOrderedBy.isEmpty()) {
+            Map<String, Type> columnTypes = tableMetadata.getColumns().stream()
+                    .collect(toImmutableMap(ColumnMetadata::getName, ColumnMetadata::getType));
+            for (String column : zOrderedBy) {
+                Type type = columnTypes.get(column);
+                if (type == null) {
+                    throw new PrestoException(INVALID_TABLE_PROPERTY, format("Z-order column %s not present in schema", column));
+                }
+                if (!ZOrderCurve.isSupportedType(type)) {
+                    throw new PrestoException(INVALID_TABLE_PROPERTY, format("Z-order column %s has unsupported type %s", column, type));
+                }
+            }
+            // the columns are stored by field id once the table schema is created, see toZOrderColumnsProperty
+        }
+
         return propertiesBuilder.build();
     }
 
@@ -1289,6 +1311,43 @@ public final class IcebergUtil
                 .toUpperCase(Locale.ENGLISH));
     }
 
+    /**
+     * Returns the value of the {@code write.z-order.columns} property for the Z-order columns. The property
+     * holds the field ids of the columns, so that the table stays clustered on them when they are renamed.
+     */
+    public static String toZOrderColumnsProperty(Schema schema, List<String> zOrderedBy)
+    {
+        return zOrderedBy.stream()
+                .map(column -> {
+                    NestedField field = schema.findField(column);
+                    if (field == null) {
+                        throw new PrestoException(INVALID_TABLE_PROPERTY, format("Z-order column %s not present in schema", column));
+                    }
+                    return String.valueOf(field.fieldId());
+                })
+                .collect(joining(","));
+    }
+
+    /**
+     * Returns the field ids of the Z-order columns of the table. Columns that were dropped are ignored.
+     */
+    public static List<Integer> getZOrderFieldIds(Table table)
+    {
+        Schema schema = table.schema();
+        return Splitter.on(',').trimResults().omitEmptyStrings().splitToList(table.properties().getOrDefault(WRITE_Z_ORDER_COLUMNS, "")).stream()
+                .map(Integer::parseInt)
+                .filter(fieldId -> schema.findField(fieldId) != null)
+                .collect(toImmutableList());
+    }
+
+    public static List<String> getZOrderColumnNames(Table table)
+    {
+        Schema schema = table.schema();
+        return getZOrderFieldIds(table).stream()
+                .map(schema::findColumnName)
+                .collect(toImmutableList());
+    }
+
     public static int getMetadataPreviousVersionsMax(Table table)
     {
         return Integer.parseInt(table.properties()
@@ -0,0 +1,107 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.facebook.airlift.stats.DistributionStat;
+import com.facebook.presto.hive.CacheStatsMBean;
+import com.google.common.cache.Cache;
+import com.google.common.cache.ForwardingCache.SimpleForwardingCache;
+import org.apache.iceberg.DataFile;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of the live data file entries of data manifests, including their column metrics.
+ * Manifests are immutable, so the entries are keyed by the manifest path alone.
+ */
+public class ManifestDataFileCache
+        extends SimpleForwardingCache<ManifestFileCacheKey, List<DataFile>>
+{
+    private static final long DATA_FILE_BASE_SIZE = 512;
+    private static final long METRIC_ENTRY_SIZE = 48;
+
+    private final DistributionStat dataFileCounts = new DistributionStat();
+    private final boolean enabled;
+    private final CacheStatsMBean cacheStats;
+
+    public ManifestDataFileCache(Cache<ManifestFileCacheKey, List<DataFile>> delegate, boolean enabled)
+    {
+        super(delegate);
+        this.enabled = enabled;
+        this.cacheStats = new CacheStatsMBean(delegate);
+    }
+
+    @Managed
+    @Nested
+    public CacheStatsMBean getCacheStats()
+    {
+        return cacheStats;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getDataFileCountDistribution()
+    {
+        return dataFileCounts;
+    }
+
+    public void recordDataFileCount(long count)
+    {
+        dataFileCounts.add(count);
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Estimates the retained size of decoded data files, which is dominated by the path and the column metrics.
+     */
+    public static long estimateRetainedSize(List<DataFile> dataFiles)
+    {
+        long size = 0;
+        for (DataFile dataFile : dataFiles) {
+            size += DATA_FILE_BASE_SIZE + dataFile.location().length();
+            size += metricsSize(dataFile.columnSizes());
+            size += metricsSize(dataFile.valueCounts());
+            size += metricsSize(dataFile.nullValueCounts());
+            size += metricsSize(dataFile.nanValueCounts());
+            size += boundsSize(dataFile.lowerBounds());
+            size += boundsSize(dataFile.upperBounds());
+        }
+        return size;
+    }
+
+    private static long metricsSize(Map<Integer, Long> metrics)
+    {
+        return metrics == null ? 0 : metrics.size() * METRIC_ENTRY_SIZE;
+    }
+
+    private static long boundsSize(Map<Integer, ByteBuffer> bounds)
+    {
+        if (bounds == null) {
+            return 0;
+        }
+        long size = 0;
+        for (ByteBuffer bound : bounds.values()) {
+            size += METRIC_ENTRY_SIZE + bound.capacity();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.facebook.presto.spi.PrestoException;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.iceberg.BaseFileScanTask;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.ManifestFile;
+import org.apache.iceberg.ManifestFiles;
+import org.apache.iceberg.ManifestReader;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.PartitionSpecParser;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.SchemaParser;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.TableScan;
+import org.apache.iceberg.expressions.Evaluator;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.expressions.InclusiveMetricsEvaluator;
+import org.apache.iceberg.expressions.ManifestEvaluator;
+import org.apache.iceberg.expressions.Projections;
+import org.apache.iceberg.expressions.ResidualEvaluator;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.util.ParallelIterable;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_FILESYSTEM_ERROR;
+import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterables.transform;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Plans the file scan tasks of a snapshot from its data manifests. Manifests are pruned with
+ * their partition summaries and read in parallel, and the tasks of a manifest are produced as
+ * soon as it has been read, so the first splits are scheduled before all manifests are read.
+ * The live data files of each manifest are kept in a {@link ManifestDataFileCache}, so later
+ * scans of the table only evaluate the filter against the cached files.
+ */
+public final class ManifestFileScanPlanner
+{
+    private static final DeleteFile[] NO_DELETES = new DeleteFile[0];
+
+    private final Table table;
+    private final String schemaString;
+    private final Map<Integer, PartitionSpec> specsById;
+    private final Expression filter;
+    private final boolean caseSensitive;
+    private final ManifestDataFileCache cache;
+
+    private ManifestFileScanPlanner(Table table, Schema schema, Expression filter, boolean caseSensitive, ManifestDataFileCache cache)
+    {
+        this.table = requireNonNull(table, "table is null");
+        this.schemaString = SchemaParser.toJson(requireNonNull(schema, "schema is null"));
+        this.specsById = table.specs();
+        this.filter = requireNonNull(filter, "filter is null");
+        this.caseSensitive = caseSensitive;
+        this.cache = requireNonNull(cache, "cache is null");
+    }
+
+    /**
+     * Returns the file scan tasks of the snapshot of the table scan, or empty if the snapshot has delete manifests.
+     * Matching delete files to data files is left to the Iceberg table scan.
+     */
+    public static Optional<CloseableIterable<FileScanTask>> planFiles(
+            Table table,
+            TableScan tableScan,
+            ExecutorService executor,
+            ManifestDataFileCache cache)
+    {
+        Snapshot snapshot = tableScan.snapshot();
+        FileIO io = table.io();
+        if (!snapshot.deleteManifests(io).isEmpty()) {
+            return Optional.empty();
+        }
+
+        ManifestFileScanPlanner planner = new ManifestFileScanPlanner(table, tableScan.schema(), tableScan.filter(), tableScan.isCaseSensitive(), cache);
+        List<ManifestFile> manifests = snapshot.dataManifests(io).stream()
+                .filter(manifest -> manifest.hasAddedFiles() || manifest.hasExistingFiles())
+                .filter(planner::mayContainMatchingFiles)
+                .collect(toImmutableList());
+        // the manifests are read when the parallel iterable iterates the tasks of each manifest in its worker threads
+        Iterable<Iterable<FileScanTask>> tasks = transform(manifests, manifest -> () -> planner.planManifest(manifest).iterator());
+        return Optional.of(new ParallelIterable<>(tasks, executor));
+    }
+
+    private boolean mayContainMatchingFiles(ManifestFile manifest)
+    {
+        return ManifestEvaluator.forRowFilter(filter, specsById.get(manifest.partitionSpecId()), caseSensitive).eval(manifest);
+    }
+
+    private List<FileScanTask> planManifest(ManifestFile manifest)
+    {
+        PartitionSpec spec = specsById.get(manifest.partitionSpecId());
+        Evaluator partitionEvaluator = new Evaluator(spec.partitionType(), Projections.inclusive(spec, caseSensitive).project(filter), caseSensitive);
+        // the filter refers to the current column names, while the schema of the scanned snapshot may predate a rename
+        InclusiveMetricsEvaluator metricsEvaluator = new InclusiveMetricsEvaluator(spec.schema(), filter, caseSensitive);
+        String specString = PartitionSpecParser.toJson(spec);
+        ResidualEvaluator residuals = ResidualEvaluator.of(spec, filter, caseSensitive);
+
+        return getDataFiles(manifest).stream()
+                .filter(dataFile -> partitionEvaluator.eval(dataFile.partition()) && metricsEvaluator.eval(dataFile))
+                .map(dataFile -> (FileScanTask) new BaseFileScanTask(dataFile, NO_DELETES, schemaString, specString, residuals))
+                .collect(toImmutableList());
+    }
+
+    private List<DataFile> getDataFiles(ManifestFile manifest)
+    {
+        try {
+            return cache.get(new ManifestFileCacheKey(manifest.path()), () -> {
+                List<DataFile> dataFiles = readDataFiles(manifest);
+                cache.recordDataFileCount(dataFiles.size());
+                return dataFiles;
+            });
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfInstanceOf(e.getCause(), PrestoException.class);
+            throw new PrestoException(ICEBERG_FILESYSTEM_ERROR, format("Failed to read manifest %s", manifest.path()), e.getCause());
+        }
+    }
+
+    private List<DataFile> readDataFiles(ManifestFile manifest)
+            throws IOException
+    {
+        ImmutableList.Builder<DataFile> dataFiles = ImmutableList.builder();
+        try (ManifestReader<DataFile> reader = ManifestFiles.read(manifest, table.io(), specsById)) {
+            for (DataFile dataFile : reader) {
+                // the reader reuses its entries, so retain a copy including the column metrics
+                dataFiles.add(dataFile.copy());
+            }
+        }
+        return dataFiles.build();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import jakarta.annotation.Nullable;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.util.StructLikeSet;
+import org.openjdk.jol.info.ClassLayout;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOfByteArray;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The decoded content of a delete file. Position deletes are kept as one bitmap of deleted
+ * row positions per data file, and equality deletes as a set of the deleted rows. Equality
+ * delete files with the same equality fields can also be decoded together into a single
+ * {@link EqualityDeleteSet}. Instances are shared by concurrent splits, so they are never
+ * modified once decoded.
+ */
+public final class DecodedDeleteFile
+{
+    private static final int STRING_INSTANCE_SIZE = ClassLayout.parseClass(String.class).instanceSize();
+    private static final Roaring64Bitmap NO_DELETED_ROWS = new Roaring64Bitmap();
+
+    @Nullable
+    private final Map<String, Roaring64Bitmap> deletedRowsByDataFile;
+    @Nullable
+    private final Schema equalityDeleteSchema;
+    @Nullable
+    private final StructLikeSet equalityDeleteSet;
+    @Nullable
+    private final List<Integer> equalityFieldIds;
+    @Nullable
+    private final EqualityDeleteSet equalityDeleteKeys;
+    private final long retainedSizeInBytes;
+
+    private DecodedDeleteFile(
+            @Nullable Map<String, Roaring64Bitmap> deletedRowsByDataFile,
+            @Nullable Schema equalityDeleteSchema,
+            @Nullable StructLikeSet equalityDeleteSet,
+            @Nullable List<Integer> equalityFieldIds,
+            @Nullable EqualityDeleteSet equalityDeleteKeys,
+            long retainedSizeInBytes)
+    {
+        this.deletedRowsByDataFile = deletedRowsByDataFile;
+        this.equalityDeleteSchema = equalityDeleteSchema;
+        this.equalityDeleteSet = equalityDeleteSet;
+        this.equalityFieldIds = equalityFieldIds;
+        this.equalityDeleteKeys = equalityDeleteKeys;
+        this.retainedSizeInBytes = retainedSizeInBytes;
+    }
+
+    public static DecodedDeleteFile positionDeletes(Map<String, Roaring64Bitmap> deletedRowsByDataFile)
+    {
+        long retainedSizeInBytes = 0;
+        for (Entry<String, Roaring64Bitmap> entry : deletedRowsByDataFile.entrySet()) {
+            retainedSizeInBytes += STRING_INSTANCE_SIZE + sizeOfByteArray(entry.getKey().length()) + entry.getValue().getLongSizeInBytes();
+        }
+        return new DecodedDeleteFile(ImmutableMap.copyOf(deletedRowsByDataFile), null, null, null, null, retainedSizeInBytes);
+    }
+
+    public static DecodedDeleteFile equalityDeletes(Schema schema, StructLikeSet deleteSet, long retainedSizeInBytes)
+    {
+        return new DecodedDeleteFile(
+                null,
+                requireNonNull(schema, "schema is null"),
+                requireNonNull(deleteSet, "deleteSet is null"),
+                null,
+                null,
+                retainedSizeInBytes);
+    }
+
+    public static DecodedDeleteFile equalityDeleteSet(List<Integer> equalityFieldIds, EqualityDeleteSet deleteSet)
+    {
+        return new DecodedDeleteFile(
+                null,
+                null,
+                null,
+                ImmutableList.copyOf(requireNonNull(equalityFieldIds, "equalityFieldIds is null")),
+                requireNonNull(deleteSet, "deleteSet is null"),
+                deleteSet.getRetainedSizeInBytes());
+    }
+
+    /**
+     * Returns the deleted row positions of {@code dataFilePath}. The returned bitmap must not be modified.
+     */
+    public Roaring64Bitmap getDeletedRows(String dataFilePath)
+    {
+        checkState(deletedRowsByDataFile != null, "not a position delete file");
+        return deletedRowsByDataFile.getOrDefault(dataFilePath, NO_DELETED_ROWS);
+    }
+
+    public DeleteFilter createEqualityDeleteFilter(@Nullable String deleteFilePath)
+    {
+        checkState(equalityDeleteSet != null, "not an equality delete file");
+        return new EqualityDeleteFilter(equalityDeleteSchema, equalityDeleteSet, deleteFilePath);
+    }
+
+    public DeleteFilter createEqualityDeleteSetFilter()
+    {
+        checkState(equalityDeleteKeys != null, "not an equality delete set");
+        return new EqualityDeleteSetFilter(equalityFieldIds, equalityDeleteKeys);
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+}
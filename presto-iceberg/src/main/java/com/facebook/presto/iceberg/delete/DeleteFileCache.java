@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.facebook.airlift.stats.DistributionStat;
+import com.facebook.presto.hive.CacheStatsMBean;
+import com.google.common.cache.Cache;
+import com.google.common.cache.ForwardingCache.SimpleForwardingCache;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+/**
+ * Worker-side cache of decoded delete files. A delete file that applies to many data files
+ * is read and decoded once, and then shared by all splits reading those data files.
+ */
+public class DeleteFileCache
+        extends SimpleForwardingCache<DeleteFileCacheKey, DecodedDeleteFile>
+{
+    private final DistributionStat decodedSizes = new DistributionStat();
+    private final boolean enabled;
+    private final CacheStatsMBean cacheStats;
+
+    public DeleteFileCache(Cache<DeleteFileCacheKey, DecodedDeleteFile> delegate, boolean enabled)
+    {
+        super(delegate);
+        this.enabled = enabled;
+        this.cacheStats = new CacheStatsMBean(delegate);
+    }
+
+    @Managed
+    @Nested
+    public CacheStatsMBean getCacheStats()
+    {
+        return cacheStats;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getDecodedSizeDistribution()
+    {
+        return decodedSizes;
+    }
+
+    public void recordDecodedSize(long size)
+    {
+        decodedSizes.add(size);
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+}
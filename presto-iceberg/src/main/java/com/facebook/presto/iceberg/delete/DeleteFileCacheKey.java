@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.facebook.presto.common.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Identifies the decoded content of a delete file, or of a set of equality delete files
+ * decoded together, by the paths and sizes of the files. The equality deletes are also
+ * identified by the types they are decoded with, which change when a column type is promoted.
+ */
+public class DeleteFileCacheKey
+{
+    private final Map<String, Long> fileSizes;
+    // empty unless the key is for the equality deletes of these files
+    private final List<Integer> equalityFieldIds;
+    private final List<Type> equalityTypes;
+    // a set of equality delete files is decoded into a single hash set
+    private final boolean equalityDeleteSet;
+
+    public DeleteFileCacheKey(String path, long fileSize)
+    {
+        this(ImmutableMap.of(requireNonNull(path, "path is null"), fileSize), ImmutableList.of(), ImmutableList.of(), false);
+    }
+
+    private DeleteFileCacheKey(Map<String, Long> fileSizes, List<Integer> equalityFieldIds, List<Type> equalityTypes, boolean equalityDeleteSet)
+    {
+        checkArgument(!fileSizes.isEmpty(), "fileSizes is empty");
+        this.fileSizes = fileSizes;
+        this.equalityFieldIds = ImmutableList.copyOf(equalityFieldIds);
+        this.equalityTypes = ImmutableList.copyOf(equalityTypes);
+        this.equalityDeleteSet = equalityDeleteSet;
+    }
+
+    public static DeleteFileCacheKey forEqualityDeletes(String path, long fileSize, List<Integer> equalityFieldIds, List<Type> equalityTypes)
+    {
+        checkArgument(!equalityTypes.isEmpty(), "equalityTypes is empty");
+        checkArgument(equalityFieldIds.size() == equalityTypes.size(), "equalityFieldIds and equalityTypes do not match");
+        return new DeleteFileCacheKey(ImmutableMap.of(requireNonNull(path, "path is null"), fileSize), equalityFieldIds, equalityTypes, false);
+    }
+
+    public static DeleteFileCacheKey forEqualityDeleteSet(List<Integer> equalityFieldIds, List<Type> equalityTypes, Collection<DeleteFile> deleteFiles)
+    {
+        checkArgument(!equalityTypes.isEmpty(), "equalityTypes is empty");
+        checkArgument(equalityFieldIds.size() == equalityTypes.size(), "equalityFieldIds and equalityTypes do not match");
+        return new DeleteFileCacheKey(
+                deleteFiles.stream().collect(toImmutableMap(DeleteFile::path, DeleteFile::fileSizeInBytes)),
+                equalityFieldIds,
+                equalityTypes,
+                true);
+    }
+
+    public Map<String, Long> getFileSizes()
+    {
+        return fileSizes;
+    }
+
+    public List<Integer> getEqualityFieldIds()
+    {
+        return equalityFieldIds;
+    }
+
+    public List<Type> getEqualityTypes()
+    {
+        return equalityTypes;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DeleteFileCacheKey)) {
+            return false;
+        }
+        DeleteFileCacheKey that = (DeleteFileCacheKey) o;
+        return equalityDeleteSet == that.equalityDeleteSet &&
+                Objects.equals(fileSizes, that.fileSizes) &&
+                Objects.equals(equalityFieldIds, that.equalityFieldIds) &&
+                Objects.equals(equalityTypes, that.equalityTypes);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(fileSizes, equalityFieldIds, equalityTypes, equalityDeleteSet);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("fileSizes", fileSizes)
+                .add("equalityFieldIds", equalityFieldIds)
+                .add("equalityTypes", equalityTypes)
+                .add("equalityDeleteSet", equalityDeleteSet)
+                .toString();
+    }
+}
@@ -22,22 +22,26 @@ import org.apache.iceberg.Schema;
 import org.apache.iceberg.StructLike;
 import org.apache.iceberg.util.StructLikeSet;
 import org.apache.iceberg.util.StructProjection;
+import org.openjdk.jol.info.ClassLayout;
 
 import java.util.List;
 import java.util.Optional;
 
 import static com.facebook.presto.iceberg.IcebergUtil.schemaFromHandles;
+import static io.airlift.slice.SizeOf.sizeOfObjectArray;
 import static java.util.Objects.requireNonNull;
 
 public final class EqualityDeleteFilter
         implements DeleteFilter
 {
+    private static final int ROW_INSTANCE_SIZE = ClassLayout.parseClass(StructLikeRow.class).instanceSize();
+
     private final Schema schema;
     private final StructLikeSet deleteSet;
     @Nullable
     private final String deleteFilePath;
 
-    private EqualityDeleteFilter(Schema schema, StructLikeSet deleteSet, @Nullable String deleteFilePath)
+    EqualityDeleteFilter(Schema schema, StructLikeSet deleteSet, @Nullable String deleteFilePath)
     {
         this.schema = requireNonNull(schema, "schema is null");
         this.deleteSet = requireNonNull(deleteSet, "deleteSet is null");
@@ -67,6 +71,11 @@ public final class EqualityDeleteFilter
     }
 
     public static DeleteFilter readEqualityDeletes(ConnectorPageSource pageSource, List<IcebergColumnHandle> columns, String deleteFilePath)
+    {
+        return decodeEqualityDeletes(pageSource, columns).createEqualityDeleteFilter(deleteFilePath);
+    }
+
+    public static DecodedDeleteFile decodeEqualityDeletes(ConnectorPageSource pageSource, List<IcebergColumnHandle> columns)
     {
         Type[] types = columns.stream()
                 .map(IcebergColumnHandle::getType)
@@ -75,6 +84,9 @@ public final class EqualityDeleteFilter
         Schema deleteSchema = schemaFromHandles(columns);
         StructLikeSet deleteSet = StructLikeSet.create(deleteSchema.asStruct());
 
+        // the decoded values take about as much memory as the blocks they are read from
+        long rowSizeInBytes = ROW_INSTANCE_SIZE + sizeOfObjectArray(types.length);
+        long retainedSizeInBytes = 0;
         while (!pageSource.isFinished()) {
             Page page = pageSource.getNextPage();
             if (page == null) {
@@ -84,8 +96,9 @@ public final class EqualityDeleteFilter
             for (int position = 0; position < page.getPositionCount(); position++) {
                 deleteSet.add(new StructLikeRow(types, page, position));
             }
+            retainedSizeInBytes += page.getSizeInBytes() + page.getPositionCount() * rowSizeInBytes;
         }
 
-        return new EqualityDeleteFilter(deleteSchema, deleteSet, deleteFilePath);
+        return DecodedDeleteFile.equalityDeletes(deleteSchema, deleteSet, retainedSizeInBytes);
     }
 }
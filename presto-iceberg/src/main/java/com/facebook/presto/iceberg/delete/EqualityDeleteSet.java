@@ -0,0 +1,271 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.Type;
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.TypeUtils.hashPosition;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Open addressing hash set of the rows of one or more equality delete files sharing the same
+ * equality fields. The rows are kept in one block per field and the hash table only holds
+ * positions into them, so the set is far more compact than a set of row objects, and probing
+ * it with a row of a data page does not allocate.
+ */
+public final class EqualityDeleteSet
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(EqualityDeleteSet.class).instanceSize();
+    private static final float FILL_RATIO = 0.75f;
+    private static final int EMPTY_SLOT = -1;
+
+    private final List<Type> types;
+    private final Block[] keys;
+    private final long[] keyHashes;
+    private final int[] hashTable;
+    private final int mask;
+
+    private EqualityDeleteSet(List<Type> types, Block[] keys, long[] keyHashes, int[] hashTable)
+    {
+        this.types = types;
+        this.keys = keys;
+        this.keyHashes = keyHashes;
+        this.hashTable = hashTable;
+        this.mask = hashTable.length - 1;
+    }
+
+    public static Builder builder(List<Type> types)
+    {
+        return new Builder(types);
+    }
+
+    /**
+     * Floating point values are compared by their bits in Iceberg, which differs from
+     * how NaN and negative zero compare in Presto, so these rows are not hashed here.
+     */
+    public static boolean isSupportedType(Type type)
+    {
+        return type.isComparable() && !type.equals(DOUBLE) && !type.equals(REAL) && type.getTypeParameters().isEmpty();
+    }
+
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    public int size()
+    {
+        return keys.length == 0 ? 0 : keys[0].getPositionCount();
+    }
+
+    /**
+     * Returns whether the row at {@code position} of {@code page}, made of the values of
+     * {@code channels} in the order of the equality fields, is one of the deleted rows.
+     */
+    public boolean contains(Page page, int[] channels, int position)
+    {
+        checkArgument(channels.length == keys.length, "Expected %s channels, got %s", keys.length, channels.length);
+        long hash = 0;
+        for (int field = 0; field < channels.length; field++) {
+            hash = combineHash(hash, hashPosition(types.get(field), page.getBlock(channels[field]), position));
+        }
+
+        int slot = getSlot(hash, mask);
+        while (hashTable[slot] != EMPTY_SLOT) {
+            int keyPosition = hashTable[slot];
+            if (keyHashes[keyPosition] == hash && keyEquals(keyPosition, page, channels, position)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        long size = INSTANCE_SIZE + sizeOf(keyHashes) + sizeOf(hashTable);
+        for (Block key : keys) {
+            size += key.getRetainedSizeInBytes();
+        }
+        return size;
+    }
+
+    private boolean keyEquals(int keyPosition, Page page, int[] channels, int position)
+    {
+        for (int field = 0; field < keys.length; field++) {
+            if (!positionEquals(types.get(field), keys[field], keyPosition, page.getBlock(channels[field]), position)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean positionEquals(Type type, Block left, int leftPosition, Block right, int rightPosition)
+    {
+        boolean leftIsNull = left.isNull(leftPosition);
+        boolean rightIsNull = right.isNull(rightPosition);
+        if (leftIsNull || rightIsNull) {
+            // equality deletes match null values
+            return leftIsNull && rightIsNull;
+        }
+        return type.equalTo(left, leftPosition, right, rightPosition);
+    }
+
+    private static long combineHash(long previousHash, long valueHash)
+    {
+        return 31 * previousHash + valueHash;
+    }
+
+    private static int getSlot(long hash, int mask)
+    {
+        // the type hashes of small integers are the integers themselves, so spread them
+        return (int) ((hash * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private static int calculateMaxFill(int hashSize)
+    {
+        int maxFill = (int) Math.ceil(hashSize * FILL_RATIO);
+        if (maxFill == hashSize) {
+            maxFill--;
+        }
+        return maxFill;
+    }
+
+    public static final class Builder
+    {
+        private final List<Type> types;
+        private final BlockBuilder[] keys;
+        private long[] keyHashes = new long[1024];
+        private int size;
+
+        private int[] hashTable = newHashTable(1024);
+        private int mask = hashTable.length - 1;
+        private int maxFill = calculateMaxFill(hashTable.length);
+
+        private Builder(List<Type> types)
+        {
+            this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+            checkArgument(!types.isEmpty(), "types is empty");
+            this.keys = types.stream()
+                    .map(type -> type.createBlockBuilder(null, 1024))
+                    .toArray(BlockBuilder[]::new);
+        }
+
+        /**
+         * Adds the rows of {@code page}, whose channels are the equality fields in order.
+         */
+        public Builder addPage(Page page)
+        {
+            checkArgument(page.getChannelCount() == keys.length, "Expected %s channels, got %s", keys.length, page.getChannelCount());
+            int[] channels = new int[keys.length];
+            for (int channel = 0; channel < channels.length; channel++) {
+                channels[channel] = channel;
+            }
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                add(page, channels, position);
+            }
+            return this;
+        }
+
+        public EqualityDeleteSet build()
+        {
+            Block[] builtKeys = new Block[keys.length];
+            for (int field = 0; field < keys.length; field++) {
+                builtKeys[field] = keys[field].build();
+            }
+            return new EqualityDeleteSet(types, builtKeys, Arrays.copyOf(keyHashes, size), hashTable);
+        }
+
+        private void add(Page page, int[] channels, int position)
+        {
+            long hash = 0;
+            for (int field = 0; field < channels.length; field++) {
+                hash = combineHash(hash, hashPosition(types.get(field), page.getBlock(channels[field]), position));
+            }
+
+            int slot = getSlot(hash, mask);
+            while (hashTable[slot] != EMPTY_SLOT) {
+                int keyPosition = hashTable[slot];
+                if (keyHashes[keyPosition] == hash && keyEquals(keyPosition, page, channels, position)) {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            for (int field = 0; field < keys.length; field++) {
+                types.get(field).appendTo(page.getBlock(channels[field]), position, keys[field]);
+            }
+            if (size == keyHashes.length) {
+                keyHashes = Arrays.copyOf(keyHashes, size * 2);
+            }
+            keyHashes[size] = hash;
+            hashTable[slot] = size;
+            size++;
+
+            if (size >= maxFill) {
+                rehash();
+            }
+        }
+
+        private boolean keyEquals(int keyPosition, Page page, int[] channels, int position)
+        {
+            for (int field = 0; field < keys.length; field++) {
+                if (!positionEquals(types.get(field), keys[field], keyPosition, page.getBlock(channels[field]), position)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void rehash()
+        {
+            long newHashSize = (long) hashTable.length * 2;
+            checkState(newHashSize <= 1 << 30, "Too many equality deletes: %s", size);
+
+            int[] newHashTable = newHashTable((int) newHashSize);
+            int newMask = newHashTable.length - 1;
+            for (int keyPosition = 0; keyPosition < size; keyPosition++) {
+                int slot = getSlot(keyHashes[keyPosition], newMask);
+                while (newHashTable[slot] != EMPTY_SLOT) {
+                    slot = (slot + 1) & newMask;
+                }
+                newHashTable[slot] = keyPosition;
+            }
+
+            hashTable = newHashTable;
+            mask = newMask;
+            maxFill = calculateMaxFill(newHashTable.length);
+        }
+
+        private static int[] newHashTable(int hashSize)
+        {
+            int[] hashTable = new int[hashSize];
+            Arrays.fill(hashTable, EMPTY_SLOT);
+            return hashTable;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.iceberg.IcebergColumnHandle;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Filters the rows deleted by all the equality delete files of a split that share the same
+ * equality fields, using a single {@link EqualityDeleteSet} built from all of them.
+ */
+public final class EqualityDeleteSetFilter
+        implements DeleteFilter
+{
+    private final List<Integer> equalityFieldIds;
+    private final EqualityDeleteSet deleteSet;
+
+    EqualityDeleteSetFilter(List<Integer> equalityFieldIds, EqualityDeleteSet deleteSet)
+    {
+        this.equalityFieldIds = ImmutableList.copyOf(requireNonNull(equalityFieldIds, "equalityFieldIds is null"));
+        this.deleteSet = requireNonNull(deleteSet, "deleteSet is null");
+        checkArgument(equalityFieldIds.size() == deleteSet.getTypes().size(), "equalityFieldIds do not match the delete set");
+    }
+
+    @Override
+    public RowPredicate createPredicate(List<IcebergColumnHandle> columns)
+    {
+        int[] channels = new int[equalityFieldIds.size()];
+        for (int field = 0; field < channels.length; field++) {
+            channels[field] = getChannel(columns, equalityFieldIds.get(field));
+        }
+        return (page, position) -> !deleteSet.contains(page, channels, position);
+    }
+
+    @Override
+    public Optional<String> getDeleteFilePath()
+    {
+        return Optional.empty();
+    }
+
+    /**
+     * Adds the rows of an equality delete file to {@code deleteSet}. The columns of the page
+     * source must be the equality fields of the set, in the same order.
+     */
+    public static void readEqualityDeleteSet(ConnectorPageSource pageSource, EqualityDeleteSet.Builder deleteSet)
+    {
+        while (!pageSource.isFinished()) {
+            Page page = pageSource.getNextPage();
+            if (page != null) {
+                deleteSet.addPage(page.getLoadedPage());
+            }
+        }
+    }
+
+    private static int getChannel(List<IcebergColumnHandle> columns, int fieldId)
+    {
+        for (int channel = 0; channel < columns.size(); channel++) {
+            if (columns.get(channel).getId() == fieldId) {
+                return channel;
+            }
+        }
+        throw new IllegalArgumentException("Missing equality delete column: " + fieldId);
+    }
+}
@@ -19,10 +19,13 @@ import com.facebook.presto.iceberg.IcebergColumnHandle;
 import com.facebook.presto.spi.ConnectorPageSource;
 import io.airlift.slice.Slice;
 import jakarta.annotation.Nullable;
-import org.roaringbitmap.longlong.ImmutableLongBitmapDataProvider;
 import org.roaringbitmap.longlong.LongBitmapDataProvider;
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.facebook.presto.common.type.BigintType.BIGINT;
@@ -33,11 +36,11 @@ import static java.util.Objects.requireNonNull;
 public final class PositionDeleteFilter
         implements DeleteFilter
 {
-    private final ImmutableLongBitmapDataProvider deletedRows;
+    private final Roaring64Bitmap deletedRows;
     @Nullable
     private final String deleteFilePath;
 
-    public PositionDeleteFilter(ImmutableLongBitmapDataProvider deletedRows, @Nullable String deleteFilePath)
+    public PositionDeleteFilter(Roaring64Bitmap deletedRows, @Nullable String deleteFilePath)
     {
         this.deletedRows = requireNonNull(deletedRows, "deletedRows is null");
         this.deleteFilePath = deleteFilePath;
@@ -46,11 +49,7 @@ public final class PositionDeleteFilter
     @Override
     public RowPredicate createPredicate(List<IcebergColumnHandle> columns)
     {
-        int filePosChannel = rowPositionChannel(columns);
-        return (page, position) -> {
-            long filePos = BIGINT.getLong(page.getBlock(filePosChannel), position);
-            return !deletedRows.contains(filePos);
-        };
+        return new PositionDeletePredicate(deletedRows, rowPositionChannel(columns));
     }
 
     public Optional<String> getDeleteFilePath()
@@ -97,6 +96,110 @@ public final class PositionDeleteFilter
         }
     }
 
+    /**
+     * Decodes the deleted row positions of all data files referenced by a position delete file.
+     */
+    public static DecodedDeleteFile decodePositionDeletes(ConnectorPageSource pageSource)
+    {
+        Map<String, Roaring64Bitmap> deletedRowsByDataFile = new HashMap<>();
+        Slice currentPath = null;
+        Roaring64Bitmap currentDeletedRows = null;
+        while (!pageSource.isFinished()) {
+            Page page = pageSource.getNextPage();
+            if (page == null) {
+                continue;
+            }
+
+            Block pathBlock = page.getBlock(0);
+            Block posBlock = page.getBlock(1);
+
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                checkArgument(!pathBlock.isNull(position), "position is null");
+                Slice path = VARCHAR.getSlice(pathBlock, position);
+                // deletion files are sorted by path, so only look up the bitmap when the path changes
+                if (!isSamePath(path, currentPath)) {
+                    currentPath = path;
+                    currentDeletedRows = deletedRowsByDataFile.computeIfAbsent(path.toStringUtf8(), ignored -> new Roaring64Bitmap());
+                }
+                currentDeletedRows.addLong(BIGINT.getLong(posBlock, position));
+            }
+        }
+        deletedRowsByDataFile.values().forEach(Roaring64Bitmap::runOptimize);
+        return DecodedDeleteFile.positionDeletes(deletedRowsByDataFile);
+    }
+
+    @SuppressWarnings({"ObjectEquality", "ReferenceEquality"})
+    private static boolean isSamePath(Slice path, @Nullable Slice currentPath)
+    {
+        // path values are usually dictionary encoded, so the same path is mostly the same object
+        return path == currentPath || (currentPath != null && path.equals(currentPath));
+    }
+
+    /**
+     * Removes deleted rows in bulk. The file readers produce ascending row positions within a
+     * page, so the number of deleted rows in the page is found from two rank lookups in the
+     * bitmap. Pages without deleted rows are returned as they are and pages with only deleted
+     * rows are dropped without reading any other column. Otherwise the row positions are merged
+     * with the deleted positions from the bitmap rather than probing the bitmap for every row.
+     */
+    private static final class PositionDeletePredicate
+            implements RowPredicate
+    {
+        private final Roaring64Bitmap deletedRows;
+        private final int rowPositionChannel;
+
+        public PositionDeletePredicate(Roaring64Bitmap deletedRows, int rowPositionChannel)
+        {
+            this.deletedRows = requireNonNull(deletedRows, "deletedRows is null");
+            this.rowPositionChannel = rowPositionChannel;
+        }
+
+        @Override
+        public boolean test(Page page, int position)
+        {
+            return !deletedRows.contains(BIGINT.getLong(page.getBlock(rowPositionChannel), position));
+        }
+
+        @Override
+        public int filterPositions(Page page, int[] positions, int positionCount)
+        {
+            if (positionCount == 0 || deletedRows.isEmpty()) {
+                return positionCount;
+            }
+            Block rowPositions = page.getBlock(rowPositionChannel);
+            long firstRow = BIGINT.getLong(rowPositions, positions[0]);
+            long lastRow = BIGINT.getLong(rowPositions, positions[positionCount - 1]);
+            checkArgument(firstRow <= lastRow, "Row positions are not ascending");
+
+            long deletedBefore = firstRow == 0 ? 0 : deletedRows.rankLong(firstRow - 1);
+            long deletedCount = deletedRows.rankLong(lastRow) - deletedBefore;
+            if (deletedCount == 0) {
+                return positionCount;
+            }
+            if (deletedCount == lastRow - firstRow + 1) {
+                // every row in the range is deleted
+                return 0;
+            }
+
+            PeekableLongIterator deleted = deletedRows.getLongIteratorFrom(firstRow);
+            long nextDeleted = deleted.next();
+            int retainedCount = 0;
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                long row = BIGINT.getLong(rowPositions, position);
+                if (nextDeleted < row) {
+                    deleted.advanceIfNeeded(row);
+                    nextDeleted = deleted.hasNext() ? deleted.next() : Long.MAX_VALUE;
+                }
+                if (row != nextDeleted) {
+                    positions[retainedCount] = position;
+                    retainedCount++;
+                }
+            }
+            return retainedCount;
+        }
+    }
+
     private static final class CachingVarcharComparator
     {
         private final Slice reference;
@@ -17,6 +17,7 @@ import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import jakarta.annotation.Nullable;
 
 import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
 import static java.util.Objects.requireNonNull;
@@ -25,26 +26,66 @@ public interface RowPredicate
 {
     boolean test(Page page, int position);
 
+    /**
+     * Retains the first {@code positionCount} entries of {@code positions} for which the
+     * predicate holds, compacting them to the front of the array in their original order.
+     *
+     * @return the number of retained positions
+     */
+    default int filterPositions(Page page, int[] positions, int positionCount)
+    {
+        int retainedCount = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            if (test(page, position)) {
+                positions[retainedCount] = position;
+                retainedCount++;
+            }
+        }
+        return retainedCount;
+    }
+
     default RowPredicate and(RowPredicate other)
     {
         requireNonNull(other, "other is null");
-        return (page, position) -> test(page, position) && other.test(page, position);
+        RowPredicate first = this;
+        return new RowPredicate()
+        {
+            @Override
+            public boolean test(Page page, int position)
+            {
+                return first.test(page, position) && other.test(page, position);
+            }
+
+            @Override
+            public int filterPositions(Page page, int[] positions, int positionCount)
+            {
+                // the second predicate only sees the positions retained by the first one
+                return other.filterPositions(page, positions, first.filterPositions(page, positions, positionCount));
+            }
+        };
     }
 
+    /**
+     * Returns the page with the positions for which the predicate does not hold removed, or
+     * null if no position is retained. Blocks of a page without retained positions are never
+     * loaded, so lazily read columns of entirely filtered pages are not decoded.
+     */
+    @Nullable
     default Page filterPage(Page page)
     {
         int positionCount = page.getPositionCount();
         int[] retained = new int[positionCount];
-        int retainedCount = 0;
         for (int position = 0; position < positionCount; position++) {
-            if (test(page, position)) {
-                retained[retainedCount] = position;
-                retainedCount++;
-            }
+            retained[position] = position;
         }
+        int retainedCount = filterPositions(page, retained, positionCount);
         if (retainedCount == positionCount) {
             return page;
         }
+        if (retainedCount == 0) {
+            return null;
+        }
         return page.getPositions(retained, 0, retainedCount);
     }
 
@@ -55,30 +96,27 @@ public interface RowPredicate
             return page;
         }
 
-        boolean allSameValues = true;
-        boolean firstValue = !test(page, 0);
-        BlockBuilder blockBuilder = null;
-        for (int position = 1; position < positionCount; position++) {
-            boolean deleted = !test(page, position);
-            if (allSameValues && deleted != firstValue) {
-                blockBuilder = BOOLEAN.createFixedSizeBlockBuilder(positionCount);
-                for (int idx = 0; idx < position; idx++) {
-                    BOOLEAN.writeBoolean(blockBuilder, firstValue);
-                }
-                BOOLEAN.writeBoolean(blockBuilder, deleted);
-                allSameValues = false;
-            }
-            else if (!allSameValues) {
-                BOOLEAN.writeBoolean(blockBuilder, deleted);
-            }
+        int[] retained = new int[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            retained[position] = position;
         }
+        int retainedCount = filterPositions(page, retained, positionCount);
 
         Block block;
-        if (blockBuilder != null) {
-            block = blockBuilder.build();
+        if (retainedCount == 0 || retainedCount == positionCount) {
+            block = RunLengthEncodedBlock.create(BOOLEAN, retainedCount == 0, positionCount);
         }
         else {
-            block = RunLengthEncodedBlock.create(BOOLEAN, firstValue, positionCount);
+            BlockBuilder blockBuilder = BOOLEAN.createFixedSizeBlockBuilder(positionCount);
+            int nextRetained = 0;
+            for (int position = 0; position < positionCount; position++) {
+                boolean deleted = nextRetained >= retainedCount || retained[nextRetained] != position;
+                if (!deleted) {
+                    nextRetained++;
+                }
+                BOOLEAN.writeBoolean(blockBuilder, deleted);
+            }
+            block = blockBuilder.build();
         }
 
         return page.replaceColumn(deletedDelegateColumnId, block);
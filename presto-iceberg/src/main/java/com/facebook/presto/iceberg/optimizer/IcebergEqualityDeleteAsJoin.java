@@ -28,6 +28,7 @@ import com.facebook.presto.iceberg.IcebergTableLayoutHandle;
 import com.facebook.presto.iceberg.IcebergTableName;
 import com.facebook.presto.iceberg.IcebergTableType;
 import com.facebook.presto.iceberg.IcebergUtil;
+import com.facebook.presto.iceberg.delete.EqualityDeleteSet;
 import com.facebook.presto.iceberg.transaction.IcebergTransactionManager;
 import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorPlanOptimizer;
@@ -68,6 +69,7 @@ import org.apache.iceberg.types.Types;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -89,6 +91,7 @@ import static com.facebook.presto.iceberg.IcebergColumnHandle.IS_DELETED_COLUMN_
 import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_FILESYSTEM_ERROR;
 import static com.facebook.presto.iceberg.IcebergMetadataColumn.DATA_SEQUENCE_NUMBER;
 import static com.facebook.presto.iceberg.IcebergSessionProperties.getDeleteAsJoinRewriteMaxDeleteColumns;
+import static com.facebook.presto.iceberg.IcebergSessionProperties.getEqualityDeleteHashSetMaxSize;
 import static com.facebook.presto.iceberg.IcebergSessionProperties.isDeleteToJoinPushdownEnabled;
 import static com.facebook.presto.iceberg.IcebergUtil.getDeleteFiles;
 import static com.facebook.presto.iceberg.IcebergUtil.getIcebergTable;
@@ -114,6 +117,10 @@ import static java.util.Objects.requireNonNull;
  * WHERE COALESCE(d1."$data_sequence_number", d2."data_sequence_number") IS NULL -- None of the delete files had a delete for this row
  * </pre>
  * Note that table$equality_deletes1 and table$equality_deletes2 are different tables, each containing only the delete files with the schema for this join.</p>
+ *
+ * <p>When the equality delete files are no larger than {@code equality_delete_hash_set_max_size} in total, the query is not rewritten.
+ * The splits then filter the deleted rows in the scan, from one hash set per delete schema that each worker builds once and shares
+ * between its splits, which saves the extra stage and shuffle of the join.</p>
  */
 
 public class IcebergEqualityDeleteAsJoin
@@ -211,6 +218,10 @@ public class IcebergEqualityDeleteAsJoin
                 // Too many fields in the delete schema, don't rewrite
                 return node;
             }
+            if (canApplyEqualityDeletesInScan(deleteSchemas.values(), icebergTable.schema())) {
+                // The splits apply the deletes from a hash set built once per worker, which avoids the extra stage and shuffle of the join
+                return node;
+            }
 
             // Add all the fields required by the join that were not added by the user's query
             ImmutableMap<VariableReferenceExpression, ColumnHandle> unselectedAssignments = createAssignmentsForUnselectedFields(node, deleteSchemas, icebergTable);
@@ -329,7 +340,10 @@ public class IcebergEqualityDeleteAsJoin
                                 .filter(fieldId -> !identityPartitionFieldSourceIds.contains(fieldId))
                                 .collect(Collectors.toList());
                         result.addAll(equalityFieldIdsExcludeIdentityPartitionField);
-                        deleteInformations.put(ImmutableSet.copyOf(result), new DeleteSetInfo(partitionFields, equalityFieldIdsExcludeIdentityPartitionField));
+                        deleteInformations.merge(
+                                ImmutableSet.copyOf(result),
+                                new DeleteSetInfo(partitionFields, equalityFieldIdsExcludeIdentityPartitionField, delete.equalityFieldIds(), delete.fileSizeInBytes()),
+                                DeleteSetInfo::merge);
                     }
                 });
             }
@@ -339,6 +353,20 @@ public class IcebergEqualityDeleteAsJoin
             return ImmutableMap.copyOf(deleteInformations);
         }
 
+        private boolean canApplyEqualityDeletesInScan(Collection<DeleteSetInfo> deleteSets, Schema schema)
+        {
+            long maxSize = getEqualityDeleteHashSetMaxSize(session).toBytes();
+            long deleteFilesSize = deleteSets.stream()
+                    .mapToLong(DeleteSetInfo::getDeleteFilesSize)
+                    .sum();
+            return maxSize > 0 &&
+                    deleteFilesSize <= maxSize &&
+                    deleteSets.stream()
+                            .flatMap(deleteSet -> deleteSet.getDeleteFileFieldIds().stream())
+                            .map(fieldId -> toPrestoType(schema.findType(fieldId), typeManager))
+                            .allMatch(EqualityDeleteSet::isSupportedType);
+        }
+
         private TableScanNode createDeletesTableScan(ImmutableMap<VariableReferenceExpression, ColumnHandle> deleteColumnAssignments,
                 IcebergTableHandle icebergTableHandle,
                 IcebergTableName tableName,
@@ -501,12 +529,38 @@ public class IcebergEqualityDeleteAsJoin
         {
             private final ImmutableMap<Integer, PartitionFieldInfo> partitionFields;
             private final Set<Integer> equalityFieldIds;
+            // the equality field ids of the delete files, including identity partition columns
+            private final Set<Integer> deleteFileFieldIds;
+            private final long deleteFilesSize;
 
             private DeleteSetInfo(ImmutableMap<Integer, PartitionFieldInfo> partitionFields,
-                    List<Integer> equalityFieldIds)
+                    Collection<Integer> equalityFieldIds,
+                    Collection<Integer> deleteFileFieldIds,
+                    long deleteFilesSize)
             {
                 this.partitionFields = requireNonNull(partitionFields, "partitionFields is null");
                 this.equalityFieldIds = ImmutableSet.copyOf(requireNonNull(equalityFieldIds, "equalityFieldIds is null"));
+                this.deleteFileFieldIds = ImmutableSet.copyOf(requireNonNull(deleteFileFieldIds, "deleteFileFieldIds is null"));
+                this.deleteFilesSize = deleteFilesSize;
+            }
+
+            private static DeleteSetInfo merge(DeleteSetInfo first, DeleteSetInfo second)
+            {
+                return new DeleteSetInfo(
+                        second.partitionFields,
+                        second.equalityFieldIds,
+                        Sets.union(first.deleteFileFieldIds, second.deleteFileFieldIds),
+                        first.deleteFilesSize + second.deleteFilesSize);
+            }
+
+            public Set<Integer> getDeleteFileFieldIds()
+            {
+                return deleteFileFieldIds;
+            }
+
+            public long getDeleteFilesSize()
+            {
+                return deleteFilesSize;
             }
 
             public ImmutableMap<Integer, PartitionFieldInfo> getPartitionFields()
@@ -61,6 +61,8 @@ import com.facebook.presto.testing.MaterializedResult;
 import com.facebook.presto.testing.MaterializedRow;
 import com.facebook.presto.testing.QueryRunner;
 import com.facebook.presto.tests.AbstractTestQueryFramework;
+import com.facebook.presto.tests.DistributedQueryRunner;
+import com.facebook.presto.tests.ResultWithQueryId;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
 import com.google.common.cache.CacheStats;
@@ -140,6 +142,7 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static com.facebook.airlift.testing.Assertions.assertLessThan;
 import static com.facebook.presto.SystemSessionProperties.LEGACY_TIMESTAMP;
 import static com.facebook.presto.SystemSessionProperties.OPTIMIZER_USE_HISTOGRAMS;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
@@ -162,6 +165,7 @@ import static com.facebook.presto.iceberg.IcebergQueryRunner.getIcebergDataDirec
 import static com.facebook.presto.iceberg.IcebergSessionProperties.COMPRESSION_CODEC;
 import static com.facebook.presto.iceberg.IcebergSessionProperties.DELETE_AS_JOIN_REWRITE_ENABLED;
 import static com.facebook.presto.iceberg.IcebergSessionProperties.DELETE_AS_JOIN_REWRITE_MAX_DELETE_COLUMNS;
+import static com.facebook.presto.iceberg.IcebergSessionProperties.EQUALITY_DELETE_HASH_SET_MAX_SIZE;
 import static com.facebook.presto.iceberg.IcebergSessionProperties.PUSHDOWN_FILTER_ENABLED;
 import static com.facebook.presto.iceberg.IcebergSessionProperties.STATISTIC_SNAPSHOT_RECORD_DIFFERENCE_WEIGHT;
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
@@ -1484,6 +1488,26 @@ public abstract class IcebergDistributedTestBase
         assertQuery(session, "SELECT nationkey, comment FROM " + tableName, "SELECT nationkey, comment FROM nation WHERE name != 'ARGENTINA'");
     }
 
+    @Test(dataProvider = "equalityDeleteOptions")
+    public void testTableWithEqualityDeleteHashSet(String fileFormat, boolean joinRewriteEnabled)
+            throws Exception
+    {
+        Session session = Session.builder(deleteAsJoinEnabled(joinRewriteEnabled))
+                .setCatalogSessionProperty(ICEBERG_CATALOG, EQUALITY_DELETE_HASH_SET_MAX_SIZE, "1MB")
+                .build();
+        String tableName = "test_v2_equality_delete_hash_set" + randomTableSuffix();
+        assertUpdate(session, "CREATE TABLE " + tableName + " with (\"write.format.default\" = '" + fileFormat + "') AS SELECT * FROM tpch.tiny.nation", 25);
+        Table icebergTable = updateTable(tableName);
+
+        // the delete files with the same equality fields are applied from one hash set
+        writeEqualityDeleteToNationTable(icebergTable, ImmutableMap.of("regionkey", 1L));
+        writeEqualityDeleteToNationTable(icebergTable, ImmutableMap.of("regionkey", 2L));
+        writeEqualityDeleteToNationTable(icebergTable, ImmutableMap.of("regionkey", 3L, "name", "FRANCE"));
+        assertQuery(session, "SELECT * FROM " + tableName, "SELECT * FROM nation WHERE regionkey NOT IN (1, 2) AND name != 'FRANCE'");
+        assertQuery(session, "SELECT nationkey FROM " + tableName, "SELECT nationkey FROM nation WHERE regionkey NOT IN (1, 2) AND name != 'FRANCE'");
+        assertPlan(session, "SELECT * FROM " + tableName, output(exchange(tableScan(tableName))));
+    }
+
     @Test(dataProvider = "equalityDeleteOptions")
     public void testTableWithEqualityDeleteAndGroupByAndLimit(String fileFormat, boolean joinRewriteEnabled)
             throws Exception
@@ -1805,6 +1829,54 @@ public abstract class IcebergDistributedTestBase
         }
     }
 
+    @Test
+    public void testWriteZOrderedTable()
+    {
+        // a single file with stripes of 100 rows, whose statistics show how well the rows are clustered
+        Session session = Session.builder(getSession())
+                .setSystemProperty("redistribute_writes", "false")
+                .setSystemProperty("scale_writers", "false")
+                .setSystemProperty("task_writer_count", "1")
+                .setCatalogSessionProperty(ICEBERG_CATALOG, "orc_optimized_writer_max_stripe_rows", "100")
+                .build();
+        // y has a much wider range than x, which the Z-order key normalizes away
+        String grid = "SELECT x, y * 1000000 AS y FROM UNNEST(sequence(0, 99)) AS t(x) CROSS JOIN UNNEST(sequence(0, 99)) AS u(y)";
+        String tableName = "test_z_ordered_" + randomTableSuffix();
+        try {
+            assertUpdate("CREATE TABLE " + tableName + " (x bigint, y bigint) WITH (format = 'ORC', z_ordered_by = ARRAY['x', 'y'])");
+            assertUpdate(session, "INSERT INTO " + tableName + " " + grid, 10_000);
+            assertEquals(computeScalar("SELECT count(*) FROM \"" + tableName + "$files\""), 1L);
+
+            // a predicate on either column skips most of the stripes
+            assertLessThan(getRawInputPositions("SELECT count(*) FROM " + tableName + " WHERE x = 50"), 3_000L);
+            assertLessThan(getRawInputPositions("SELECT count(*) FROM " + tableName + " WHERE y = 50000000"), 3_000L);
+
+            // the columns are stored by field id, so the table stays clustered on a renamed column
+            assertQuery("SELECT value FROM \"" + tableName + "$properties\" WHERE key = 'write.z-order.columns'", "VALUES '1,2'");
+            assertUpdate("ALTER TABLE " + tableName + " RENAME COLUMN y TO z");
+            assertThat((String) computeScalar("SHOW CREATE TABLE " + tableName)).contains("z_ordered_by = ARRAY['x','z']");
+            assertUpdate(session, "INSERT INTO " + tableName + " " + grid, 10_000);
+            assertEquals(computeScalar("SELECT count(*) FROM \"" + tableName + "$files\""), 2L);
+            assertLessThan(getRawInputPositions("SELECT count(*) FROM " + tableName + " WHERE z = 50000000"), 6_000L);
+
+            // a dropped column is no longer part of the Z-order
+            assertUpdate("ALTER TABLE " + tableName + " DROP COLUMN z");
+            assertThat((String) computeScalar("SHOW CREATE TABLE " + tableName)).contains("z_ordered_by = ARRAY['x']");
+            assertUpdate(session, "INSERT INTO " + tableName + " SELECT x FROM (" + grid + ")", 10_000);
+            assertQuery("SELECT count(*), count(DISTINCT x) FROM " + tableName, "VALUES (30000, 100)");
+        }
+        finally {
+            assertUpdate("DROP TABLE IF EXISTS " + tableName);
+        }
+    }
+
+    private long getRawInputPositions(@Language("SQL") String sql)
+    {
+        DistributedQueryRunner queryRunner = getDistributedQueryRunner();
+        ResultWithQueryId<MaterializedResult> result = queryRunner.executeWithQueryId(getSession(), sql);
+        return queryRunner.getQueryInfo(result.getQueryId()).getQueryStats().getRawInputPositions();
+    }
+
     @Test
     public void testRewriteDataFilesWithSortOrder()
             throws IOException
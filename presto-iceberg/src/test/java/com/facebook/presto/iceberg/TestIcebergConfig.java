@@ -22,6 +22,8 @@ import java.util.Map;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.airlift.units.DataSize.succinctDataSize;
 import static com.facebook.presto.hive.HiveCompressionCodec.NONE;
@@ -61,6 +63,7 @@ public class TestIcebergConfig
                 .setPushdownFilterEnabled(false)
                 .setDeleteAsJoinRewriteEnabled(true)
                 .setDeleteAsJoinRewriteMaxDeleteColumns(400)
+                .setEqualityDeleteHashSetMaxSize(succinctDataSize(0, BYTE))
                 .setRowsForMetadataOptimizationThreshold(1000)
                 .setManifestCachingEnabled(true)
                 .setFileIOImpl(HadoopFileIO.class.getName())
@@ -73,6 +76,10 @@ public class TestIcebergConfig
                 .setMetricsMaxInferredColumn(METRICS_MAX_INFERRED_COLUMN_DEFAULTS_DEFAULT)
                 .setManifestCacheMaxChunkSize(succinctDataSize(2, MEGABYTE))
                 .setMaxStatisticsFileCacheSize(succinctDataSize(256, MEGABYTE))
+                .setDeleteFileCachingEnabled(false)
+                .setMaxDeleteFileCacheSize(succinctDataSize(256, MEGABYTE))
+                .setManifestDataFileCachingEnabled(false)
+                .setMaxManifestDataFileCacheSize(succinctDataSize(256, MEGABYTE))
                 .setStatisticsKllSketchKParameter(1024)
                 .setMaterializedViewStoragePrefix("__mv_storage__")
                 .setMaterializedViewMaxChangedPartitions(100));
@@ -98,6 +105,7 @@ public class TestIcebergConfig
                 .put("iceberg.pushdown-filter-enabled", "true")
                 .put("deprecated.iceberg.delete-as-join-rewrite-enabled", "false")
                 .put("iceberg.delete-as-join-rewrite-max-delete-columns", "1")
+                .put("iceberg.equality-delete-hash-set-max-size", "16MB")
                 .put("iceberg.rows-for-metadata-optimization-threshold", "500")
                 .put("iceberg.io.manifest.cache-enabled", "false")
                 .put("iceberg.io-impl", "com.facebook.presto.iceberg.HdfsFileIO")
@@ -110,6 +118,10 @@ public class TestIcebergConfig
                 .put("iceberg.metadata-delete-after-commit", "true")
                 .put("iceberg.metrics-max-inferred-column", "16")
                 .put("iceberg.max-statistics-file-cache-size", "512MB")
+                .put("iceberg.delete-file-cache-enabled", "true")
+                .put("iceberg.max-delete-file-cache-size", "64MB")
+                .put("iceberg.manifest-data-file-cache-enabled", "true")
+                .put("iceberg.max-manifest-data-file-cache-size", "1GB")
                 .put("iceberg.statistics-kll-sketch-k-parameter", "4096")
                 .put("iceberg.materialized-view-storage-prefix", "custom_mv_prefix")
                 .put("iceberg.materialized-view-max-changed-partitions", "2000")
@@ -132,6 +144,7 @@ public class TestIcebergConfig
                 .setPushdownFilterEnabled(true)
                 .setDeleteAsJoinRewriteEnabled(false)
                 .setDeleteAsJoinRewriteMaxDeleteColumns(1)
+                .setEqualityDeleteHashSetMaxSize(succinctDataSize(16, MEGABYTE))
                 .setRowsForMetadataOptimizationThreshold(500)
                 .setManifestCachingEnabled(false)
                 .setFileIOImpl("com.facebook.presto.iceberg.HdfsFileIO")
@@ -144,6 +157,10 @@ public class TestIcebergConfig
                 .setMetadataDeleteAfterCommit(true)
                 .setMetricsMaxInferredColumn(16)
                 .setMaxStatisticsFileCacheSize(succinctDataSize(512, MEGABYTE))
+                .setDeleteFileCachingEnabled(true)
+                .setMaxDeleteFileCacheSize(succinctDataSize(64, MEGABYTE))
+                .setManifestDataFileCachingEnabled(true)
+                .setMaxManifestDataFileCacheSize(succinctDataSize(1, GIGABYTE))
                 .setStatisticsKllSketchKParameter(4096)
                 .setMaterializedViewStoragePrefix("custom_mv_prefix")
                 .setMaterializedViewMaxChangedPartitions(2000);
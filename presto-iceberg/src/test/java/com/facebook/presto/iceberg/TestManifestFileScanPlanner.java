@@ -0,0 +1,173 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.FileMetadata;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.Metrics;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.TableScan;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.hadoop.HadoopTables;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.types.Types;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.apache.iceberg.expressions.Expressions.alwaysTrue;
+import static org.apache.iceberg.expressions.Expressions.and;
+import static org.apache.iceberg.expressions.Expressions.equal;
+import static org.apache.iceberg.expressions.Expressions.greaterThan;
+import static org.apache.iceberg.types.Conversions.toByteBuffer;
+import static org.apache.iceberg.types.Types.NestedField.required;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestManifestFileScanPlanner
+{
+    private static final Schema SCHEMA = new Schema(
+            required(1, "id", Types.LongType.get()),
+            required(2, "region", Types.StringType.get()));
+    private static final PartitionSpec SPEC = PartitionSpec.builderFor(SCHEMA).identity("region").build();
+
+    private File tempDirectory;
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        tempDirectory = createTempDir();
+        executor = newFixedThreadPool(4, daemonThreadsNamed("test-manifest-planner-%s"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        executor.shutdownNow();
+        deleteRecursively(tempDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testPlanFiles()
+            throws IOException
+    {
+        Table table = new HadoopTables(new Configuration()).create(SCHEMA, SPEC, new File(tempDirectory, "plan").toURI().toString());
+        // each append writes a separate manifest
+        table.newAppend()
+                .appendFile(dataFile("a-1.parquet", "a", 0, 99))
+                .appendFile(dataFile("a-2.parquet", "a", 100, 199))
+                .commit();
+        table.newAppend()
+                .appendFile(dataFile("b-1.parquet", "b", 0, 99))
+                .commit();
+
+        ManifestDataFileCache cache = new ManifestDataFileCache(CacheBuilder.newBuilder().recordStats().build(), true);
+        long snapshotId = table.currentSnapshot().snapshotId();
+
+        assertPlannedFiles(table, snapshotId, alwaysTrue(), cache, "a-1.parquet", "a-2.parquet", "b-1.parquet");
+        assertEquals(cache.size(), 2);
+        assertEquals(cache.stats().missCount(), 2);
+
+        // the manifest of region b is pruned with its partition summary and the files of region a with their metrics
+        assertPlannedFiles(table, snapshotId, and(equal("region", "a"), greaterThan("id", 150L)), cache, "a-2.parquet");
+        assertPlannedFiles(table, snapshotId, equal("region", "b"), cache, "b-1.parquet");
+        assertEquals(cache.stats().missCount(), 2);
+
+        // the column names of the filter are resolved like those of the table scan
+        assertPlannedFiles(table, table.newScan().useSnapshot(snapshotId).caseSensitive(false).filter(equal("REGION", "b")), cache, "b-1.parquet");
+
+        // snapshots with delete manifests are planned by the table scan
+        table.newRowDelta()
+                .addDeletes(FileMetadata.deleteFileBuilder(SPEC)
+                        .ofPositionDeletes()
+                        .withPath("delete.parquet")
+                        .withFormat("PARQUET")
+                        .withPartitionPath("region=a")
+                        .withFileSizeInBytes(10)
+                        .withRecordCount(1)
+                        .build())
+                .commit();
+        assertFalse(ManifestFileScanPlanner.planFiles(table, table.newScan(), executor, cache).isPresent());
+    }
+
+    private void assertPlannedFiles(Table table, long snapshotId, Expression filter, ManifestDataFileCache cache, String... expectedFiles)
+            throws IOException
+    {
+        assertPlannedFiles(table, table.newScan().useSnapshot(snapshotId).filter(filter), cache, expectedFiles);
+    }
+
+    private void assertPlannedFiles(Table table, TableScan tableScan, ManifestDataFileCache cache, String... expectedFiles)
+            throws IOException
+    {
+        Optional<CloseableIterable<FileScanTask>> tasks = ManifestFileScanPlanner.planFiles(table, tableScan, executor, cache);
+        assertTrue(tasks.isPresent());
+        Set<String> plannedFiles;
+        try (CloseableIterable<FileScanTask> fileScanTasks = tasks.get()) {
+            plannedFiles = ImmutableSet.copyOf(fileScanTasks).stream()
+                    .map(task -> new File(task.file().location()).getName())
+                    .collect(toImmutableSet());
+        }
+        assertEquals(plannedFiles, ImmutableSet.copyOf(expectedFiles));
+
+        // the planned files match those of the table scan
+        Set<String> scannedFiles;
+        try (CloseableIterable<FileScanTask> fileScanTasks = tableScan.planFiles()) {
+            scannedFiles = ImmutableSet.copyOf(fileScanTasks).stream()
+                    .map(task -> new File(task.file().location()).getName())
+                    .collect(toImmutableSet());
+        }
+        assertEquals(plannedFiles, scannedFiles);
+    }
+
+    private DataFile dataFile(String name, String region, long minId, long maxId)
+    {
+        return DataFiles.builder(SPEC)
+                .withPath(new File(tempDirectory, name).toURI().toString())
+                .withFormat("PARQUET")
+                .withPartitionPath("region=" + region)
+                .withFileSizeInBytes(1024)
+                .withMetrics(new Metrics(
+                        100L,
+                        null,
+                        null,
+                        null,
+                        null,
+                        ImmutableMap.of(1, toByteBuffer(Types.LongType.get(), minId)),
+                        ImmutableMap.of(1, toByteBuffer(Types.LongType.get(), maxId))))
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.iceberg.FileContent.EQUALITY_DELETES;
+import static com.facebook.presto.iceberg.FileFormat.PARQUET;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+
+public class TestDeleteFileCacheKey
+{
+    @Test
+    public void testEqualityDeletesAreKeyedByType()
+    {
+        DeleteFileCacheKey key = DeleteFileCacheKey.forEqualityDeletes("delete.parquet", 100, ImmutableList.of(1), ImmutableList.of(INTEGER));
+        assertEquals(DeleteFileCacheKey.forEqualityDeletes("delete.parquet", 100, ImmutableList.of(1), ImmutableList.of(INTEGER)), key);
+
+        // the deletes are decoded again after the column is promoted from int to bigint
+        assertNotEquals(DeleteFileCacheKey.forEqualityDeletes("delete.parquet", 100, ImmutableList.of(1), ImmutableList.of(BIGINT)), key);
+        assertNotEquals(DeleteFileCacheKey.forEqualityDeletes("delete.parquet", 100, ImmutableList.of(2), ImmutableList.of(INTEGER)), key);
+        assertNotEquals(new DeleteFileCacheKey("delete.parquet", 100), key);
+    }
+
+    @Test
+    public void testEqualityDeleteSetsAreKeyedByType()
+    {
+        List<DeleteFile> deleteFiles = ImmutableList.of(deleteFile("delete.parquet", 100));
+        DeleteFileCacheKey key = DeleteFileCacheKey.forEqualityDeleteSet(ImmutableList.of(1), ImmutableList.of(INTEGER), deleteFiles);
+        assertEquals(DeleteFileCacheKey.forEqualityDeleteSet(ImmutableList.of(1), ImmutableList.of(INTEGER), deleteFiles), key);
+        assertNotEquals(DeleteFileCacheKey.forEqualityDeleteSet(ImmutableList.of(1), ImmutableList.of(BIGINT), deleteFiles), key);
+
+        // the deletes of a single file are decoded differently when they are not applied from a hash set
+        assertNotEquals(DeleteFileCacheKey.forEqualityDeletes("delete.parquet", 100, ImmutableList.of(1), ImmutableList.of(INTEGER)), key);
+    }
+
+    private static DeleteFile deleteFile(String path, long fileSize)
+    {
+        return new DeleteFile(EQUALITY_DELETES, path, PARQUET, 10, fileSize, ImmutableList.of(1), ImmutableMap.of(), ImmutableMap.of());
+    }
+}
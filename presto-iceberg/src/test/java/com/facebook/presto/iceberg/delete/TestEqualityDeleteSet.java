@@ -0,0 +1,125 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.ArrayType;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.iceberg.IcebergColumnHandle.primitiveIcebergColumnHandle;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestEqualityDeleteSet
+{
+    @Test
+    public void testContains()
+    {
+        EqualityDeleteSet.Builder builder = EqualityDeleteSet.builder(ImmutableList.of(BIGINT, VARCHAR));
+        // the second page repeats some rows of the first one, as a second delete file would
+        builder.addPage(createPage(0, 5_000, 2));
+        builder.addPage(createPage(4_000, 10_000, 2));
+        EqualityDeleteSet deleteSet = builder.build();
+        assertEquals(deleteSet.size(), 5_000);
+
+        // data page with the columns in a different order, and an extra column
+        Page page = createPage(0, 20_000, 1);
+        page = new Page(page.getBlock(1), createLongBlock(0, 20_000), page.getBlock(0));
+        int[] channels = {2, 0};
+        for (int position = 0; position < 20_000; position++) {
+            assertEquals(deleteSet.contains(page, channels, position), position < 10_000 && position % 2 == 0, "position " + position);
+        }
+    }
+
+    @Test
+    public void testNulls()
+    {
+        BlockBuilder deletedIds = BIGINT.createBlockBuilder(null, 2);
+        deletedIds.appendNull();
+        BIGINT.writeLong(deletedIds, 1);
+        EqualityDeleteSet deleteSet = EqualityDeleteSet.builder(ImmutableList.of(BIGINT))
+                .addPage(new Page(deletedIds.build()))
+                .build();
+
+        BlockBuilder ids = BIGINT.createBlockBuilder(null, 3);
+        ids.appendNull();
+        BIGINT.writeLong(ids, 1);
+        BIGINT.writeLong(ids, 2);
+        Page page = new Page(ids.build());
+        int[] channels = {0};
+        assertTrue(deleteSet.contains(page, channels, 0));
+        assertTrue(deleteSet.contains(page, channels, 1));
+        assertFalse(deleteSet.contains(page, channels, 2));
+    }
+
+    @Test
+    public void testFilter()
+    {
+        EqualityDeleteSet deleteSet = EqualityDeleteSet.builder(ImmutableList.of(BIGINT, VARCHAR))
+                .addPage(createPage(0, 10, 2))
+                .build();
+        DeleteFilter filter = DecodedDeleteFile.equalityDeleteSet(ImmutableList.of(1, 2), deleteSet).createEqualityDeleteSetFilter();
+        RowPredicate predicate = filter.createPredicate(ImmutableList.of(
+                primitiveIcebergColumnHandle(2, "name", VARCHAR, Optional.empty()),
+                primitiveIcebergColumnHandle(1, "id", BIGINT, Optional.empty())));
+
+        Page page = createPage(0, 10, 1);
+        page = new Page(page.getBlock(1), page.getBlock(0));
+        for (int position = 0; position < 10; position++) {
+            assertEquals(predicate.test(page, position), position % 2 != 0);
+        }
+    }
+
+    @Test
+    public void testSupportedTypes()
+    {
+        assertTrue(EqualityDeleteSet.isSupportedType(BIGINT));
+        assertTrue(EqualityDeleteSet.isSupportedType(VARCHAR));
+        assertFalse(EqualityDeleteSet.isSupportedType(DOUBLE));
+        assertFalse(EqualityDeleteSet.isSupportedType(new ArrayType(BIGINT)));
+    }
+
+    /**
+     * Creates the (id, name) rows of every {@code step} id of the [start, end) range.
+     */
+    private static Page createPage(int start, int end, int step)
+    {
+        BlockBuilder ids = BIGINT.createBlockBuilder(null, end - start);
+        BlockBuilder names = VARCHAR.createBlockBuilder(null, end - start);
+        for (int i = start; i < end; i += step) {
+            BIGINT.writeLong(ids, i);
+            VARCHAR.writeSlice(names, utf8Slice("name_" + i));
+        }
+        return new Page(ids.build(), names.build());
+    }
+
+    private static Block createLongBlock(int start, int end)
+    {
+        BlockBuilder values = BIGINT.createBlockBuilder(null, end - start);
+        for (int i = start; i < end; i++) {
+            BIGINT.writeLong(values, i);
+        }
+        return values.build();
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.LazyBlock;
+import com.facebook.presto.common.block.LongArrayBlock;
+import com.facebook.presto.iceberg.IcebergColumnHandle;
+import com.facebook.presto.spi.FixedPageSource;
+import com.google.common.collect.ImmutableList;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.iceberg.IcebergColumnHandle.primitiveIcebergColumnHandle;
+import static com.facebook.presto.iceberg.delete.PositionDeleteFilter.decodePositionDeletes;
+import static org.apache.iceberg.MetadataColumns.ROW_POSITION;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestPositionDeleteFilter
+{
+    private static final List<IcebergColumnHandle> COLUMNS = ImmutableList.of(
+            primitiveIcebergColumnHandle(1, "value", BIGINT, Optional.empty()),
+            primitiveIcebergColumnHandle(ROW_POSITION.fieldId(), ROW_POSITION.name(), BIGINT, Optional.empty()));
+
+    @Test
+    public void testFilterPage()
+    {
+        RowPredicate predicate = createPredicate(3, 4, 7, 100);
+        Page page = filterPage(predicate, createPage(0, 10));
+        assertEquals(getRowPositions(page), new long[] {0, 1, 2, 5, 6, 8, 9});
+        assertEquals(getValues(page), new long[] {0, 1, 2, 5, 6, 8, 9});
+
+        page = createPage(10, 20);
+        assertSame(predicate.filterPage(page), page);
+    }
+
+    @Test
+    public void testFullyDeletedPageIsNotLoaded()
+    {
+        RowPredicate predicate = createPredicate(9, 10, 11, 12, 13, 14);
+        AtomicBoolean loaded = new AtomicBoolean();
+        Page page = new Page(
+                new LazyBlock(5, lazyBlock -> {
+                    loaded.set(true);
+                    lazyBlock.setBlock(createLongSequenceBlock(10, 15));
+                }),
+                createLongSequenceBlock(10, 15));
+        assertNull(predicate.filterPage(page));
+        assertFalse(loaded.get());
+    }
+
+    @Test
+    public void testFilterPositionsWithGaps()
+    {
+        RowPredicate predicate = createPredicate(2, 3, 5, 8, 9);
+        Block rowPositions = new LongArrayBlock(6, Optional.empty(), new long[] {1, 3, 4, 6, 9, 12});
+        Page page = new Page(rowPositions, rowPositions);
+        int[] positions = {0, 1, 2, 3, 4, 5};
+        int retainedCount = predicate.filterPositions(page, positions, positions.length);
+        assertEquals(retainedCount, 4);
+        assertEquals(positions[0], 0);
+        assertEquals(positions[1], 2);
+        assertEquals(positions[2], 3);
+        assertEquals(positions[3], 5);
+    }
+
+    @Test
+    public void testAnd()
+    {
+        RowPredicate predicate = createPredicate(1, 2).and(createPredicate(2, 5));
+        Page page = filterPage(predicate, createPage(0, 6));
+        assertEquals(getRowPositions(page), new long[] {0, 3, 4});
+        assertFalse(predicate.test(createPage(0, 6), 5));
+        assertTrue(predicate.test(createPage(0, 6), 4));
+    }
+
+    @Test
+    public void testMarkDeleted()
+    {
+        RowPredicate predicate = createPredicate(1, 3);
+        Page page = predicate.markDeleted(createPage(0, 4), 0);
+        for (int position = 0; position < 4; position++) {
+            assertEquals(page.getBlock(0).getByte(position) != 0, position == 1 || position == 3);
+        }
+
+        page = predicate.markDeleted(createPage(4, 8), 0);
+        for (int position = 0; position < 4; position++) {
+            assertEquals(page.getBlock(0).getByte(position), 0);
+        }
+    }
+
+    @Test
+    public void testDecodePositionDeletes()
+    {
+        Page first = new Page(
+                createVarcharBlock("a.parquet", "a.parquet", "b.parquet"),
+                new LongArrayBlock(3, Optional.empty(), new long[] {1, 5, 0}));
+        Page second = new Page(
+                createVarcharBlock("b.parquet", "c.parquet"),
+                new LongArrayBlock(2, Optional.empty(), new long[] {7, 3}));
+        DecodedDeleteFile decoded = decodePositionDeletes(new FixedPageSource(ImmutableList.of(first, second)));
+
+        assertEquals(decoded.getDeletedRows("a.parquet").toArray(), new long[] {1, 5});
+        assertEquals(decoded.getDeletedRows("b.parquet").toArray(), new long[] {0, 7});
+        assertEquals(decoded.getDeletedRows("c.parquet").toArray(), new long[] {3});
+        assertTrue(decoded.getDeletedRows("d.parquet").isEmpty());
+        assertTrue(decoded.getRetainedSizeInBytes() > 0);
+
+        Page page = filterPage(new PositionDeleteFilter(decoded.getDeletedRows("a.parquet"), null).createPredicate(COLUMNS), createPage(0, 6));
+        assertEquals(getRowPositions(page), new long[] {0, 2, 3, 4});
+    }
+
+    private static Block createVarcharBlock(String... values)
+    {
+        BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, values.length);
+        for (String value : values) {
+            VARCHAR.writeString(blockBuilder, value);
+        }
+        return blockBuilder.build();
+    }
+
+    private static RowPredicate createPredicate(long... deletedRows)
+    {
+        return new PositionDeleteFilter(Roaring64Bitmap.bitmapOf(deletedRows), null).createPredicate(COLUMNS);
+    }
+
+    private static Page filterPage(RowPredicate predicate, Page page)
+    {
+        Page filtered = predicate.filterPage(page);
+        assertTrue(filtered != null);
+        return filtered;
+    }
+
+    private static Page createPage(long start, long end)
+    {
+        return new Page(createLongSequenceBlock(start, end), createLongSequenceBlock(start, end));
+    }
+
+    private static Block createLongSequenceBlock(long start, long end)
+    {
+        long[] values = new long[(int) (end - start)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = start + i;
+        }
+        return new LongArrayBlock(values.length, Optional.empty(), values);
+    }
+
+    private static long[] getRowPositions(Page page)
+    {
+        return getLongs(page.getBlock(1));
+    }
+
+    private static long[] getValues(Page page)
+    {
+        return getLongs(page.getBlock(0));
+    }
+
+    private static long[] getLongs(Block block)
+    {
+        long[] values = new long[block.getPositionCount()];
+        for (int position = 0; position < values.length; position++) {
+            values[position] = BIGINT.getLong(block, position);
+        }
+        return values;
+    }
+}
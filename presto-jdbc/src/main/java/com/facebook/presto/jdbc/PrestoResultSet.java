@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.jdbc;
 
+import com.facebook.presto.client.BinaryRow;
 import com.facebook.presto.client.Column;
 import com.facebook.presto.client.IntervalDayTime;
 import com.facebook.presto.client.IntervalYearMonth;
@@ -207,6 +208,10 @@ public class PrestoResultSet
     public int getInt(int columnIndex)
             throws SQLException
     {
+        BinaryRow binaryRow = binaryRow(columnIndex);
+        if (binaryRow != null && binaryRow.isIntegral(columnIndex - 1)) {
+            return (int) getLong(binaryRow, columnIndex - 1);
+        }
         return toNumber(column(columnIndex)).intValue();
     }
 
@@ -214,6 +219,10 @@ public class PrestoResultSet
     public long getLong(int columnIndex)
             throws SQLException
     {
+        BinaryRow binaryRow = binaryRow(columnIndex);
+        if (binaryRow != null && binaryRow.isIntegral(columnIndex - 1)) {
+            return getLong(binaryRow, columnIndex - 1);
+        }
         return toNumber(column(columnIndex)).longValue();
     }
 
@@ -228,6 +237,15 @@ public class PrestoResultSet
     public double getDouble(int columnIndex)
             throws SQLException
     {
+        BinaryRow binaryRow = binaryRow(columnIndex);
+        if (binaryRow != null && binaryRow.isFloatingPoint(columnIndex - 1)) {
+            boolean isNull = binaryRow.isNull(columnIndex - 1);
+            wasNull.set(isNull);
+            return isNull ? 0 : binaryRow.getDouble(columnIndex - 1);
+        }
+        if (binaryRow != null && binaryRow.isIntegral(columnIndex - 1)) {
+            return getLong(binaryRow, columnIndex - 1);
+        }
         return toNumber(column(columnIndex)).doubleValue();
     }
 
@@ -401,14 +419,14 @@ public class PrestoResultSet
     public int getInt(String columnLabel)
             throws SQLException
     {
-        return toNumber(column(columnLabel)).intValue();
+        return getInt(columnIndex(columnLabel));
     }
 
     @Override
     public long getLong(String columnLabel)
             throws SQLException
     {
-        return toNumber(column(columnLabel)).longValue();
+        return getLong(columnIndex(columnLabel));
     }
 
     @Override
@@ -422,7 +440,7 @@ public class PrestoResultSet
     public double getDouble(String columnLabel)
             throws SQLException
     {
-        return toNumber(column(columnLabel)).doubleValue();
+        return getDouble(columnIndex(columnLabel));
     }
 
     @Override
@@ -1681,6 +1699,29 @@ public class PrestoResultSet
         return value;
     }
 
+    /**
+     * Returns the current row if it reads the values from the blocks of binary results, so that
+     * the primitive getters do not have to box the values.
+     */
+    private BinaryRow binaryRow(int index)
+            throws SQLException
+    {
+        checkOpen();
+        checkValidRow();
+        if ((index <= 0) || (index > resultSetMetaData.getColumnCount())) {
+            throw new SQLException("Invalid column index: " + index);
+        }
+        List<Object> currentRow = row.get();
+        return (currentRow instanceof BinaryRow) ? (BinaryRow) currentRow : null;
+    }
+
+    private long getLong(BinaryRow binaryRow, int field)
+    {
+        boolean isNull = binaryRow.isNull(field);
+        wasNull.set(isNull);
+        return isNull ? 0 : binaryRow.getLong(field);
+    }
+
     private ColumnInfo columnInfo(int index)
             throws SQLException
     {
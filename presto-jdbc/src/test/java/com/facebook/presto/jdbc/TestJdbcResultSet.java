@@ -364,6 +364,69 @@ public class TestJdbcResultSet
         }
     }
 
+    @Test
+    public void testBinaryResults()
+            throws Exception
+    {
+        assertBinaryResults("target_result_size:1kB");
+        // the pages of raw binary results are sent as they were compressed by the exchange
+        assertBinaryResults("target_result_size:1kB;exchange_compression_codec:LZ4");
+        assertBinaryResults("target_result_size:1kB;exchange_compression_codec:ZSTD");
+        // the rows are read from the output buffer of the task, rather than through the coordinator
+        assertBinaryResults("direct_results_enabled:true");
+        assertBinaryResults("direct_results_enabled:true;exchange_compression_codec:LZ4");
+    }
+
+    private void assertBinaryResults(String sessionProperties)
+            throws Exception
+    {
+        // small result batches, so that most of the rows are fetched after the columns are known
+        String query = "SELECT " +
+                "x % 2 = 0, " +
+                "CAST(x % 100 AS tinyint), " +
+                "CAST(x AS smallint), " +
+                "CAST(x AS integer), " +
+                "IF(x % 7 = 0, NULL, x), " +
+                "CAST(x AS real) / 2, " +
+                "x / 4e0, " +
+                "CAST(x / 4e0 AS decimal(10, 2)), " +
+                "CAST(x AS decimal(30, 1)), " +
+                "CAST(x AS varchar), " +
+                "CAST(CAST(x AS varchar) AS char(6)), " +
+                "to_utf8(CAST(x AS varchar)), " +
+                "date_add('day', x, DATE '2000-01-01'), " +
+                "json_parse('[' || CAST(x AS varchar) || ']') " +
+                "FROM UNNEST(sequence(1, 5000)) t(x) " +
+                "ORDER BY x";
+        try (Connection binaryConnection = createConnection("binaryResults=true&sessionProperties=" + sessionProperties);
+                Statement binaryStatement = binaryConnection.createStatement();
+                ResultSet expected = statement.executeQuery(query);
+                ResultSet actual = binaryStatement.executeQuery(query)) {
+            int columnCount = actual.getMetaData().getColumnCount();
+            long rows = 0;
+            while (expected.next()) {
+                assertTrue(actual.next());
+                rows++;
+                for (int column = 1; column <= columnCount; column++) {
+                    assertEquals(actual.getObject(column), expected.getObject(column));
+                    // varbinary values are byte arrays
+                    if (column != 12) {
+                        assertEquals(actual.getString(column), expected.getString(column));
+                    }
+                }
+                for (int column = 2; column <= 7; column++) {
+                    assertEquals(actual.getLong(column), expected.getLong(column));
+                    assertEquals(actual.wasNull(), expected.wasNull());
+                    assertEquals(actual.getInt(column), expected.getInt(column));
+                    assertEquals(actual.getDouble(column), expected.getDouble(column));
+                }
+                assertEquals(actual.getBoolean(1), expected.getBoolean(1));
+            }
+            assertFalse(actual.next());
+            assertEquals(rows, 5000);
+        }
+    }
+
     private Connection createConnection()
             throws SQLException
     {
@@ -371,6 +434,13 @@ public class TestJdbcResultSet
         return DriverManager.getConnection(url, "test", null);
     }
 
+    private Connection createConnection(String parameters)
+            throws SQLException
+    {
+        String url = format("jdbc:presto://%s?%s", server.getAddress(), parameters);
+        return DriverManager.getConnection(url, "test", null);
+    }
+
     private static long countRows(ResultSet rs)
             throws SQLException
     {
@@ -156,6 +156,8 @@ public final class SystemSessionProperties
     public static final String OPTIMIZE_METADATA_QUERIES_IGNORE_STATS = "optimize_metadata_queries_ignore_stats";
     public static final String OPTIMIZE_METADATA_QUERIES_CALL_THRESHOLD = "optimize_metadata_queries_call_threshold";
     public static final String FAST_INEQUALITY_JOINS = "fast_inequality_joins";
+    public static final String JOIN_HASH_BUILD_PARALLELISM = "join_hash_build_parallelism";
+    public static final String SHARE_BROADCAST_JOIN_BUILD = "share_broadcast_join_build";
     public static final String QUERY_PRIORITY = "query_priority";
     public static final String CONFIDENCE_BASED_BROADCAST_ENABLED = "confidence_based_broadcast_enabled";
     public static final String TREAT_LOW_CONFIDENCE_ZERO_ESTIMATION_AS_UNKNOWN_ENABLED = "treat_low_confidence_zero_estimation_unknown_enabled";
@@ -229,12 +231,14 @@ public final class SystemSessionProperties
     public static final String OPTIMIZE_NULLS_IN_JOINS = "optimize_nulls_in_join";
     public static final String OPTIMIZE_PAYLOAD_JOINS = "optimize_payload_joins";
     public static final String TARGET_RESULT_SIZE = "target_result_size";
+    public static final String DIRECT_RESULTS_ENABLED = "direct_results_enabled";
     public static final String PUSHDOWN_DEREFERENCE_ENABLED = "pushdown_dereference_enabled";
     public static final String ENABLE_DYNAMIC_FILTERING = "enable_dynamic_filtering";
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_ROW_COUNT = "dynamic_filtering_max_per_driver_row_count";
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_SIZE = "dynamic_filtering_max_per_driver_size";
     public static final String DYNAMIC_FILTERING_RANGE_ROW_LIMIT_PER_DRIVER = "dynamic_filtering_range_row_limit_per_driver";
     public static final String FRAGMENT_RESULT_CACHING_ENABLED = "fragment_result_caching_enabled";
+    public static final String QUERY_RESULT_CACHING_ENABLED = "query_result_caching_enabled";
     public static final String INLINE_SQL_FUNCTIONS = "inline_sql_functions";
     public static final String REMOTE_FUNCTIONS_ENABLED = "remote_functions_enabled";
     public static final String RPC_FUNCTION_OPTIMIZER_ENABLED = "rpc_function_optimizer_enabled";
@@ -244,6 +248,7 @@ public final class SystemSessionProperties
     public static final String ALLOW_WINDOW_ORDER_BY_LITERALS = "allow_window_order_by_literals";
     public static final String ENFORCE_FIXED_DISTRIBUTION_FOR_OUTPUT_OPERATOR = "enforce_fixed_distribution_for_output_operator";
     public static final String MAX_UNACKNOWLEDGED_SPLITS_PER_TASK = "max_unacknowledged_splits_per_task";
+    public static final String MAX_SPLITS_PER_TASK_UPDATE = "max_splits_per_task_update";
     public static final String OPTIMIZE_JOINS_WITH_EMPTY_SOURCES = "optimize_joins_with_empty_sources";
     public static final String SPOOLING_OUTPUT_BUFFER_ENABLED = "spooling_output_buffer_enabled";
     public static final String SPARK_ASSIGN_BUCKET_TO_PARTITION_FOR_PARTITIONED_TABLE_WRITE_ENABLED = "spark_assign_bucket_to_partition_for_partitioned_table_write_enabled";
@@ -818,6 +823,20 @@ public final class SystemSessionProperties
                         "Use faster handling of inequality join if it is possible",
                         featuresConfig.isFastInequalityJoins(),
                         false),
+                new PropertyMetadata<>(
+                        JOIN_HASH_BUILD_PARALLELISM,
+                        "Number of threads that build the hash table of a join partition",
+                        INTEGER,
+                        Integer.class,
+                        featuresConfig.getJoinHashBuildParallelism(),
+                        false,
+                        value -> validateIntegerValue(value, JOIN_HASH_BUILD_PARALLELISM, 1, false),
+                        object -> object),
+                booleanProperty(
+                        SHARE_BROADCAST_JOIN_BUILD,
+                        "Build the hash table of a broadcast join once per worker, and share it between the tasks of the query on the worker",
+                        featuresConfig.isShareBroadcastJoinBuild(),
+                        false),
                 booleanProperty(
                         COLOCATED_JOIN,
                         "Experimental: Use a colocated join when possible",
@@ -1290,6 +1309,11 @@ public final class SystemSessionProperties
                         false,
                         value -> value != null ? DataSize.valueOf((String) value) : null,
                         value -> value != null ? value.toString() : null),
+                booleanProperty(
+                        DIRECT_RESULTS_ENABLED,
+                        "Let clients that read binary results fetch them directly from the output buffers of the workers, rather than through the coordinator",
+                        false,
+                        false),
                 booleanProperty(
                         ENABLE_DYNAMIC_FILTERING,
                         "Enable dynamic filtering",
@@ -1319,6 +1343,11 @@ public final class SystemSessionProperties
                         "Enable fragment result caching and read/write leaf fragment result pages from/to cache when applicable",
                         featuresConfig.isFragmentResultCachingEnabled(),
                         false),
+                booleanProperty(
+                        QUERY_RESULT_CACHING_ENABLED,
+                        "Serve the results of deterministic queries from the coordinator result cache when the tables they read have not changed",
+                        featuresConfig.isQueryResultCachingEnabled(),
+                        false),
                 booleanProperty(
                         SKIP_REDUNDANT_SORT,
                         "Skip redundant sort operations",
@@ -1367,6 +1396,15 @@ public final class SystemSessionProperties
                         false,
                         value -> validateIntegerValue(value, MAX_UNACKNOWLEDGED_SPLITS_PER_TASK, 1, false),
                         object -> object),
+                new PropertyMetadata<>(
+                        MAX_SPLITS_PER_TASK_UPDATE,
+                        "Maximum number of leaf splits sent to a given task in a single task update",
+                        INTEGER,
+                        Integer.class,
+                        nodeSchedulerConfig.getMaxSplitsPerTaskUpdate(),
+                        false,
+                        value -> validateIntegerValue(value, MAX_SPLITS_PER_TASK_UPDATE, 1, false),
+                        object -> object),
                 booleanProperty(
                         OPTIMIZE_JOINS_WITH_EMPTY_SOURCES,
                         "(Deprecated) Simplify joins with one or more empty sources",
@@ -2543,6 +2581,16 @@ public final class SystemSessionProperties
         return session.getSystemProperty(FAST_INEQUALITY_JOINS, Boolean.class);
     }
 
+    public static int getJoinHashBuildParallelism(Session session)
+    {
+        return session.getSystemProperty(JOIN_HASH_BUILD_PARALLELISM, Integer.class);
+    }
+
+    public static boolean isShareBroadcastJoinBuild(Session session)
+    {
+        return session.getSystemProperty(SHARE_BROADCAST_JOIN_BUILD, Boolean.class);
+    }
+
     public static JoinReorderingStrategy getJoinReorderingStrategy(Session session)
     {
         Boolean reorderJoins = session.getSystemProperty(REORDER_JOINS, Boolean.class);
@@ -3080,6 +3128,11 @@ public final class SystemSessionProperties
         return Optional.ofNullable(session.getSystemProperty(TARGET_RESULT_SIZE, DataSize.class));
     }
 
+    public static boolean isDirectResultsEnabled(Session session)
+    {
+        return session.getSystemProperty(DIRECT_RESULTS_ENABLED, Boolean.class);
+    }
+
     public static boolean isEnableDynamicFiltering(Session session)
     {
         return session.getSystemProperty(ENABLE_DYNAMIC_FILTERING, Boolean.class);
@@ -3105,6 +3158,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(FRAGMENT_RESULT_CACHING_ENABLED, Boolean.class);
     }
 
+    public static boolean isQueryResultCachingEnabled(Session session)
+    {
+        return session.getSystemProperty(QUERY_RESULT_CACHING_ENABLED, Boolean.class);
+    }
+
     public static boolean isInlineSqlFunctions(Session session)
     {
         return session.getSystemProperty(INLINE_SQL_FUNCTIONS, Boolean.class);
@@ -3140,6 +3198,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(MAX_UNACKNOWLEDGED_SPLITS_PER_TASK, Integer.class);
     }
 
+    public static int getMaxSplitsPerTaskUpdate(Session session)
+    {
+        return session.getSystemProperty(MAX_SPLITS_PER_TASK_UPDATE, Integer.class);
+    }
+
     public static boolean isPrestoSparkAssignBucketToPartitionForPartitionedTableWriteEnabled(Session session)
     {
         return session.getSystemProperty(SPARK_ASSIGN_BUCKET_TO_PARTITION_FOR_PARTITIONED_TABLE_WRITE_ENABLED, Boolean.class);
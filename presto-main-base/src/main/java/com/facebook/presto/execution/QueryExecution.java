@@ -23,6 +23,7 @@ import com.facebook.presto.memory.VersionedMemoryPoolId;
 import com.facebook.presto.server.BasicQueryInfo;
 import com.facebook.presto.spi.WarningCollector;
 import com.facebook.presto.spi.analyzer.AnalyzerProvider;
+import com.facebook.presto.spi.page.SerializedPage;
 import com.facebook.presto.spi.resourceGroups.ResourceGroupQueryLimits;
 import com.facebook.presto.spi.security.AccessControl;
 import com.facebook.presto.sql.planner.Plan;
@@ -130,13 +131,23 @@ public interface QueryExecution
         private final List<Type> columnTypes;
         private final Map<URI, TaskId> bufferLocations;
         private final boolean noMoreBufferLocations;
-
-        public QueryOutputInfo(List<String> columnNames, List<Type> columnTypes, Map<URI, TaskId> bufferLocations, boolean noMoreBufferLocations)
+        private final Optional<String> resultCacheKey;
+        private final Optional<List<SerializedPage>> cachedResults;
+
+        public QueryOutputInfo(
+                List<String> columnNames,
+                List<Type> columnTypes,
+                Map<URI, TaskId> bufferLocations,
+                boolean noMoreBufferLocations,
+                Optional<String> resultCacheKey,
+                Optional<List<SerializedPage>> cachedResults)
         {
             this.columnNames = ImmutableList.copyOf(requireNonNull(columnNames, "columnNames is null"));
             this.columnTypes = ImmutableList.copyOf(requireNonNull(columnTypes, "columnTypes is null"));
             this.bufferLocations = ImmutableMap.copyOf(requireNonNull(bufferLocations, "bufferLocations is null"));
             this.noMoreBufferLocations = noMoreBufferLocations;
+            this.resultCacheKey = requireNonNull(resultCacheKey, "resultCacheKey is null");
+            this.cachedResults = requireNonNull(cachedResults, "cachedResults is null").map(ImmutableList::copyOf);
         }
 
         public List<String> getColumnNames()
@@ -158,5 +169,23 @@ public interface QueryExecution
         {
             return noMoreBufferLocations;
         }
+
+        /**
+         * Returns the key under which the results of the query can be added to the result cache,
+         * which is empty when the results cannot be cached.
+         */
+        public Optional<String> getResultCacheKey()
+        {
+            return resultCacheKey;
+        }
+
+        /**
+         * Returns the results of the query when they are served from the result cache, in which
+         * case the query has no output buffers.
+         */
+        public Optional<List<SerializedPage>> getCachedResults()
+        {
+            return cachedResults;
+        }
     }
 }
@@ -51,6 +51,9 @@ public class QueryManagerStats
     private final CounterStat consumedInputRows = new CounterStat();
     private final CounterStat consumedInputBytes = new CounterStat();
     private final CounterStat consumedCpuTimeSecs = new CounterStat();
+    private final CounterStat resultCacheHits = new CounterStat();
+    private final CounterStat resultCacheMisses = new CounterStat();
+    private final CounterStat resultCacheBytesSaved = new CounterStat();
     private final TimeStat executionTime = new TimeStat(MILLISECONDS);
     private final TimeStat analysisTime = new TimeStat(MILLISECONDS);
     private final TimeStat queuedTime = new TimeStat(MILLISECONDS);
@@ -70,6 +73,17 @@ public class QueryManagerStats
         managedQueryExecution.addFinalQueryInfoListener(finalQueryInfo -> queryFinished(new BasicQueryInfo(finalQueryInfo)));
     }
 
+    public void recordResultCacheHit(long bytes)
+    {
+        resultCacheHits.update(1);
+        resultCacheBytesSaved.update(bytes);
+    }
+
+    public void recordResultCacheMiss()
+    {
+        resultCacheMisses.update(1);
+    }
+
     private void queryStarted()
     {
         startedQueries.update(1);
@@ -343,4 +357,33 @@ public class QueryManagerStats
     {
         return cpuInputByteRate;
     }
+
+    @Managed
+    @Nested
+    public CounterStat getResultCacheHits()
+    {
+        return resultCacheHits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getResultCacheMisses()
+    {
+        return resultCacheMisses;
+    }
+
+    @Managed(description = "Size of the results that were served from the result cache")
+    @Nested
+    public CounterStat getResultCacheBytesSaved()
+    {
+        return resultCacheBytesSaved;
+    }
+
+    @Managed(description = "Fraction of the cacheable queries that were served from the result cache")
+    public double getResultCacheHitRatio()
+    {
+        long hits = resultCacheHits.getTotalCount();
+        long lookups = hits + resultCacheMisses.getTotalCount();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
 }
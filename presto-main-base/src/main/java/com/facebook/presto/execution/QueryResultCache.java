@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.spi.page.SerializedPage;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.errorprone.annotations.ThreadSafe;
+import io.airlift.slice.Slices;
+import jakarta.inject.Inject;
+import org.weakref.jmx.Managed;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Keeps the serialized result pages of deterministic queries on the coordinator, so that a query
+ * with the same plan as a previous one, which reads the same versions of the same tables, can be
+ * answered without scheduling it. The cache is bounded by the size of the pages it keeps, and
+ * evicts the least recently used results first.
+ */
+@ThreadSafe
+public class QueryResultCache
+{
+    private final long maxEntrySizeInBytes;
+    private final Cache<String, List<SerializedPage>> cache;
+
+    @Inject
+    public QueryResultCache(QueryResultCacheConfig config)
+    {
+        requireNonNull(config, "config is null");
+        this.maxEntrySizeInBytes = config.getMaxEntrySize().toBytes();
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(config.getMaxSize().toBytes())
+                .weigher((String key, List<SerializedPage> pages) -> (int) min(getRetainedSizeInBytes(pages), Integer.MAX_VALUE))
+                .expireAfterWrite(config.getTtl().toMillis(), MILLISECONDS)
+                .build();
+    }
+
+    public Optional<List<SerializedPage>> get(String key)
+    {
+        return Optional.ofNullable(cache.getIfPresent(requireNonNull(key, "key is null")));
+    }
+
+    /**
+     * Returns the maximum size of the pages of a single result, so that queries can stop
+     * collecting their results as soon as they are too large to be cached.
+     */
+    public long getMaxEntrySizeInBytes()
+    {
+        return maxEntrySizeInBytes;
+    }
+
+    public void put(String key, List<SerializedPage> pages)
+    {
+        requireNonNull(key, "key is null");
+        requireNonNull(pages, "pages is null");
+        if (getSizeInBytes(pages) > maxEntrySizeInBytes) {
+            return;
+        }
+        // the pages may be views of larger buffers received from the workers, which must not be retained
+        cache.put(key, pages.stream()
+                .map(page -> new SerializedPage(Slices.copyOf(page.getSlice()), page.getPageCodecMarkers(), page.getPositionCount(), page.getUncompressedSizeInBytes(), page.getChecksum()))
+                .collect(toImmutableList()));
+    }
+
+    @Managed
+    public long getEntries()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public long getRetainedSizeInBytes()
+    {
+        return cache.asMap().values().stream()
+                .mapToLong(QueryResultCache::getRetainedSizeInBytes)
+                .sum();
+    }
+
+    public static long getSizeInBytes(List<SerializedPage> pages)
+    {
+        return pages.stream()
+                .mapToLong(SerializedPage::getSizeInBytes)
+                .sum();
+    }
+
+    private static long getRetainedSizeInBytes(List<SerializedPage> pages)
+    {
+        return pages.stream()
+                .mapToLong(SerializedPage::getRetainedSizeInBytes)
+                .sum();
+    }
+}
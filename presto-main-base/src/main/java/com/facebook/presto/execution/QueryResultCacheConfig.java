@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
+import com.facebook.airlift.units.DataSize;
+import com.facebook.airlift.units.Duration;
+import com.facebook.airlift.units.MinDataSize;
+import com.facebook.airlift.units.MinDuration;
+
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.HOURS;
+
+public class QueryResultCacheConfig
+{
+    private DataSize maxSize = new DataSize(256, MEGABYTE);
+    private DataSize maxEntrySize = new DataSize(16, MEGABYTE);
+    private Duration ttl = new Duration(1, HOURS);
+
+    @MinDataSize("0B")
+    public DataSize getMaxSize()
+    {
+        return maxSize;
+    }
+
+    @Config("query-result-cache.max-size")
+    @ConfigDescription("Maximum size of the query results kept in the result cache of the coordinator")
+    public QueryResultCacheConfig setMaxSize(DataSize maxSize)
+    {
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    @MinDataSize("0B")
+    public DataSize getMaxEntrySize()
+    {
+        return maxEntrySize;
+    }
+
+    @Config("query-result-cache.max-entry-size")
+    @ConfigDescription("Maximum size of the results of a single query that are kept in the result cache")
+    public QueryResultCacheConfig setMaxEntrySize(DataSize maxEntrySize)
+    {
+        this.maxEntrySize = maxEntrySize;
+        return this;
+    }
+
+    @MinDuration("0s")
+    public Duration getTtl()
+    {
+        return ttl;
+    }
+
+    @Config("query-result-cache.ttl")
+    @ConfigDescription("Time after which cached query results are evicted, even if the tables they were read from have not changed")
+    public QueryResultCacheConfig setTtl(Duration ttl)
+    {
+        this.ttl = ttl;
+        return this;
+    }
+}
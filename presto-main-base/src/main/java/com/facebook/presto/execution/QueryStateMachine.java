@@ -37,6 +37,7 @@ import com.facebook.presto.spi.analyzer.UpdateInfo;
 import com.facebook.presto.spi.connector.ConnectorCommitHandle;
 import com.facebook.presto.spi.function.SqlFunctionId;
 import com.facebook.presto.spi.function.SqlInvokedFunction;
+import com.facebook.presto.spi.page.SerializedPage;
 import com.facebook.presto.spi.plan.PlanNode;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.spi.resourceGroups.ResourceGroupId;
@@ -554,7 +555,12 @@ public class QueryStateMachine
 
     public void setColumns(List<String> columnNames, List<Type> columnTypes)
     {
-        outputManager.setColumns(columnNames, columnTypes);
+        outputManager.setColumns(columnNames, columnTypes, Optional.empty(), Optional.empty());
+    }
+
+    public void setColumns(List<String> columnNames, List<Type> columnTypes, Optional<String> resultCacheKey, Optional<List<SerializedPage>> cachedResults)
+    {
+        outputManager.setColumns(columnNames, columnTypes, resultCacheKey, cachedResults);
     }
 
     public void updateOutputLocations(Map<URI, TaskId> newExchangeLocations, boolean noMoreExchangeLocations)
@@ -1417,6 +1423,10 @@ public class QueryStateMachine
         private final Map<URI, TaskId> exchangeLocations = new LinkedHashMap<>();
         @GuardedBy("this")
         private boolean noMoreExchangeLocations;
+        @GuardedBy("this")
+        private Optional<String> resultCacheKey = Optional.empty();
+        @GuardedBy("this")
+        private Optional<List<SerializedPage>> cachedResults = Optional.empty();
 
         public QueryOutputManager(Executor executor)
         {
@@ -1435,10 +1445,12 @@ public class QueryStateMachine
             queryOutputInfo.ifPresent(info -> executor.execute(() -> listener.accept(info)));
         }
 
-        public void setColumns(List<String> columnNames, List<Type> columnTypes)
+        public void setColumns(List<String> columnNames, List<Type> columnTypes, Optional<String> resultCacheKey, Optional<List<SerializedPage>> cachedResults)
         {
             requireNonNull(columnNames, "columnNames is null");
             requireNonNull(columnTypes, "columnTypes is null");
+            requireNonNull(resultCacheKey, "resultCacheKey is null");
+            requireNonNull(cachedResults, "cachedResults is null");
             checkArgument(columnNames.size() == columnTypes.size(), "columnNames and columnTypes must be the same size");
 
             Optional<QueryOutputInfo> queryOutputInfo;
@@ -1447,6 +1459,8 @@ public class QueryStateMachine
                 checkState(this.columnNames == null && this.columnTypes == null, "output fields already set");
                 this.columnNames = ImmutableList.copyOf(columnNames);
                 this.columnTypes = ImmutableList.copyOf(columnTypes);
+                this.resultCacheKey = resultCacheKey;
+                this.cachedResults = cachedResults;
 
                 queryOutputInfo = getQueryOutputInfo();
                 outputInfoListeners = ImmutableList.copyOf(this.outputInfoListeners);
@@ -1479,7 +1493,7 @@ public class QueryStateMachine
             if (columnNames == null || columnTypes == null) {
                 return Optional.empty();
             }
-            return Optional.of(new QueryOutputInfo(columnNames, columnTypes, exchangeLocations, noMoreExchangeLocations));
+            return Optional.of(new QueryOutputInfo(columnNames, columnTypes, exchangeLocations, noMoreExchangeLocations, resultCacheKey, cachedResults));
         }
 
         private void fireStateChanged(QueryOutputInfo queryOutputInfo, List<Consumer<QueryOutputInfo>> outputInfoListeners)
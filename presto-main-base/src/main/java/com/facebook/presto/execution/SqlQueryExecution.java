@@ -19,6 +19,7 @@ import com.facebook.presto.Session;
 import com.facebook.presto.common.InvalidFunctionArgumentException;
 import com.facebook.presto.common.analyzer.PreparedQuery;
 import com.facebook.presto.common.resourceGroups.QueryType;
+import com.facebook.presto.common.type.RowType;
 import com.facebook.presto.cost.CostCalculator;
 import com.facebook.presto.cost.HistoryBasedPlanStatisticsManager;
 import com.facebook.presto.cost.StatsCalculator;
@@ -30,6 +31,7 @@ import com.facebook.presto.execution.scheduler.SectionExecutionFactory;
 import com.facebook.presto.execution.scheduler.SplitSchedulerStats;
 import com.facebook.presto.execution.scheduler.SqlQueryScheduler;
 import com.facebook.presto.execution.scheduler.SqlQuerySchedulerInterface;
+import com.facebook.presto.expressions.DefaultRowExpressionTraversalVisitor;
 import com.facebook.presto.memory.VersionedMemoryPoolId;
 import com.facebook.presto.metadata.InternalNodeManager;
 import com.facebook.presto.metadata.Metadata;
@@ -44,10 +46,21 @@ import com.facebook.presto.spi.analyzer.AnalyzerProvider;
 import com.facebook.presto.spi.analyzer.QueryAnalysis;
 import com.facebook.presto.spi.analyzer.QueryAnalyzer;
 import com.facebook.presto.spi.function.FunctionKind;
+import com.facebook.presto.spi.page.SerializedPage;
+import com.facebook.presto.spi.plan.AggregationNode;
+import com.facebook.presto.spi.plan.Assignments;
 import com.facebook.presto.spi.plan.OutputNode;
 import com.facebook.presto.spi.plan.PartitioningHandle;
 import com.facebook.presto.spi.plan.PlanNode;
 import com.facebook.presto.spi.plan.PlanNodeIdAllocator;
+import com.facebook.presto.spi.plan.ProjectNode;
+import com.facebook.presto.spi.plan.TableScanNode;
+import com.facebook.presto.spi.relation.CallExpression;
+import com.facebook.presto.spi.relation.DeterminismEvaluator;
+import com.facebook.presto.spi.relation.LambdaDefinitionExpression;
+import com.facebook.presto.spi.relation.RowExpression;
+import com.facebook.presto.spi.relation.SpecialFormExpression;
+import com.facebook.presto.spi.relation.VariableReferenceExpression;
 import com.facebook.presto.spi.resourceGroups.ResourceGroupQueryLimits;
 import com.facebook.presto.spi.security.AccessControl;
 import com.facebook.presto.split.CloseableSplitSourceProvider;
@@ -59,21 +72,27 @@ import com.facebook.presto.sql.planner.InputExtractor;
 import com.facebook.presto.sql.planner.OutputExtractor;
 import com.facebook.presto.sql.planner.Plan;
 import com.facebook.presto.sql.planner.PlanCanonicalInfoProvider;
+import com.facebook.presto.sql.planner.PlanFragment;
 import com.facebook.presto.sql.planner.PlanFragmenter;
 import com.facebook.presto.sql.planner.PlanOptimizers;
 import com.facebook.presto.sql.planner.SplitSourceFactory;
 import com.facebook.presto.sql.planner.SubPlan;
 import com.facebook.presto.sql.planner.optimizations.PlanOptimizer;
 import com.facebook.presto.sql.planner.sanity.PlanChecker;
+import com.facebook.presto.sql.relational.RowExpressionDeterminismEvaluator;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hasher;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.errorprone.annotations.ThreadSafe;
 import jakarta.inject.Inject;
 
+import java.security.Principal;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
@@ -81,10 +100,13 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
+import static com.facebook.presto.SystemSessionProperties.getExchangeCompressionCodec;
 import static com.facebook.presto.SystemSessionProperties.getExecutionPolicy;
 import static com.facebook.presto.SystemSessionProperties.getQueryAnalyzerTimeout;
 import static com.facebook.presto.SystemSessionProperties.isEagerPlanValidationEnabled;
+import static com.facebook.presto.SystemSessionProperties.isExchangeChecksumEnabled;
 import static com.facebook.presto.SystemSessionProperties.isLogInvokedFunctionNamesEnabled;
+import static com.facebook.presto.SystemSessionProperties.isQueryResultCachingEnabled;
 import static com.facebook.presto.SystemSessionProperties.isSpoolingOutputBufferEnabled;
 import static com.facebook.presto.common.RuntimeMetricName.ANALYZE_TIME_NANOS;
 import static com.facebook.presto.common.RuntimeMetricName.CHECK_ACCESS_PERMISSIONS_TIME_NANOS;
@@ -94,18 +116,26 @@ import static com.facebook.presto.common.RuntimeMetricName.GET_CANONICAL_INFO_TI
 import static com.facebook.presto.common.RuntimeMetricName.LOGICAL_PLANNER_TIME_NANOS;
 import static com.facebook.presto.common.RuntimeMetricName.OPTIMIZER_TIME_NANOS;
 import static com.facebook.presto.common.RuntimeMetricName.PLAN_AND_OPTIMIZE_TIME_NANOS;
+import static com.facebook.presto.common.plan.PlanCanonicalizationStrategy.CONNECTOR;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.execution.QueryStateMachine.pruneHistogramsFromStatsAndCosts;
 import static com.facebook.presto.execution.buffer.OutputBuffers.BROADCAST_PARTITION_ID;
 import static com.facebook.presto.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
 import static com.facebook.presto.execution.buffer.OutputBuffers.createSpoolingOutputBuffers;
 import static com.facebook.presto.spi.StandardErrorCode.INVALID_FUNCTION_ARGUMENT;
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
+import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.ROW_CONSTRUCTOR;
 import static com.facebook.presto.sql.Optimizer.PlanStage.OPTIMIZED_AND_VALIDATED;
+import static com.facebook.presto.sql.planner.ExpressionExtractor.extractExpressions;
 import static com.facebook.presto.sql.planner.PlanNodeCanonicalInfo.getCanonicalInfo;
+import static com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static com.facebook.presto.sql.relational.Expressions.constant;
 import static com.facebook.presto.util.AnalyzerUtil.checkAccessPermissions;
 import static com.facebook.presto.util.AnalyzerUtil.getAnalyzerContext;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.hash.Hashing.sha256;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -114,6 +144,8 @@ public class SqlQueryExecution
         implements QueryExecution
 {
     private static final OutputBufferId OUTPUT_BUFFER_ID = new OutputBufferId(0);
+    // deterministic functions whose values depend on the session, rather than on the plan
+    private static final Set<String> SESSION_FUNCTIONS = ImmutableSet.of("current_date", "current_time", "current_timestamp", "now", "localtime", "localtimestamp", "current_timezone", "$current_user");
 
     private final QueryAnalyzer queryAnalyzer;
     private final QueryStateMachine stateMachine;
@@ -134,6 +166,8 @@ public class SqlQueryExecution
 
     private final AtomicReference<SqlQuerySchedulerInterface> queryScheduler = new AtomicReference<>();
     private final AtomicReference<Plan> queryPlan = new AtomicReference<>();
+    // the plan before optimization, which has no exchanges, so that it can be canonicalized as a whole
+    private final AtomicReference<PlanNode> logicalPlan = new AtomicReference<>();
     private final ExecutionPolicy executionPolicy;
     private final SplitSchedulerStats schedulerStats;
     private final StatsCalculator statsCalculator;
@@ -144,6 +178,7 @@ public class SqlQueryExecution
     private final PartialResultQueryManager partialResultQueryManager;
     private final AtomicReference<Optional<ResourceGroupQueryLimits>> resourceGroupQueryLimits = new AtomicReference<>(Optional.empty());
     private final PlanCanonicalInfoProvider planCanonicalInfoProvider;
+    private final QueryResultCache queryResultCache;
     private final QueryAnalysis queryAnalysis;
     private final AnalyzerContext analyzerContext;
     private final CompletableFuture<PlanRoot> planFuture;
@@ -177,6 +212,7 @@ public class SqlQueryExecution
             PlanChecker planChecker,
             PartialResultQueryManager partialResultQueryManager,
             PlanCanonicalInfoProvider planCanonicalInfoProvider,
+            QueryResultCache queryResultCache,
             AccessControl accessControl,
             String query)
     {
@@ -202,6 +238,7 @@ public class SqlQueryExecution
             this.stateMachine = requireNonNull(stateMachine, "stateMachine is null");
             this.planChecker = requireNonNull(planChecker, "planChecker is null");
             this.planCanonicalInfoProvider = requireNonNull(planCanonicalInfoProvider, "planCanonicalInfoProvider is null");
+            this.queryResultCache = requireNonNull(queryResultCache, "queryResultCache is null");
             this.accessControl = requireNonNull(accessControl, "accessControl is null");
             this.query = requireNonNull(query, "query is null");
             this.analyzerContext = getAnalyzerContext(queryAnalyzer, metadata.getMetadataResolver(stateMachine.getSession()), idAllocator, new VariableAllocator(), stateMachine.getSession(), query);
@@ -502,8 +539,20 @@ public class SqlQueryExecution
 
                 metadata.beginQuery(getSession(), plan.getConnectors());
 
+                Optional<String> resultCacheKey = getResultCacheKey();
+                Optional<List<SerializedPage>> cachedResults = resultCacheKey.flatMap(queryResultCache::get);
+                if (cachedResults.isPresent()) {
+                    // the results are returned from the cache, so there are no stages to schedule
+                    PlanFragment outputFragment = plan.getRoot().getFragment();
+                    stateMachine.setColumns(((OutputNode) outputFragment.getRoot()).getColumnNames(), outputFragment.getTypes(), resultCacheKey, cachedResults);
+                    stateMachine.transitionToStarting();
+                    stateMachine.transitionToRunning();
+                    stateMachine.transitionToFinishing();
+                    return;
+                }
+
                 // plan distribution of query
-                getSession().getRuntimeStats().recordWallAndCpuTime(CREATE_SCHEDULER_TIME_NANOS, () -> createQueryScheduler(plan));
+                getSession().getRuntimeStats().recordWallAndCpuTime(CREATE_SCHEDULER_TIME_NANOS, () -> createQueryScheduler(plan, resultCacheKey));
 
                 // transition to starting
                 if (!stateMachine.transitionToStarting()) {
@@ -584,6 +633,7 @@ public class SqlQueryExecution
                     .recordWallAndCpuTime(
                             LOGICAL_PLANNER_TIME_NANOS,
                             () -> queryAnalyzer.plan(this.analyzerContext, queryAnalysis));
+            logicalPlan.set(planNode);
 
             Optimizer optimizer = new Optimizer(
                     stateMachine.getSession(),
@@ -638,6 +688,118 @@ public class SqlQueryExecution
         }
     }
 
+    /**
+     * Returns the key of the results of the query in the result cache, which is made of the hash of its
+     * canonical plan and the versions of the tables it reads, or empty if the results cannot be cached,
+     * because the query writes data, calls functions that may return different results in another
+     * query, or reads a table whose connector does not report its version.
+     */
+    private Optional<String> getResultCacheKey()
+    {
+        Session session = getSession();
+        PlanNode plan = logicalPlan.get();
+        if (!isQueryResultCachingEnabled(session) || !(plan instanceof OutputNode) ||
+                queryAnalysis.getUpdateInfo() != null || queryAnalysis.isExplainAnalyzeQuery()) {
+            return Optional.empty();
+        }
+
+        OutputNode root = (OutputNode) plan;
+        DeterminismEvaluator determinismEvaluator = new RowExpressionDeterminismEvaluator(metadata);
+        ImmutableList.Builder<RowExpression> expressions = ImmutableList.<RowExpression>builder()
+                .addAll(extractExpressions(root));
+        for (AggregationNode aggregationNode : searchFrom(root).where(AggregationNode.class::isInstance).<AggregationNode>findAll()) {
+            aggregationNode.getAggregations().values().forEach(aggregation -> expressions.add(aggregation.getCall()));
+        }
+        for (RowExpression expression : expressions.build()) {
+            if (!determinismEvaluator.isDeterministic(expression) || callsSessionFunction(expression)) {
+                return Optional.empty();
+            }
+        }
+
+        Hasher hasher = sha256().newHasher();
+        for (TableScanNode tableScan : searchFrom(root).where(TableScanNode.class::isInstance).<TableScanNode>findAll()) {
+            Optional<String> version = metadata.getTableVersion(session, tableScan.getTable());
+            if (!version.isPresent()) {
+                return Optional.empty();
+            }
+            putString(hasher, tableScan.getTable().getConnectorId().toString());
+            putString(hasher, version.get());
+        }
+
+        Optional<String> planHash = planCanonicalInfoProvider.hash(session, tagOutputPositions(root, analyzerContext.getVariableAllocator()), CONNECTOR, false);
+        if (!planHash.isPresent()) {
+            return Optional.empty();
+        }
+        putString(hasher, planHash.get());
+        for (int i = 0; i < root.getColumnNames().size(); i++) {
+            putString(hasher, root.getColumnNames().get(i));
+            putString(hasher, root.getOutputVariables().get(i).getType().getTypeSignature().toString());
+        }
+
+        // the cached pages are serialized the way the exchange expects them, and the rendering of some values depends on the session
+        putString(hasher, getExchangeCompressionCodec(session).name());
+        hasher.putBoolean(isExchangeChecksumEnabled(session));
+        putString(hasher, session.getTimeZoneKey().getId());
+        // access control can filter and mask the rows differently for every user
+        putString(hasher, session.getIdentity().getUser());
+        putString(hasher, session.getIdentity().getPrincipal().map(Principal::getName).orElse(""));
+        putString(hasher, new TreeMap<>(session.getIdentity().getRoles()).toString());
+        putString(hasher, session.getLocale().toLanguageTag());
+        putString(hasher, new TreeMap<>(session.getSystemProperties()).toString());
+        session.getConnectorProperties().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey((left, right) -> left.toString().compareTo(right.toString())))
+                .forEach(entry -> putString(hasher, entry.getKey() + "=" + new TreeMap<>(entry.getValue())));
+        return Optional.of(hasher.hash().toString());
+    }
+
+    /**
+     * The canonical plan does not keep the order of the output columns, so each one is replaced with
+     * a row made of its position and value before the plan is hashed.
+     */
+    private PlanNode tagOutputPositions(OutputNode root, VariableAllocator variableAllocator)
+    {
+        Assignments.Builder assignments = Assignments.builder();
+        ImmutableList.Builder<VariableReferenceExpression> outputVariables = ImmutableList.builder();
+        for (int position = 0; position < root.getOutputVariables().size(); position++) {
+            VariableReferenceExpression variable = root.getOutputVariables().get(position);
+            RowExpression taggedValue = new SpecialFormExpression(ROW_CONSTRUCTOR, RowType.anonymous(ImmutableList.of(BIGINT, variable.getType())), constant((long) position, BIGINT), variable);
+            VariableReferenceExpression taggedVariable = variableAllocator.newVariable(taggedValue);
+            assignments.put(taggedVariable, taggedValue);
+            outputVariables.add(taggedVariable);
+        }
+        ProjectNode project = new ProjectNode(idAllocator.getNextId(), root.getSource(), assignments.build());
+        return new OutputNode(root.getSourceLocation(), idAllocator.getNextId(), project, root.getColumnNames(), outputVariables.build());
+    }
+
+    private static boolean callsSessionFunction(RowExpression expression)
+    {
+        AtomicBoolean found = new AtomicBoolean();
+        expression.accept(new DefaultRowExpressionTraversalVisitor<AtomicBoolean>()
+        {
+            @Override
+            public Void visitCall(CallExpression call, AtomicBoolean context)
+            {
+                if (SESSION_FUNCTIONS.contains(call.getDisplayName())) {
+                    context.set(true);
+                }
+                return super.visitCall(call, context);
+            }
+
+            @Override
+            public Void visitLambda(LambdaDefinitionExpression lambda, AtomicBoolean context)
+            {
+                return lambda.getBody().accept(this, context);
+            }
+        }, found);
+        return found.get();
+    }
+
+    private static void putString(Hasher hasher, String value)
+    {
+        // the length keeps consecutive values from being ambiguous
+        hasher.putInt(value.length()).putString(value, UTF_8);
+    }
+
     private PlanRoot runCreateLogicalPlanAsync()
     {
         try {
@@ -653,7 +815,7 @@ public class SqlQueryExecution
         }
     }
 
-    private void createQueryScheduler(PlanRoot plan)
+    private void createQueryScheduler(PlanRoot plan, Optional<String> resultCacheKey)
     {
         CloseableSplitSourceProvider splitSourceProvider = new CloseableSplitSourceProvider(splitManager);
 
@@ -672,7 +834,7 @@ public class SqlQueryExecution
         SubPlan outputStagePlan = plan.getRoot();
 
         // record output field
-        stateMachine.setColumns(((OutputNode) outputStagePlan.getFragment().getRoot()).getColumnNames(), outputStagePlan.getFragment().getTypes());
+        stateMachine.setColumns(((OutputNode) outputStagePlan.getFragment().getRoot()).getColumnNames(), outputStagePlan.getFragment().getTypes(), resultCacheKey, Optional.empty());
 
         PartitioningHandle partitioningHandle = outputStagePlan.getFragment().getPartitioningScheme().getPartitioning().getHandle();
         OutputBuffers rootOutputBuffers;
@@ -939,6 +1101,7 @@ public class SqlQueryExecution
         private final PlanChecker planChecker;
         private final PartialResultQueryManager partialResultQueryManager;
         private final HistoryBasedPlanStatisticsManager historyBasedPlanStatisticsManager;
+        private final QueryResultCache queryResultCache;
 
         @Inject
         SqlQueryExecutionFactory(
@@ -961,7 +1124,8 @@ public class SqlQueryExecution
                 CostCalculator costCalculator,
                 PlanChecker planChecker,
                 PartialResultQueryManager partialResultQueryManager,
-                HistoryBasedPlanStatisticsManager historyBasedPlanStatisticsManager)
+                HistoryBasedPlanStatisticsManager historyBasedPlanStatisticsManager,
+                QueryResultCache queryResultCache)
         {
             requireNonNull(config, "config is null");
             this.schedulerStats = requireNonNull(schedulerStats, "schedulerStats is null");
@@ -985,6 +1149,7 @@ public class SqlQueryExecution
             this.planChecker = requireNonNull(planChecker, "planChecker is null");
             this.partialResultQueryManager = requireNonNull(partialResultQueryManager, "partialResultQueryManager is null");
             this.historyBasedPlanStatisticsManager = requireNonNull(historyBasedPlanStatisticsManager, "historyBasedPlanStatisticsManager is null");
+            this.queryResultCache = requireNonNull(queryResultCache, "queryResultCache is null");
         }
 
         @Override
@@ -1029,6 +1194,7 @@ public class SqlQueryExecution
                     planChecker,
                     partialResultQueryManager,
                     historyBasedPlanStatisticsManager.getPlanCanonicalInfoProvider(),
+                    queryResultCache,
                     accessControl,
                     query);
         }
@@ -23,6 +23,7 @@ import com.facebook.presto.execution.scheduler.TableWriteInfo;
 import com.facebook.presto.memory.QueryContext;
 import com.facebook.presto.operator.TaskContext;
 import com.facebook.presto.operator.TaskExchangeClientManager;
+import com.facebook.presto.sql.gen.CompilationTracker;
 import com.facebook.presto.sql.gen.OrderingCompiler;
 import com.facebook.presto.sql.planner.HttpRemoteSourceFactory;
 import com.facebook.presto.sql.planner.LocalExecutionPlanner;
@@ -34,7 +35,12 @@ import java.util.Optional;
 import java.util.concurrent.Executor;
 
 import static com.facebook.presto.SystemSessionProperties.isVerboseExceededMemoryLimitErrorsEnabled;
+import static com.facebook.presto.common.RuntimeMetricName.TASK_COMPILE_TIME_NANOS;
+import static com.facebook.presto.common.RuntimeMetricName.TASK_GENERATED_BYTECODE_BYTES;
+import static com.facebook.presto.common.RuntimeUnit.BYTE;
+import static com.facebook.presto.common.RuntimeUnit.NANO;
 import static com.facebook.presto.execution.SqlTaskExecution.createSqlTaskExecution;
+import static com.facebook.presto.sql.gen.CompilationTracker.trackCompilation;
 import static com.google.common.base.Throwables.throwIfUnchecked;
 import static java.util.Objects.requireNonNull;
 
@@ -100,13 +106,16 @@ public class SqlTaskExecutionFactory
 
         LocalExecutionPlan localExecutionPlan;
         try (SetThreadName ignored = new SetThreadName("Task-%s", taskStateMachine.getTaskId())) {
-            try {
+            try (CompilationTracker compilationTracker = trackCompilation()) {
                 localExecutionPlan = planner.plan(
                         taskContext,
                         fragment,
                         outputBuffer,
                         new HttpRemoteSourceFactory(blockEncodingSerde, taskExchangeClientManager, orderingCompiler),
                         tableWriteInfo);
+                // the operators compile their functions when the plan is created, so this is the compilation cost of the task
+                taskContext.getRuntimeStats().addMetricValueIgnoreZero(TASK_COMPILE_TIME_NANOS, NANO, compilationTracker.getCompileTimeNanos());
+                taskContext.getRuntimeStats().addMetricValueIgnoreZero(TASK_GENERATED_BYTECODE_BYTES, BYTE, compilationTracker.getBytecodeSize());
             }
             catch (Throwable e) {
                 // planning failed
@@ -159,6 +159,45 @@ public class TaskInfo
                 nodeId);
     }
 
+    /**
+     * Returns this task info without the stats of the pipelines if they did not change since the task
+     * info with the given pipelines fingerprint, which the receiver already has. The stats of a task that
+     * is done are always complete.
+     */
+    public TaskInfo withoutUnchangedPipelines(long pipelinesFingerprint)
+    {
+        if (taskStatus.getState().isDone() || stats.getPipelines().isEmpty() || stats.getPipelinesFingerprint() != pipelinesFingerprint) {
+            return this;
+        }
+        return withStats(stats.summarize());
+    }
+
+    /**
+     * Restores the stats of the pipelines that were left out of this task info because they did not
+     * change since the given task info.
+     */
+    public TaskInfo withPipelinesFrom(TaskInfo previous)
+    {
+        TaskStats previousStats = previous.getStats();
+        if (!stats.getPipelines().isEmpty() || previousStats.getPipelines().isEmpty() || stats.getPipelinesFingerprint() != previousStats.getPipelinesFingerprint()) {
+            return this;
+        }
+        return withStats(stats.withPipelines(previousStats.getPipelines()));
+    }
+
+    private TaskInfo withStats(TaskStats stats)
+    {
+        return new TaskInfo(
+                taskId,
+                taskStatus,
+                lastHeartbeatInMillis,
+                outputBuffers,
+                noMoreSplits,
+                stats,
+                needsPlan,
+                nodeId);
+    }
+
     @Override
     public String toString()
     {
@@ -83,6 +83,7 @@ public class TaskManagerConfig
 
     private int taskNotificationThreads = 5;
     private int taskYieldThreads = 3;
+    private int joinHashBuildThreads = Runtime.getRuntime().availableProcessors();
 
     private BigDecimal levelTimeMultiplier = new BigDecimal(2.0);
 
@@ -553,6 +554,20 @@ public class TaskManagerConfig
         return this;
     }
 
+    @Min(1)
+    public int getJoinHashBuildThreads()
+    {
+        return joinHashBuildThreads;
+    }
+
+    @Config("task.join-hash-build-threads")
+    @ConfigDescription("Number of threads shared by all the tasks to help drivers build the hash tables of joins")
+    public TaskManagerConfig setJoinHashBuildThreads(int joinHashBuildThreads)
+    {
+        this.joinHashBuildThreads = joinHashBuildThreads;
+        return this;
+    }
+
     @Deprecated
     public boolean isLegacyLifespanCompletionCondition()
     {
@@ -37,6 +37,7 @@ public class NodeSchedulerConfig
     private boolean scheduleSplitsBasedOnTaskLoad;
     private int maxPendingSplitsPerTask = 10;
     private int maxUnacknowledgedSplitsPerTask = 500;
+    private int maxSplitsPerTaskUpdate = 250;
     private String networkTopology = NetworkTopologyType.LEGACY;
     private NodeSelectionHashStrategy nodeSelectionHashStrategy = NodeSelectionHashStrategy.MODULAR_HASHING;
     private int minVirtualNodeCount = 1000;
@@ -149,6 +150,20 @@ public class NodeSchedulerConfig
         return this;
     }
 
+    @Min(1)
+    public int getMaxSplitsPerTaskUpdate()
+    {
+        return maxSplitsPerTaskUpdate;
+    }
+
+    @Config("node-scheduler.max-splits-per-task-update")
+    @ConfigDescription("Maximum number of leaf splits sent to a given task in a single task update")
+    public NodeSchedulerConfig setMaxSplitsPerTaskUpdate(int maxSplitsPerTaskUpdate)
+    {
+        this.maxSplitsPerTaskUpdate = maxSplitsPerTaskUpdate;
+        return this;
+    }
+
     public NodeSelectionHashStrategy getNodeSelectionHashStrategy()
     {
         return nodeSelectionHashStrategy;
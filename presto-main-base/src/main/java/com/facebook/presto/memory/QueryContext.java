@@ -22,6 +22,7 @@ import com.facebook.presto.execution.TaskStateMachine;
 import com.facebook.presto.memory.context.MemoryReservationHandler;
 import com.facebook.presto.memory.context.MemoryTrackingContext;
 import com.facebook.presto.operator.OperatorMemoryReservationSummary;
+import com.facebook.presto.operator.SharedLookupSourceRegistry;
 import com.facebook.presto.operator.TaskContext;
 import com.facebook.presto.operator.TaskMemoryReservationSummary;
 import com.facebook.presto.spi.ErrorCause;
@@ -83,6 +84,7 @@ public class QueryContext
     private final SpillSpaceTracker spillSpaceTracker;
     private final JsonCodec<List<TaskMemoryReservationSummary>> memoryReservationSummaryJsonCodec;
     private final Map<TaskId, TaskContext> taskContexts = new ConcurrentHashMap<>();
+    private final SharedLookupSourceRegistry sharedLookupSources = new SharedLookupSourceRegistry();
 
     @GuardedBy("this")
     private boolean resourceOverCommit;
@@ -404,6 +406,11 @@ public class QueryContext
         return ImmutableList.copyOf(taskContexts.values());
     }
 
+    public SharedLookupSourceRegistry getSharedLookupSources()
+    {
+        return sharedLookupSources;
+    }
+
     public QueryId getQueryId()
     {
         return queryId;
@@ -188,6 +188,12 @@ public abstract class DelegatingMetadataManager
         return delegate.getTableStatistics(session, tableHandle, columnHandles, constraint);
     }
 
+    @Override
+    public Optional<String> getTableVersion(Session session, TableHandle tableHandle)
+    {
+        return delegate.getTableVersion(session, tableHandle);
+    }
+
     @Override
     public List<QualifiedObjectName> listTables(Session session, QualifiedTablePrefix prefix)
     {
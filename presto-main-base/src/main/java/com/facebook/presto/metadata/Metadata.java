@@ -164,6 +164,12 @@ public interface Metadata
      */
     TableStatistics getTableStatistics(Session session, TableHandle tableHandle, List<ColumnHandle> columnHandles, Constraint<ColumnHandle> constraint);
 
+    /**
+     * Return an identifier of the version of the data read through the specified table handle,
+     * or empty if the connector cannot tell.
+     */
+    Optional<String> getTableVersion(Session session, TableHandle tableHandle);
+
     /**
      * Get the names that match the specified table prefix (never null).
      */
@@ -1422,6 +1422,18 @@ public class StatsRecordingMetadataManager
         }
     }
 
+    @Override
+    public Optional<String> getTableVersion(Session session, TableHandle tableHandle)
+    {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getTableVersion(session, tableHandle);
+        }
+        finally {
+            stats.recordGetTableVersionCall(System.nanoTime() - startTime);
+        }
+    }
+
     @Override
     public List<QualifiedObjectName> listTables(Session session, QualifiedTablePrefix prefix)
     {
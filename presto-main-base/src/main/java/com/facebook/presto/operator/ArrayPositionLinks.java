@@ -33,7 +33,8 @@ public final class ArrayPositionLinks
             implements PositionLinks.FactoryBuilder
     {
         private final int[] positionLinks;
-        private int size;
+        // positions are linked concurrently, so only the fact that some of them are linked is kept
+        private boolean empty = true;
 
         private FactoryBuilder(int size)
         {
@@ -44,7 +45,7 @@ public final class ArrayPositionLinks
         @Override
         public int link(int left, int right)
         {
-            size++;
+            empty = false;
             positionLinks[left] = right;
             return left;
         }
@@ -71,7 +72,13 @@ public final class ArrayPositionLinks
         @Override
         public boolean isEmpty()
         {
-            return size == 0;
+            return empty;
+        }
+
+        @Override
+        public boolean supportsConcurrentLinks()
+        {
+            return true;
         }
     }
 
@@ -43,11 +43,17 @@ import static com.facebook.airlift.concurrent.MoreFutures.getDone;
 import static com.facebook.airlift.units.DataSize.succinctBytes;
 import static com.facebook.presto.ExceededMemoryLimitException.exceededLocalUserMemoryLimit;
 import static com.facebook.presto.SystemSessionProperties.getQueryMaxMemoryPerNode;
+import static com.facebook.presto.common.RuntimeMetricName.JOIN_HASH_BUILD_PARALLELISM;
+import static com.facebook.presto.common.RuntimeMetricName.JOIN_HASH_BUILD_WALL_TIME_NANOS;
+import static com.facebook.presto.common.RuntimeUnit.NANO;
+import static com.facebook.presto.common.RuntimeUnit.NONE;
 import static com.facebook.presto.operator.SpillingUtils.checkSpillSucceeded;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.transformAsync;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
@@ -80,6 +86,7 @@ public class HashBuilderOperator
 
         private boolean closed;
         private boolean enforceBroadcastMemoryLimit;
+        private final boolean shareLookupSource;
 
         public HashBuilderOperatorFactory(
                 int operatorId,
@@ -97,6 +104,46 @@ public class HashBuilderOperator
                 SingleStreamSpillerFactory singleStreamSpillerFactory,
                 boolean enforceBroadcastMemoryLimit)
         {
+            this(
+                    operatorId,
+                    planNodeId,
+                    lookupSourceFactoryManager,
+                    outputChannels,
+                    hashChannels,
+                    preComputedHashChannel,
+                    filterFunctionFactory,
+                    sortChannel,
+                    searchFunctionFactories,
+                    expectedPositions,
+                    pagesIndexFactory,
+                    spillEnabled,
+                    singleStreamSpillerFactory,
+                    enforceBroadcastMemoryLimit,
+                    false);
+        }
+
+        /**
+         * @param shareLookupSource whether the partitions of the lookup source are shared with the
+         * other tasks of the stage on the worker, which requires them to receive the same build side
+         */
+        public HashBuilderOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                JoinBridgeManager<PartitionedLookupSourceFactory> lookupSourceFactoryManager,
+                List<Integer> outputChannels,
+                List<Integer> hashChannels,
+                OptionalInt preComputedHashChannel,
+                Optional<JoinFilterFunctionFactory> filterFunctionFactory,
+                Optional<Integer> sortChannel,
+                List<JoinFilterFunctionFactory> searchFunctionFactories,
+                int expectedPositions,
+                PagesIndex.Factory pagesIndexFactory,
+                boolean spillEnabled,
+                SingleStreamSpillerFactory singleStreamSpillerFactory,
+                boolean enforceBroadcastMemoryLimit,
+                boolean shareLookupSource)
+        {
+            checkArgument(!shareLookupSource || !spillEnabled, "shared lookup source can not be spilled");
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
             requireNonNull(sortChannel, "sortChannel can not be null");
@@ -116,6 +163,7 @@ public class HashBuilderOperator
 
             this.expectedPositions = expectedPositions;
             this.enforceBroadcastMemoryLimit = enforceBroadcastMemoryLimit;
+            this.shareLookupSource = shareLookupSource;
         }
 
         @Override
@@ -127,6 +175,15 @@ public class HashBuilderOperator
             PartitionedLookupSourceFactory lookupSourceFactory = this.lookupSourceFactoryManager.getJoinBridge(driverContext.getLifespan());
             int partitionIndex = getAndIncrementPartitionIndex(driverContext.getLifespan());
             verify(partitionIndex < lookupSourceFactory.partitions());
+            Optional<SharedLookupSourceRegistry.Lease> sharedLookupSource = Optional.empty();
+            if (shareLookupSource && driverContext.getLifespan().isTaskWide()) {
+                TaskContext taskContext = driverContext.getPipelineContext().getTaskContext();
+                sharedLookupSource = Optional.of(taskContext.getQueryContext().getSharedLookupSources().acquire(
+                        taskContext.getTaskId().getStageExecutionId(),
+                        planNodeId,
+                        partitionIndex,
+                        lookupSourceFactory.partitions()));
+            }
             return new HashBuilderOperator(
                     operatorContext,
                     lookupSourceFactory,
@@ -141,7 +198,8 @@ public class HashBuilderOperator
                     pagesIndexFactory,
                     spillEnabled,
                     singleStreamSpillerFactory,
-                    enforceBroadcastMemoryLimit);
+                    enforceBroadcastMemoryLimit,
+                    sharedLookupSource);
         }
 
         @Override
@@ -237,6 +295,7 @@ public class HashBuilderOperator
     private Optional<Runnable> finishMemoryRevoke = Optional.empty();
 
     private final boolean enforceBroadcastMemoryLimit;
+    private final Optional<SharedLookupSourceRegistry.Lease> sharedLookupSource;
 
     public HashBuilderOperator(
             OperatorContext operatorContext,
@@ -253,8 +312,45 @@ public class HashBuilderOperator
             boolean spillEnabled,
             SingleStreamSpillerFactory singleStreamSpillerFactory,
             boolean enforceBroadcastMemoryLimit)
+    {
+        this(
+                operatorContext,
+                lookupSourceFactory,
+                partitionIndex,
+                outputChannels,
+                hashChannels,
+                preComputedHashChannel,
+                filterFunctionFactory,
+                sortChannel,
+                searchFunctionFactories,
+                expectedPositions,
+                pagesIndexFactory,
+                spillEnabled,
+                singleStreamSpillerFactory,
+                enforceBroadcastMemoryLimit,
+                Optional.empty());
+    }
+
+    public HashBuilderOperator(
+            OperatorContext operatorContext,
+            PartitionedLookupSourceFactory lookupSourceFactory,
+            int partitionIndex,
+            List<Integer> outputChannels,
+            List<Integer> hashChannels,
+            OptionalInt preComputedHashChannel,
+            Optional<JoinFilterFunctionFactory> filterFunctionFactory,
+            Optional<Integer> sortChannel,
+            List<JoinFilterFunctionFactory> searchFunctionFactories,
+            int expectedPositions,
+            PagesIndex.Factory pagesIndexFactory,
+            boolean spillEnabled,
+            SingleStreamSpillerFactory singleStreamSpillerFactory,
+            boolean enforceBroadcastMemoryLimit,
+            Optional<SharedLookupSourceRegistry.Lease> sharedLookupSource)
     {
         requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
+        this.sharedLookupSource = requireNonNull(sharedLookupSource, "sharedLookupSource is null");
+        checkArgument(!sharedLookupSource.isPresent() || !spillEnabled, "shared lookup source can not be spilled");
 
         this.operatorContext = operatorContext;
         this.partitionIndex = partitionIndex;
@@ -266,7 +362,13 @@ public class HashBuilderOperator
 
         this.index = pagesIndexFactory.newPagesIndex(lookupSourceFactory.getTypes(), expectedPositions);
         this.lookupSourceFactory = lookupSourceFactory;
-        lookupSourceFactoryDestroyed = lookupSourceFactory.isDestroyed();
+        if (sharedLookupSource.isPresent() && sharedLookupSource.get().isOwner()) {
+            // the owner keeps the partition until the other tasks are done with it too
+            lookupSourceFactoryDestroyed = transformAsync(lookupSourceFactory.isDestroyed(), ignored -> sharedLookupSource.get().release(), directExecutor());
+        }
+        else {
+            lookupSourceFactoryDestroyed = lookupSourceFactory.isDestroyed();
+        }
 
         this.outputChannels = outputChannels;
         this.hashChannels = hashChannels;
@@ -345,6 +447,10 @@ public class HashBuilderOperator
         }
 
         checkState(state == State.CONSUMING_INPUT);
+        if (isSharedLookupSourceFollower()) {
+            // the partition is built by the owner from the same rows
+            return;
+        }
         updateIndex(page);
     }
 
@@ -524,6 +630,15 @@ public class HashBuilderOperator
             return;
         }
 
+        if (isSharedLookupSourceFollower()) {
+            lookupSourceNotNeeded = Optional.of(transformAsync(
+                    sharedLookupSource.get().getLookupSourceSupplier(),
+                    partition -> lookupSourceFactory.lendPartitionLookupSource(partitionIndex, partition),
+                    directExecutor()));
+            state = State.LOOKUP_SOURCE_BUILT;
+            return;
+        }
+
         LookupSourceSupplier partition = buildLookupSource();
         if (spillEnabled) {
             localRevocableMemoryContext.setBytes(partition.get().getInMemorySizeInBytes());
@@ -531,7 +646,12 @@ public class HashBuilderOperator
         else {
             localUserMemoryContext.setBytes(partition.get().getInMemorySizeInBytes(), enforceBroadcastMemoryLimit);
         }
-        lookupSourceNotNeeded = Optional.of(lookupSourceFactory.lendPartitionLookupSource(partitionIndex, partition));
+        ListenableFuture<?> partitionNotNeeded = lookupSourceFactory.lendPartitionLookupSource(partitionIndex, partition);
+        if (sharedLookupSource.isPresent()) {
+            sharedLookupSource.get().setLookupSourceSupplier(partition);
+            partitionNotNeeded = transformAsync(partitionNotNeeded, ignored -> sharedLookupSource.get().release(), directExecutor());
+        }
+        lookupSourceNotNeeded = Optional.of(partitionNotNeeded);
 
         state = State.LOOKUP_SOURCE_BUILT;
     }
@@ -543,6 +663,10 @@ public class HashBuilderOperator
         if (!lookupSourceNotNeeded.get().isDone()) {
             return;
         }
+        if (isSharedLookupSourceFollower()) {
+            // fail if the owner failed to build the partition
+            getDone(lookupSourceNotNeeded.get());
+        }
 
         index.clear();
         localRevocableMemoryContext.setBytes(0);
@@ -641,7 +765,12 @@ public class HashBuilderOperator
 
     private LookupSourceSupplier buildLookupSource()
     {
+        long start = System.nanoTime();
         LookupSourceSupplier partition = index.createLookupSourceSupplier(operatorContext.getSession(), hashChannels, preComputedHashChannel, filterFunctionFactory, sortChannel, searchFunctionFactories, Optional.of(outputChannels));
+        operatorContext.getRuntimeStats().addMetricValue(JOIN_HASH_BUILD_WALL_TIME_NANOS, NANO, System.nanoTime() - start);
+        operatorContext.getRuntimeStats().addMetricValue(JOIN_HASH_BUILD_PARALLELISM, NONE, partition.getBuildParallelism());
+        // the calling thread is accounted by the driver, but not the threads that helped it
+        operatorContext.recordAdditionalCpu(partition.getBuildHelperCpuNanos());
         hashCollisionsCounter.recordHashCollision(partition.getHashCollisions(), partition.getExpectedHashCollisions());
         operatorContext.recordNullJoinBuildKeyCount(partition.getPositionIsNullCount());
         operatorContext.recordJoinBuildKeyCount(partition.getPositionCount());
@@ -662,6 +791,11 @@ public class HashBuilderOperator
         return state == State.CLOSED;
     }
 
+    private boolean isSharedLookupSourceFollower()
+    {
+        return sharedLookupSource.isPresent() && !sharedLookupSource.get().isOwner();
+    }
+
     private SingleStreamSpiller getSpiller()
     {
         return spiller.orElseThrow(() -> new IllegalStateException("Spiller not created"));
@@ -684,6 +818,7 @@ public class HashBuilderOperator
             spiller.ifPresent(closer::register);
             closer.register(() -> localUserMemoryContext.setBytes(0, enforceBroadcastMemoryLimit));
             closer.register(() -> localRevocableMemoryContext.setBytes(0));
+            sharedLookupSource.ifPresent(lease -> closer.register(lease::close));
         }
         catch (IOException e) {
             throw new RuntimeException(e);
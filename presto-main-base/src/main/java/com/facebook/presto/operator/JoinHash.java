@@ -40,6 +40,10 @@ public final class JoinHash
     @Nullable
     private final PositionLinks positionLinks;
 
+    // scratch space of getJoinPositions, which is only called by the thread that owns this lookup source
+    private long[] rawHashes = new long[0];
+    private int[] addressIndexes = new int[0];
+
     public JoinHash(PagesHash pagesHash, Optional<JoinFilterFunction> filterFunction, Optional<PositionLinks> positionLinks)
     {
         this.pagesHash = requireNonNull(pagesHash, "pagesHash is null");
@@ -91,6 +95,28 @@ public final class JoinHash
         return startJoinPosition(addressIndex, position, allChannelsPage);
     }
 
+    @Override
+    public void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        if (addressIndexes.length < positionCount) {
+            addressIndexes = new int[positionCount];
+        }
+        if (rawHashes == null) {
+            if (this.rawHashes.length < positionCount) {
+                this.rawHashes = new long[positionCount];
+            }
+            rawHashes = this.rawHashes;
+            for (int i = 0; i < positionCount; i++) {
+                rawHashes[i] = pagesHash.hashRow(positions[i], hashChannelsPage);
+            }
+        }
+
+        pagesHash.getAddressIndexes(positions, positionCount, hashChannelsPage, rawHashes, addressIndexes);
+        for (int i = 0; i < positionCount; i++) {
+            joinPositions[i] = startJoinPosition(addressIndexes[i], positions[i], allChannelsPage);
+        }
+    }
+
     private long startJoinPosition(int currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
         if (currentJoinPosition == -1) {
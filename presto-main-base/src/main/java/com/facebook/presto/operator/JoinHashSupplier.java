@@ -22,7 +22,9 @@ import com.google.common.collect.ImmutableList;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
+import static com.facebook.presto.SystemSessionProperties.getJoinHashBuildParallelism;
 import static com.facebook.presto.SystemSessionProperties.isFastInequalityJoin;
 import static com.facebook.presto.operator.JoinUtils.channelsToPages;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -42,6 +44,7 @@ public class JoinHashSupplier
 
     public JoinHashSupplier(
             Session session,
+            Executor buildExecutor,
             PagesHashStrategy pagesHashStrategy,
             AdaptiveLongBigArray addresses,
             int positionCount,
@@ -71,7 +74,7 @@ public class JoinHashSupplier
         }
 
         this.pages = channelsToPages(channels);
-        this.pagesHash = new PagesHash(addresses, positionCount, pagesHashStrategy, positionLinksFactoryBuilder);
+        this.pagesHash = new PagesHash(addresses, positionCount, pagesHashStrategy, positionLinksFactoryBuilder, buildExecutor, getJoinHashBuildParallelism(session));
         this.positionLinks = positionLinksFactoryBuilder.isEmpty() ? Optional.empty() : Optional.of(positionLinksFactoryBuilder.build());
     }
 
@@ -99,6 +102,18 @@ public class JoinHashSupplier
         return pagesHash.getExpectedHashCollisions();
     }
 
+    @Override
+    public int getBuildParallelism()
+    {
+        return pagesHash.getBuildParallelism();
+    }
+
+    @Override
+    public long getBuildHelperCpuNanos()
+    {
+        return pagesHash.getBuildHelperCpuNanos();
+    }
+
     @Override
     public long checksum()
     {
@@ -25,6 +25,11 @@ import static com.facebook.presto.common.type.BigintType.BIGINT;
 
 public class JoinProbe
 {
+    // the join positions are looked up in batches of this many probe positions
+    private static final int BATCH_SIZE = 1024;
+    // marks the positions with a null key in the current batch, which never match
+    private static final long NULL_KEY = -2;
+
     public static class JoinProbeFactory
     {
         private final int[] probeOutputChannels;
@@ -56,6 +61,14 @@ public class JoinProbe
     private int position = -1;
     private int nullRowCount;
 
+    // the join positions of the probe positions [batchStart, batchEnd), looked up in the batchLookupSource
+    private LookupSource batchLookupSource;
+    private int batchStart;
+    private int batchEnd;
+    private long[] batchJoinPositions;
+    private int[] batchPositions;
+    private long[] batchRawHashes;
+
     private JoinProbe(int[] probeOutputChannels, Page page, Page probePage, @Nullable Block probeHashBlock)
     {
         this.probeOutputChannels = probeOutputChannels;
@@ -78,15 +91,56 @@ public class JoinProbe
 
     public long getCurrentJoinPosition(LookupSource lookupSource)
     {
-        if (probeMayHaveNull && currentRowContainsNull()) {
+        if (position >= batchEnd || lookupSource != batchLookupSource) {
+            lookUpBatch(lookupSource);
+        }
+        long joinPosition = batchJoinPositions[position - batchStart];
+        if (joinPosition == NULL_KEY) {
             ++nullRowCount;
             return -1;
         }
-        if (probeHashBlock != null) {
-            long rawHash = BIGINT.getLong(probeHashBlock, position);
-            return lookupSource.getJoinPosition(position, probePage, page, rawHash);
+        return joinPosition;
+    }
+
+    private void lookUpBatch(LookupSource lookupSource)
+    {
+        batchLookupSource = lookupSource;
+        batchStart = position;
+        batchEnd = Math.min(positionCount, position + (lookupSource.supportsBatchedLookups() ? BATCH_SIZE : 1));
+        if (batchJoinPositions == null) {
+            int batchSize = Math.min(positionCount, BATCH_SIZE);
+            batchJoinPositions = new long[batchSize];
+            batchPositions = new int[batchSize];
+            batchRawHashes = probeHashBlock == null ? null : new long[batchSize];
+        }
+
+        int batchPositionCount = 0;
+        for (int batchPosition = batchStart; batchPosition < batchEnd; batchPosition++) {
+            if (probeMayHaveNull && rowContainsNull(batchPosition)) {
+                continue;
+            }
+            batchPositions[batchPositionCount] = batchPosition;
+            if (probeHashBlock != null) {
+                batchRawHashes[batchPositionCount] = BIGINT.getLong(probeHashBlock, batchPosition);
+            }
+            batchPositionCount++;
+        }
+        lookupSource.getJoinPositions(batchPositions, batchPositionCount, probePage, page, batchRawHashes, batchJoinPositions);
+
+        // move the join positions of the rows without nulls to their offsets in the batch, from the last one
+        // down, as no row is moved to an offset before its own, and mark the offsets in between as null keys
+        int nextOffset = batchEnd - batchStart - 1;
+        for (int i = batchPositionCount - 1; i >= 0; i--) {
+            int offset = batchPositions[i] - batchStart;
+            while (nextOffset > offset) {
+                batchJoinPositions[nextOffset--] = NULL_KEY;
+            }
+            batchJoinPositions[offset] = batchJoinPositions[i];
+            nextOffset = offset - 1;
+        }
+        while (nextOffset >= 0) {
+            batchJoinPositions[nextOffset--] = NULL_KEY;
         }
-        return lookupSource.getJoinPosition(position, probePage, page);
     }
 
     public int getPosition()
@@ -99,7 +153,7 @@ public class JoinProbe
         return page;
     }
 
-    private boolean currentRowContainsNull()
+    private boolean rowContainsNull(int position)
     {
         for (int i = 0; i < probePage.getChannelCount(); i++) {
             if (probePage.getBlock(i).isNull(position)) {
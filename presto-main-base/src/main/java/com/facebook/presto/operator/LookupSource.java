@@ -16,6 +16,7 @@ package com.facebook.presto.operator;
 import com.facebook.airlift.concurrent.NotThreadSafe;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.PageBuilder;
+import jakarta.annotation.Nullable;
 
 import java.io.Closeable;
 
@@ -35,6 +36,33 @@ public interface LookupSource
 
     long getJoinPosition(int position, Page hashChannelsPage, Page allChannelsPage);
 
+    /**
+     * Returns whether the join positions of a probe position stay valid while the following probe
+     * positions are looked up, which is not the case for lookup sources that reload their data.
+     */
+    default boolean supportsBatchedLookups()
+    {
+        return true;
+    }
+
+    /**
+     * Looks up the join positions of a batch of probe positions at once, so that the cache misses
+     * on the hash table of different probe rows can overlap instead of being taken one after another.
+     *
+     * @param rawHashes the hashes of the probe positions, or null if they have to be computed
+     */
+    default void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        for (int i = 0; i < positionCount; i++) {
+            if (rawHashes == null) {
+                joinPositions[i] = getJoinPosition(positions[i], hashChannelsPage, allChannelsPage);
+            }
+            else {
+                joinPositions[i] = getJoinPosition(positions[i], hashChannelsPage, allChannelsPage, rawHashes[i]);
+            }
+        }
+    }
+
     long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage);
 
     void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset);
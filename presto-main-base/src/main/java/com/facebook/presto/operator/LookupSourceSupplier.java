@@ -30,4 +30,20 @@ public interface LookupSourceSupplier
     long getPositionIsNullCount();
 
     long getPositionCount();
+
+    /**
+     * @return number of threads that built the lookup source
+     */
+    default int getBuildParallelism()
+    {
+        return 1;
+    }
+
+    /**
+     * @return CPU time spent by the threads that helped the calling thread build the lookup source
+     */
+    default long getBuildHelperCpuNanos()
+    {
+        return 0;
+    }
 }
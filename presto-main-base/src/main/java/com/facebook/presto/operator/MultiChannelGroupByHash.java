@@ -48,6 +48,7 @@ import static com.google.common.base.Verify.verify;
 import static io.airlift.slice.SizeOf.sizeOf;
 import static it.unimi.dsi.fastutil.HashCommon.arraySize;
 import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.multiplyExact;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
@@ -56,6 +57,12 @@ public class MultiChannelGroupByHash
         implements GroupByHash
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(MultiChannelGroupByHash.class).instanceSize();
+    // Max number of dictionary id combinations for which group ids are remembered when grouping by multiple
+    // dictionary encoded channels, which bounds the look back array to 256KB
+    private static final int MAX_DICTIONARY_LOOK_BACK_SIZE = 1 << 16;
+    // Max number of dictionary id combinations per row of a page for which a new look back array is allocated,
+    // so that a small page with new dictionaries is not more expensive than hashing its rows
+    private static final int MAX_DICTIONARY_LOOK_BACK_SIZE_PER_POSITION = 4;
     private static final float FILL_RATIO = 0.75f;
     private final List<Type> types;
     private final List<Type> hashTypes;
@@ -221,6 +228,9 @@ public class MultiChannelGroupByHash
         if (canProcessDictionary(page)) {
             return new AddDictionaryPageWork(page);
         }
+        if (canProcessMultiChannelDictionary(page)) {
+            return new AddMultiChannelDictionaryPageWork(page);
+        }
 
         return new AddNonDictionaryPageWork(page);
     }
@@ -254,6 +264,9 @@ public class MultiChannelGroupByHash
         if (canProcessDictionary(page)) {
             return new GetDictionaryGroupIdsWork(page);
         }
+        if (canProcessMultiChannelDictionary(page)) {
+            return new GetMultiChannelDictionaryGroupIdsWork(page);
+        }
 
         return new GetNonDictionaryGroupIdsWork(page);
     }
@@ -481,11 +494,29 @@ public class MultiChannelGroupByHash
         return maxFill;
     }
 
-    private void updateDictionaryLookBack(Block dictionary)
+    private void updateDictionaryLookBack(Block... dictionaries)
+    {
+        if (dictionaryLookBack == null || !dictionaryLookBack.isLookBackFor(dictionaries)) {
+            dictionaryLookBack = new DictionaryLookBack(dictionaries);
+        }
+    }
+
+    private DictionaryBlock[] getDictionaryBlocks(Page page)
+    {
+        DictionaryBlock[] dictionaryBlocks = new DictionaryBlock[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            dictionaryBlocks[i] = (DictionaryBlock) page.getBlock(channels[i]);
+        }
+        return dictionaryBlocks;
+    }
+
+    private static Block[] getDictionaries(DictionaryBlock[] dictionaryBlocks)
     {
-        if (dictionaryLookBack == null || dictionaryLookBack.getDictionary() != dictionary) {
-            dictionaryLookBack = new DictionaryLookBack(dictionary);
+        Block[] dictionaries = new Block[dictionaryBlocks.length];
+        for (int i = 0; i < dictionaryBlocks.length; i++) {
+            dictionaries[i] = dictionaryBlocks[i].getDictionary();
         }
+        return dictionaries;
     }
 
     // For a page that contains DictionaryBlocks, create a new page in which
@@ -530,6 +561,33 @@ public class MultiChannelGroupByHash
         return true;
     }
 
+    // Grouping by multiple dictionary encoded channels (e.g. several columns of the same ORC stripe) only needs to
+    // hash the values the first time a combination of dictionary ids is seen. Subsequent rows are mapped to a group
+    // id through the combination of their dictionary ids, as long as the number of combinations stays small.
+    private boolean canProcessMultiChannelDictionary(Page page)
+    {
+        if (!this.processDictionary || channels.length == 1) {
+            return false;
+        }
+
+        long lookBackSize = 1;
+        Block[] dictionaries = new Block[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            Block block = page.getBlock(channels[i]);
+            if (!(block instanceof DictionaryBlock)) {
+                return false;
+            }
+            dictionaries[i] = ((DictionaryBlock) block).getDictionary();
+            lookBackSize *= dictionaries[i].getPositionCount();
+            if (lookBackSize > MAX_DICTIONARY_LOOK_BACK_SIZE) {
+                return false;
+            }
+        }
+        // the look back array of the dictionaries of a previous page is reused
+        return lookBackSize <= (long) MAX_DICTIONARY_LOOK_BACK_SIZE_PER_POSITION * page.getPositionCount()
+                || (dictionaryLookBack != null && dictionaryLookBack.isLookBackFor(dictionaries));
+    }
+
     private boolean isRunLengthEncoded(Page page)
     {
         for (int i = 0; i < channels.length; i++) {
@@ -551,21 +609,57 @@ public class MultiChannelGroupByHash
         return groupId;
     }
 
+    private int getGroupId(Page page, DictionaryBlock[] dictionaryBlocks, int position)
+    {
+        int lookBackPosition = dictionaryLookBack.getLookBackPosition(dictionaryBlocks, position);
+        if (dictionaryLookBack.isProcessed(lookBackPosition)) {
+            return dictionaryLookBack.getGroupId(lookBackPosition);
+        }
+
+        int groupId = putIfAbsent(position, page);
+        dictionaryLookBack.setProcessed(lookBackPosition, groupId);
+        return groupId;
+    }
+
     private static final class DictionaryLookBack
     {
-        private final Block dictionary;
+        private final Block[] dictionaries;
         private final int[] processed;
 
-        public DictionaryLookBack(Block dictionary)
+        public DictionaryLookBack(Block... dictionaries)
         {
-            this.dictionary = dictionary;
-            this.processed = new int[dictionary.getPositionCount()];
+            this.dictionaries = dictionaries;
+            int size = 1;
+            for (Block dictionary : dictionaries) {
+                size = multiplyExact(size, dictionary.getPositionCount());
+            }
+            this.processed = new int[size];
             Arrays.fill(processed, -1);
         }
 
-        public Block getDictionary()
+        public boolean isLookBackFor(Block[] dictionaries)
         {
-            return dictionary;
+            if (this.dictionaries.length != dictionaries.length) {
+                return false;
+            }
+            for (int i = 0; i < dictionaries.length; i++) {
+                if (this.dictionaries[i] != dictionaries[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Combines the dictionary ids of all channels at {@code position} into a single position in the look back array.
+         */
+        public int getLookBackPosition(DictionaryBlock[] dictionaryBlocks, int position)
+        {
+            int lookBackPosition = 0;
+            for (int i = 0; i < dictionaryBlocks.length; i++) {
+                lookBackPosition = lookBackPosition * dictionaries[i].getPositionCount() + dictionaryBlocks[i].getId(position);
+            }
+            return lookBackPosition;
         }
 
         public int getGroupId(int position)
@@ -672,6 +766,50 @@ public class MultiChannelGroupByHash
         }
     }
 
+    private class AddMultiChannelDictionaryPageWork
+            implements Work<Void>
+    {
+        private final Page page;
+        private final DictionaryBlock[] dictionaryBlocks;
+
+        private int lastPosition;
+
+        public AddMultiChannelDictionaryPageWork(Page page)
+        {
+            verify(canProcessMultiChannelDictionary(page), "invalid call to addMultiChannelDictionaryPage");
+            this.page = requireNonNull(page, "page is null");
+            this.dictionaryBlocks = getDictionaryBlocks(page);
+            updateDictionaryLookBack(getDictionaries(dictionaryBlocks));
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = page.getPositionCount();
+            checkState(lastPosition <= positionCount, "position count out of bound");
+
+            // needRehash() == true indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                getGroupId(page, dictionaryBlocks, lastPosition);
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     private class AddRunLengthEncodedPageWork
             implements Work<Void>
     {
@@ -820,6 +958,60 @@ public class MultiChannelGroupByHash
         }
     }
 
+    private class GetMultiChannelDictionaryGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final BlockBuilder blockBuilder;
+        private final Page page;
+        private final DictionaryBlock[] dictionaryBlocks;
+
+        private boolean finished;
+        private int lastPosition;
+
+        public GetMultiChannelDictionaryGroupIdsWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+            verify(canProcessMultiChannelDictionary(page), "invalid call to processMultiChannelDictionary");
+
+            this.dictionaryBlocks = getDictionaryBlocks(page);
+            updateDictionaryLookBack(getDictionaries(dictionaryBlocks));
+
+            // we know the exact size required for the block
+            this.blockBuilder = BIGINT.createFixedSizeBlockBuilder(page.getPositionCount());
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = page.getPositionCount();
+            checkState(lastPosition <= positionCount, "position count out of bound");
+            checkState(!finished);
+
+            // needRehash() == true indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                BIGINT.writeLong(blockBuilder, getGroupId(page, dictionaryBlocks, lastPosition));
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(lastPosition == page.getPositionCount(), "process has not yet finished");
+            checkState(!finished, "result has produced");
+            finished = true;
+            return new GroupByIdBlock(nextGroupId, blockBuilder.build());
+        }
+    }
+
     private class GetRunLengthEncodedGroupIdsWork
             implements Work<GroupByIdBlock>
     {
@@ -18,14 +18,27 @@ import com.facebook.presto.common.Page;
 import com.facebook.presto.common.PageBuilder;
 import com.facebook.presto.common.array.AdaptiveLongBigArray;
 import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import org.openjdk.jol.info.ClassLayout;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
 import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
 import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
 import static com.facebook.presto.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static com.google.common.util.concurrent.Uninterruptibles.awaitUninterruptibly;
 import static io.airlift.slice.SizeOf.sizeOf;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
@@ -35,6 +48,9 @@ public final class PagesHash
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(PagesHash.class).instanceSize();
     private static final DataSize CACHE_SIZE = new DataSize(128, KILOBYTE);
+    // smallest number of positions that is worth building in a separate thread
+    private static final int MIN_POSITIONS_PER_THREAD = 16 * 1024;
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
     private final AdaptiveLongBigArray addresses;
     private final int positionCount;
     private final PagesHashStrategy pagesHashStrategy;
@@ -51,17 +67,36 @@ public final class PagesHash
     private final long hashCollisions;
     private final double expectedHashCollisions;
     private final long positionIsNullCount;
+    private final int buildParallelism;
+    private final long buildHelperCpuNanos;
 
     public PagesHash(
             AdaptiveLongBigArray addresses,
             int positionCount,
             PagesHashStrategy pagesHashStrategy,
             PositionLinks.FactoryBuilder positionLinks)
+    {
+        this(addresses, positionCount, pagesHashStrategy, positionLinks, directExecutor(), 1);
+    }
+
+    /**
+     * The positions are hashed, and inserted in separate ranges of slots of the table, by the calling thread
+     * and up to {@code buildParallelism - 1} threads of the {@code buildExecutor}. The calling thread runs
+     * the work that no thread of the executor has picked up, so that a busy executor does not delay the build.
+     */
+    public PagesHash(
+            AdaptiveLongBigArray addresses,
+            int positionCount,
+            PagesHashStrategy pagesHashStrategy,
+            PositionLinks.FactoryBuilder positionLinks,
+            Executor buildExecutor,
+            int buildParallelism)
     {
         this.addresses = requireNonNull(addresses, "addresses is null");
         this.positionCount = positionCount;
         this.pagesHashStrategy = requireNonNull(pagesHashStrategy, "pagesHashStrategy is null");
         this.channelCount = pagesHashStrategy.getChannelCount();
+        requireNonNull(buildExecutor, "buildExecutor is null");
 
         // reserve memory for the arrays
         int hashSize = HashCommon.arraySize(positionCount, 0.75f);
@@ -73,10 +108,21 @@ public final class PagesHash
         positionToHashes = new byte[positionCount];
 
         // We will process addresses in batches, to save memory on array of hashes.
-        int positionsInStep = Math.min(positionCount + 1, (int) CACHE_SIZE.toBytes() / Integer.SIZE);
+        // The batches of a parallel build are large enough to give every thread a worthwhile share.
+        int maxParallelism = Math.max(1, Math.min(buildParallelism, positionCount / MIN_POSITIONS_PER_THREAD));
+        int positionsInStep = Math.min(positionCount + 1, Math.max((int) CACHE_SIZE.toBytes() / Integer.SIZE, maxParallelism * MIN_POSITIONS_PER_THREAD));
         long[] positionToFullHashes = new long[positionsInStep];
+        boolean[] positionIsNull = new boolean[positionsInStep];
         long hashCollisionsLocal = 0;
         long positionIsNullCountLocal = 0;
+        int buildParallelismLocal = 1;
+        AtomicLong buildHelperCpuNanosLocal = new AtomicLong();
+
+        // The table is split in ranges of slots that are filled concurrently. The positions that would probe
+        // past the end of their range are inserted afterwards by the calling thread.
+        boolean parallelFill = maxParallelism > 1 && positionLinks.supportsConcurrentLinks();
+        int rangeCount = Integer.highestOneBit(maxParallelism * 2 - 1);
+        int rangeShift = Integer.numberOfTrailingZeros(hashSize) - Integer.numberOfTrailingZeros(rangeCount);
 
         for (int step = 0; step * positionsInStep < positionCount; step++) {
             int stepBeginPosition = step * positionsInStep;
@@ -86,41 +132,65 @@ public final class PagesHash
             // First extract all hashes from blocks to native array.
             // Somehow having this as a separate loop is much faster compared
             // to extracting hashes on the fly in the loop below.
-            for (int position = 0; position < stepSize; position++) {
-                int realPosition = position + stepBeginPosition;
-                long hash = readHashPosition(realPosition);
-                positionToFullHashes[position] = hash;
-                positionToHashes[realPosition] = (byte) hash;
+            IntArrayList[][] chunkRangePositions = null;
+            if (maxParallelism > 1) {
+                int chunkSize = (stepSize + maxParallelism - 1) / maxParallelism;
+                int chunkCount = (stepSize + chunkSize - 1) / chunkSize;
+                long[] chunkNullCounts = new long[chunkCount];
+                // the positions of every chunk are split by the range of their first slot, in order
+                IntArrayList[][] rangePositions = parallelFill ? new IntArrayList[chunkCount][] : null;
+                buildParallelismLocal = Math.max(buildParallelismLocal, runInParallel(buildExecutor, maxParallelism, chunkCount, buildHelperCpuNanosLocal, chunk -> {
+                    int begin = chunk * chunkSize;
+                    int end = Math.min(begin + chunkSize, stepSize);
+                    chunkNullCounts[chunk] = hashPositions(stepBeginPosition, begin, end, positionToFullHashes, positionIsNull);
+                    if (rangePositions != null) {
+                        rangePositions[chunk] = splitByRange(begin, end, positionToFullHashes, positionIsNull, rangeCount, rangeShift);
+                    }
+                }));
+                positionIsNullCountLocal += Arrays.stream(chunkNullCounts).sum();
+                chunkRangePositions = rangePositions;
+            }
+            else {
+                positionIsNullCountLocal += hashPositions(stepBeginPosition, 0, stepSize, positionToFullHashes, positionIsNull);
             }
 
             // index pages
-            for (int position = 0; position < stepSize; position++) {
-                int realPosition = position + stepBeginPosition;
-                if (isPositionNull(realPosition)) {
-                    ++positionIsNullCountLocal;
-                    continue;
+            if (parallelFill) {
+                IntArrayList[][] rangePositions = chunkRangePositions;
+                long[] rangeCollisions = new long[rangeCount];
+                IntArrayList[] overflowPositions = new IntArrayList[rangeCount];
+                buildParallelismLocal = Math.max(buildParallelismLocal, runInParallel(buildExecutor, maxParallelism, rangeCount, buildHelperCpuNanosLocal, range -> {
+                    int rangeEnd = (range + 1) << rangeShift;
+                    IntArrayList overflow = new IntArrayList();
+                    for (IntArrayList[] chunkPositions : rangePositions) {
+                        IntArrayList positions = chunkPositions[range];
+                        for (int i = 0; i < positions.size(); i++) {
+                            int position = positions.getInt(i);
+                            long collisions = insertPosition(position + stepBeginPosition, positionToFullHashes[position], rangeEnd, positionLinks);
+                            if (collisions < 0) {
+                                overflow.add(position);
+                            }
+                            else {
+                                rangeCollisions[range] += collisions;
+                            }
+                        }
+                    }
+                    overflowPositions[range] = overflow;
+                }));
+                hashCollisionsLocal += Arrays.stream(rangeCollisions).sum();
+                for (IntArrayList overflow : overflowPositions) {
+                    for (int i = 0; i < overflow.size(); i++) {
+                        int position = overflow.getInt(i);
+                        hashCollisionsLocal += insertPosition(position + stepBeginPosition, positionToFullHashes[position], -1, positionLinks);
+                    }
                 }
-
-                long hash = positionToFullHashes[position];
-                int pos = getHashPosition(hash, mask);
-
-                // look for an empty slot or a slot containing this key
-                while (key[pos] != -1) {
-                    int currentKey = key[pos];
-                    if (((byte) hash) == positionToHashes[currentKey] && positionEqualsPositionIgnoreNulls(currentKey, realPosition)) {
-                        // found a slot for this key
-                        // link the new key position to the current key position
-                        realPosition = positionLinks.link(realPosition, currentKey);
-
-                        // key[pos] updated outside of this loop
-                        break;
+            }
+            else {
+                for (int position = 0; position < stepSize; position++) {
+                    if (!positionIsNull[position]) {
+                        hashCollisionsLocal += insertPosition(position + stepBeginPosition, positionToFullHashes[position], -1, positionLinks);
                     }
-                    // increment position and mask to handler wrap around
-                    pos = (pos + 1) & mask;
-                    hashCollisionsLocal++;
                 }
-
-                key[pos] = realPosition;
             }
         }
 
@@ -129,6 +199,129 @@ public final class PagesHash
         hashCollisions = hashCollisionsLocal;
         expectedHashCollisions = estimateNumberOfHashCollisions(positionCount, hashSize);
         positionIsNullCount = positionIsNullCountLocal;
+        this.buildParallelism = buildParallelismLocal;
+        buildHelperCpuNanos = buildHelperCpuNanosLocal.get();
+    }
+
+    /**
+     * Inserts the position in the table, or links it to the position of the same key that is already in the table.
+     *
+     * @param slotEnd end of the slots that the position can take, or -1 to probe the whole table
+     * @return number of collisions, or -1 if the slots of the table up to {@code slotEnd} are taken by other keys
+     */
+    private long insertPosition(int realPosition, long hash, int slotEnd, PositionLinks.FactoryBuilder positionLinks)
+    {
+        int pos = getHashPosition(hash, mask);
+        long collisions = 0;
+
+        // look for an empty slot or a slot containing this key
+        while (key[pos] != -1) {
+            int currentKey = key[pos];
+            if (((byte) hash) == positionToHashes[currentKey] && positionEqualsPositionIgnoreNulls(currentKey, realPosition)) {
+                // found a slot for this key
+                // link the new key position to the current key position
+                realPosition = positionLinks.link(realPosition, currentKey);
+
+                // key[pos] updated outside of this loop
+                break;
+            }
+            // increment position and mask to handler wrap around
+            pos++;
+            if (pos == slotEnd) {
+                return -1;
+            }
+            pos &= mask;
+            collisions++;
+        }
+
+        key[pos] = realPosition;
+        return collisions;
+    }
+
+    private long hashPositions(int stepBeginPosition, int begin, int end, long[] positionToFullHashes, boolean[] positionIsNull)
+    {
+        long nullCount = 0;
+        for (int position = begin; position < end; position++) {
+            int realPosition = position + stepBeginPosition;
+            long hash = readHashPosition(realPosition);
+            positionToFullHashes[position] = hash;
+            positionToHashes[realPosition] = (byte) hash;
+            positionIsNull[position] = isPositionNull(realPosition);
+            if (positionIsNull[position]) {
+                nullCount++;
+            }
+        }
+        return nullCount;
+    }
+
+    private IntArrayList[] splitByRange(int begin, int end, long[] positionToFullHashes, boolean[] positionIsNull, int rangeCount, int rangeShift)
+    {
+        IntArrayList[] rangePositions = new IntArrayList[rangeCount];
+        for (int range = 0; range < rangeCount; range++) {
+            rangePositions[range] = new IntArrayList((end - begin) / rangeCount + 1);
+        }
+        for (int position = begin; position < end; position++) {
+            if (!positionIsNull[position]) {
+                rangePositions[getHashPosition(positionToFullHashes[position], mask) >>> rangeShift].add(position);
+            }
+        }
+        return rangePositions;
+    }
+
+    /**
+     * Runs the tasks on the calling thread and on up to {@code parallelism - 1} threads of the executor. The calling
+     * thread only waits for the tasks that other threads have started.
+     *
+     * @return number of threads that ran some of the tasks
+     */
+    private static int runInParallel(Executor executor, int parallelism, int taskCount, AtomicLong helperCpuNanos, IntConsumer task)
+    {
+        AtomicInteger nextTask = new AtomicInteger();
+        CountDownLatch finishedTasks = new CountDownLatch(taskCount);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger threads = new AtomicInteger();
+        Consumer<IntConsumer> worker = runner -> {
+            boolean started = false;
+            for (int index = nextTask.getAndIncrement(); index < taskCount; index = nextTask.getAndIncrement()) {
+                if (!started) {
+                    threads.incrementAndGet();
+                    started = true;
+                }
+                try {
+                    if (failure.get() == null) {
+                        runner.accept(index);
+                    }
+                }
+                catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+                finally {
+                    finishedTasks.countDown();
+                }
+            }
+        };
+        IntConsumer helperTask = index -> {
+            long start = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+            try {
+                task.accept(index);
+            }
+            finally {
+                helperCpuNanos.addAndGet(THREAD_MX_BEAN.getCurrentThreadCpuTime() - start);
+            }
+        };
+
+        for (int helper = 1; helper < Math.min(parallelism, taskCount); helper++) {
+            executor.execute(() -> worker.accept(helperTask));
+        }
+        worker.accept(task);
+        awaitUninterruptibly(finishedTasks);
+
+        Throwable throwable = failure.get();
+        if (throwable != null) {
+            throwIfUnchecked(throwable);
+            throw new RuntimeException(throwable);
+        }
+        return threads.get();
     }
 
     public final int getChannelCount()
@@ -161,6 +354,16 @@ public final class PagesHash
         return positionIsNullCount;
     }
 
+    public int getBuildParallelism()
+    {
+        return buildParallelism;
+    }
+
+    public long getBuildHelperCpuNanos()
+    {
+        return buildHelperCpuNanos;
+    }
+
     public int getAddressIndex(int position, Page hashChannelsPage)
     {
         return getAddressIndex(position, hashChannelsPage, pagesHashStrategy.hashRow(position, hashChannelsPage));
@@ -180,6 +383,38 @@ public final class PagesHash
         return -1;
     }
 
+    /**
+     * Looks up the address indexes of a batch of probe rows in passes, so that every pass touches
+     * a single structure for all the rows with independent loads: first the slots of the hash
+     * table, then the hashes of the candidate positions, and only then the keys themselves.
+     */
+    public void getAddressIndexes(int[] rightPositions, int positionCount, Page hashChannelsPage, long[] rawHashes, int[] addressIndexes)
+    {
+        for (int i = 0; i < positionCount; i++) {
+            addressIndexes[i] = key[getHashPosition(rawHashes[i], mask)];
+        }
+
+        for (int i = 0; i < positionCount; i++) {
+            int addressIndex = addressIndexes[i];
+            if (addressIndex != -1 && positionToHashes[addressIndex] != (byte) rawHashes[i]) {
+                // the key may be further along the probe sequence
+                addressIndexes[i] = -2;
+            }
+        }
+
+        for (int i = 0; i < positionCount; i++) {
+            int addressIndex = addressIndexes[i];
+            if (addressIndex == -2 || (addressIndex != -1 && !positionEqualsCurrentRowIgnoreNulls(addressIndex, (byte) rawHashes[i], rightPositions[i], hashChannelsPage))) {
+                addressIndexes[i] = getAddressIndex(rightPositions[i], hashChannelsPage, rawHashes[i]);
+            }
+        }
+    }
+
+    public long hashRow(int position, Page hashChannelsPage)
+    {
+        return pagesHashStrategy.hashRow(position, hashChannelsPage);
+    }
+
     public void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset)
     {
         long pageAddress = addresses.get(toIntExact(position));
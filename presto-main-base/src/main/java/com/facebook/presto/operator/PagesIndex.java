@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.airlift.concurrent.BoundedExecutor;
 import com.facebook.airlift.log.Logger;
 import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.Session;
@@ -48,11 +49,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.Executor;
 import java.util.function.IntUnaryOperator;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
 import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
@@ -62,6 +65,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.slice.SizeOf.sizeOf;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 
 /**
  * PagesIndex a low-level data structure which contains the address of every value position of every channel.
@@ -81,6 +85,7 @@ public class PagesIndex
     private final OrderingCompiler orderingCompiler;
     private final JoinCompiler joinCompiler;
     private final FunctionAndTypeManager functionAndTypeManager;
+    private final Executor joinHashBuildExecutor;
 
     private final List<Type> types;
     private final AdaptiveLongBigArray valueAddresses;
@@ -96,6 +101,7 @@ public class PagesIndex
             OrderingCompiler orderingCompiler,
             JoinCompiler joinCompiler,
             FunctionAndTypeManager functionAndTypeManager,
+            Executor joinHashBuildExecutor,
             List<Type> types,
             int expectedPositions,
             boolean eagerCompact)
@@ -103,6 +109,7 @@ public class PagesIndex
         this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
         this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
         this.functionAndTypeManager = requireNonNull(functionAndTypeManager, "functionManager is null");
+        this.joinHashBuildExecutor = requireNonNull(joinHashBuildExecutor, "joinHashBuildExecutor is null");
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
         this.valueAddresses = new AdaptiveLongBigArray();
         this.valueAddresses.ensureCapacity(expectedPositions);
@@ -127,17 +134,25 @@ public class PagesIndex
     {
         private static final OrderingCompiler ORDERING_COMPILER = new OrderingCompiler();
         private static final JoinCompiler JOIN_COMPILER = new JoinCompiler(MetadataManager.createTestMetadataManager());
+        private static final Executor JOIN_HASH_BUILD_EXECUTOR = new BoundedExecutor(newCachedThreadPool(daemonThreadsNamed("testing-join-hash-build-%s")), 4);
         private final boolean eagerCompact;
+        private final Executor joinHashBuildExecutor;
 
         public TestingFactory(boolean eagerCompact)
+        {
+            this(eagerCompact, JOIN_HASH_BUILD_EXECUTOR);
+        }
+
+        public TestingFactory(boolean eagerCompact, Executor joinHashBuildExecutor)
         {
             this.eagerCompact = eagerCompact;
+            this.joinHashBuildExecutor = requireNonNull(joinHashBuildExecutor, "joinHashBuildExecutor is null");
         }
 
         @Override
         public PagesIndex newPagesIndex(List<Type> types, int expectedPositions)
         {
-            return new PagesIndex(ORDERING_COMPILER, JOIN_COMPILER, MetadataManager.createTestMetadataManager().getFunctionAndTypeManager(), types, expectedPositions, eagerCompact);
+            return new PagesIndex(ORDERING_COMPILER, JOIN_COMPILER, MetadataManager.createTestMetadataManager().getFunctionAndTypeManager(), joinHashBuildExecutor, types, expectedPositions, eagerCompact);
         }
     }
 
@@ -148,20 +163,27 @@ public class PagesIndex
         private final JoinCompiler joinCompiler;
         private final boolean eagerCompact;
         private final FunctionAndTypeManager functionAndTypeManager;
+        private final Executor joinHashBuildExecutor;
 
         @Inject
-        public DefaultFactory(OrderingCompiler orderingCompiler, JoinCompiler joinCompiler, FeaturesConfig featuresConfig, Metadata metadata)
+        public DefaultFactory(
+                OrderingCompiler orderingCompiler,
+                JoinCompiler joinCompiler,
+                FeaturesConfig featuresConfig,
+                Metadata metadata,
+                @ForJoinHashBuild BoundedExecutor joinHashBuildExecutor)
         {
             this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
             this.eagerCompact = requireNonNull(featuresConfig, "featuresConfig is null").isPagesIndexEagerCompactionEnabled();
             this.functionAndTypeManager = requireNonNull(metadata, "metadata is null").getFunctionAndTypeManager();
+            this.joinHashBuildExecutor = requireNonNull(joinHashBuildExecutor, "joinHashBuildExecutor is null");
         }
 
         @Override
         public PagesIndex newPagesIndex(List<Type> types, int expectedPositions)
         {
-            return new PagesIndex(orderingCompiler, joinCompiler, functionAndTypeManager, types, expectedPositions, eagerCompact);
+            return new PagesIndex(orderingCompiler, joinCompiler, functionAndTypeManager, joinHashBuildExecutor, types, expectedPositions, eagerCompact);
         }
     }
 
@@ -491,6 +513,7 @@ public class PagesIndex
                 LookupSourceSupplierFactory lookupSourceFactory = joinCompiler.compileLookupSourceFactory(types, joinChannels, sortChannel, outputChannels);
                 return lookupSourceFactory.createLookupSourceSupplier(
                         session,
+                        joinHashBuildExecutor,
                         valueAddresses,
                         positionCount,
                         channels,
@@ -516,6 +539,7 @@ public class PagesIndex
 
         return new JoinHashSupplier(
                 session,
+                joinHashBuildExecutor,
                 hashStrategy,
                 valueAddresses,
                 positionCount,
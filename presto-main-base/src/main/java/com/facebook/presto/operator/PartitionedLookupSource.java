@@ -85,6 +85,15 @@ public class PartitionedLookupSource
 
     private boolean closed;
 
+    // scratch space of getJoinPositions, which groups the probe positions by partition
+    private final int[] partitionEnds;
+    private int[] partitions = new int[0];
+    private int[] sortedIndexes = new int[0];
+    private int[] partitionPositions = new int[0];
+    private long[] partitionRawHashes = new long[0];
+    private long[] partitionJoinPositions = new long[0];
+    private long[] rawHashes = new long[0];
+
     private PartitionedLookupSource(List<? extends LookupSource> lookupSources, List<Type> hashChannelTypes, Optional<OuterPositionTracker> outerPositionTracker)
     {
         this.lookupSources = lookupSources.toArray(new LookupSource[lookupSources.size()]);
@@ -96,6 +105,7 @@ public class PartitionedLookupSource
         this.partitionMask = lookupSources.size() - 1;
         this.shiftSize = numberOfTrailingZeros(lookupSources.size()) + 1;
         this.outerPositionTracker = outerPositionTracker.orElse(null);
+        this.partitionEnds = new int[lookupSources.size()];
     }
 
     @Override
@@ -142,6 +152,50 @@ public class PartitionedLookupSource
         return encodePartitionedJoinPosition(partition, toIntExact(joinPosition));
     }
 
+    @Override
+    public void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        ensureScratchCapacity(positionCount);
+        if (rawHashes == null) {
+            rawHashes = this.rawHashes;
+            for (int i = 0; i < positionCount; i++) {
+                rawHashes[i] = partitionGenerator.getRawHash(hashChannelsPage, positions[i]);
+            }
+        }
+
+        // sort the positions by partition, so that every partition is probed with a single batch
+        Arrays.fill(partitionEnds, 0);
+        for (int i = 0; i < positionCount; i++) {
+            int partition = partitionGenerator.getPartition(rawHashes[i]);
+            partitions[i] = partition;
+            partitionEnds[partition]++;
+        }
+        for (int partition = 1; partition < partitionEnds.length; partition++) {
+            partitionEnds[partition] += partitionEnds[partition - 1];
+        }
+        for (int i = positionCount - 1; i >= 0; i--) {
+            sortedIndexes[--partitionEnds[partitions[i]]] = i;
+        }
+
+        // partitionEnds now holds the start of every partition
+        for (int partition = 0; partition < lookupSources.length; partition++) {
+            int start = partitionEnds[partition];
+            int end = partition + 1 < lookupSources.length ? partitionEnds[partition + 1] : positionCount;
+            if (start == end) {
+                continue;
+            }
+            for (int i = start; i < end; i++) {
+                partitionPositions[i - start] = positions[sortedIndexes[i]];
+                partitionRawHashes[i - start] = rawHashes[sortedIndexes[i]];
+            }
+            lookupSources[partition].getJoinPositions(partitionPositions, end - start, hashChannelsPage, allChannelsPage, partitionRawHashes, partitionJoinPositions);
+            for (int i = start; i < end; i++) {
+                long joinPosition = partitionJoinPositions[i - start];
+                joinPositions[sortedIndexes[i]] = joinPosition < 0 ? joinPosition : encodePartitionedJoinPosition(partition, toIntExact(joinPosition));
+            }
+        }
+    }
+
     @Override
     public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
@@ -201,6 +255,18 @@ public class PartitionedLookupSource
         closed = true;
     }
 
+    private void ensureScratchCapacity(int positionCount)
+    {
+        if (partitions.length < positionCount) {
+            partitions = new int[positionCount];
+            sortedIndexes = new int[positionCount];
+            partitionPositions = new int[positionCount];
+            partitionRawHashes = new long[positionCount];
+            partitionJoinPositions = new long[positionCount];
+            rawHashes = new long[positionCount];
+        }
+    }
+
     private int decodePartition(long partitionedJoinPosition)
     {
         return (int) (partitionedJoinPosition & partitionMask);
@@ -49,6 +49,14 @@ public interface PositionLinks
         Factory build();
 
         boolean isEmpty();
+
+        /**
+         * @return whether the positions of different keys can be linked by several threads at the same time
+         */
+        default boolean supportsConcurrentLinks()
+        {
+            return false;
+        }
     }
 
     interface Factory
@@ -0,0 +1,198 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.execution.StageExecutionId;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.plan.PlanNodeId;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.errorprone.annotations.ThreadSafe;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.Futures.nonCancellationPropagating;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Lets the tasks of a stage that run on the same worker share the partitions of the lookup
+ * source of a broadcast join, since all of them receive the same build side. The first build
+ * operator of a partition owns it: it builds the partition and keeps it, and its memory, until
+ * all the other operators of the partition, which discard their input, have released it.
+ */
+@ThreadSafe
+public class SharedLookupSourceRegistry
+{
+    @GuardedBy("this")
+    private final Map<SharedLookupSourceKey, SharedLookupSource> lookupSources = new HashMap<>();
+
+    public synchronized Lease acquire(StageExecutionId stageExecutionId, PlanNodeId planNodeId, int partitionIndex, int partitionCount)
+    {
+        SharedLookupSourceKey key = new SharedLookupSourceKey(stageExecutionId, planNodeId, partitionIndex, partitionCount);
+        SharedLookupSource lookupSource = lookupSources.get(key);
+        if (lookupSource == null) {
+            lookupSource = new SharedLookupSource(key);
+            lookupSources.put(key, lookupSource);
+            return new Lease(lookupSource, true);
+        }
+        lookupSource.followers++;
+        return new Lease(lookupSource, false);
+    }
+
+    @VisibleForTesting
+    synchronized int getSharedLookupSourceCount()
+    {
+        return lookupSources.size();
+    }
+
+    /**
+     * A reference to a shared partition of a lookup source. All of the methods but
+     * {@link #close()} may only be invoked by the owner, or only by the followers.
+     */
+    public class Lease
+    {
+        private final SharedLookupSource lookupSource;
+        private final boolean owner;
+        @GuardedBy("SharedLookupSourceRegistry.this")
+        private boolean released;
+
+        private Lease(SharedLookupSource lookupSource, boolean owner)
+        {
+            this.lookupSource = requireNonNull(lookupSource, "lookupSource is null");
+            this.owner = owner;
+        }
+
+        public boolean isOwner()
+        {
+            return owner;
+        }
+
+        public void setLookupSourceSupplier(LookupSourceSupplier lookupSourceSupplier)
+        {
+            checkState(owner, "only the owner builds the lookup source");
+            lookupSource.lookupSourceSupplier.set(requireNonNull(lookupSourceSupplier, "lookupSourceSupplier is null"));
+        }
+
+        public ListenableFuture<LookupSourceSupplier> getLookupSourceSupplier()
+        {
+            checkState(!owner, "the owner builds the lookup source");
+            return nonCancellationPropagating(lookupSource.lookupSourceSupplier);
+        }
+
+        /**
+         * Releases the partition on behalf of the owner. No operator can join the partition afterwards.
+         *
+         * @return a future that completes when all the followers have released the partition
+         */
+        public ListenableFuture<?> release()
+        {
+            checkState(owner, "followers release the lookup source by closing the lease");
+            boolean followersReleased;
+            synchronized (SharedLookupSourceRegistry.this) {
+                if (!released) {
+                    released = true;
+                    lookupSources.remove(lookupSource.key, lookupSource);
+                    lookupSource.ownerReleased = true;
+                }
+                followersReleased = lookupSource.followers == 0;
+            }
+            if (followersReleased) {
+                lookupSource.followersReleased.set(null);
+            }
+            return nonCancellationPropagating(lookupSource.followersReleased);
+        }
+
+        public void close()
+        {
+            if (owner) {
+                if (!lookupSource.lookupSourceSupplier.isDone()) {
+                    lookupSource.lookupSourceSupplier.setException(new PrestoException(GENERIC_INTERNAL_ERROR, "Shared lookup source was closed before it was built"));
+                }
+                release();
+                return;
+            }
+
+            boolean followersReleased;
+            synchronized (SharedLookupSourceRegistry.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                lookupSource.followers--;
+                followersReleased = lookupSource.ownerReleased && lookupSource.followers == 0;
+            }
+            if (followersReleased) {
+                lookupSource.followersReleased.set(null);
+            }
+        }
+    }
+
+    private static class SharedLookupSource
+    {
+        private final SharedLookupSourceKey key;
+        private final SettableFuture<LookupSourceSupplier> lookupSourceSupplier = SettableFuture.create();
+        private final SettableFuture<?> followersReleased = SettableFuture.create();
+        private int followers;
+        private boolean ownerReleased;
+
+        private SharedLookupSource(SharedLookupSourceKey key)
+        {
+            this.key = requireNonNull(key, "key is null");
+        }
+    }
+
+    private static class SharedLookupSourceKey
+    {
+        private final StageExecutionId stageExecutionId;
+        private final PlanNodeId planNodeId;
+        private final int partitionIndex;
+        private final int partitionCount;
+
+        private SharedLookupSourceKey(StageExecutionId stageExecutionId, PlanNodeId planNodeId, int partitionIndex, int partitionCount)
+        {
+            this.stageExecutionId = requireNonNull(stageExecutionId, "stageExecutionId is null");
+            this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
+            this.partitionIndex = partitionIndex;
+            this.partitionCount = partitionCount;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            SharedLookupSourceKey that = (SharedLookupSourceKey) o;
+            return partitionIndex == that.partitionIndex &&
+                    partitionCount == that.partitionCount &&
+                    Objects.equals(stageExecutionId, that.stageExecutionId) &&
+                    Objects.equals(planNodeId, that.planNodeId);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(stageExecutionId, planNodeId, partitionIndex, partitionCount);
+        }
+    }
+}
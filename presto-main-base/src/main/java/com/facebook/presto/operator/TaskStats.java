@@ -28,6 +28,7 @@ import java.util.Set;
 
 import static com.facebook.presto.util.DateTimeUtils.toTimeStampInMillis;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.hash.Hashing.murmur3_128;
 import static java.util.Objects.requireNonNull;
 
 @ThriftStruct
@@ -734,59 +735,42 @@ public class TaskStats
 
     public TaskStats summarize()
     {
-        return new TaskStats(
-                createTimeInMillis,
-                firstStartTimeInMillis,
-                lastStartTimeInMillis,
-                lastEndTimeInMillis,
-                endTimeInMillis,
-                elapsedTimeInNanos,
-                queuedTimeInNanos,
-                totalDrivers,
-                queuedDrivers,
-                queuedPartitionedDrivers,
-                queuedPartitionedSplitsWeight,
-                runningDrivers,
-                runningPartitionedDrivers,
-                runningPartitionedSplitsWeight,
-                blockedDrivers,
-                completedDrivers,
-                totalNewDrivers,
-                queuedNewDrivers,
-                runningNewDrivers,
-                completedNewDrivers,
-                totalSplits,
-                queuedSplits,
-                runningSplits,
-                completedSplits,
-                cumulativeUserMemory,
-                cumulativeTotalMemory,
-                userMemoryReservationInBytes,
-                revocableMemoryReservationInBytes,
-                systemMemoryReservationInBytes,
-                peakTotalMemoryInBytes,
-                peakUserMemoryInBytes,
-                peakNodeTotalMemoryInBytes,
-                totalScheduledTimeInNanos,
-                totalCpuTimeInNanos,
-                totalBlockedTimeInNanos,
-                fullyBlocked,
-                blockedReasons,
-                totalAllocationInBytes,
-                rawInputDataSizeInBytes,
-                rawInputPositions,
-                processedInputDataSizeInBytes,
-                processedInputPositions,
-                outputDataSizeInBytes,
-                outputPositions,
-                physicalWrittenDataSizeInBytes,
-                fullGcCount,
-                fullGcTimeInMillis,
-                ImmutableList.of(),
-                runtimeStats);
+        return withPipelines(ImmutableList.of());
     }
 
     public TaskStats summarizeFinal()
+    {
+        return withPipelines(summarizePipelineStats(pipelines));
+    }
+
+    /**
+     * Returns a fingerprint of the counters that change whenever the stats of the pipelines change,
+     * so that the pipelines do not have to be sent again while it stays the same. The blocked time
+     * is left out, as it keeps growing while the task is blocked.
+     */
+    public long getPipelinesFingerprint()
+    {
+        return murmur3_128().newHasher()
+                .putInt(totalDrivers)
+                .putInt(queuedDrivers)
+                .putInt(runningDrivers)
+                .putInt(blockedDrivers)
+                .putInt(completedDrivers)
+                .putLong(userMemoryReservationInBytes)
+                .putLong(revocableMemoryReservationInBytes)
+                .putLong(systemMemoryReservationInBytes)
+                .putLong(totalScheduledTimeInNanos)
+                .putLong(totalCpuTimeInNanos)
+                .putLong(totalAllocationInBytes)
+                .putLong(rawInputPositions)
+                .putLong(processedInputPositions)
+                .putLong(outputPositions)
+                .putLong(physicalWrittenDataSizeInBytes)
+                .hash()
+                .asLong();
+    }
+
+    public TaskStats withPipelines(List<PipelineStats> pipelines)
     {
         return new TaskStats(
                 createTimeInMillis,
@@ -836,7 +820,7 @@ public class TaskStats
                 physicalWrittenDataSizeInBytes,
                 fullGcCount,
                 fullGcTimeInMillis,
-                summarizePipelineStats(pipelines),
+                pipelines,
                 runtimeStats);
     }
 
@@ -21,6 +21,7 @@ import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.operator.WorkProcessor.ProcessState;
 import com.facebook.presto.operator.WorkProcessor.Transformation;
 import com.facebook.presto.operator.WorkProcessor.TransformationState;
+import com.facebook.presto.operator.window.AggregateWindowFunction;
 import com.facebook.presto.operator.window.FrameInfo;
 import com.facebook.presto.operator.window.FramedWindowFunction;
 import com.facebook.presto.operator.window.WindowPartition;
@@ -606,10 +607,13 @@ public class WindowOperator
             implements Transformation<WindowPartition, Page>
     {
         final PageBuilder pageBuilder;
+        // the segment trees of the aggregations over sliding frames
+        final LocalMemoryContext memoryContext;
 
         WindowPartitionsToOutputPages()
         {
             pageBuilder = new PageBuilder(outputTypes);
+            memoryContext = operatorContext.aggregateUserMemoryContext().newLocalMemoryContext(WindowPartitionsToOutputPages.class.getSimpleName());
         }
 
         @Override
@@ -617,6 +621,7 @@ public class WindowOperator
         {
             boolean finishing = !partitionOptional.isPresent();
             if (finishing) {
+                memoryContext.close();
                 if (pageBuilder.isEmpty()) {
                     return TransformationState.finished();
                 }
@@ -631,6 +636,7 @@ public class WindowOperator
             while (!pageBuilder.isFull() && partition.hasNext()) {
                 partition.processNextRow(pageBuilder);
             }
+            updateMemoryUsage();
             if (!pageBuilder.isFull()) {
                 return needsMoreData();
             }
@@ -639,6 +645,17 @@ public class WindowOperator
             pageBuilder.reset();
             return TransformationState.ofResult(page, !partition.hasNext());
         }
+
+        void updateMemoryUsage()
+        {
+            long bytes = 0;
+            for (FramedWindowFunction windowFunction : windowFunctions) {
+                if (windowFunction.getFunction() instanceof AggregateWindowFunction) {
+                    bytes += ((AggregateWindowFunction) windowFunction.getFunction()).getRetainedSizeInBytes();
+                }
+            }
+            memoryContext.setBytes(bytes);
+        }
     }
 
     private class SpillablePagesToPagesIndexes
@@ -87,6 +87,13 @@ public class IndexLookupSource
         return joinPosition;
     }
 
+    @Override
+    public boolean supportsBatchedLookups()
+    {
+        // loading the keys of a probe position may replace the indexed data of the previous ones
+        return false;
+    }
+
     @Override
     public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
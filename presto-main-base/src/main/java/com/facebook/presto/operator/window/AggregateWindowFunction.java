@@ -14,6 +14,8 @@
 package com.facebook.presto.operator.window;
 
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.DecimalType;
+import com.facebook.presto.common.type.Type;
 import com.facebook.presto.operator.UpdateMemory;
 import com.facebook.presto.operator.aggregation.AccumulatorFactory;
 import com.facebook.presto.operator.aggregation.BuiltInAggregationFunctionImplementation;
@@ -23,10 +25,14 @@ import com.facebook.presto.spi.function.WindowFunction;
 import com.facebook.presto.spi.function.WindowIndex;
 import com.facebook.presto.spi.function.aggregation.Accumulator;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.RealType.REAL;
 import static com.facebook.presto.operator.aggregation.GenericAccumulatorFactory.generateAccumulatorFactory;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
@@ -34,11 +40,30 @@ import static java.util.Objects.requireNonNull;
 public class AggregateWindowFunction
         implements WindowFunction
 {
+    // frames that do not cover a whole bucket of rows are accumulated row by row
+    private static final int SEGMENT_TREE_BUCKET_SIZE = 64;
+    // aggregations whose result does not depend on how the rows are grouped when their states are combined
+    private static final Set<String> EXACTLY_COMBINABLE_FUNCTIONS = ImmutableSet.of(
+            "min",
+            "max",
+            "count",
+            "count_if",
+            "bool_and",
+            "bool_or",
+            "every",
+            "bitwise_and_agg",
+            "bitwise_or_agg",
+            "sum",
+            "avg");
+
     private final List<Integer> argumentChannels;
     private final AccumulatorFactory accumulatorFactory;
+    // the states of aggregations that can be combined in the order of the rows are kept in a segment tree for sliding frames
+    private final boolean combinable;
 
     private WindowIndex windowIndex;
     private Accumulator accumulator;
+    private AggregationSegmentTree segmentTree;
     private int currentStart;
     private int currentEnd;
 
@@ -48,12 +73,14 @@ public class AggregateWindowFunction
         BuiltInAggregationFunctionImplementation builtinFunction = (BuiltInAggregationFunctionImplementation) function;
         this.argumentChannels = ImmutableList.copyOf(argumentChannels);
         this.accumulatorFactory = generateAccumulatorFactory(builtinFunction, createArgs(builtinFunction), Optional.empty());
+        this.combinable = builtinFunction.isDecomposable() && !builtinFunction.isOrderSensitive() && isExactlyCombinable(builtinFunction);
     }
 
     @Override
     public void reset(WindowIndex windowIndex)
     {
         this.windowIndex = windowIndex;
+        this.segmentTree = null;
         resetAccumulator();
     }
 
@@ -72,7 +99,15 @@ public class AggregateWindowFunction
         else {
             // different frame
             resetAccumulator();
-            accumulate(frameStart, frameEnd);
+            if (combinable && frameEnd - frameStart + 1 >= 2 * SEGMENT_TREE_BUCKET_SIZE) {
+                if (segmentTree == null) {
+                    segmentTree = new AggregationSegmentTree(accumulatorFactory, windowIndex, argumentChannels, SEGMENT_TREE_BUCKET_SIZE);
+                }
+                segmentTree.accumulate(accumulator, frameStart, frameEnd);
+            }
+            else {
+                accumulate(frameStart, frameEnd);
+            }
             currentStart = frameStart;
             currentEnd = frameEnd;
         }
@@ -80,6 +115,14 @@ public class AggregateWindowFunction
         accumulator.evaluateFinal(output);
     }
 
+    /**
+     * Returns the size of the segment tree of the current partition, which is not accounted by the accumulators.
+     */
+    public long getRetainedSizeInBytes()
+    {
+        return segmentTree == null ? 0 : segmentTree.getRetainedSizeInBytes();
+    }
+
     private void accumulate(int start, int end)
     {
         accumulator.addInput(windowIndex, argumentChannels, start, end);
@@ -110,6 +153,24 @@ public class AggregateWindowFunction
         };
     }
 
+    private static boolean isExactlyCombinable(BuiltInAggregationFunctionImplementation function)
+    {
+        if (!EXACTLY_COMBINABLE_FUNCTIONS.contains(function.name())) {
+            return false;
+        }
+        List<Type> parameterTypes = function.getParameterTypes();
+        switch (function.name()) {
+            case "sum":
+                // floating point sums depend on the order in which the values are added
+                return !parameterTypes.contains(DOUBLE) && !parameterTypes.contains(REAL);
+            case "avg":
+                // the averages of other types add the values as doubles
+                return parameterTypes.stream().allMatch(DecimalType.class::isInstance);
+            default:
+                return true;
+        }
+    }
+
     private static List<Integer> createArgs(BuiltInAggregationFunctionImplementation function)
     {
         ImmutableList.Builder<Integer> list = ImmutableList.builder();
@@ -0,0 +1,136 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.window;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.operator.UpdateMemory;
+import com.facebook.presto.operator.aggregation.AccumulatorFactory;
+import com.facebook.presto.spi.function.WindowIndex;
+import com.facebook.presto.spi.function.aggregation.Accumulator;
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Intermediate states of an aggregation over the buckets of rows of a window partition, and over
+ * runs of 2, 4, 8... buckets, so that the aggregation of any frame can be assembled from the
+ * states of a logarithmic number of runs, plus the rows at either end of the frame that do not
+ * fill a bucket. The states are combined in the order of the rows, as the frame would be accumulated.
+ */
+class AggregationSegmentTree
+{
+    private static final long INSTANCE_SIZE = ClassLayout.parseClass(AggregationSegmentTree.class).instanceSize();
+
+    private final WindowIndex windowIndex;
+    private final List<Integer> argumentChannels;
+    private final int bucketSize;
+    // level k holds the states of the runs of 2^k buckets
+    private final List<Block> levels;
+
+    public AggregationSegmentTree(AccumulatorFactory accumulatorFactory, WindowIndex windowIndex, List<Integer> argumentChannels, int bucketSize)
+    {
+        requireNonNull(accumulatorFactory, "accumulatorFactory is null");
+        this.windowIndex = requireNonNull(windowIndex, "windowIndex is null");
+        this.argumentChannels = ImmutableList.copyOf(requireNonNull(argumentChannels, "argumentChannels is null"));
+        this.bucketSize = bucketSize;
+
+        int bucketCount = windowIndex.size() / bucketSize;
+        ImmutableList.Builder<Block> levels = ImmutableList.builder();
+        BlockBuilder buckets = null;
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            Accumulator accumulator = accumulatorFactory.createAccumulator(UpdateMemory.NOOP);
+            accumulator.addInput(windowIndex, argumentChannels, bucket * bucketSize, (bucket + 1) * bucketSize - 1);
+            if (buckets == null) {
+                buckets = accumulator.getIntermediateType().createBlockBuilder(null, bucketCount);
+            }
+            accumulator.evaluateIntermediate(buckets);
+        }
+        if (buckets != null) {
+            Block level = buckets.build();
+            levels.add(level);
+            while (level.getPositionCount() > 1) {
+                BlockBuilder runs = null;
+                for (int run = 0; run < level.getPositionCount(); run += 2) {
+                    Accumulator accumulator = accumulatorFactory.createAccumulator(UpdateMemory.NOOP);
+                    accumulator.addIntermediate(level.getRegion(run, Math.min(2, level.getPositionCount() - run)));
+                    if (runs == null) {
+                        runs = accumulator.getIntermediateType().createBlockBuilder(null, (level.getPositionCount() + 1) / 2);
+                    }
+                    accumulator.evaluateIntermediate(runs);
+                }
+                level = runs.build();
+                levels.add(level);
+            }
+        }
+        this.levels = levels.build();
+    }
+
+    /**
+     * The states are built outside of the memory context of the accumulators, and must be accounted by the caller.
+     */
+    public long getRetainedSizeInBytes()
+    {
+        long size = INSTANCE_SIZE;
+        for (Block level : levels) {
+            size += level.getRetainedSizeInBytes();
+        }
+        return size;
+    }
+
+    /**
+     * Adds the rows from {@code start} to {@code end}, inclusive, to the accumulator.
+     */
+    public void accumulate(Accumulator accumulator, int start, int end)
+    {
+        int firstBucket = (start + bucketSize - 1) / bucketSize;
+        int endBucket = (end + 1) / bucketSize;
+        if (firstBucket >= endBucket) {
+            accumulator.addInput(windowIndex, argumentChannels, start, end);
+            return;
+        }
+
+        if (start < firstBucket * bucketSize) {
+            accumulator.addInput(windowIndex, argumentChannels, start, firstBucket * bucketSize - 1);
+        }
+
+        // the runs on the right are found from the end of the frame backwards
+        List<Block> rightRuns = new ArrayList<>();
+        int left = firstBucket;
+        int right = endBucket;
+        for (int level = 0; left < right; level++) {
+            if ((left & 1) == 1) {
+                accumulator.addIntermediate(levels.get(level).getRegion(left, 1));
+                left++;
+            }
+            if ((right & 1) == 1) {
+                right--;
+                rightRuns.add(levels.get(level).getRegion(right, 1));
+            }
+            left >>= 1;
+            right >>= 1;
+        }
+        for (int i = rightRuns.size() - 1; i >= 0; i--) {
+            accumulator.addIntermediate(rightRuns.get(i));
+        }
+
+        if (endBucket * bucketSize <= end) {
+            accumulator.addInput(windowIndex, argumentChannels, endBucket * bucketSize, end);
+        }
+    }
+}
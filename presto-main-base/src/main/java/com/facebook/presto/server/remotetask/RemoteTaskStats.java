@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.server.remotetask;
 
+import com.facebook.airlift.stats.CounterStat;
 import com.facebook.airlift.stats.DistributionStat;
 import com.facebook.presto.server.SimpleHttpResponseHandlerStats;
 import org.weakref.jmx.Flatten;
@@ -29,6 +30,8 @@ public class RemoteTaskStats
     private final IncrementalAverage statusRoundTripMillis = new IncrementalAverage();
     private final DistributionStat updateWithPlanSize = new DistributionStat();
     private final DistributionStat updateWithoutPlanSize = new DistributionStat();
+    private final CounterStat infoUpdatesWithPipelines = new CounterStat();
+    private final CounterStat infoUpdatesWithoutPipelines = new CounterStat();
 
     public void statusRoundTripMillis(long roundTripMillis)
     {
@@ -55,6 +58,16 @@ public class RemoteTaskStats
         updateWithoutPlanSize.add(bytes);
     }
 
+    public void infoUpdateWithPipelines()
+    {
+        infoUpdatesWithPipelines.update(1);
+    }
+
+    public void infoUpdateWithoutPipelines()
+    {
+        infoUpdatesWithoutPipelines.update(1);
+    }
+
     @Managed
     @Flatten
     public SimpleHttpResponseHandlerStats getHttpResponseStats()
@@ -111,4 +124,18 @@ public class RemoteTaskStats
     {
         return updateWithoutPlanSize;
     }
+
+    @Managed
+    @Nested
+    public CounterStat getInfoUpdatesWithPipelines()
+    {
+        return infoUpdatesWithPipelines;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getInfoUpdatesWithoutPipelines()
+    {
+        return infoUpdatesWithoutPipelines;
+    }
 }
@@ -93,6 +93,8 @@ public class FeaturesConfig
     private int concurrentLifespansPerTask;
     private boolean spatialJoinsEnabled = true;
     private boolean fastInequalityJoins = true;
+    private int joinHashBuildParallelism = 1;
+    private boolean shareBroadcastJoinBuild;
     private TaskSpillingStrategy taskSpillingStrategy = ORDER_BY_CREATE_TIME;
     private boolean queryLimitSpillEnabled;
     private SingleStreamSpillerChoice singleStreamSpillerChoice = SingleStreamSpillerChoice.LOCAL_FILE;
@@ -187,6 +189,7 @@ public class FeaturesConfig
     private int dynamicFilteringRangeRowLimitPerDriver;
 
     private boolean fragmentResultCachingEnabled;
+    private boolean queryResultCachingEnabled;
 
     private DataSize filterAndProjectMinOutputPageSize = new DataSize(500, KILOBYTE);
     private int filterAndProjectMinOutputPageRowCount = 256;
@@ -755,6 +758,33 @@ public class FeaturesConfig
         return fastInequalityJoins;
     }
 
+    @Min(1)
+    public int getJoinHashBuildParallelism()
+    {
+        return joinHashBuildParallelism;
+    }
+
+    @Config("join-hash-build-parallelism")
+    @ConfigDescription("Number of threads that build the hash table of a join partition")
+    public FeaturesConfig setJoinHashBuildParallelism(int joinHashBuildParallelism)
+    {
+        this.joinHashBuildParallelism = joinHashBuildParallelism;
+        return this;
+    }
+
+    public boolean isShareBroadcastJoinBuild()
+    {
+        return shareBroadcastJoinBuild;
+    }
+
+    @Config("share-broadcast-join-build")
+    @ConfigDescription("Build the hash table of a broadcast join once per worker, and share it between the tasks of the query on the worker")
+    public FeaturesConfig setShareBroadcastJoinBuild(boolean shareBroadcastJoinBuild)
+    {
+        this.shareBroadcastJoinBuild = shareBroadcastJoinBuild;
+        return this;
+    }
+
     public JoinReorderingStrategy getJoinReorderingStrategy()
     {
         return joinReorderingStrategy;
@@ -1631,6 +1661,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isQueryResultCachingEnabled()
+    {
+        return queryResultCachingEnabled;
+    }
+
+    @Config("query-result-cache.enabled")
+    @ConfigDescription("Serve the results of deterministic queries from a result cache on the coordinator when the tables they read have not changed")
+    public FeaturesConfig setQueryResultCachingEnabled(boolean queryResultCachingEnabled)
+    {
+        this.queryResultCachingEnabled = queryResultCachingEnabled;
+        return this;
+    }
+
     public boolean isOptimizeMixedDistinctAggregations()
     {
         return optimizeMixedDistinctAggregations;
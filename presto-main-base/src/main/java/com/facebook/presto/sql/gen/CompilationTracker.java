@@ -0,0 +1,142 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Accumulates the cost of the classes that the current thread generates while the tracker is open,
+ * so that it can be attributed to the task, or the cache entry, that triggered the compilation.
+ * Trackers can be nested, in which case the classes are counted by all of the open trackers.
+ * Compiled functions that are served from the compiler caches are free, and are not counted.
+ * <p>
+ * The compile time of a class covers its code generation as well as its definition, when it is
+ * compiled through {@link #timeCompilation}. Otherwise only the time to define the class is known.
+ */
+public final class CompilationTracker
+        implements Closeable
+{
+    private static final ThreadLocal<CompilationTracker> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> TIMING = ThreadLocal.withInitial(() -> false);
+
+    private static final AtomicLong TOTAL_CLASSES = new AtomicLong();
+    private static final AtomicLong TOTAL_BYTECODE_SIZE = new AtomicLong();
+    private static final AtomicLong TOTAL_COMPILE_TIME_NANOS = new AtomicLong();
+
+    private final CompilationTracker parent;
+    private long classes;
+    private long bytecodeSize;
+    private long compileTimeNanos;
+
+    private CompilationTracker(CompilationTracker parent)
+    {
+        this.parent = parent;
+    }
+
+    public static CompilationTracker trackCompilation()
+    {
+        CompilationTracker tracker = new CompilationTracker(CURRENT.get());
+        CURRENT.set(tracker);
+        return tracker;
+    }
+
+    /**
+     * Runs the compilation and records its elapsed time. A compilation that runs inside another
+     * timed compilation, such as a function compiled while generating a join, is timed by the outer one.
+     */
+    public static <T> T timeCompilation(Supplier<T> compilation)
+    {
+        if (TIMING.get()) {
+            return compilation.get();
+        }
+        TIMING.set(true);
+        long start = System.nanoTime();
+        try {
+            return compilation.get();
+        }
+        finally {
+            TIMING.remove();
+            record(0, 0, System.nanoTime() - start);
+        }
+    }
+
+    public static void recordClassDefinition(long bytecodeSize, long defineTimeNanos)
+    {
+        // the time to define the class is part of the enclosing timed compilation, if there is one
+        record(1, bytecodeSize, TIMING.get() ? 0 : defineTimeNanos);
+    }
+
+    private static void record(long classes, long bytecodeSize, long compileTimeNanos)
+    {
+        TOTAL_CLASSES.addAndGet(classes);
+        TOTAL_BYTECODE_SIZE.addAndGet(bytecodeSize);
+        TOTAL_COMPILE_TIME_NANOS.addAndGet(compileTimeNanos);
+
+        CompilationTracker tracker = CURRENT.get();
+        if (tracker != null) {
+            tracker.add(classes, bytecodeSize, compileTimeNanos);
+        }
+    }
+
+    public static long getTotalClasses()
+    {
+        return TOTAL_CLASSES.get();
+    }
+
+    public static long getTotalBytecodeSize()
+    {
+        return TOTAL_BYTECODE_SIZE.get();
+    }
+
+    public static long getTotalCompileTimeNanos()
+    {
+        return TOTAL_COMPILE_TIME_NANOS.get();
+    }
+
+    public long getClasses()
+    {
+        return classes;
+    }
+
+    public long getBytecodeSize()
+    {
+        return bytecodeSize;
+    }
+
+    public long getCompileTimeNanos()
+    {
+        return compileTimeNanos;
+    }
+
+    @Override
+    public void close()
+    {
+        if (parent == null) {
+            CURRENT.remove();
+        }
+        else {
+            CURRENT.set(parent);
+            parent.add(classes, bytecodeSize, compileTimeNanos);
+        }
+    }
+
+    private void add(long classes, long bytecodeSize, long compileTimeNanos)
+    {
+        this.classes += classes;
+        this.bytecodeSize += bytecodeSize;
+        this.compileTimeNanos += compileTimeNanos;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.sql.planner.CompilerConfig;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.ForwardingLoadingCache;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalNotification;
+import jakarta.inject.Inject;
+import org.weakref.jmx.Managed;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import static com.facebook.presto.sql.gen.CompilationTracker.timeCompilation;
+import static com.facebook.presto.sql.gen.CompilationTracker.trackCompilation;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.cache.RemovalCause.SIZE;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Bounds the classes held by all of the compiler caches by the total size of their bytecode.
+ * <p>
+ * Every compiler cache keeps its own bound on the number of entries and its own statistics, and
+ * registers the bytecode size of each entry it loads in a ledger that is shared by all the caches.
+ * When the ledger exceeds the budget, it evicts the least recently used entries across the caches,
+ * and the owning caches drop them as well.
+ */
+public class CompilerCacheBudget
+{
+    private final Cache<LedgerKey, Integer> ledger;
+
+    @Inject
+    public CompilerCacheBudget(CompilerConfig config)
+    {
+        this(requireNonNull(config, "config is null").getMaxCachedBytecodeSize());
+    }
+
+    public CompilerCacheBudget(Optional<DataSize> maxBytecodeSize)
+    {
+        requireNonNull(maxBytecodeSize, "maxBytecodeSize is null");
+        // a single segment, so that the budget is not divided between the segments of the ledger
+        this.ledger = CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .maximumWeight(maxBytecodeSize.map(DataSize::toBytes).orElse(Long.MAX_VALUE))
+                .weigher((LedgerKey key, Integer bytecodeSize) -> bytecodeSize)
+                .removalListener((RemovalNotification<LedgerKey, Integer> notification) -> {
+                    if (notification.getCause() == SIZE) {
+                        notification.getKey().invalidate();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Builds a cache of compiled classes that is bounded by the number of entries, and by the shared budget.
+     * The compilations of the cache are timed, and their cost is counted by the open compilation trackers.
+     */
+    public <K, V> LoadingCache<K, V> buildCache(int maximumSize, Function<K, V> compiler)
+    {
+        return new BudgetedCache<>(maximumSize, compiler);
+    }
+
+    @Managed
+    public long getBytecodeSize()
+    {
+        return ledger.asMap().values().stream()
+                .mapToLong(Integer::longValue)
+                .sum();
+    }
+
+    public long getBytecodeSize(Cache<?, ?> cache)
+    {
+        return ledger.asMap().entrySet().stream()
+                .filter(entry -> entry.getKey().cache == cache)
+                .mapToLong(entry -> entry.getValue().longValue())
+                .sum();
+    }
+
+    private final class BudgetedCache<K, V>
+            extends ForwardingLoadingCache<K, V>
+    {
+        private final LoadingCache<K, V> delegate;
+
+        private BudgetedCache(int maximumSize, Function<K, V> compiler)
+        {
+            requireNonNull(compiler, "compiler is null");
+            this.delegate = CacheBuilder.newBuilder()
+                    .recordStats()
+                    .maximumSize(maximumSize)
+                    .removalListener((RemovalNotification<K, V> notification) -> ledger.invalidate(new LedgerKey(this, notification.getKey())))
+                    .build(CacheLoader.from(key -> load(key, compiler)));
+        }
+
+        @Override
+        protected LoadingCache<K, V> delegate()
+        {
+            return delegate;
+        }
+
+        @Override
+        public V get(K key)
+                throws ExecutionException
+        {
+            V value = delegate.get(key);
+            touch(key);
+            return value;
+        }
+
+        @Override
+        public V getUnchecked(K key)
+        {
+            V value = delegate.getUnchecked(key);
+            touch(key);
+            return value;
+        }
+
+        private V load(K key, Function<K, V> compiler)
+        {
+            try (CompilationTracker tracker = trackCompilation()) {
+                V value = timeCompilation(() -> compiler.apply(key));
+                ledger.put(new LedgerKey(this, key), toIntExact(min(tracker.getBytecodeSize(), Integer.MAX_VALUE)));
+                return value;
+            }
+        }
+
+        // keeps the entries that are in use from being evicted from the ledger, and drops the entries
+        // that were evicted from it while they were loading, such as the entries larger than the budget
+        private void touch(K key)
+        {
+            if (ledger.getIfPresent(new LedgerKey(this, key)) == null) {
+                delegate.invalidate(key);
+            }
+        }
+    }
+
+    private static final class LedgerKey
+    {
+        private final Cache<?, ?> cache;
+        private final Object key;
+
+        private LedgerKey(Cache<?, ?> cache, Object key)
+        {
+            this.cache = requireNonNull(cache, "cache is null");
+            this.key = requireNonNull(key, "key is null");
+        }
+
+        public void invalidate()
+        {
+            cache.invalidate(key);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            LedgerKey that = (LedgerKey) o;
+            return cache == that.cache && key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(System.identityHashCode(cache), key);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("cache", System.identityHashCode(cache))
+                    .add("key", key)
+                    .toString();
+        }
+    }
+}
@@ -27,8 +27,6 @@ import com.facebook.presto.spi.function.SqlFunctionId;
 import com.facebook.presto.spi.function.SqlInvokedFunction;
 import com.facebook.presto.spi.relation.RowExpression;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.UncheckedExecutionException;
@@ -65,20 +63,22 @@ public class ExpressionCompiler
     private final LoadingCache<CacheKey, Class<? extends CursorProcessor>> cursorProcessors;
     private final CacheStatsMBean cacheStatsMBean;
 
-    @Inject
     public ExpressionCompiler(Metadata metadata, PageFunctionCompiler pageFunctionCompiler)
+    {
+        this(metadata, pageFunctionCompiler, new CompilerCacheBudget(Optional.empty()));
+    }
+
+    @Inject
+    public ExpressionCompiler(Metadata metadata, PageFunctionCompiler pageFunctionCompiler, CompilerCacheBudget cacheBudget)
     {
         requireNonNull(metadata, "metadata is null");
         this.pageFunctionCompiler = requireNonNull(pageFunctionCompiler, "pageFunctionCompiler is null");
-        this.cursorProcessors = CacheBuilder.newBuilder()
-                .recordStats()
-                .maximumSize(1000)
-                .build(CacheLoader.from(key -> compile(
-                        key.getSqlFunctionProperties(),
-                        key.getFilter(),
-                        key.getProjections(),
-                        new CursorProcessorCompiler(metadata, key.isOptimizeCommonSubExpression(), key.getSessionFunctions()),
-                        CursorProcessor.class)));
+        this.cursorProcessors = requireNonNull(cacheBudget, "cacheBudget is null").buildCache(1000, key -> compile(
+                key.getSqlFunctionProperties(),
+                key.getFilter(),
+                key.getProjections(),
+                new CursorProcessorCompiler(metadata, key.isOptimizeCommonSubExpression(), key.getSessionFunctions()),
+                CursorProcessor.class));
 
         this.cacheStatsMBean = new CacheStatsMBean(cursorProcessors);
     }
@@ -38,8 +38,6 @@ import com.facebook.presto.spi.relation.LambdaDefinitionExpression;
 import com.facebook.presto.spi.relation.RowExpression;
 import com.facebook.presto.spi.relation.RowExpressionVisitor;
 import com.facebook.presto.sql.gen.LambdaBytecodeGenerator.CompiledLambda;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import jakarta.inject.Inject;
@@ -72,16 +70,20 @@ public class JoinFilterFunctionCompiler
 {
     private final Metadata metadata;
 
-    @Inject
+    private final LoadingCache<JoinFilterCacheKey, JoinFilterFunctionFactory> joinFilterFunctionFactories;
+
     public JoinFilterFunctionCompiler(Metadata metadata)
     {
-        this.metadata = metadata;
+        this(metadata, new CompilerCacheBudget(Optional.empty()));
     }
 
-    private final LoadingCache<JoinFilterCacheKey, JoinFilterFunctionFactory> joinFilterFunctionFactories = CacheBuilder.newBuilder()
-            .recordStats()
-            .maximumSize(1000)
-            .build(CacheLoader.from(key -> internalCompileFilterFunctionFactory(key.getSqlFunctionProperties(), key.getSessionFunctions(), key.getFilter(), key.getLeftBlocksSize())));
+    @Inject
+    public JoinFilterFunctionCompiler(Metadata metadata, CompilerCacheBudget cacheBudget)
+    {
+        this.metadata = metadata;
+        this.joinFilterFunctionFactories = requireNonNull(cacheBudget, "cacheBudget is null").buildCache(1000, key ->
+                internalCompileFilterFunctionFactory(key.getSqlFunctionProperties(), key.getSessionFunctions(), key.getFilter(), key.getLeftBlocksSize()));
+    }
 
     @Managed
     @Nested
@@ -58,8 +58,6 @@ import com.facebook.presto.sql.planner.CompilerConfig;
 import com.facebook.presto.sql.relational.RowExpressionDeterminismEvaluator;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -70,6 +68,7 @@ import jakarta.inject.Inject;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
 
+import java.lang.invoke.MethodHandle;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -109,6 +108,7 @@ import static com.facebook.presto.sql.gen.CommonSubExpressionRewriter.CommonSubE
 import static com.facebook.presto.sql.gen.CommonSubExpressionRewriter.collectCSEByLevel;
 import static com.facebook.presto.sql.gen.CommonSubExpressionRewriter.getExpressionsPartitionedByCSE;
 import static com.facebook.presto.sql.gen.CommonSubExpressionRewriter.rewriteExpressionWithCSE;
+import static com.facebook.presto.sql.gen.CompilationTracker.timeCompilation;
 import static com.facebook.presto.sql.gen.LambdaBytecodeGenerator.generateMethodsForLambda;
 import static com.facebook.presto.sql.relational.Expressions.subExpressions;
 import static com.facebook.presto.util.CompilerUtils.defineClass;
@@ -134,28 +134,34 @@ public class PageFunctionCompiler
     private final Metadata metadata;
     private final DeterminismEvaluator determinismEvaluator;
 
-    private final LoadingCache<CacheKey, Supplier<PageProjection>> projectionCache;
+    private final CompilerCacheBudget cacheBudget;
+    private final LoadingCache<CacheKey, CompiledProjection> projectionCache;
     private final LoadingCache<CacheKey, Supplier<PageFilter>> filterCache;
 
     private final CacheStatsMBean projectionCacheStats;
     private final CacheStatsMBean filterCacheStats;
 
     @Inject
-    public PageFunctionCompiler(Metadata metadata, CompilerConfig config)
+    public PageFunctionCompiler(Metadata metadata, CompilerConfig config, CompilerCacheBudget cacheBudget)
     {
-        this(metadata, requireNonNull(config, "config is null").getExpressionCacheSize());
+        this(metadata, requireNonNull(config, "config is null").getExpressionCacheSize(), cacheBudget);
     }
 
     public PageFunctionCompiler(Metadata metadata, int expressionCacheSize)
+    {
+        this(metadata, expressionCacheSize, new CompilerCacheBudget(Optional.empty()));
+    }
+
+    public PageFunctionCompiler(Metadata metadata, int expressionCacheSize, CompilerCacheBudget cacheBudget)
     {
         this.metadata = requireNonNull(metadata, "metadata is null");
         this.determinismEvaluator = new RowExpressionDeterminismEvaluator(metadata.getFunctionAndTypeManager());
+        this.cacheBudget = requireNonNull(cacheBudget, "cacheBudget is null");
 
         if (expressionCacheSize > 0) {
-            projectionCache = CacheBuilder.newBuilder()
-                    .recordStats()
-                    .maximumSize(expressionCacheSize)
-                    .build(CacheLoader.from(cacheKey -> compileProjectionInternal(cacheKey.sqlFunctionProperties, cacheKey.sessionFunctions, cacheKey.rowExpressions, cacheKey.isOptimizeCommonSubExpression, Optional.empty())));
+            projectionCache = cacheBudget.buildCache(
+                    expressionCacheSize,
+                    cacheKey -> compileProjectionInternal(cacheKey.sqlFunctionProperties, cacheKey.sessionFunctions, cacheKey.rowExpressions, cacheKey.isOptimizeCommonSubExpression, Optional.empty()));
             projectionCacheStats = new CacheStatsMBean(projectionCache);
         }
         else {
@@ -164,10 +170,9 @@ public class PageFunctionCompiler
         }
 
         if (expressionCacheSize > 0) {
-            filterCache = CacheBuilder.newBuilder()
-                    .recordStats()
-                    .maximumSize(expressionCacheSize)
-                    .build(CacheLoader.from(cacheKey -> compileFilterInternal(cacheKey.sqlFunctionProperties, cacheKey.sessionFunctions, cacheKey.rowExpressions.get(0), cacheKey.isOptimizeCommonSubExpression, Optional.empty())));
+            filterCache = cacheBudget.buildCache(
+                    expressionCacheSize,
+                    cacheKey -> compileFilterInternal(cacheKey.sqlFunctionProperties, cacheKey.sessionFunctions, cacheKey.rowExpressions.get(0), cacheKey.isOptimizeCommonSubExpression, Optional.empty()));
             filterCacheStats = new CacheStatsMBean(filterCache);
         }
         else {
@@ -192,6 +197,44 @@ public class PageFunctionCompiler
         return filterCacheStats;
     }
 
+    @Managed
+    public long getProjectionCacheBytecodeSize()
+    {
+        return projectionCache == null ? 0 : cacheBudget.getBytecodeSize(projectionCache);
+    }
+
+    @Managed
+    public long getFilterCacheBytecodeSize()
+    {
+        return filterCache == null ? 0 : cacheBudget.getBytecodeSize(filterCache);
+    }
+
+    // the classes held by all the compiler caches that share the budget
+    @Managed
+    public long getCachedBytecodeSize()
+    {
+        return cacheBudget.getBytecodeSize();
+    }
+
+    // the classes generated by all the compilers, including the ones that are not cached
+    @Managed
+    public long getGeneratedClasses()
+    {
+        return CompilationTracker.getTotalClasses();
+    }
+
+    @Managed
+    public long getGeneratedBytecodeSize()
+    {
+        return CompilationTracker.getTotalBytecodeSize();
+    }
+
+    @Managed
+    public long getCompileTimeNanos()
+    {
+        return CompilationTracker.getTotalCompileTimeNanos();
+    }
+
     public List<Supplier<PageProjectionWithOutputs>> compileProjections(
             SqlFunctionProperties sqlFunctionProperties,
             Map<SqlFunctionId, SqlInvokedFunction> sessionFunctions,
@@ -289,11 +332,19 @@ public class PageFunctionCompiler
             boolean isOptimizeCommonSubExpression,
             Optional<String> classNameSuffix)
     {
+        requireNonNull(projections, "projections is null");
+        checkArgument(!projections.isEmpty() && projections.stream().allMatch(projection -> projection instanceof CallExpression || projection instanceof SpecialFormExpression));
+
+        // The generated class reads its inputs from a page that only contains the input channels, so it is keyed on the
+        // rewritten projections, and it is shared by the projections that only differ in the channels they read from.
+        PageFieldsToInputParametersRewriter.Result result = rewritePageFieldsToInputParameters(projections);
         if (projectionCache == null) {
-            return compileProjectionInternal(sqlFunctionProperties, sessionFunctions, projections, isOptimizeCommonSubExpression, classNameSuffix);
+            return timeCompilation(() -> compileProjectionInternal(sqlFunctionProperties, sessionFunctions, result.getRewrittenExpressions(), isOptimizeCommonSubExpression, classNameSuffix))
+                    .bind(result.getInputChannels());
         }
         try {
-            return projectionCache.getUnchecked(new CacheKey(sqlFunctionProperties, sessionFunctions, projections, isOptimizeCommonSubExpression));
+            return projectionCache.getUnchecked(new CacheKey(sqlFunctionProperties, sessionFunctions, result.getRewrittenExpressions(), isOptimizeCommonSubExpression))
+                    .bind(result.getInputChannels());
         }
         catch (UncheckedExecutionException e) {
             throwIfInstanceOf(e.getCause(), PrestoException.class);
@@ -306,26 +357,20 @@ public class PageFunctionCompiler
         return () -> new PageProjectionWithOutputs(pageProjection.get(), outputChannels);
     }
 
-    private Supplier<PageProjection> compileProjectionInternal(
+    private CompiledProjection compileProjectionInternal(
             SqlFunctionProperties sqlFunctionProperties,
             Map<SqlFunctionId, SqlInvokedFunction> sessionFunctions,
             List<RowExpression> projections,
             boolean isOptimizeCommonSubExpression,
             Optional<String> classNameSuffix)
     {
-        requireNonNull(projections, "projections is null");
-        checkArgument(!projections.isEmpty() && projections.stream().allMatch(projection -> projection instanceof CallExpression || projection instanceof SpecialFormExpression));
-
-        PageFieldsToInputParametersRewriter.Result result = rewritePageFieldsToInputParameters(projections);
-        List<RowExpression> rewrittenExpression = result.getRewrittenExpressions();
-
         CallSiteBinder callSiteBinder = new CallSiteBinder();
 
         // generate Work
         ClassDefinition pageProjectionWorkDefinition = definePageProjectWorkClass(
                 sqlFunctionProperties,
                 sessionFunctions,
-                rewrittenExpression,
+                projections,
                 callSiteBinder,
                 isOptimizeCommonSubExpression,
                 classNameSuffix);
@@ -341,10 +386,9 @@ public class PageFunctionCompiler
             throw new PrestoException(COMPILER_ERROR, e);
         }
 
-        return () -> new GeneratedPageProjection(
-                rewrittenExpression,
-                rewrittenExpression.stream().allMatch(determinismEvaluator::isDeterministic),
-                result.getInputChannels(),
+        return new CompiledProjection(
+                projections,
+                projections.stream().allMatch(determinismEvaluator::isDeterministic),
                 constructorMethodHandle(pageProjectionWorkClass, List.class, SqlFunctionProperties.class, Page.class, SelectedPositions.class));
     }
 
@@ -652,7 +696,7 @@ public class PageFunctionCompiler
             Optional<String> classNameSuffix)
     {
         if (filterCache == null) {
-            return compileFilterInternal(sqlFunctionProperties, sessionFunctions, filter, isOptimizeCommonSubExpression, classNameSuffix);
+            return timeCompilation(() -> compileFilterInternal(sqlFunctionProperties, sessionFunctions, filter, isOptimizeCommonSubExpression, classNameSuffix));
         }
         try {
             return filterCache.getUnchecked(new CacheKey(sqlFunctionProperties, sessionFunctions, ImmutableList.of(filter), isOptimizeCommonSubExpression));
@@ -978,6 +1022,25 @@ public class PageFunctionCompiler
         }
     }
 
+    private static final class CompiledProjection
+    {
+        private final List<RowExpression> projections;
+        private final boolean isDeterministic;
+        private final MethodHandle pageProjectionWorkFactory;
+
+        private CompiledProjection(List<RowExpression> projections, boolean isDeterministic, MethodHandle pageProjectionWorkFactory)
+        {
+            this.projections = ImmutableList.copyOf(requireNonNull(projections, "projections is null"));
+            this.isDeterministic = isDeterministic;
+            this.pageProjectionWorkFactory = requireNonNull(pageProjectionWorkFactory, "pageProjectionWorkFactory is null");
+        }
+
+        public Supplier<PageProjection> bind(InputChannels inputChannels)
+        {
+            return () -> new GeneratedPageProjection(projections, isDeterministic, inputChannels, pageProjectionWorkFactory);
+        }
+    }
+
     private static final class CacheKey
     {
         private final SqlFunctionProperties sqlFunctionProperties;
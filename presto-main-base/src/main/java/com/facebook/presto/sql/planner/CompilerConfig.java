@@ -16,13 +16,19 @@ package com.facebook.presto.sql.planner;
 import com.facebook.airlift.configuration.Config;
 import com.facebook.airlift.configuration.ConfigDescription;
 import com.facebook.airlift.configuration.DefunctConfig;
+import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.spi.function.Description;
+import jakarta.annotation.Nullable;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Optional;
 
 @DefunctConfig("compiler.interpreter-enabled")
 public class CompilerConfig
 {
     private int expressionCacheSize = 10_000;
+    private Optional<DataSize> maxCachedBytecodeSize = Optional.empty();
     private int leafNodeLimit = 10_000;
     private boolean leafNodeLimitEnabled;
 
@@ -40,6 +46,20 @@ public class CompilerConfig
         return this;
     }
 
+    @NotNull
+    public Optional<DataSize> getMaxCachedBytecodeSize()
+    {
+        return maxCachedBytecodeSize;
+    }
+
+    @Config("compiler.max-cached-bytecode-size")
+    @ConfigDescription("Bound the total size of the bytecode of the classes held by the compiler caches")
+    public CompilerConfig setMaxCachedBytecodeSize(@Nullable DataSize maxCachedBytecodeSize)
+    {
+        this.maxCachedBytecodeSize = Optional.ofNullable(maxCachedBytecodeSize);
+        return this;
+    }
+
     public int getLeafNodeLimit()
     {
         return this.leafNodeLimit;
@@ -290,6 +290,7 @@ import static com.facebook.presto.SystemSessionProperties.isOptimizeCommonSubExp
 import static com.facebook.presto.SystemSessionProperties.isOptimizeJoinProbeForEmptyBuildRuntimeEnabled;
 import static com.facebook.presto.SystemSessionProperties.isOptimizedRepartitioningEnabled;
 import static com.facebook.presto.SystemSessionProperties.isQuickDistinctLimitEnabled;
+import static com.facebook.presto.SystemSessionProperties.isShareBroadcastJoinBuild;
 import static com.facebook.presto.SystemSessionProperties.isSpillEnabled;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.TypeSignature.parseTypeSignature;
@@ -2526,6 +2527,12 @@ public class LocalExecutionPlanner
             // Determine if planning broadcast join
             Optional<JoinDistributionType> distributionType = node.getDistributionType();
             boolean isBroadcastJoin = distributionType.isPresent() && distributionType.get() == REPLICATED;
+            boolean buildSpillEnabled = spillEnabled && partitionCount > 1;
+            // every task of the stage receives the whole build side of a broadcast join
+            boolean shareLookupSource = isBroadcastJoin &&
+                    !buildSpillEnabled &&
+                    buildSource.getPipelineExecutionStrategy() == UNGROUPED_EXECUTION &&
+                    isShareBroadcastJoinBuild(context.getSession());
 
             HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(
                     buildContext.getNextOperatorId(),
@@ -2539,9 +2546,10 @@ public class LocalExecutionPlanner
                     searchFunctionFactories,
                     10_000,
                     pagesIndexFactory,
-                    spillEnabled && partitionCount > 1,
+                    buildSpillEnabled,
                     singleStreamSpillerFactory,
-                    isBroadcastJoin);
+                    isBroadcastJoin,
+                    shareLookupSource);
 
             factoriesBuilder.add(hashBuilderOperatorFactory);
 
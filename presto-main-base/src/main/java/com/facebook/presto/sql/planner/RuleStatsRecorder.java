@@ -16,6 +16,7 @@ package com.facebook.presto.sql.planner;
 import com.facebook.presto.sql.planner.iterative.IterativeOptimizer;
 import com.facebook.presto.sql.planner.iterative.Rule;
 import com.facebook.presto.sql.planner.iterative.RuleStats;
+import com.facebook.presto.sql.planner.optimizations.OptimizerStats;
 import org.weakref.jmx.MBeanExporter;
 import org.weakref.jmx.ObjectNames;
 
@@ -30,6 +31,7 @@ import static java.lang.String.format;
 public class RuleStatsRecorder
 {
     private final Map<Class<?>, RuleStats> stats = new HashMap<>();
+    private final OptimizerStats optimizerStats = new OptimizerStats();
 
     public void registerAll(Collection<Rule<?>> rules)
     {
@@ -49,8 +51,20 @@ public class RuleStatsRecorder
         stats.get(rule.getClass()).recordFailure();
     }
 
+    public void recordOptimizer(long nanos, long memoGroups, long exploredGroups)
+    {
+        optimizerStats.record(nanos);
+        optimizerStats.recordMemo(memoGroups, exploredGroups);
+    }
+
+    public void recordOptimizerFailure()
+    {
+        optimizerStats.recordFailure();
+    }
+
     public void export(MBeanExporter exporter)
     {
+        exporter.export(getOptimizerName(), optimizerStats);
         for (Map.Entry<Class<?>, RuleStats> entry : stats.entrySet()) {
             verify(!entry.getKey().getSimpleName().isEmpty());
             String name = ObjectNames.builder(IterativeOptimizer.class)
@@ -68,6 +82,7 @@ public class RuleStatsRecorder
 
     public void unexport(MBeanExporter exporter)
     {
+        exporter.unexport(getOptimizerName());
         for (Class<?> rule : stats.keySet()) {
             String name = ObjectNames.builder(IterativeOptimizer.class)
                     .withProperty("rule", rule.getSimpleName())
@@ -76,4 +91,12 @@ public class RuleStatsRecorder
             exporter.unexport(name);
         }
     }
+
+    // the stats of all the iterative optimizers together
+    private static String getOptimizerName()
+    {
+        return ObjectNames.builder(IterativeOptimizer.class)
+                .withProperty("optimizer", IterativeOptimizer.class.getSimpleName())
+                .build();
+    }
 }
@@ -136,7 +136,15 @@ public class IterativeOptimizer
                 TypeProvider.viewOf(variableAllocator.getVariables()));
         CostProvider costProvider = new CachingCostProvider(costCalculator, statsProvider, Optional.of(memo), session);
         Context context = new Context(memo, lookup, idAllocator, variableAllocator, System.nanoTime(), timeout.toMillis(), session, warningCollector, costProvider, statsProvider, metadata, types);
-        boolean planChanged = exploreGroup(memo.getRootGroup(), context, matcher);
+        boolean planChanged;
+        try {
+            planChanged = exploreGroup(memo.getRootGroup(), context, matcher);
+        }
+        catch (RuntimeException e) {
+            stats.recordOptimizerFailure();
+            throw e;
+        }
+        stats.recordOptimizer(System.nanoTime() - context.startTimeInNanos, memo.getGroupCount(), context.exploredGroups);
         context.collectOptimizerInformation();
         if (!planChanged) {
             return PlanOptimizerResult.optimizerResult(plan, false);
@@ -147,6 +155,13 @@ public class IterativeOptimizer
 
     private boolean exploreGroup(int group, Context context, Matcher matcher)
     {
+        // no rule applied to this group or to its descendants, and none of them changed since,
+        // so exploring it again cannot change it either
+        if (context.memo.isExplored(group)) {
+            return false;
+        }
+        context.exploredGroups++;
+
         // tracks whether this group or any children groups change as
         // this method executes
         boolean progress = exploreNode(group, context, matcher);
@@ -162,6 +177,7 @@ public class IterativeOptimizer
             }
         }
 
+        context.memo.markExplored(group);
         return progress;
     }
 
@@ -406,6 +422,7 @@ public class IterativeOptimizer
         private final Set<String> rulesApplicable;
         private final Metadata metadata;
         private final TypeProvider types;
+        private long exploredGroups;
 
         public Context(
                 Memo memo,
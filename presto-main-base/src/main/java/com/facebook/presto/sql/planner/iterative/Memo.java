@@ -61,6 +61,10 @@ import static java.util.Objects.requireNonNull;
  * </pre>
  * Groups are reference-counted, and groups that become unreachable from the root
  * due to mutations in a subtree get garbage-collected.
+ * <p>
+ * A group can be marked as explored once no rule applies to it or to any of its
+ * descendants, so that it does not have to be explored again. The mark is cleared
+ * when the group or any of its descendants is mutated.
  */
 public class Memo
 {
@@ -154,6 +158,7 @@ public class Memo
         }
         decrementReferenceCounts(old, group);
         evictStatisticsAndCost(group);
+        clearExplored(group);
 
         return node;
     }
@@ -161,6 +166,27 @@ public class Memo
     public void assignStatsEquivalentPlanNode(GroupReference reference, Optional<PlanNode> statsEquivalentPlanNode)
     {
         getGroup(reference.getGroupId()).assignStatsEquivalentPlanNode(statsEquivalentPlanNode);
+        clearExplored(reference.getGroupId());
+    }
+
+    public boolean isExplored(int group)
+    {
+        return getGroup(group).explored;
+    }
+
+    public void markExplored(int group)
+    {
+        getGroup(group).explored = true;
+    }
+
+    private void clearExplored(int group)
+    {
+        getGroup(group).explored = false;
+        for (int parentGroup : getGroup(group).incomingReferences.elementSet()) {
+            if (parentGroup != ROOT_GROUP_REF && groups.get(parentGroup).explored) {
+                clearExplored(parentGroup);
+            }
+        }
     }
 
     private void evictStatisticsAndCost(int group)
@@ -286,6 +312,7 @@ public class Memo
         private PlanNodeStatsEstimate stats;
         @Nullable
         private PlanCostEstimate cost;
+        private boolean explored;
 
         private Group(PlanNode member, Optional<LogicalProperties> logicalProperties)
         {
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.sql.planner.optimizations;
 
+import com.facebook.airlift.stats.DistributionStat;
 import com.facebook.airlift.stats.TimeDistribution;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
@@ -24,12 +25,20 @@ public class OptimizerStats
 {
     private final AtomicLong failures = new AtomicLong();
     private final TimeDistribution time = new TimeDistribution(TimeUnit.MICROSECONDS);
+    private final DistributionStat memoGroups = new DistributionStat();
+    private final DistributionStat exploredGroups = new DistributionStat();
 
     public void record(long nanos)
     {
         time.add(nanos);
     }
 
+    public void recordMemo(long memoGroups, long exploredGroups)
+    {
+        this.memoGroups.add(memoGroups);
+        this.exploredGroups.add(exploredGroups);
+    }
+
     public void recordFailure()
     {
         failures.incrementAndGet();
@@ -42,6 +51,27 @@ public class OptimizerStats
         return time;
     }
 
+    /**
+     * Number of groups in the memo of an iterative optimizer once the plan is optimized
+     */
+    @Managed
+    @Nested
+    public DistributionStat getMemoGroups()
+    {
+        return memoGroups;
+    }
+
+    /**
+     * Number of times the groups of the memo were explored, which grows with the number
+     * of groups that changed while the plan was optimized
+     */
+    @Managed
+    @Nested
+    public DistributionStat getExploredGroups()
+    {
+        return exploredGroups;
+    }
+
     @Managed
     public long getFailures()
     {
@@ -31,6 +31,7 @@ import static com.facebook.presto.bytecode.BytecodeUtils.toJavaIdentifierString;
 import static com.facebook.presto.bytecode.ClassGenerator.classGenerator;
 import static com.facebook.presto.bytecode.ParameterizedType.typeFromJavaClassName;
 import static com.facebook.presto.spi.StandardErrorCode.GENERATED_BYTECODE_TOO_LARGE;
+import static com.facebook.presto.sql.gen.CompilationTracker.recordClassDefinition;
 import static java.time.ZoneOffset.UTC;
 
 public final class CompilerUtils
@@ -65,8 +66,12 @@ public final class CompilerUtils
     public static <T> Class<? extends T> defineClass(ClassDefinition classDefinition, Class<T> superType, DynamicClassLoader classLoader)
     {
         log.debug("Defining class: %s", classDefinition.getName());
+        long start = System.nanoTime();
+        long bytecodeSize = classLoader.getBytecodeSize();
         try {
-            return classGenerator(classLoader).defineClass(classDefinition, superType);
+            Class<? extends T> definedClass = classGenerator(classLoader).defineClass(classDefinition, superType);
+            recordClassDefinition(classLoader.getBytecodeSize() - bytecodeSize, System.nanoTime() - start);
+            return definedClass;
         }
         catch (ByteCodeTooLargeException byteCodeTooLargeException) {
             throw new PrestoException(GENERATED_BYTECODE_TOO_LARGE, ERROR_LARGE_BYTECODE);
@@ -39,6 +39,7 @@ public class TestNodeSchedulerConfig
                 .setScheduleSplitsBasedOnTaskLoad(false)
                 .setMaxPendingSplitsPerTask(10)
                 .setMaxUnacknowledgedSplitsPerTask(500)
+                .setMaxSplitsPerTaskUpdate(250)
                 .setIncludeCoordinator(true)
                 .setNodeSelectionHashStrategy(MODULAR_HASHING)
                 .setMinVirtualNodeCount(1000)
@@ -55,6 +56,7 @@ public class TestNodeSchedulerConfig
                 .put("node-scheduler.include-coordinator", "false")
                 .put("node-scheduler.max-pending-splits-per-task", "11")
                 .put("node-scheduler.max-unacknowledged-splits-per-task", "501")
+                .put("node-scheduler.max-splits-per-task-update", "100")
                 .put("node-scheduler.max-splits-per-node", "101")
                 .put("node-scheduler.max-splits-per-task", "17")
                 .put("node-scheduler.schedule-splits-based-on-task-load", "true")
@@ -72,6 +74,7 @@ public class TestNodeSchedulerConfig
                 .setScheduleSplitsBasedOnTaskLoad(true)
                 .setMaxPendingSplitsPerTask(11)
                 .setMaxUnacknowledgedSplitsPerTask(501)
+                .setMaxSplitsPerTaskUpdate(100)
                 .setMinCandidates(11)
                 .setNodeSelectionHashStrategy(CONSISTENT_HASHING)
                 .setMinVirtualNodeCount(2000)
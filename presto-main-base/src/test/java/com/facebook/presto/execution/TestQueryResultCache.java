@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.spi.page.SerializedPage;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestQueryResultCache
+{
+    @Test
+    public void testGetAndPut()
+    {
+        QueryResultCache cache = new QueryResultCache(new QueryResultCacheConfig());
+        assertFalse(cache.get("key").isPresent());
+
+        List<SerializedPage> pages = ImmutableList.of(createPage(100, 1), createPage(200, 2));
+        cache.put("key", pages);
+        List<SerializedPage> cachedPages = cache.get("key").get();
+        assertEquals(cachedPages.size(), 2);
+        for (int i = 0; i < pages.size(); i++) {
+            assertEquals(cachedPages.get(i).getSlice(), pages.get(i).getSlice());
+            assertEquals(cachedPages.get(i).getPositionCount(), pages.get(i).getPositionCount());
+        }
+        assertEquals(QueryResultCache.getSizeInBytes(cachedPages), 300);
+        assertFalse(cache.get("other").isPresent());
+        assertEquals(cache.getEntries(), 1);
+    }
+
+    @Test
+    public void testMaxEntrySize()
+    {
+        QueryResultCache cache = new QueryResultCache(new QueryResultCacheConfig().setMaxEntrySize(new DataSize(250, BYTE)));
+        assertEquals(cache.getMaxEntrySizeInBytes(), 250);
+
+        cache.put("small", ImmutableList.of(createPage(200, 1)));
+        cache.put("large", ImmutableList.of(createPage(200, 1), createPage(100, 1)));
+        assertTrue(cache.get("small").isPresent());
+        assertFalse(cache.get("large").isPresent());
+    }
+
+    @Test
+    public void testEvictionBySize()
+    {
+        QueryResultCache cache = new QueryResultCache(new QueryResultCacheConfig().setMaxSize(new DataSize(8, KILOBYTE)));
+        for (int i = 0; i < 20; i++) {
+            cache.put("key" + i, ImmutableList.of(createPage(1000, 1)));
+        }
+        assertTrue(cache.getEntries() < 20);
+        assertTrue(cache.getRetainedSizeInBytes() <= new DataSize(8, KILOBYTE).toBytes());
+    }
+
+    private static SerializedPage createPage(int size, int positionCount)
+    {
+        return new SerializedPage(wrappedBuffer(new byte[size]), (byte) 0, positionCount, size, 0);
+    }
+}
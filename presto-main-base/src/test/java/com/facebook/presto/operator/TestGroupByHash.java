@@ -45,6 +45,7 @@ import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
+import static com.facebook.presto.operator.UpdateMemory.NOOP;
 import static com.facebook.presto.type.TypeUtils.getHashBlock;
 import static com.google.common.math.DoubleMath.log2;
 import static org.testng.Assert.assertEquals;
@@ -474,4 +475,53 @@ public class TestGroupByHash
         assertEquals(currentQuota.get(), 10 * 2);
         assertEquals(currentQuota.get() / 3 / 2, yields);
     }
+
+    @Test
+    public void testMultiChannelDictionary()
+    {
+        GroupByHash dictionaryGroupByHash = createGroupByHash(ImmutableList.of(VARCHAR, BIGINT), new int[] {0, 1}, Optional.empty(), 100, true, JOIN_COMPILER, NOOP);
+        GroupByHash groupByHash = createGroupByHash(ImmutableList.of(VARCHAR, BIGINT), new int[] {0, 1}, Optional.empty(), 100, false, JOIN_COMPILER, NOOP);
+
+        Block varcharDictionary = createStringSequenceBlock(0, 10);
+        Block bigintDictionary = createLongSequenceBlock(0, 5);
+        int positionCount = 1_000;
+        int[] varcharIds = IntStream.range(0, positionCount).map(position -> position % 10).toArray();
+        int[] bigintIds = IntStream.range(0, positionCount).map(position -> (position / 7) % 5).toArray();
+        Page page = new Page(
+                new DictionaryBlock(varcharDictionary, varcharIds),
+                new DictionaryBlock(bigintDictionary, bigintIds));
+        // same values, but with new dictionaries, as if read from the next stripe
+        Page nextStripePage = new Page(
+                new DictionaryBlock(createStringSequenceBlock(0, 10), varcharIds),
+                new DictionaryBlock(createLongSequenceBlock(0, 5), bigintIds));
+
+        for (Page input : ImmutableList.of(page, page, nextStripePage)) {
+            Work<GroupByIdBlock> dictionaryWork = dictionaryGroupByHash.getGroupIds(input);
+            assertTrue(dictionaryWork.process());
+            Work<GroupByIdBlock> work = groupByHash.getGroupIds(input);
+            assertTrue(work.process());
+
+            GroupByIdBlock dictionaryGroupIds = dictionaryWork.getResult();
+            GroupByIdBlock groupIds = work.getResult();
+            assertEquals(dictionaryGroupIds.getGroupCount(), 50);
+            for (int position = 0; position < positionCount; position++) {
+                assertEquals(dictionaryGroupIds.getGroupId(position), groupIds.getGroupId(position));
+            }
+        }
+
+        // a few rows over large new dictionaries are hashed rather than looked back
+        Page smallPage = new Page(
+                new DictionaryBlock(createStringSequenceBlock(0, 1_000), new int[] {0, 1, 0, 999}),
+                new DictionaryBlock(createLongSequenceBlock(0, 50), new int[] {0, 1, 0, 49}));
+        Work<GroupByIdBlock> dictionaryWork = dictionaryGroupByHash.getGroupIds(smallPage);
+        assertTrue(dictionaryWork.process());
+        Work<GroupByIdBlock> work = groupByHash.getGroupIds(smallPage);
+        assertTrue(work.process());
+        GroupByIdBlock dictionaryGroupIds = dictionaryWork.getResult();
+        GroupByIdBlock groupIds = work.getResult();
+        assertEquals(dictionaryGroupIds.getGroupCount(), 51);
+        for (int position = 0; position < smallPage.getPositionCount(); position++) {
+            assertEquals(dictionaryGroupIds.getGroupId(position), groupIds.getGroupId(position));
+        }
+    }
 }
@@ -103,6 +103,7 @@ import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toList;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
@@ -748,6 +749,46 @@ public class TestHashJoinOperator
         assertOperatorEquals(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput, expected, true, getHashChannels(probePages, buildPages));
     }
 
+    @Test(dataProvider = "hashJoinTestValues")
+    public void testInnerJoinWithNullProbeAcrossLookupBatches(boolean parallelBuild, boolean probeHashEnabled, boolean buildHashEnabled)
+    {
+        TaskContext taskContext = createTaskContext();
+
+        // build factory
+        List<Type> buildTypes = ImmutableList.of(BIGINT);
+        RowPagesBuilder buildPages = rowPagesBuilder(buildHashEnabled, Ints.asList(0), buildTypes);
+        for (long key = 0; key < 100; key++) {
+            buildPages.row(key);
+        }
+        BuildSideSetup buildSideSetup = setupBuildSide(parallelBuild, taskContext, Ints.asList(0), buildPages, Optional.empty(), false, SINGLE_STREAM_SPILLER_FACTORY);
+        JoinBridgeManager<PartitionedLookupSourceFactory> lookupSourceFactory = buildSideSetup.getLookupSourceFactoryManager();
+
+        // probe factory, with a page that is looked up in several batches
+        List<Type> probeTypes = ImmutableList.of(BIGINT);
+        RowPagesBuilder probePages = rowPagesBuilder(probeHashEnabled, Ints.asList(0), probeTypes);
+        MaterializedResult.Builder expected = MaterializedResult.resultBuilder(taskContext.getSession(), concat(probeTypes, buildPages.getTypesWithoutHash()));
+        for (int position = 0; position < 2500; position++) {
+            long key = position % 200;
+            if (position % 3 == 0) {
+                probePages.row((Long) null);
+            }
+            else {
+                probePages.row(key);
+                if (key < 100) {
+                    expected.row(key, key);
+                }
+            }
+        }
+        List<Page> probeInput = probePages.build();
+        OperatorFactory joinOperatorFactory = innerJoinOperatorFactory(lookupSourceFactory, probePages, PARTITIONING_SPILLER_FACTORY);
+
+        // build drivers and operators
+        instantiateBuildDrivers(buildSideSetup, taskContext);
+        buildLookupSource(buildSideSetup);
+
+        assertOperatorEquals(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput, expected.build(), true, getHashChannels(probePages, buildPages));
+    }
+
     @Test(dataProvider = "hashJoinTestValues")
     public void testInnerJoinWithNullBuild(boolean parallelBuild, boolean probeHashEnabled, boolean buildHashEnabled)
     {
@@ -1245,6 +1286,99 @@ public class TestHashJoinOperator
         }
     }
 
+    @Test
+    public void testSharedLookupSource()
+    {
+        List<Type> types = ImmutableList.of(BIGINT);
+        List<Page> pages = rowPagesBuilder(types)
+                .addSequencePage(10, 0)
+                .addSequencePage(10, 5)
+                .build();
+        SharedLookupSourceRegistry registry = new SharedLookupSourceRegistry();
+
+        TaskContext ownerTaskContext = createTaskContext();
+        TaskContext followerTaskContext = createTaskContext();
+        SharedLookupSourceRegistry.Lease ownerLease = registry.acquire(ownerTaskContext.getTaskId().getStageExecutionId(), new PlanNodeId("build"), 0, 1);
+        SharedLookupSourceRegistry.Lease followerLease = registry.acquire(ownerTaskContext.getTaskId().getStageExecutionId(), new PlanNodeId("build"), 0, 1);
+        assertTrue(ownerLease.isOwner());
+        assertFalse(followerLease.isOwner());
+
+        PartitionedLookupSourceFactory ownerLookupSourceFactory = new PartitionedLookupSourceFactory(types, types, types, 1, ImmutableMap.of(), false);
+        PartitionedLookupSourceFactory followerLookupSourceFactory = new PartitionedLookupSourceFactory(types, types, types, 1, ImmutableMap.of(), false);
+        HashBuilderOperator owner = createSharedHashBuilderOperator(ownerTaskContext, ownerLookupSourceFactory, ownerLease);
+        HashBuilderOperator follower = createSharedHashBuilderOperator(followerTaskContext, followerLookupSourceFactory, followerLease);
+        for (Page page : pages) {
+            owner.addInput(page);
+            follower.addInput(page);
+        }
+
+        // the follower waits for the owner to build the partition
+        follower.finish();
+        assertFalse(follower.isBlocked().isDone());
+        owner.finish();
+        assertEquals(follower.getState(), HashBuilderOperator.State.LOOKUP_SOURCE_BUILT);
+        ListenableFuture<LookupSourceProvider> lookupSourceProvider = followerLookupSourceFactory.createLookupSourceProvider();
+        assertTrue(lookupSourceProvider.isDone());
+
+        // the rows are accounted once
+        assertTrue(owner.getOperatorContext().getOperatorMemoryContext().getUserMemory() > 0);
+        assertEquals(follower.getOperatorContext().getOperatorMemoryContext().getUserMemory(), 0);
+
+        try (LookupSourceProvider provider = getFutureValue(lookupSourceProvider)) {
+            assertEquals((long) provider.withLease(context -> context.getLookupSource().getJoinPositionCount()), 20L);
+        }
+
+        // the owner keeps the partition until the follower is done with it
+        ownerLookupSourceFactory.destroy();
+        owner.finish();
+        assertFalse(owner.isFinished());
+        followerLookupSourceFactory.destroy();
+        assertTrue(follower.isFinished());
+        assertTrue(owner.isBlocked().isDone());
+        owner.finish();
+        assertTrue(owner.isFinished());
+        assertEquals(owner.getOperatorContext().getOperatorMemoryContext().getUserMemory(), 0);
+        assertEquals(registry.getSharedLookupSourceCount(), 0);
+    }
+
+    @Test(expectedExceptions = PrestoException.class, expectedExceptionsMessageRegExp = "Shared lookup source was closed before it was built")
+    public void testSharedLookupSourceOwnerFailure()
+    {
+        List<Type> types = ImmutableList.of(BIGINT);
+        SharedLookupSourceRegistry registry = new SharedLookupSourceRegistry();
+        TaskContext taskContext = createTaskContext();
+        SharedLookupSourceRegistry.Lease ownerLease = registry.acquire(taskContext.getTaskId().getStageExecutionId(), new PlanNodeId("build"), 0, 1);
+        SharedLookupSourceRegistry.Lease followerLease = registry.acquire(taskContext.getTaskId().getStageExecutionId(), new PlanNodeId("build"), 0, 1);
+
+        PartitionedLookupSourceFactory lookupSourceFactory = new PartitionedLookupSourceFactory(types, types, types, 1, ImmutableMap.of(), false);
+        HashBuilderOperator follower = createSharedHashBuilderOperator(createTaskContext(), lookupSourceFactory, followerLease);
+        follower.finish();
+        ownerLease.close();
+        assertTrue(follower.isBlocked().isDone());
+        follower.finish();
+    }
+
+    private static HashBuilderOperator createSharedHashBuilderOperator(TaskContext taskContext, PartitionedLookupSourceFactory lookupSourceFactory, SharedLookupSourceRegistry.Lease lease)
+    {
+        DriverContext driverContext = taskContext.addPipelineContext(0, true, true, false).addDriverContext();
+        return new HashBuilderOperator(
+                driverContext.addOperatorContext(0, new PlanNodeId("build"), HashBuilderOperator.class.getSimpleName()),
+                lookupSourceFactory,
+                0,
+                ImmutableList.of(0),
+                ImmutableList.of(0),
+                OptionalInt.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                ImmutableList.of(),
+                100,
+                new PagesIndex.TestingFactory(false),
+                false,
+                SINGLE_STREAM_SPILLER_FACTORY,
+                true,
+                Optional.of(lease));
+    }
+
     @Test(dataProvider = "hashJoinTestValues")
     public void testInnerJoinWithEmptyLookupSource(boolean parallelBuild, boolean probeHashEnabled, boolean buildHashEnabled)
     {
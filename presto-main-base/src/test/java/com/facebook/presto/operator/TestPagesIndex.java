@@ -13,15 +13,21 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.Session;
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.type.Type;
 import com.google.common.collect.ImmutableList;
 import org.testng.annotations.Test;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
 
 import static com.facebook.presto.SequencePageBuilder.createSequencePage;
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.SystemSessionProperties.JOIN_HASH_BUILD_PARALLELISM;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static java.lang.String.format;
@@ -82,6 +88,86 @@ public class TestPagesIndex
         assertEquals(lazyCompactPagesIndex.getEstimatedSize(), eagerCompactPagesIndex.getEstimatedSize());
     }
 
+    @Test
+    public void testParallelLookupSourceBuild()
+    {
+        LookupSourceSupplier parallel = assertParallelLookupSourceBuild(new PagesIndex.TestingFactory(false), OptionalInt.empty());
+        assertTrue(parallel.getBuildParallelism() >= 1 && parallel.getBuildParallelism() <= 4);
+    }
+
+    @Test
+    public void testParallelLookupSourceBuildWithClusteredHashes()
+    {
+        // the keys share a few hashes, so that the positions of a range of the table overflow into the next range
+        assertParallelLookupSourceBuild(new PagesIndex.TestingFactory(false), OptionalInt.of(1));
+    }
+
+    @Test(timeOut = 60_000)
+    public void testParallelLookupSourceBuildWithBusyExecutor()
+    {
+        // none of the tasks is ever run by the executor, so the calling thread builds the whole table
+        LookupSourceSupplier parallel = assertParallelLookupSourceBuild(new PagesIndex.TestingFactory(false, command -> {}), OptionalInt.empty());
+        assertEquals(parallel.getBuildParallelism(), 1);
+        assertEquals(parallel.getBuildHelperCpuNanos(), 0);
+    }
+
+    private static LookupSourceSupplier assertParallelLookupSourceBuild(PagesIndex.Factory pagesIndexFactory, OptionalInt hashChannel)
+    {
+        List<Type> types = ImmutableList.of(BIGINT, BIGINT);
+        PagesIndex pagesIndex = pagesIndexFactory.newPagesIndex(types, 100_000);
+        for (int i = 0; i < 100; i++) {
+            // every key is added twice, so that the build has to link positions
+            pagesIndex.addPage(keysPage((i % 50) * 1000, 1000));
+        }
+
+        LookupSourceSupplier serial = pagesIndex.createLookupSourceSupplier(TEST_SESSION, ImmutableList.of(0), hashChannel, Optional.empty(), Optional.empty(), ImmutableList.of());
+        Session session = Session.builder(TEST_SESSION)
+                .setSystemProperty(JOIN_HASH_BUILD_PARALLELISM, "4")
+                .build();
+        LookupSourceSupplier parallel = pagesIndex.createLookupSourceSupplier(session, ImmutableList.of(0), hashChannel, Optional.empty(), Optional.empty(), ImmutableList.of());
+
+        assertEquals(serial.getBuildParallelism(), 1);
+        assertEquals(serial.getBuildHelperCpuNanos(), 0);
+        // the positions of a key are linked in the same order
+        assertEquals(parallel.checksum(), serial.checksum());
+        assertEquals(parallel.getPositionCount(), serial.getPositionCount());
+
+        LookupSource serialLookupSource = serial.get();
+        LookupSource parallelLookupSource = parallel.get();
+        Page probe = keysPage(0, 60_000);
+        for (int position = 0; position < probe.getPositionCount(); position++) {
+            long serialPosition;
+            long parallelPosition;
+            if (hashChannel.isPresent()) {
+                long rawHash = BIGINT.getLong(probe.getBlock(1), position);
+                serialPosition = serialLookupSource.getJoinPosition(position, probe, probe, rawHash);
+                parallelPosition = parallelLookupSource.getJoinPosition(position, probe, probe, rawHash);
+            }
+            else {
+                serialPosition = serialLookupSource.getJoinPosition(position, probe, probe);
+                parallelPosition = parallelLookupSource.getJoinPosition(position, probe, probe);
+            }
+            assertEquals(parallelPosition, serialPosition);
+            assertEquals(serialPosition >= 0, position < 50_000);
+            if (serialPosition >= 0) {
+                assertEquals(parallelLookupSource.getNextJoinPosition(parallelPosition, position, probe), serialLookupSource.getNextJoinPosition(serialPosition, position, probe));
+            }
+        }
+        return parallel;
+    }
+
+    private static Page keysPage(int start, int length)
+    {
+        // the keys, followed by a hash that is shared by one key in 500
+        BlockBuilder keys = BIGINT.createBlockBuilder(null, length);
+        BlockBuilder hashes = BIGINT.createBlockBuilder(null, length);
+        for (long key = start; key < start + length; key++) {
+            BIGINT.writeLong(keys, key);
+            BIGINT.writeLong(hashes, key % 500);
+        }
+        return new Page(keys.build(), hashes.build());
+    }
+
     private static PagesIndex newPagesIndex(List<Type> types, int expectedPositions, boolean eagerCompact)
     {
         return new PagesIndex.TestingFactory(eagerCompact).newPagesIndex(types, expectedPositions);
@@ -23,6 +23,7 @@ import org.testng.annotations.Test;
 import static com.facebook.presto.operator.TestPipelineStats.assertExpectedPipelineStats;
 import static org.joda.time.DateTimeZone.UTC;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
 
 public class TestTaskStats
 {
@@ -97,6 +98,20 @@ public class TestTaskStats
         assertExpectedTaskStats(actual);
     }
 
+    @Test
+    public void testPipelinesFingerprint()
+    {
+        TaskStats summarized = EXPECTED.summarize();
+        assertEquals(summarized.getPipelines().size(), 0);
+        assertEquals(summarized.getPipelinesFingerprint(), EXPECTED.getPipelinesFingerprint());
+        assertExpectedTaskStats(summarized.withPipelines(EXPECTED.getPipelines()));
+
+        String json = JsonCodec.jsonCodec(TaskStats.class).toJson(EXPECTED);
+        TaskStats changed = JsonCodec.jsonCodec(TaskStats.class).fromJson(json.replace("\"totalCpuTimeInNanos\" : 16", "\"totalCpuTimeInNanos\" : 17"));
+        assertEquals(changed.getTotalCpuTimeInNanos(), 17);
+        assertNotEquals(changed.getPipelinesFingerprint(), EXPECTED.getPipelinesFingerprint());
+    }
+
     public static void assertExpectedTaskStats(TaskStats actual)
     {
         assertEquals(actual.getCreateTimeInMillis(), new DateTime(1, UTC).getMillis());
@@ -13,15 +13,30 @@
  */
 package com.facebook.presto.operator.window;
 
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.metadata.FunctionAndTypeManager;
+import com.facebook.presto.operator.PagesIndex;
+import com.facebook.presto.spi.function.WindowFunction;
 import com.facebook.presto.testing.MaterializedResult;
+import com.facebook.presto.testing.MaterializedRow;
+import com.google.common.collect.ImmutableList;
 import org.intellij.lang.annotations.Language;
 import org.testng.annotations.Test;
 
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
 import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
+import static java.lang.Double.doubleToRawLongBits;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestAggregateWindowFunction
         extends AbstractTestWindowFunction
@@ -459,6 +474,97 @@ public class TestAggregateWindowFunction
                 "RANGE BETWEEN CURRENT ROW AND CURRENT ROW)", expected);
     }
 
+    @Test
+    public void testSlidingFrameOverLargePartition()
+    {
+        // the frames span several buckets of the segment tree, and start and end in the middle of buckets
+        MaterializedResult result = queryRunner.execute("" +
+                "SELECT x, " +
+                "sum(x) OVER (ORDER BY x ROWS BETWEEN 300 PRECEDING AND 7 FOLLOWING), " +
+                "count(y) OVER (ORDER BY x ROWS BETWEEN 300 PRECEDING AND 7 FOLLOWING), " +
+                "min(x) OVER (ORDER BY x ROWS BETWEEN 300 PRECEDING AND 7 FOLLOWING), " +
+                "max(y) OVER (ORDER BY x ROWS BETWEEN 300 PRECEDING AND 7 FOLLOWING) " +
+                "FROM (SELECT x, if(x % 3 = 0, NULL, x) y FROM UNNEST(sequence(1, 2000)) t(x)) " +
+                "ORDER BY x");
+        assertEquals(result.getRowCount(), 2000);
+        for (MaterializedRow row : result.getMaterializedRows()) {
+            long x = (long) row.getField(0);
+            long start = Math.max(1, x - 300);
+            long end = Math.min(2000, x + 7);
+            long nulls = end / 3 - (start - 1) / 3;
+            long max = end % 3 == 0 ? end - 1 : end;
+            assertEquals(row.getField(1), (start + end) * (end - start + 1) / 2);
+            assertEquals(row.getField(2), end - start + 1 - nulls);
+            assertEquals(row.getField(3), start);
+            assertEquals(row.getField(4), max);
+        }
+    }
+
+    @Test
+    public void testSegmentTreeRetainedSize()
+    {
+        FunctionAndTypeManager functionAndTypeManager = createTestMetadataManager().getFunctionAndTypeManager();
+        WindowFunction function = functionAndTypeManager.getWindowFunctionImplementation(functionAndTypeManager.lookupFunction("sum", fromTypes(BIGINT)))
+                .createWindowFunction(ImmutableList.of(0), false);
+        assertTrue(function instanceof AggregateWindowFunction);
+        AggregateWindowFunction aggregateFunction = (AggregateWindowFunction) function;
+
+        PagesIndex pagesIndex = new PagesIndex.TestingFactory(false).newPagesIndex(ImmutableList.of(BIGINT), 10_000);
+        pagesIndex.addPage(new Page(createLongSequenceBlock(0, 10_000)));
+        BlockBuilder output = BIGINT.createBlockBuilder(null, 2);
+
+        aggregateFunction.reset(new PagesWindowIndex(pagesIndex, 0, 10_000));
+        aggregateFunction.processRow(output, 0, 0, 0, 10);
+        assertEquals(aggregateFunction.getRetainedSizeInBytes(), 0);
+
+        // the states of the segment tree are not accounted by the accumulators
+        aggregateFunction.processRow(output, 1, 1, 1, 9_000);
+        assertTrue(aggregateFunction.getRetainedSizeInBytes() >= 2 * (10_000 / 64) * Long.BYTES);
+        assertEquals(BIGINT.getLong(output.build(), 1), 9_000L * 9_001 / 2);
+
+        aggregateFunction.reset(new PagesWindowIndex(pagesIndex, 0, 100));
+        assertEquals(aggregateFunction.getRetainedSizeInBytes(), 0);
+    }
+
+    @Test
+    public void testFloatingPointSlidingFramesAreAddedInRowOrder()
+    {
+        int positionCount = 1_000;
+        double[] values = new double[positionCount];
+        BlockBuilder valueBuilder = DOUBLE.createBlockBuilder(null, positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            // values of very different magnitudes, whose sum depends on the order in which they are added
+            values[position] = (position % 3 == 0 ? 1e16 : 0.1) * (position + 1) / 7;
+            DOUBLE.writeDouble(valueBuilder, values[position]);
+        }
+        PagesIndex pagesIndex = new PagesIndex.TestingFactory(false).newPagesIndex(ImmutableList.of(DOUBLE), positionCount);
+        pagesIndex.addPage(new Page(valueBuilder.build()));
+
+        FunctionAndTypeManager functionAndTypeManager = createTestMetadataManager().getFunctionAndTypeManager();
+        for (String name : ImmutableList.of("sum", "avg")) {
+            AggregateWindowFunction function = (AggregateWindowFunction) functionAndTypeManager.getWindowFunctionImplementation(functionAndTypeManager.lookupFunction(name, fromTypes(DOUBLE)))
+                    .createWindowFunction(ImmutableList.of(0), false);
+            function.reset(new PagesWindowIndex(pagesIndex, 0, positionCount));
+
+            // frames of 300 rows starting at every offset of the partition
+            int frameSize = 300;
+            BlockBuilder output = DOUBLE.createBlockBuilder(null, positionCount - frameSize);
+            for (int frameStart = 0; frameStart + frameSize <= positionCount; frameStart++) {
+                function.processRow(output, frameStart, frameStart, frameStart, frameStart + frameSize - 1);
+            }
+            Block results = output.build();
+            for (int frameStart = 0; frameStart + frameSize <= positionCount; frameStart++) {
+                double sum = 0;
+                for (int position = frameStart; position < frameStart + frameSize; position++) {
+                    sum += values[position];
+                }
+                double expected = name.equals("sum") ? sum : sum / frameSize;
+                assertEquals(doubleToRawLongBits(DOUBLE.getDouble(results, frameStart)), doubleToRawLongBits(expected), name + " of frame at " + frameStart);
+            }
+            assertEquals(function.getRetainedSizeInBytes(), 0);
+        }
+    }
+
     @Test
     public void testSumEmptyWindow()
     {
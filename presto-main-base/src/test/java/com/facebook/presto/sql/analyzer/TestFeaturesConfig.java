@@ -75,6 +75,8 @@ public class TestFeaturesConfig
                 .setMaxFailedTaskPercentage(0.3)
                 .setConcurrentLifespansPerTask(0)
                 .setFastInequalityJoins(true)
+                .setJoinHashBuildParallelism(1)
+                .setShareBroadcastJoinBuild(false)
                 .setColocatedJoinsEnabled(true)
                 .setSpatialJoinsEnabled(true)
                 .setJoinReorderingStrategy(JoinReorderingStrategy.AUTOMATIC)
@@ -128,6 +130,7 @@ public class TestFeaturesConfig
                 .setDynamicFilteringMaxPerDriverSize(new DataSize(10, KILOBYTE))
                 .setDynamicFilteringRangeRowLimitPerDriver(0)
                 .setFragmentResultCachingEnabled(false)
+                .setQueryResultCachingEnabled(false)
                 .setEnableStatsCalculator(true)
                 .setEnableStatsCollectionForTemporaryTable(false)
                 .setIgnoreStatsCalculatorFailures(true)
@@ -324,6 +327,7 @@ public class TestFeaturesConfig
                 .put("dynamic-filtering-max-per-driver-size", "64kB")
                 .put("dynamic-filtering-range-row-limit-per-driver", "1000")
                 .put("fragment-result-cache.enabled", "true")
+                .put("query-result-cache.enabled", "true")
                 .put("experimental.enable-stats-calculator", "false")
                 .put("experimental.enable-stats-collection-for-temporary-table", "true")
                 .put("optimizer.ignore-stats-calculator-failures", "false")
@@ -338,6 +342,8 @@ public class TestFeaturesConfig
                 .put("max-failed-task-percentage", "0.8")
                 .put("concurrent-lifespans-per-task", "1")
                 .put("fast-inequality-joins", "false")
+                .put("join-hash-build-parallelism", "4")
+                .put("share-broadcast-join-build", "true")
                 .put("colocated-joins-enabled", "false")
                 .put("spatial-joins-enabled", "false")
                 .put("optimizer.join-reordering-strategy", "NONE")
@@ -570,6 +576,7 @@ public class TestFeaturesConfig
                 .setDynamicFilteringMaxPerDriverSize(new DataSize(64, KILOBYTE))
                 .setDynamicFilteringRangeRowLimitPerDriver(1000)
                 .setFragmentResultCachingEnabled(true)
+                .setQueryResultCachingEnabled(true)
                 .setEnableStatsCalculator(false)
                 .setEnableStatsCollectionForTemporaryTable(true)
                 .setIgnoreStatsCalculatorFailures(false)
@@ -583,6 +590,8 @@ public class TestFeaturesConfig
                 .setMaxFailedTaskPercentage(0.8)
                 .setConcurrentLifespansPerTask(1)
                 .setFastInequalityJoins(false)
+                .setJoinHashBuildParallelism(4)
+                .setShareBroadcastJoinBuild(true)
                 .setColocatedJoinsEnabled(false)
                 .setSpatialJoinsEnabled(false)
                 .setJoinReorderingStrategy(NONE)
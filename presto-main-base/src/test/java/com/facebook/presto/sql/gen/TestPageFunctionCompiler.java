@@ -13,10 +13,12 @@
  */
 package com.facebook.presto.sql.gen;
 
+import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.metadata.FunctionAndTypeManager;
+import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.operator.DriverYieldSignal;
 import com.facebook.presto.operator.Work;
 import com.facebook.presto.operator.project.PageFilter;
@@ -35,6 +37,8 @@ import java.util.Optional;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.presto.common.function.OperatorType.ADD;
 import static com.facebook.presto.common.function.OperatorType.GREATER_THAN;
 import static com.facebook.presto.common.function.OperatorType.LESS_THAN;
@@ -45,6 +49,7 @@ import static com.facebook.presto.spi.StandardErrorCode.NUMERIC_VALUE_OUT_OF_RAN
 import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.AND;
 import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.IF;
 import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
+import static com.facebook.presto.sql.gen.CompilationTracker.trackCompilation;
 import static com.facebook.presto.sql.relational.Expressions.call;
 import static com.facebook.presto.sql.relational.Expressions.constant;
 import static com.facebook.presto.sql.relational.Expressions.field;
@@ -149,31 +154,113 @@ public class TestPageFunctionCompiler
     {
         PageFunctionCompiler cacheCompiler = new PageFunctionCompiler(createTestMetadataManager(), 100);
         assertSame(
-                cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty()),
-                cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty()));
+                getWorkClass(cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty())),
+                getWorkClass(cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty())));
         assertSame(
-                cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint")),
-                cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint")));
+                getWorkClass(cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint"))),
+                getWorkClass(cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint"))));
         assertSame(
-                cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint")),
-                cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint2")));
+                getWorkClass(cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint"))),
+                getWorkClass(cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint2"))));
         assertSame(
-                cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty()),
-                cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint2")));
+                getWorkClass(cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty())),
+                getWorkClass(cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint2"))));
 
         PageFunctionCompiler noCacheCompiler = new PageFunctionCompiler(createTestMetadataManager(), 0);
         assertNotSame(
-                noCacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty()),
-                noCacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty()));
+                getWorkClass(noCacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty())),
+                getWorkClass(noCacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty())));
         assertNotSame(
-                noCacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint")),
-                noCacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint")));
+                getWorkClass(noCacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint"))),
+                getWorkClass(noCacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint"))));
         assertNotSame(
-                noCacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint")),
-                noCacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint2")));
+                getWorkClass(noCacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint"))),
+                getWorkClass(noCacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint2"))));
         assertNotSame(
-                noCacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty()),
-                noCacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint2")));
+                getWorkClass(noCacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty())),
+                getWorkClass(noCacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.of("hint2"))));
+    }
+
+    @Test
+    public void testCacheSharedAcrossInputChannels()
+    {
+        PageFunctionCompiler cacheCompiler = new PageFunctionCompiler(createTestMetadataManager(), 100);
+        CallExpression add10Channel3 = call(
+                ADD.name(),
+                FUNCTION_MANAGER.resolveOperator(ADD, fromTypes(BIGINT, BIGINT)),
+                BIGINT,
+                field(3, BIGINT),
+                constant(10L, BIGINT));
+
+        Supplier<PageProjection> projection = cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty());
+        Supplier<PageProjection> otherChannelProjection = cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), add10Channel3, Optional.empty());
+        assertSame(getWorkClass(otherChannelProjection), getWorkClass(projection));
+        assertEquals(projection.get().getInputChannels().getInputChannels(), ImmutableList.of(0));
+        assertEquals(otherChannelProjection.get().getInputChannels().getInputChannels(), ImmutableList.of(3));
+    }
+
+    @Test
+    public void testCacheBoundedByBytecodeSize()
+    {
+        PageFunctionCompiler cacheCompiler = new PageFunctionCompiler(createTestMetadataManager(), 100, new CompilerCacheBudget(Optional.of(new DataSize(1, MEGABYTE))));
+        assertSame(
+                getWorkClass(cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty())),
+                getWorkClass(cacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty())));
+        assertTrue(cacheCompiler.getProjectionCacheBytecodeSize() > 0);
+
+        // the generated class is larger than the cache, so it is not retained
+        PageFunctionCompiler smallCacheCompiler = new PageFunctionCompiler(createTestMetadataManager(), 100, new CompilerCacheBudget(Optional.of(new DataSize(1, BYTE))));
+        assertNotSame(
+                getWorkClass(smallCacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty())),
+                getWorkClass(smallCacheCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty())));
+        assertEquals(smallCacheCompiler.getProjectionCacheBytecodeSize(), 0);
+    }
+
+    @Test
+    public void testCachesShareBytecodeBudget()
+    {
+        Metadata metadata = createTestMetadataManager();
+        CompilerCacheBudget unboundedBudget = new CompilerCacheBudget(Optional.empty());
+        new PageFunctionCompiler(metadata, 100, unboundedBudget).compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty());
+        long projectionBytecodeSize = unboundedBudget.getBytecodeSize();
+        new JoinCompiler(metadata, unboundedBudget).compilePagesHashStrategyFactory(ImmutableList.of(BIGINT, BIGINT), ImmutableList.of(0));
+        long hashStrategyBytecodeSize = unboundedBudget.getBytecodeSize() - projectionBytecodeSize;
+
+        // the budget has room for either of the classes, but not for both
+        long maxBytecodeSize = Math.max(projectionBytecodeSize, hashStrategyBytecodeSize) + 100;
+        CompilerCacheBudget cacheBudget = new CompilerCacheBudget(Optional.of(new DataSize(maxBytecodeSize, BYTE)));
+        PageFunctionCompiler pageFunctionCompiler = new PageFunctionCompiler(metadata, 100, cacheBudget);
+        JoinCompiler joinCompiler = new JoinCompiler(metadata, cacheBudget);
+
+        Class<?> workClass = getWorkClass(pageFunctionCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty()));
+        assertSame(getWorkClass(pageFunctionCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty())), workClass);
+        assertTrue(pageFunctionCompiler.getProjectionCacheBytecodeSize() > 0);
+
+        // the hash strategy of the join takes the place of the projection in the budget
+        joinCompiler.compilePagesHashStrategyFactory(ImmutableList.of(BIGINT, BIGINT), ImmutableList.of(0));
+        assertEquals(pageFunctionCompiler.getProjectionCacheBytecodeSize(), 0);
+        assertTrue(cacheBudget.getBytecodeSize() <= maxBytecodeSize);
+        assertNotSame(getWorkClass(pageFunctionCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty())), workClass);
+    }
+
+    @Test
+    public void testCompilationIsTracked()
+    {
+        PageFunctionCompiler cacheCompiler = new PageFunctionCompiler(createTestMetadataManager(), 100);
+        try (CompilationTracker tracker = trackCompilation()) {
+            cacheCompiler.compileFilter(SESSION.getSqlFunctionProperties(), ADD_X_Y_LESS_THAN_10, false, Optional.empty());
+            assertTrue(tracker.getClasses() > 0);
+            assertTrue(tracker.getBytecodeSize() > 0);
+            assertTrue(tracker.getCompileTimeNanos() > 0);
+        }
+
+        // the filter is served from the cache
+        try (CompilationTracker tracker = trackCompilation()) {
+            cacheCompiler.compileFilter(SESSION.getSqlFunctionProperties(), ADD_X_Y_LESS_THAN_10, false, Optional.empty());
+            assertEquals(tracker.getClasses(), 0);
+            assertEquals(tracker.getBytecodeSize(), 0);
+            assertEquals(tracker.getCompileTimeNanos(), 0);
+        }
     }
 
     @Test
@@ -254,6 +341,11 @@ public class TestPageFunctionCompiler
         return work.getResult();
     }
 
+    private static Class<?> getWorkClass(Supplier<PageProjection> projection)
+    {
+        return projection.get().project(SESSION.getSqlFunctionProperties(), new DriverYieldSignal(), createLongBlockPage(1, 0), SelectedPositions.positionsRange(0, 1)).getClass();
+    }
+
     private SelectedPositions filter(PageFilter filter, Page page)
     {
         return filter.filter(SESSION.getSqlFunctionProperties(), filter.getInputChannels().getInputChannels(page));
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.sql.planner;
 
+import com.facebook.airlift.units.DataSize;
 import com.google.common.collect.ImmutableMap;
 import org.testng.annotations.Test;
 
@@ -21,6 +22,7 @@ import java.util.Map;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 
 public class TestCompilerConfig
 {
@@ -29,6 +31,7 @@ public class TestCompilerConfig
     {
         assertRecordedDefaults(recordDefaults(CompilerConfig.class)
                 .setExpressionCacheSize(10_000)
+                .setMaxCachedBytecodeSize(null)
                 .setLeafNodeLimitEnabled(false)
                 .setLeafNodeLimit(10_000));
     }
@@ -38,12 +41,14 @@ public class TestCompilerConfig
     {
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("compiler.expression-cache-size", "52")
+                .put("compiler.max-cached-bytecode-size", "64MB")
                 .put("planner.max-leaf-nodes-in-plan", "100")
                 .put("planner.leaf-node-limit-enabled", "true")
                 .build();
 
         CompilerConfig expected = new CompilerConfig()
                 .setExpressionCacheSize(52)
+                .setMaxCachedBytecodeSize(new DataSize(64, MEGABYTE))
                 .setLeafNodeLimit(100)
                 .setLeafNodeLimitEnabled(true);
 
@@ -27,6 +27,8 @@ import java.util.Optional;
 
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestMemo
 {
@@ -253,6 +255,33 @@ public class TestMemo
         assertEquals(memo.getCost(xGroup), Optional.empty());
     }
 
+    @Test
+    public void testClearExploredOnReplace()
+    {
+        PlanNode z = node();
+        PlanNode y = node(z);
+        PlanNode w = node();
+        PlanNode x = node(y, w);
+
+        Memo memo = new Memo(idAllocator, x);
+        int xGroup = memo.getRootGroup();
+        int yGroup = getChildGroup(memo, xGroup);
+        int zGroup = getChildGroup(memo, yGroup);
+        int wGroup = ((GroupReference) memo.getNode(xGroup).getSources().get(1)).getGroupId();
+
+        for (int group : ImmutableList.of(zGroup, yGroup, wGroup, xGroup)) {
+            assertFalse(memo.isExplored(group));
+            memo.markExplored(group);
+        }
+
+        memo.replace(zGroup, node(), "rule");
+
+        assertFalse(memo.isExplored(zGroup));
+        assertFalse(memo.isExplored(yGroup));
+        assertFalse(memo.isExplored(xGroup));
+        assertTrue(memo.isExplored(wGroup));
+    }
+
     private static void assertMatchesStructure(PlanNode actual, PlanNode expected)
     {
         assertEquals(actual.getClass(), expected.getClass());
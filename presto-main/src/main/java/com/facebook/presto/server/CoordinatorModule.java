@@ -51,6 +51,8 @@ import com.facebook.presto.execution.QueryIdGenerator;
 import com.facebook.presto.execution.QueryInfo;
 import com.facebook.presto.execution.QueryManager;
 import com.facebook.presto.execution.QueryPerformanceFetcher;
+import com.facebook.presto.execution.QueryResultCache;
+import com.facebook.presto.execution.QueryResultCacheConfig;
 import com.facebook.presto.execution.RemoteTaskFactory;
 import com.facebook.presto.execution.SqlQueryManager;
 import com.facebook.presto.execution.TaskInfo;
@@ -328,6 +330,9 @@ public class CoordinatorModule
         binder.bind(SplitSchedulerStats.class).in(Scopes.SINGLETON);
         newExporter(binder).export(SplitSchedulerStats.class).withGeneratedName();
         binder.bind(SqlQueryExecutionFactory.class).in(Scopes.SINGLETON);
+        configBinder(binder).bindConfig(QueryResultCacheConfig.class);
+        binder.bind(QueryResultCache.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(QueryResultCache.class).withGeneratedName();
         binder.bind(SectionExecutionFactory.class).in(Scopes.SINGLETON);
 
         binder.bind(PartialResultQueryManager.class).in(Scopes.SINGLETON);
@@ -0,0 +1,141 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.server;
+
+import com.facebook.airlift.concurrent.BoundedExecutor;
+import com.facebook.presto.execution.TaskId;
+import com.facebook.presto.execution.TaskManager;
+import com.facebook.presto.execution.buffer.OutputBuffers.OutputBufferId;
+import com.facebook.presto.operator.ExchangeClientConfig;
+import com.google.common.base.Splitter;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.facebook.presto.server.DirectResultsSigner.DIRECT_RESULTS_PATH;
+import static com.facebook.presto.server.security.RoleType.USER;
+import static jakarta.servlet.http.HttpServletResponse.SC_FORBIDDEN;
+import static jakarta.servlet.http.HttpServletResponse.SC_NO_CONTENT;
+import static java.lang.Long.parseLong;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Serves the output buffers of the queries whose clients read the results directly from the workers,
+ * with the task results protocol. The requests are authorized by the signature of the buffer in the
+ * URI, which the coordinator returns to the client of the query, rather than by the internal role.
+ * <ul>
+ * <li>GET /v1/results/{taskId}/{bufferId}/{signature}/{token} returns the pages from the token on</li>
+ * <li>GET /v1/results/{taskId}/{bufferId}/{signature}/{token}/acknowledge acknowledges the pages before the token</li>
+ * <li>DELETE /v1/results/{taskId}/{bufferId}/{signature} destroys the buffer</li>
+ * </ul>
+ */
+@RolesAllowed(USER)
+public class DirectResultsServlet
+        extends AsyncPageTransportServlet
+{
+    private static final Splitter PATH_SPLITTER = Splitter.on('/');
+
+    private final TaskManager taskManager;
+    private final DirectResultsSigner directResultsSigner;
+
+    @Inject
+    public DirectResultsServlet(
+            TaskManager taskManager,
+            ExchangeClientConfig exchangeClientConfig,
+            @ForAsyncRpc BoundedExecutor responseExecutor,
+            @ForAsyncRpc ScheduledExecutorService timeoutExecutor,
+            DirectResultsSigner directResultsSigner)
+    {
+        super(taskManager, exchangeClientConfig, responseExecutor, timeoutExecutor);
+        this.taskManager = requireNonNull(taskManager, "taskManager is null");
+        this.directResultsSigner = requireNonNull(directResultsSigner, "directResultsSigner is null");
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws IOException
+    {
+        List<String> parts = parsePath(request, response);
+        if (parts == null) {
+            return;
+        }
+        TaskId taskId = TaskId.valueOf(parts.get(0));
+        OutputBufferId bufferId = OutputBufferId.fromString(parts.get(1));
+        if (parts.size() == 4) {
+            processRequest(request.getRequestURI(), taskId, bufferId, parseLong(parts.get(3)), request, response);
+        }
+        else if (parts.size() == 5 && parts.get(4).equals("acknowledge")) {
+            taskManager.acknowledgeTaskResults(taskId, bufferId, parseLong(parts.get(3)));
+            response.setStatus(SC_NO_CONTENT);
+        }
+        else {
+            reportFailure(response, format("Unexpected URI for direct results request: %s", request.getRequestURI()));
+        }
+    }
+
+    @Override
+    protected void doDelete(HttpServletRequest request, HttpServletResponse response)
+            throws IOException
+    {
+        List<String> parts = parsePath(request, response);
+        if (parts == null) {
+            return;
+        }
+        if (parts.size() != 3) {
+            reportFailure(response, format("Unexpected URI for direct results request: %s", request.getRequestURI()));
+            return;
+        }
+        taskManager.abortTaskResults(TaskId.valueOf(parts.get(0)), OutputBufferId.fromString(parts.get(1)));
+        response.setStatus(SC_NO_CONTENT);
+    }
+
+    /**
+     * Returns the parts of the path after the prefix, starting with the task id, the buffer id and the
+     * signature, or null if the request is rejected.
+     */
+    private List<String> parsePath(HttpServletRequest request, HttpServletResponse response)
+            throws IOException
+    {
+        String requestUri = request.getRequestURI();
+        if (!requestUri.startsWith(DIRECT_RESULTS_PATH + "/")) {
+            reportFailure(response, format("Unexpected URI for direct results request: %s", requestUri));
+            return null;
+        }
+        List<String> parts = PATH_SPLITTER.splitToList(requestUri.substring(DIRECT_RESULTS_PATH.length() + 1));
+        if (parts.size() < 3) {
+            reportFailure(response, format("Unexpected URI for direct results request: %s", requestUri));
+            return null;
+        }
+        try {
+            if (!directResultsSigner.isValidSignature(TaskId.valueOf(parts.get(0)), OutputBufferId.fromString(parts.get(1)), parts.get(2))) {
+                response.sendError(SC_FORBIDDEN, "Invalid signature");
+                return null;
+            }
+            if (parts.size() > 3) {
+                parseLong(parts.get(3));
+            }
+        }
+        catch (IllegalArgumentException e) {
+            reportFailure(response, format("Unexpected URI for direct results request: %s", requestUri));
+            return null;
+        }
+        return parts;
+    }
+}
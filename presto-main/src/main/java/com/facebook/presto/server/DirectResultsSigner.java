@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.server;
+
+import com.facebook.presto.execution.TaskId;
+import com.facebook.presto.execution.buffer.OutputBuffers.OutputBufferId;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import jakarta.inject.Inject;
+
+import java.net.URI;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Optional;
+
+import static com.facebook.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Signs the output buffers of the queries whose clients read the results directly from the workers,
+ * with a key derived from the internal communication shared secret. The coordinator returns a signed
+ * URI for each output buffer of the query to the client, which is the only way to read or destroy
+ * the buffer from outside the cluster, so a client can only access the output of its own queries.
+ */
+public class DirectResultsSigner
+{
+    public static final String DIRECT_RESULTS_PATH = "/v1/results";
+
+    private final Optional<HashFunction> hmac;
+
+    @Inject
+    public DirectResultsSigner(InternalCommunicationConfig internalCommunicationConfig)
+    {
+        this(internalCommunicationConfig.getSharedSecret());
+    }
+
+    public DirectResultsSigner(Optional<String> sharedSecret)
+    {
+        requireNonNull(sharedSecret, "sharedSecret is null");
+        this.hmac = sharedSecret.map(secret -> Hashing.hmacSha256(Hashing.sha256().hashString("direct-results:" + secret, UTF_8).asBytes()));
+    }
+
+    /**
+     * Returns whether output buffers can be signed, which requires a shared secret.
+     */
+    public boolean isEnabled()
+    {
+        return hmac.isPresent();
+    }
+
+    /**
+     * Returns the URI through which clients read the output buffer at the given location.
+     */
+    public URI createSegmentUri(URI bufferLocation, TaskId taskId)
+    {
+        String path = bufferLocation.getPath();
+        OutputBufferId bufferId = OutputBufferId.fromString(path.substring(path.lastIndexOf('/') + 1));
+        return uriBuilderFrom(bufferLocation)
+                .replacePath(DIRECT_RESULTS_PATH)
+                .appendPath(taskId.toString())
+                .appendPath(bufferId.toString())
+                .appendPath(sign(taskId, bufferId))
+                .build();
+    }
+
+    public boolean isValidSignature(TaskId taskId, OutputBufferId bufferId, String signature)
+    {
+        return hmac.isPresent() && MessageDigest.isEqual(sign(taskId, bufferId).getBytes(UTF_8), signature.getBytes(UTF_8));
+    }
+
+    private String sign(TaskId taskId, OutputBufferId bufferId)
+    {
+        checkState(hmac.isPresent(), "shared secret is not set");
+        byte[] signature = hmac.get().hashString(taskId + "/" + bufferId, UTF_8).asBytes();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+}
@@ -131,6 +131,7 @@ import com.facebook.presto.operator.ExchangeClientSupplier;
 import com.facebook.presto.operator.FileFragmentResultCacheConfig;
 import com.facebook.presto.operator.FileFragmentResultCacheManager;
 import com.facebook.presto.operator.ForExchange;
+import com.facebook.presto.operator.ForJoinHashBuild;
 import com.facebook.presto.operator.FragmentCacheStats;
 import com.facebook.presto.operator.FragmentResultCacheManager;
 import com.facebook.presto.operator.HttpAndThriftRpcShuffleClientProvider;
@@ -225,6 +226,7 @@ import com.facebook.presto.sql.analyzer.QueryExplainer;
 import com.facebook.presto.sql.analyzer.QueryPreparerProviderManager;
 import com.facebook.presto.sql.expressions.ExpressionOptimizerManager;
 import com.facebook.presto.sql.expressions.JsonCodecRowExpressionSerde;
+import com.facebook.presto.sql.gen.CompilerCacheBudget;
 import com.facebook.presto.sql.gen.ExpressionCompiler;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.sql.gen.JoinFilterFunctionCompiler;
@@ -582,6 +584,8 @@ public class ServerMainModule
         binder.bind(FragmentCacheStats.class).in(Scopes.SINGLETON);
         newExporter(binder).export(FragmentCacheStats.class).withGeneratedName();
         configBinder(binder).bindConfig(CompilerConfig.class);
+        binder.bind(CompilerCacheBudget.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(CompilerCacheBudget.class).withGeneratedName();
         binder.bind(ExpressionCompiler.class).in(Scopes.SINGLETON);
         newExporter(binder).export(ExpressionCompiler.class).withGeneratedName();
         binder.bind(PageFunctionCompiler.class).in(Scopes.SINGLETON);
@@ -868,6 +872,13 @@ public class ServerMainModule
                 .to(AsyncPageTransportServlet.class)
                 .in(Scopes.SINGLETON);
 
+        // Direct results
+        binder.bind(DirectResultsSigner.class).in(Scopes.SINGLETON);
+        newMapBinder(binder, String.class, Servlet.class, TheServlet.class)
+                .addBinding(DirectResultsSigner.DIRECT_RESULTS_PATH + "/*")
+                .to(DirectResultsServlet.class)
+                .in(Scopes.SINGLETON);
+
         // cleanup
         binder.bind(ExecutorCleanup.class).in(Scopes.SINGLETON);
 
@@ -929,6 +940,22 @@ public class ServerMainModule
         return new BoundedExecutor(coreExecutor, config.getHttpResponseThreads());
     }
 
+    @Provides
+    @Singleton
+    @ForJoinHashBuild
+    public static ExecutorService createJoinHashBuildCoreExecutor()
+    {
+        return newCachedThreadPool(daemonThreadsNamed("join-hash-build-%s"));
+    }
+
+    @Provides
+    @Singleton
+    @ForJoinHashBuild
+    public static BoundedExecutor createJoinHashBuildExecutor(@ForJoinHashBuild ExecutorService coreExecutor, TaskManagerConfig config)
+    {
+        return new BoundedExecutor(coreExecutor, config.getJoinHashBuildThreads());
+    }
+
     @Provides
     @Singleton
     @ForAsyncRpc
@@ -995,12 +1022,14 @@ public class ServerMainModule
         public ExecutorCleanup(
                 @ForExchange ScheduledExecutorService exchangeExecutor,
                 @ForAsyncRpc ExecutorService httpResponseExecutor,
-                @ForAsyncRpc ScheduledExecutorService httpTimeoutExecutor)
+                @ForAsyncRpc ScheduledExecutorService httpTimeoutExecutor,
+                @ForJoinHashBuild ExecutorService joinHashBuildExecutor)
         {
             executors = ImmutableList.of(
                     exchangeExecutor,
                     httpResponseExecutor,
-                    httpTimeoutExecutor);
+                    httpTimeoutExecutor,
+                    joinHashBuildExecutor);
         }
 
         @PreDestroy
@@ -64,6 +64,7 @@ import static com.facebook.presto.client.PrestoHeaders.PRESTO_BUFFER_COMPLETE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_BUFFER_REMAINING_BYTES;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CURRENT_STATE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_MAX_WAIT;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_TASK_PIPELINES_FINGERPRINT;
 import static com.facebook.presto.server.security.RoleType.INTERNAL;
 import static com.facebook.presto.util.TaskUtils.randomizeWaitTime;
 import static com.google.common.collect.Iterables.transform;
@@ -147,6 +148,7 @@ public class TaskResource
             @PathParam("taskId") final TaskId taskId,
             @HeaderParam(PRESTO_CURRENT_STATE) TaskState currentState,
             @HeaderParam(PRESTO_MAX_WAIT) Duration maxWait,
+            @HeaderParam(PRESTO_TASK_PIPELINES_FINGERPRINT) Long pipelinesFingerprint,
             @Context UriInfo uriInfo,
             @Suspended AsyncResponse asyncResponse)
     {
@@ -157,6 +159,9 @@ public class TaskResource
             if (shouldSummarize(uriInfo)) {
                 taskInfo = taskInfo.summarize();
             }
+            else if (pipelinesFingerprint != null) {
+                taskInfo = taskInfo.withoutUnchangedPipelines(pipelinesFingerprint);
+            }
 
             asyncResponse.resume(taskInfo);
             return;
@@ -172,6 +177,10 @@ public class TaskResource
         if (shouldSummarize(uriInfo)) {
             futureTaskInfo = Futures.transform(futureTaskInfo, TaskInfo::summarize, directExecutor());
         }
+        else if (pipelinesFingerprint != null) {
+            // the coordinator already has the stats of the pipelines, unless they changed
+            futureTaskInfo = Futures.transform(futureTaskInfo, taskInfo -> taskInfo.withoutUnchangedPipelines(pipelinesFingerprint), directExecutor());
+        }
 
         // For hard timeout, add an additional time to max wait for thread scheduling contention and GC
         Duration timeout = new Duration(waitTime.toMillis() + ADDITIONAL_WAIT_TIME.toMillis(), MILLISECONDS);
@@ -37,6 +37,7 @@ import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.container.AsyncResponse;
 import jakarta.ws.rs.container.Suspended;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
@@ -45,8 +46,11 @@ import org.weakref.jmx.Nested;
 
 import static com.facebook.airlift.http.server.AsyncResponseHandler.bindAsyncResponse;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.facebook.presto.PrestoMediaTypes.PRESTO_PAGES;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PREFIX_URL;
 import static com.facebook.presto.server.protocol.QueryResourceUtil.abortIfPrefixUrlInvalid;
+import static com.facebook.presto.server.protocol.QueryResourceUtil.acceptsBinaryPages;
+import static com.facebook.presto.server.protocol.QueryResourceUtil.toBinaryResponse;
 import static com.facebook.presto.server.protocol.QueryResourceUtil.toResponse;
 import static com.facebook.presto.server.security.RoleType.USER;
 import static com.google.common.base.Strings.isNullOrEmpty;
@@ -98,7 +102,7 @@ public class ExecutingStatementResource
 
     @GET
     @Path("/v1/statement/executing/{queryId}/{token}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, PRESTO_PAGES})
     public void getQueryResults(
             @PathParam("queryId") QueryId queryId,
             @PathParam("token") long token,
@@ -109,6 +113,7 @@ public class ExecutingStatementResource
             @HeaderParam(X_FORWARDED_PROTO) String proto,
             @HeaderParam(PRESTO_PREFIX_URL) String xPrestoPrefixUrl,
             @Context UriInfo uriInfo,
+            @Context HttpHeaders httpHeaders,
             @Suspended AsyncResponse asyncResponse)
     {
         Duration wait = WAIT_ORDERING.min(MAX_WAIT_TIME, maxWait);
@@ -124,6 +129,8 @@ public class ExecutingStatementResource
 
         abortIfPrefixUrlInvalid(xPrestoPrefixUrl);
 
+        // clients that ask for binary results may also accept them as raw serialized pages
+        boolean rawBinaryResults = binaryResults && acceptsBinaryPages(httpHeaders);
         Query query = queryProvider.getQuery(queryId, slug);
         ListenableFuture<Double> acquirePermitAsync = queryRateLimiter.acquire(queryId);
         String effectiveFinalProto = proto;
@@ -132,13 +139,15 @@ public class ExecutingStatementResource
                 acquirePermitAsync,
                 acquirePermitTimeSeconds -> {
                     queryRateLimiter.addRateLimiterBlockTime(new Duration(acquirePermitTimeSeconds, SECONDS));
-                    return query.waitForResults(token, uriInfo, effectiveFinalProto, wait, effectiveFinalTargetResultSize, binaryResults);
+                    return query.waitForResults(token, uriInfo, effectiveFinalProto, wait, effectiveFinalTargetResultSize, binaryResults, rawBinaryResults);
                 },
                 responseExecutor);
         long durationUntilExpirationMs = queryManager.getDurationUntilExpirationInMillis(queryId);
         ListenableFuture<Response> queryResultsFuture = transform(
                 waitForResultsAsync,
-                results -> toResponse(query, results, xPrestoPrefixUrl, compressionEnabled, nestedDataSerializationEnabled, durationUntilExpirationMs),
+                results -> rawBinaryResults
+                        ? toBinaryResponse(query, results, xPrestoPrefixUrl, nestedDataSerializationEnabled, durationUntilExpirationMs)
+                        : toResponse(query, results, xPrestoPrefixUrl, compressionEnabled, nestedDataSerializationEnabled, durationUntilExpirationMs),
                 directExecutor());
         bindAsyncResponse(asyncResponse, queryResultsFuture, responseExecutor);
     }
@@ -69,7 +69,7 @@ public class LocalExecutingQueryResponseProvider
             return Optional.empty();
         }
         return Optional.of(transform(
-                query.waitForResults(0, uriInfo, scheme, maxWait, targetResultSize, binaryResults),
+                query.waitForResults(0, uriInfo, scheme, maxWait, targetResultSize, binaryResults, false),
                 results -> toResponse(query, results, xPrestoPrefixUrl, compressionEnabled, nestedDataSerializationEnabled, durationUntilExpirationMs),
                 directExecutor()));
     }
@@ -18,9 +18,11 @@ import com.facebook.airlift.log.Logger;
 import com.facebook.presto.Session;
 import com.facebook.presto.common.block.BlockEncodingSerde;
 import com.facebook.presto.execution.QueryManager;
+import com.facebook.presto.execution.QueryResultCache;
 import com.facebook.presto.memory.context.SimpleLocalMemoryContext;
 import com.facebook.presto.operator.ExchangeClient;
 import com.facebook.presto.operator.ExchangeClientSupplier;
+import com.facebook.presto.server.DirectResultsSigner;
 import com.facebook.presto.server.ForStatementResource;
 import com.facebook.presto.server.RetryConfig;
 import com.facebook.presto.spi.QueryId;
@@ -60,6 +62,8 @@ public class LocalQueryProvider
     private final ScheduledExecutorService timeoutExecutor;
     private final RetryCircuitBreaker retryCircuitBreaker;
     private final RetryConfig retryConfig;
+    private final QueryResultCache queryResultCache;
+    private final DirectResultsSigner directResultsSigner;
 
     private final ConcurrentMap<QueryId, Query> queries = new ConcurrentHashMap<>();
     private final ScheduledExecutorService queryPurger = newSingleThreadScheduledExecutor(threadsNamed("execution-query-purger"));
@@ -73,7 +77,9 @@ public class LocalQueryProvider
             @ForStatementResource BoundedExecutor responseExecutor,
             @ForStatementResource ScheduledExecutorService timeoutExecutor,
             RetryCircuitBreaker retryCircuitBreaker,
-            RetryConfig retryConfig)
+            RetryConfig retryConfig,
+            QueryResultCache queryResultCache,
+            DirectResultsSigner directResultsSigner)
     {
         this.queryManager = requireNonNull(queryManager, "queryManager is null");
         this.transactionManager = requireNonNull(transactionManager, "transactionManager is null");
@@ -83,6 +89,8 @@ public class LocalQueryProvider
         this.timeoutExecutor = requireNonNull(timeoutExecutor, "timeoutExecutor is null");
         this.retryCircuitBreaker = requireNonNull(retryCircuitBreaker, "retryCircuitBreaker is null");
         this.retryConfig = requireNonNull(retryConfig, "retryConfig is null");
+        this.queryResultCache = requireNonNull(queryResultCache, "queryResultCache is null");
+        this.directResultsSigner = requireNonNull(directResultsSigner, "directResultsSigner is null");
     }
 
     @PostConstruct
@@ -162,6 +170,8 @@ public class LocalQueryProvider
                     blockEncodingSerde,
                     retryCircuitBreaker,
                     retryConfig,
+                    queryResultCache,
+                    directResultsSigner,
                     retryUrl,
                     retryExpirationEpochTime,
                     isRetryQuery);
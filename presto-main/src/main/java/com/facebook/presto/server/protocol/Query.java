@@ -16,6 +16,7 @@ package com.facebook.presto.server.protocol;
 import com.facebook.airlift.log.Logger;
 import com.facebook.airlift.units.DataSize;
 import com.facebook.airlift.units.Duration;
+import com.facebook.presto.CompressionCodec;
 import com.facebook.presto.Session;
 import com.facebook.presto.client.Column;
 import com.facebook.presto.client.FailureInfo;
@@ -24,6 +25,7 @@ import com.facebook.presto.client.QueryResults;
 import com.facebook.presto.client.StatementStats;
 import com.facebook.presto.common.ErrorCode;
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockEncodingSerde;
 import com.facebook.presto.common.transaction.TransactionId;
 import com.facebook.presto.common.type.BooleanType;
@@ -32,10 +34,13 @@ import com.facebook.presto.common.type.Type;
 import com.facebook.presto.execution.QueryExecution;
 import com.facebook.presto.execution.QueryInfo;
 import com.facebook.presto.execution.QueryManager;
+import com.facebook.presto.execution.QueryResultCache;
 import com.facebook.presto.execution.QueryState;
 import com.facebook.presto.execution.StageInfo;
+import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.execution.buffer.PagesSerdeFactory;
 import com.facebook.presto.operator.ExchangeClient;
+import com.facebook.presto.server.DirectResultsSigner;
 import com.facebook.presto.server.RetryConfig;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.QueryId;
@@ -64,8 +69,12 @@ import jakarta.ws.rs.core.UriBuilder;
 import jakarta.ws.rs.core.UriInfo;
 
 import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -76,23 +85,31 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 
 import static com.facebook.airlift.concurrent.MoreFutures.addTimeout;
+import static com.facebook.presto.CompressionCodec.LZ4;
+import static com.facebook.presto.CompressionCodec.NONE;
+import static com.facebook.presto.CompressionCodec.ZSTD;
 import static com.facebook.presto.SystemSessionProperties.getExchangeCompressionCodec;
 import static com.facebook.presto.SystemSessionProperties.getQueryRetryLimit;
 import static com.facebook.presto.SystemSessionProperties.getQueryRetryMaxExecutionTime;
 import static com.facebook.presto.SystemSessionProperties.getTargetResultSize;
+import static com.facebook.presto.SystemSessionProperties.isDirectResultsEnabled;
 import static com.facebook.presto.SystemSessionProperties.isExchangeChecksumEnabled;
 import static com.facebook.presto.SystemSessionProperties.retryQueryWithHistoryBasedOptimizationEnabled;
 import static com.facebook.presto.SystemSessionProperties.trackHistoryBasedPlanStatisticsEnabled;
 import static com.facebook.presto.SystemSessionProperties.useHistoryBasedPlanStatisticsEnabled;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.execution.QueryState.FAILED;
 import static com.facebook.presto.execution.QueryState.WAITING_FOR_PREREQUISITES;
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static com.facebook.presto.spi.page.PageCodecMarker.COMPRESSED;
+import static com.facebook.presto.spi.page.PageCodecMarker.ENCRYPTED;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPage;
 import static com.facebook.presto.util.Failures.toFailure;
 import static com.facebook.presto.util.QueryInfoUtils.toStatementStats;
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.lang.String.format;
@@ -124,8 +141,13 @@ class Query
     private final ScheduledExecutorService timeoutExecutor;
 
     private final PagesSerde serde;
+    private final PagesSerde binaryResultsSerde;
+    private final CompressionCodec binaryResultsCompressionCodec;
+    private final boolean directResultsSupported;
+    private final DirectResultsSigner directResultsSigner;
     private final RetryCircuitBreaker retryCircuitBreaker;
     private final RetryConfig retryConfig;
+    private final QueryResultCache queryResultCache;
 
     @GuardedBy("this")
     private OptionalLong nextToken = OptionalLong.of(0);
@@ -133,6 +155,33 @@ class Query
     @GuardedBy("this")
     private QueryResults lastResult;
 
+    @GuardedBy("this")
+    private List<SerializedPage> lastBinaryPages = ImmutableList.of();
+
+    @GuardedBy("this")
+    private final Map<URI, TaskId> resultLocations = new LinkedHashMap<>();
+
+    @GuardedBy("this")
+    private boolean noMoreResultLocations;
+
+    // empty until the client shows whether it reads the results directly from the output buffers
+    @GuardedBy("this")
+    private Optional<Boolean> directResults = Optional.empty();
+
+    // the pages of the results found in the result cache, which are returned instead of the pages of the exchange
+    @GuardedBy("this")
+    private final Deque<SerializedPage> cachedResultPages = new ArrayDeque<>();
+
+    @GuardedBy("this")
+    private Optional<String> resultCacheKey = Optional.empty();
+
+    // the pages received so far, until the results are put in the result cache, or are known not to fit in it
+    @GuardedBy("this")
+    private List<SerializedPage> resultCachePages;
+
+    @GuardedBy("this")
+    private long resultCacheBytes;
+
     @GuardedBy("this")
     private long lastToken = -1;
 
@@ -192,6 +241,8 @@ class Query
             BlockEncodingSerde blockEncodingSerde,
             RetryCircuitBreaker retryCircuitBreaker,
             RetryConfig retryConfig,
+            QueryResultCache queryResultCache,
+            DirectResultsSigner directResultsSigner,
             Optional<URI> retryUrl,
             OptionalLong retryExpirationEpochTime,
             boolean isRetryQuery)
@@ -209,7 +260,9 @@ class Query
                 timeoutExecutor,
                 blockEncodingSerde,
                 retryCircuitBreaker,
-                retryConfig);
+                retryConfig,
+                queryResultCache,
+                directResultsSigner);
 
         result.queryManager.addOutputInfoListener(result.getQueryId(), result::setQueryOutputInfo);
 
@@ -236,7 +289,9 @@ class Query
             ScheduledExecutorService timeoutExecutor,
             BlockEncodingSerde blockEncodingSerde,
             RetryCircuitBreaker retryCircuitBreaker,
-            RetryConfig retryConfig)
+            RetryConfig retryConfig,
+            QueryResultCache queryResultCache,
+            DirectResultsSigner directResultsSigner)
     {
         requireNonNull(session, "session is null");
         requireNonNull(slug, "slug is null");
@@ -250,6 +305,8 @@ class Query
         requireNonNull(blockEncodingSerde, "serde is null");
         requireNonNull(retryCircuitBreaker, "retryCircuitBreaker is null");
         requireNonNull(retryConfig, "retryConfig is null");
+        requireNonNull(queryResultCache, "queryResultCache is null");
+        requireNonNull(directResultsSigner, "directResultsSigner is null");
 
         this.queryManager = queryManager;
         this.transactionManager = transactionManager;
@@ -264,9 +321,20 @@ class Query
         this.resultsProcessorExecutor = resultsProcessorExecutor;
         this.timeoutExecutor = timeoutExecutor;
 
-        this.serde = new PagesSerdeFactory(blockEncodingSerde, getExchangeCompressionCodec(session), isExchangeChecksumEnabled(session)).createPagesSerde();
+        CompressionCodec compressionCodec = getExchangeCompressionCodec(session);
+        this.serde = new PagesSerdeFactory(blockEncodingSerde, compressionCodec, isExchangeChecksumEnabled(session)).createPagesSerde();
+        // clients decode base64 encoded binary results without a decompressor, and raw binary results with the LZ4 and ZSTD ones
+        this.binaryResultsSerde = new PagesSerde(blockEncodingSerde, Optional.empty(), Optional.empty(), Optional.empty());
+        this.binaryResultsCompressionCodec = (compressionCodec == LZ4 || compressionCodec == ZSTD) ? compressionCodec : NONE;
+        // clients read the pages of the output buffers as they are, so they must be able to decompress them,
+        // and they can only access the output buffers through the URIs that are signed with the shared secret
+        this.directResultsSupported = isDirectResultsEnabled(session) &&
+                (compressionCodec == NONE || compressionCodec == LZ4 || compressionCodec == ZSTD) &&
+                directResultsSigner.isEnabled();
+        this.directResultsSigner = directResultsSigner;
         this.retryCircuitBreaker = retryCircuitBreaker;
         this.retryConfig = retryConfig;
+        this.queryResultCache = queryResultCache;
     }
 
     public void cancel()
@@ -278,6 +346,7 @@ class Query
     public synchronized void dispose()
     {
         exchangeClient.close();
+        resultCachePages = null;
     }
 
     public QueryId getQueryId()
@@ -352,7 +421,29 @@ class Query
         return removedSessionFunctions;
     }
 
-    public synchronized ListenableFuture<QueryResults> waitForResults(long token, UriInfo uriInfo, String scheme, Duration wait, DataSize targetResultSize, boolean binaryResults)
+    /**
+     * Returns the serialized pages of the given results, when they are raw binary results.
+     */
+    public synchronized List<SerializedPage> getBinaryPages(QueryResults queryResults)
+    {
+        // only the pages of the last results are kept, and the results of a retry have no data
+        if (queryResults != lastResult) {
+            return ImmutableList.of();
+        }
+        return lastBinaryPages;
+    }
+
+    public CompressionCodec getBinaryResultsCompressionCodec()
+    {
+        return binaryResultsCompressionCodec;
+    }
+
+    /**
+     * @param binaryResults generate results in binary format, rather than JSON
+     * @param rawBinaryResults keep the binary results as serialized pages, which are sent in the response
+     * body, rather than base64 encoding them in the JSON results
+     */
+    public synchronized ListenableFuture<QueryResults> waitForResults(long token, UriInfo uriInfo, String scheme, Duration wait, DataSize targetResultSize, boolean binaryResults, boolean rawBinaryResults)
     {
         // before waiting, check if this request has already been processed and cached
         Optional<QueryResults> cachedResult = getCachedResult(token);
@@ -368,7 +459,7 @@ class Query
                 timeoutExecutor);
 
         // when state changes, fetch the next result
-        return Futures.transform(futureStateChange, ignored -> getNextResultWithRetry(token, uriInfo, scheme, targetResultSize, binaryResults), resultsProcessorExecutor);
+        return Futures.transform(futureStateChange, ignored -> getNextResultWithRetry(token, uriInfo, scheme, targetResultSize, binaryResults, rawBinaryResults), resultsProcessorExecutor);
     }
 
     private synchronized ListenableFuture<?> getFutureStateChange()
@@ -421,9 +512,9 @@ class Query
         return Optional.empty();
     }
 
-    private synchronized QueryResults getNextResultWithRetry(long token, UriInfo uriInfo, String scheme, DataSize targetResultSize, boolean binaryResults)
+    private synchronized QueryResults getNextResultWithRetry(long token, UriInfo uriInfo, String scheme, DataSize targetResultSize, boolean binaryResults, boolean rawBinaryResults)
     {
-        QueryResults queryResults = getNextResult(token, uriInfo, scheme, targetResultSize, binaryResults);
+        QueryResults queryResults = getNextResult(token, uriInfo, scheme, targetResultSize, binaryResults, rawBinaryResults);
 
         if (queryResults.getError() == null) {
             return queryResults;
@@ -481,7 +572,7 @@ class Query
                 queryResults.getUpdateCount());
     }
 
-    private synchronized QueryResults getNextResult(long token, UriInfo uriInfo, String scheme, DataSize targetResultSize, boolean binaryResults)
+    private synchronized QueryResults getNextResult(long token, UriInfo uriInfo, String scheme, DataSize targetResultSize, boolean binaryResults, boolean rawBinaryResults)
     {
         // check if the result for the token have already been created
         Optional<QueryResults> cachedResult = getCachedResult(token);
@@ -504,14 +595,15 @@ class Query
         // the pages will be lost.
         Iterable<List<Object>> data = null;
         List<String> binaryData = null;
+        List<SerializedPage> binaryPages = ImmutableList.of();
         try {
             long rows = 0;
             long bytes = 0;
             long targetResultBytes = targetResultSize.toBytes();
             if (binaryResults) {
-                ImmutableList.Builder<String> pages = ImmutableList.builder();
+                ImmutableList.Builder<SerializedPage> pages = ImmutableList.builder();
                 while (bytes < targetResultBytes) {
-                    SerializedPage serializedPage = exchangeClient.pollPage();
+                    SerializedPage serializedPage = pollPage();
                     if (serializedPage == null) {
                         break;
                     }
@@ -519,21 +611,26 @@ class Query
                     rows += serializedPage.getPositionCount();
                     bytes += serializedPage.getSizeInBytes();
 
-                    DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1000);
-                    writeSerializedPage(sliceOutput, serializedPage);
-
-                    byte[] binaryResultArray = sliceOutput.slice().byteArray();
-                    String encodedPage = BaseEncoding.base64().encode(binaryResultArray, 0, sliceOutput.size());
-                    pages.add(encodedPage);
+                    // raw pages are sent as they were received from the exchange, unless the client cannot decompress them
+                    byte markers = serializedPage.getPageCodecMarkers();
+                    if (ENCRYPTED.isSet(markers) || (COMPRESSED.isSet(markers) && (!rawBinaryResults || binaryResultsCompressionCodec == NONE))) {
+                        serializedPage = binaryResultsSerde.serialize(serde.deserialize(serializedPage));
+                    }
+                    pages.add(serializedPage);
                 }
                 if (rows > 0) {
-                    binaryData = pages.build();
+                    binaryPages = pages.build();
+                    if (!rawBinaryResults) {
+                        binaryData = binaryPages.stream()
+                                .map(Query::encodeBinaryPage)
+                                .collect(toImmutableList());
+                    }
                 }
             }
             else {
                 ImmutableList.Builder<RowIterable> pages = ImmutableList.builder();
                 while (bytes < targetResultBytes) {
-                    SerializedPage serializedPage = exchangeClient.pollPage();
+                    SerializedPage serializedPage = pollPage();
                     if (serializedPage == null) {
                         break;
                     }
@@ -561,23 +658,42 @@ class Query
         QueryInfo queryInfo = queryManager.getFullQueryInfo(queryId);
         queryManager.recordHeartbeat(queryId);
 
+        // once the client knows the columns, it asks for raw binary results if it can read them directly from the workers
+        if (directResultsSupported && !directResults.isPresent() && lastResult != null && lastResult.getColumns() != null) {
+            setDirectResults(rawBinaryResults && queryInfo.getUpdateInfo() == null);
+        }
+
         // TODO: figure out a better way to do this
         // grab the update count for non-queries
-        if ((data != null) && (queryInfo.getUpdateInfo() != null) && (updateCount == null) &&
+        if (((data != null) || !binaryPages.isEmpty()) && (queryInfo.getUpdateInfo() != null) && (updateCount == null) &&
                 (columns.size() == 1) && (columns.get(0).getType().equals(StandardTypes.BIGINT))) {
-            Iterator<List<Object>> iterator = data.iterator();
-            if (iterator.hasNext()) {
-                Number number = (Number) iterator.next().get(0);
-                if (number != null) {
-                    updateCount = number.longValue();
+            if (data != null) {
+                Iterator<List<Object>> iterator = data.iterator();
+                if (iterator.hasNext()) {
+                    Number number = (Number) iterator.next().get(0);
+                    if (number != null) {
+                        updateCount = number.longValue();
+                    }
+                }
+            }
+            else {
+                Block block = serde.deserialize(binaryPages.get(0)).getBlock(0);
+                if (block.getPositionCount() > 0 && !block.isNull(0)) {
+                    updateCount = BIGINT.getLong(block, 0);
                 }
             }
         }
 
         closeExchangeClientIfNecessary(queryInfo);
 
+        // the exchange is closed once all the results are received
+        if (resultCachePages != null && exchangeClient.isClosed() && queryInfo.getState() == QueryState.FINISHED) {
+            queryResultCache.put(resultCacheKey.get(), resultCachePages);
+            resultCachePages = null;
+        }
+
         // for queries with no output, return a fake result for clients that require it
-        if ((queryInfo.getState() == QueryState.FINISHED) && !queryInfo.getOutputStage().isPresent()) {
+        if ((queryInfo.getState() == QueryState.FINISHED) && !hasOutput(queryInfo)) {
             columns = ImmutableList.of(new Column("result", BooleanType.BOOLEAN));
             data = ImmutableSet.of(ImmutableList.of(true));
         }
@@ -587,7 +703,7 @@ class Query
         // (1) the query is not done AND the query state is not FAILED
         //   OR
         // (2)there is more data to send (due to buffering)
-        if ((!queryInfo.isFinalQueryInfo() && queryInfo.getState() != FAILED) || !exchangeClient.isClosed()) {
+        if ((!queryInfo.isFinalQueryInfo() && queryInfo.getState() != FAILED) || !exchangeClient.isClosed() || !cachedResultPages.isEmpty()) {
             nextToken = OptionalLong.of(token + 1);
         }
         else {
@@ -631,6 +747,7 @@ class Query
                 columns,
                 data,
                 binaryData,
+                directResults.orElse(false) ? getResultSegments() : null,
                 toStatementStats(queryInfo),
                 toQueryError(queryInfo),
                 queryInfo.getWarnings(),
@@ -640,21 +757,60 @@ class Query
         // cache the new result
         lastToken = token;
         lastResult = queryResults;
+        lastBinaryPages = binaryPages;
 
         return queryResults;
     }
 
+    /**
+     * Returns the next page of the results, which comes from the result cache on a hit, and otherwise
+     * from the exchange, in which case it is also collected to be put in the result cache.
+     */
+    private synchronized SerializedPage pollPage()
+    {
+        if (!cachedResultPages.isEmpty()) {
+            return cachedResultPages.poll();
+        }
+
+        SerializedPage serializedPage = exchangeClient.pollPage();
+        if (serializedPage != null && resultCachePages != null) {
+            resultCacheBytes += serializedPage.getSizeInBytes();
+            if (ENCRYPTED.isSet(serializedPage.getPageCodecMarkers()) || resultCacheBytes > queryResultCache.getMaxEntrySizeInBytes()) {
+                resultCachePages = null;
+            }
+            else {
+                resultCachePages.add(serializedPage);
+            }
+        }
+        return serializedPage;
+    }
+
+    private static String encodeBinaryPage(SerializedPage serializedPage)
+    {
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1000);
+        writeSerializedPage(sliceOutput, serializedPage);
+
+        byte[] binaryResultArray = sliceOutput.slice().byteArray();
+        return BaseEncoding.base64().encode(binaryResultArray, 0, sliceOutput.size());
+    }
+
     private synchronized void closeExchangeClientIfNecessary(QueryInfo queryInfo)
     {
         // Close the exchange client if the query has failed, or if the query
         // is done and it does not have an output stage. The latter happens
         // for data definition executions, as those do not have output.
         if ((queryInfo.getState() == FAILED) ||
-                (queryInfo.getState().isDone() && !queryInfo.getOutputStage().isPresent())) {
+                (queryInfo.getState().isDone() && !hasOutput(queryInfo))) {
             exchangeClient.close();
         }
     }
 
+    private static boolean hasOutput(QueryInfo queryInfo)
+    {
+        // the results of queries served from the result cache have columns, but no output stage
+        return queryInfo.getOutputStage().isPresent() || !queryInfo.getFieldNames().isEmpty();
+    }
+
     private synchronized void setQueryOutputInfo(QueryExecution.QueryOutputInfo outputInfo)
     {
         // if first callback, set column names
@@ -669,6 +825,29 @@ class Query
             }
             columns = list.build();
             types = outputInfo.getColumnTypes();
+
+            if (outputInfo.getCachedResults().isPresent()) {
+                List<SerializedPage> pages = outputInfo.getCachedResults().get();
+                cachedResultPages.addAll(pages);
+                queryManager.getStats().recordResultCacheHit(QueryResultCache.getSizeInBytes(pages));
+                // the query has no output buffers to read, directly or through the exchange
+                directResults = Optional.of(false);
+                exchangeClient.close();
+                return;
+            }
+
+            resultCacheKey = outputInfo.getResultCacheKey();
+            if (resultCacheKey.isPresent()) {
+                queryManager.getStats().recordResultCacheMiss();
+                resultCachePages = new ArrayList<>();
+            }
+        }
+
+        if (directResultsSupported) {
+            resultLocations.putAll(outputInfo.getBufferLocations());
+            noMoreResultLocations = outputInfo.isNoMoreBufferLocations();
+            directResults.ifPresent(this::setDirectResults);
+            return;
         }
 
         outputInfo.getBufferLocations().forEach(exchangeClient::addLocation);
@@ -677,6 +856,32 @@ class Query
         }
     }
 
+    private synchronized List<URI> getResultSegments()
+    {
+        return resultLocations.entrySet().stream()
+                .map(location -> directResultsSigner.createSegmentUri(location.getKey(), location.getValue()))
+                .collect(toImmutableList());
+    }
+
+    /**
+     * Hands the known output buffers to the exchange client, unless the client reads them directly, in
+     * which case it gets their locations in the query results and the exchange client finishes empty.
+     */
+    private synchronized void setDirectResults(boolean directResults)
+    {
+        this.directResults = Optional.of(directResults);
+        if (directResults) {
+            // the results do not go through the coordinator, so they cannot be cached
+            resultCachePages = null;
+        }
+        else {
+            resultLocations.forEach(exchangeClient::addLocation);
+        }
+        if (noMoreResultLocations) {
+            exchangeClient.noMoreLocations();
+        }
+    }
+
     private ListenableFuture<?> queryDoneFuture(QueryState currentState)
     {
         if (currentState.isDone()) {
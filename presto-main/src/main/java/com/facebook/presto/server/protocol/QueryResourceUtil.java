@@ -28,11 +28,16 @@ import com.facebook.presto.execution.QueryState;
 import com.facebook.presto.spi.QueryId;
 import com.facebook.presto.spi.function.SqlFunctionId;
 import com.facebook.presto.spi.function.SqlInvokedFunction;
+import com.facebook.presto.spi.page.SerializedPage;
 import com.google.common.collect.ImmutableList;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.SliceOutput;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.CacheControl;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import jakarta.ws.rs.core.UriBuilder;
 import jakarta.ws.rs.core.UriInfo;
 
@@ -52,11 +57,14 @@ import java.util.Set;
 import static com.facebook.airlift.json.JsonCodec.jsonCodec;
 import static com.facebook.airlift.json.JsonCodec.listJsonCodec;
 import static com.facebook.airlift.json.JsonCodec.mapJsonCodec;
+import static com.facebook.presto.PrestoMediaTypes.PRESTO_PAGES;
+import static com.facebook.presto.PrestoMediaTypes.PRESTO_PAGES_TYPE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_ADDED_PREPARE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_ADDED_SESSION_FUNCTION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLEAR_SESSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLEAR_TRANSACTION_ID;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_DEALLOCATED_PREPARE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGES_COMPRESSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PREFIX_URL;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_REMOVED_SESSION_FUNCTION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_SET_CATALOG;
@@ -71,6 +79,7 @@ import static com.facebook.presto.common.type.TypeSignature.parseTypeSignature;
 import static com.facebook.presto.execution.QueryState.FAILED;
 import static com.facebook.presto.execution.QueryState.QUEUED;
 import static com.facebook.presto.execution.QueryState.WAITING_FOR_PREREQUISITES;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPages;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static jakarta.ws.rs.core.MediaType.TEXT_PLAIN_TYPE;
@@ -83,6 +92,7 @@ import static java.util.stream.Collectors.toList;
 public final class QueryResourceUtil
 {
     private static final Logger log = Logger.get(QueryResourceUtil.class);
+    private static final JsonCodec<QueryResults> QUERY_RESULTS_JSON_CODEC = jsonCodec(QueryResults.class);
     private static final JsonCodec<SqlFunctionId> SQL_FUNCTION_ID_JSON_CODEC = jsonCodec(SqlFunctionId.class);
     private static final JsonCodec<SqlInvokedFunction> SQL_INVOKED_FUNCTION_JSON_CODEC = jsonCodec(SqlInvokedFunction.class);
     private static final JsonCodec<List<Object>> LIST_JSON_CODEC = listJsonCodec(Object.class);
@@ -93,8 +103,11 @@ public final class QueryResourceUtil
 
     public static Response toResponse(Query query, QueryResults queryResults, boolean compressionEnabled, long durationUntilExpirationMs)
     {
-        Response.ResponseBuilder response = Response.ok(queryResults);
+        return toResponse(query, Response.ok(queryResults), compressionEnabled, durationUntilExpirationMs);
+    }
 
+    private static Response toResponse(Query query, Response.ResponseBuilder response, boolean compressionEnabled, long durationUntilExpirationMs)
+    {
         // add set catalog and schema
         query.getSetCatalog().ifPresent(catalog -> response.header(PRESTO_SET_CATALOG, catalog));
         query.getSetSchema().ifPresent(schema -> response.header(PRESTO_SET_SCHEMA, schema));
@@ -161,12 +174,54 @@ public final class QueryResourceUtil
             boolean compressionEnabled,
             boolean nestedDataSerializationEnabled,
             long durationUntilExpirationMs)
+    {
+        QueryResults resultsClone = prepareQueryResults(queryResults, xPrestoPrefixUri, nestedDataSerializationEnabled);
+        return toResponse(query, resultsClone, compressionEnabled, durationUntilExpirationMs);
+    }
+
+    /**
+     * Creates an {@code application/X-presto-pages} response for raw binary results. The body is the
+     * length prefixed JSON results, without the data, followed by the serialized pages of the results
+     * as they are sent by the task results endpoint.
+     */
+    public static Response toBinaryResponse(
+            Query query,
+            QueryResults queryResults,
+            String xPrestoPrefixUri,
+            boolean nestedDataSerializationEnabled,
+            long durationUntilExpirationMs)
+    {
+        byte[] status = QUERY_RESULTS_JSON_CODEC.toJsonBytes(prepareQueryResults(queryResults, xPrestoPrefixUri, nestedDataSerializationEnabled));
+        List<SerializedPage> pages = query.getBinaryPages(queryResults);
+        StreamingOutput body = output -> {
+            SliceOutput sliceOutput = new OutputStreamSliceOutput(output);
+            sliceOutput.writeInt(status.length);
+            sliceOutput.writeBytes(status);
+            writeSerializedPages(sliceOutput, pages);
+            sliceOutput.flush();
+        };
+        Response.ResponseBuilder response = Response.ok(body, PRESTO_PAGES)
+                .header(PRESTO_PAGES_COMPRESSION, query.getBinaryResultsCompressionCodec());
+        // the pages are already compressed if the exchange compresses them
+        return toResponse(query, response, false, durationUntilExpirationMs);
+    }
+
+    /**
+     * Returns whether the client accepts raw binary results, which it only does when it asks for binary results.
+     */
+    public static boolean acceptsBinaryPages(HttpHeaders httpHeaders)
+    {
+        return httpHeaders.getAcceptableMediaTypes().stream()
+                .anyMatch(type -> PRESTO_PAGES_TYPE.type().equalsIgnoreCase(type.getType()) && PRESTO_PAGES_TYPE.subtype().equalsIgnoreCase(type.getSubtype()));
+    }
+
+    private static QueryResults prepareQueryResults(QueryResults queryResults, String xPrestoPrefixUri, boolean nestedDataSerializationEnabled)
     {
         Iterable<List<Object>> queryResultsData = queryResults.getData();
         if (nestedDataSerializationEnabled) {
             queryResultsData = prepareJsonData(queryResults.getColumns(), queryResultsData);
         }
-        QueryResults resultsClone = new QueryResults(
+        return new QueryResults(
                 queryResults.getId(),
                 prependUri(queryResults.getInfoUri(), xPrestoPrefixUri),
                 prependUri(queryResults.getPartialCancelUri(), xPrestoPrefixUri),
@@ -174,13 +229,12 @@ public final class QueryResourceUtil
                 queryResults.getColumns(),
                 queryResultsData,
                 queryResults.getBinaryData(),
+                queryResults.getSegments(),
                 queryResults.getStats(),
                 queryResults.getError(),
                 queryResults.getWarnings(),
                 queryResults.getUpdateType(),
                 queryResults.getUpdateCount());
-
-        return toResponse(query, resultsClone, compressionEnabled, durationUntilExpirationMs);
     }
 
     public static CacheControl getCacheControlMaxAge(long durationUntilExpirationMs)
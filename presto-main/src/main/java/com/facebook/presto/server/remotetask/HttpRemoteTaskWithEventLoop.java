@@ -30,6 +30,7 @@ import com.facebook.airlift.units.DataSize;
 import com.facebook.airlift.units.Duration;
 import com.facebook.drift.transport.netty.codec.Protocol;
 import com.facebook.presto.Session;
+import com.facebook.presto.SessionRepresentation;
 import com.facebook.presto.execution.FutureStateChange;
 import com.facebook.presto.execution.Lifespan;
 import com.facebook.presto.execution.NodeTaskMap.NodeStatsTracker;
@@ -68,6 +69,7 @@ import com.google.common.base.Ticker;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.ObjectArrays;
 import com.google.common.collect.SetMultimap;
@@ -86,7 +88,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Future;
@@ -95,7 +96,6 @@ import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Stream;
 
 import static com.facebook.airlift.http.client.HttpStatus.NO_CONTENT;
 import static com.facebook.airlift.http.client.HttpStatus.OK;
@@ -104,6 +104,7 @@ import static com.facebook.airlift.http.client.Request.Builder.prepareDelete;
 import static com.facebook.airlift.http.client.Request.Builder.preparePost;
 import static com.facebook.airlift.http.client.StaticBodyGenerator.createStaticBodyGenerator;
 import static com.facebook.airlift.http.client.StatusResponseHandler.createStatusResponseHandler;
+import static com.facebook.presto.SystemSessionProperties.getMaxSplitsPerTaskUpdate;
 import static com.facebook.presto.SystemSessionProperties.getMaxUnacknowledgedSplitsPerTask;
 import static com.facebook.presto.execution.TaskInfo.createInitialTask;
 import static com.facebook.presto.execution.TaskState.ABORTED;
@@ -165,6 +166,7 @@ public final class HttpRemoteTaskWithEventLoop
     private final URI remoteTaskLocation;
 
     private final Session session;
+    private final SessionRepresentation sessionRepresentation;
     private final String nodeId;
     private final PlanFragment planFragment;
 
@@ -183,7 +185,8 @@ public final class HttpRemoteTaskWithEventLoop
     private long currentRequestStartNanos;
     private long currentRequestLastTaskUpdate;
 
-    private final SetMultimap<PlanNodeId, ScheduledSplit> pendingSplits = HashMultimap.create();
+    // the splits are kept in the order they were scheduled, which is the order in which they are sent to the task
+    private final SetMultimap<PlanNodeId, ScheduledSplit> pendingSplits = LinkedHashMultimap.create();
     private final AtomicInteger pendingSourceSplitCount = new AtomicInteger();
     private final AtomicLong pendingSourceSplitsWeight = new AtomicLong();
     private final SetMultimap<PlanNodeId, Lifespan> pendingNoMoreSplitsForLifespan = HashMultimap.create();
@@ -224,6 +227,7 @@ public final class HttpRemoteTaskWithEventLoop
     private final HandleResolver handleResolver;
     private final int maxTaskUpdateSizeInBytes;
     private final int maxUnacknowledgedSplits;
+    private final int maxSplitsPerTaskUpdate;
     private final DataSize maxTaskUpdateDataSize;
 
     private final TableWriteInfo tableWriteInfo;
@@ -386,6 +390,7 @@ public final class HttpRemoteTaskWithEventLoop
         this.taskLocation = location;
         this.remoteTaskLocation = remoteLocation;
         this.session = session;
+        this.sessionRepresentation = session.toSessionRepresentation();
         this.nodeId = nodeId;
         this.planFragment = planFragment;
         this.outputBuffers = outputBuffers;
@@ -412,6 +417,8 @@ public final class HttpRemoteTaskWithEventLoop
         this.maxTaskUpdateDataSize = DataSize.succinctBytes(this.maxTaskUpdateSizeInBytes);
         this.maxUnacknowledgedSplits = getMaxUnacknowledgedSplitsPerTask(session);
         checkArgument(maxUnacknowledgedSplits > 0, "maxUnacknowledgedSplits must be > 0, found: %s", maxUnacknowledgedSplits);
+        this.maxSplitsPerTaskUpdate = getMaxSplitsPerTaskUpdate(session);
+        checkArgument(maxSplitsPerTaskUpdate > 0, "maxSplitsPerTaskUpdate must be > 0, found: %s", maxSplitsPerTaskUpdate);
 
         this.tableScanPlanNodeIds = ImmutableSet.copyOf(planFragment.getTableScanSchedulingOrder());
         this.remoteSourcePlanNodeIds = planFragment.getRemoteSourceNodes().stream()
@@ -1002,7 +1009,7 @@ public final class HttpRemoteTaskWithEventLoop
             }
             Optional<TableWriteInfo> writeInfo = sendPlan ? Optional.of(tableWriteInfo) : Optional.empty();
             TaskUpdateRequest updateRequest = new TaskUpdateRequest(
-                    session.toSessionRepresentation(),
+                    sessionRepresentation,
                     session.getIdentity().getExtraCredentials(),
                     fragment,
                     sources,
@@ -1061,8 +1068,9 @@ public final class HttpRemoteTaskWithEventLoop
             }
 
             // The needsUpdate flag needs to be set to false BEFORE adding the Future callback since callback might change the flag value
-            // and does so without grabbing the instance lock.
-            needsUpdate = false;
+            // and does so without grabbing the instance lock. It stays set if some of the leaf splits did not fit in this update,
+            // so that they are streamed to the task in the following updates.
+            needsUpdate = sources.stream().mapToInt(source -> source.getSplits().size()).sum() < pendingSplits.size();
 
             if (taskInfoResponseThriftSerdeEnabled) {
                 Futures.addCallback(
@@ -1087,15 +1095,39 @@ public final class HttpRemoteTaskWithEventLoop
 
     private List<TaskSource> getSources()
     {
-        return Stream.concat(tableScanPlanNodeIds.stream(), remoteSourcePlanNodeIds.stream())
-                .map(this::getSource)
-                .filter(Objects::nonNull)
-                .collect(toImmutableList());
+        // the leaf splits are sent in batches of bounded size, while the splits of the remote sources are always sent
+        ImmutableList.Builder<TaskSource> sources = ImmutableList.builder();
+        int remainingSplits = maxSplitsPerTaskUpdate;
+        for (PlanNodeId planNodeId : tableScanPlanNodeIds) {
+            TaskSource source = getSource(planNodeId, remainingSplits);
+            if (source != null) {
+                sources.add(source);
+                remainingSplits -= source.getSplits().size();
+            }
+        }
+        for (PlanNodeId planNodeId : remoteSourcePlanNodeIds) {
+            TaskSource source = getSource(planNodeId, Integer.MAX_VALUE);
+            if (source != null) {
+                sources.add(source);
+            }
+        }
+        return sources.build();
     }
 
-    private TaskSource getSource(PlanNodeId planNodeId)
+    private TaskSource getSource(PlanNodeId planNodeId, int maxSplits)
     {
         Set<ScheduledSplit> splits = pendingSplits.get(planNodeId);
+        if (splits.size() > maxSplits) {
+            // the source is completed, together with its lifespans, in the update that carries its last splits
+            if (maxSplits == 0) {
+                return null;
+            }
+            Set<ScheduledSplit> batch = splits.stream()
+                    .limit(maxSplits)
+                    .collect(toImmutableSet());
+            return new TaskSource(planNodeId, batch, ImmutableSet.of(), false);
+        }
+
         boolean pendingNoMoreSplits = Boolean.TRUE.equals(this.noMoreSplits.get(planNodeId));
         boolean noMoreSplits = this.noMoreSplits.containsKey(planNodeId);
         Set<Lifespan> noMoreSplitsForLifespan = pendingNoMoreSplitsForLifespan.get(planNodeId);
@@ -54,6 +54,7 @@ import static com.facebook.airlift.http.client.Request.Builder.prepareGet;
 import static com.facebook.airlift.units.Duration.nanosSince;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CURRENT_STATE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_MAX_WAIT;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_TASK_PIPELINES_FINGERPRINT;
 import static com.facebook.presto.server.RequestErrorTracker.taskRequestErrorTracker;
 import static com.facebook.presto.server.RequestHelpers.setContentTypeHeaders;
 import static com.facebook.presto.server.smile.AdaptingJsonResponseHandler.createAdaptingJsonResponseHandler;
@@ -264,6 +265,10 @@ public class TaskInfoFetcherWithEventLoop
             requestBuilder.setHeader(PRESTO_CURRENT_STATE, taskStatus.getState().toString())
                     .setHeader(PRESTO_MAX_WAIT, taskInfoRefreshMaxWait.toString());
         }
+        if (!summarizeTaskInfo && !taskInfo.getStats().getPipelines().isEmpty()) {
+            // the worker leaves out the pipelines if their stats have not changed since this update
+            requestBuilder.setHeader(PRESTO_TASK_PIPELINES_FINGERPRINT, String.valueOf(taskInfo.getStats().getPipelinesFingerprint()));
+        }
 
         Request request = requestBuilder.setUri(uri).build();
         errorTracker.startRequest();
@@ -315,7 +320,15 @@ public class TaskInfoFetcherWithEventLoop
         startNanos = this.currentRequestStartNanos;
         updateStats(startNanos);
         errorTracker.requestSucceeded();
-        updateTaskInfo(newValue);
+
+        TaskInfo mergedValue = newValue.withPipelinesFrom(getTaskInfo());
+        if (mergedValue != newValue) {
+            stats.infoUpdateWithoutPipelines();
+        }
+        else {
+            stats.infoUpdateWithPipelines();
+        }
+        updateTaskInfo(mergedValue);
     }
 
     @Override
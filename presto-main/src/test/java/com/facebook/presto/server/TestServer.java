@@ -17,6 +17,8 @@ import com.facebook.airlift.http.client.FullJsonResponseHandler.JsonResponse;
 import com.facebook.airlift.http.client.HttpClient;
 import com.facebook.airlift.http.client.HttpUriBuilder;
 import com.facebook.airlift.http.client.Request;
+import com.facebook.airlift.http.client.Response;
+import com.facebook.airlift.http.client.ResponseHandler;
 import com.facebook.airlift.http.client.StatusResponseHandler;
 import com.facebook.airlift.http.client.UnexpectedResponseException;
 import com.facebook.airlift.http.client.jetty.JettyHttpClient;
@@ -38,13 +40,17 @@ import com.facebook.presto.spi.page.PagesSerde;
 import com.facebook.presto.spi.page.SerializedPage;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
 import io.airlift.slice.BasicSliceInput;
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
 import io.airlift.slice.Slices;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.Base64;
 import java.util.List;
@@ -56,14 +62,19 @@ import static com.facebook.airlift.http.client.Request.Builder.prepareGet;
 import static com.facebook.airlift.http.client.Request.Builder.prepareHead;
 import static com.facebook.airlift.http.client.Request.Builder.preparePost;
 import static com.facebook.airlift.http.client.Request.Builder.preparePut;
+import static com.facebook.airlift.http.client.ResponseHandlerUtils.propagate;
 import static com.facebook.airlift.http.client.StaticBodyGenerator.createStaticBodyGenerator;
 import static com.facebook.airlift.http.client.StatusResponseHandler.createStatusResponseHandler;
 import static com.facebook.airlift.json.JsonCodec.jsonCodec;
+import static com.facebook.presto.PrestoMediaTypes.PRESTO_PAGES;
+import static com.facebook.presto.SystemSessionProperties.EXCHANGE_COMPRESSION_CODEC;
 import static com.facebook.presto.SystemSessionProperties.HASH_PARTITION_COUNT;
 import static com.facebook.presto.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
 import static com.facebook.presto.SystemSessionProperties.QUERY_MAX_MEMORY;
+import static com.facebook.presto.SystemSessionProperties.TARGET_RESULT_SIZE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CATALOG;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLIENT_INFO;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGES_COMPRESSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PREPARED_STATEMENT;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_RETRY_QUERY;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_SCHEMA;
@@ -74,6 +85,7 @@ import static com.facebook.presto.client.PrestoHeaders.PRESTO_STARTED_TRANSACTIO
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_TIME_ZONE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_TRANSACTION_ID;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_USER;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.server.TestHttpRequestSessionContext.createFunctionAdd;
 import static com.facebook.presto.server.TestHttpRequestSessionContext.createSqlFunctionIdAdd;
@@ -81,6 +93,8 @@ import static com.facebook.presto.server.TestHttpRequestSessionContext.urlEncode
 import static com.facebook.presto.spi.StandardErrorCode.INCOMPATIBLE_CLIENT;
 import static com.facebook.presto.spi.StandardErrorCode.REMOTE_TASK_ERROR;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.readSerializedPage;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.readSerializedPages;
+import static jakarta.ws.rs.core.HttpHeaders.ACCEPT;
 import static jakarta.ws.rs.core.HttpHeaders.CACHE_CONTROL;
 import static jakarta.ws.rs.core.HttpHeaders.CONTENT_TYPE;
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
@@ -89,6 +103,7 @@ import static java.lang.Integer.parseInt;
 import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
@@ -212,6 +227,66 @@ public class TestServer
         assertEquals(slice.toStringUtf8(), "system");
     }
 
+    @Test
+    public void testRawBinaryResults()
+    {
+        // start query
+        URI uri = buildStatementUri(true);
+        Request request = preparePost()
+                .setUri(uri)
+                .setBodyGenerator(createStaticBodyGenerator("SELECT a * 10000 + b FROM UNNEST(sequence(0, 19)) t(a) CROSS JOIN UNNEST(sequence(1, 10000)) u(b)", UTF_8))
+                .setHeader(PRESTO_USER, "user")
+                .setHeader(PRESTO_SOURCE, "source")
+                .setHeader(PRESTO_CATALOG, "catalog")
+                .setHeader(PRESTO_SCHEMA, "schema")
+                .addHeader(PRESTO_SESSION, EXCHANGE_COMPRESSION_CODEC + "=LZ4")
+                .addHeader(PRESTO_SESSION, TARGET_RESULT_SIZE + "=1kB")
+                .build();
+
+        QueryResults queryResults = client.execute(request, createJsonResponseHandler(QUERY_RESULTS_CODEC));
+
+        // the results that are ready when the query starts are sent as JSON, up to the default target result size
+        // which is smaller than the results, and the pages of the next results are sent raw
+        ImmutableList.Builder<SerializedPage> serializedPages = ImmutableList.builder();
+        BinaryResultsResponseHandler responseHandler = new BinaryResultsResponseHandler();
+        while (queryResults.getNextUri() != null) {
+            Request nextRequest = prepareGet()
+                    .setUri(queryResults.getNextUri())
+                    .setHeader(ACCEPT, PRESTO_PAGES + ", " + APPLICATION_JSON)
+                    .build();
+            queryResults = client.execute(nextRequest, responseHandler);
+
+            assertNull(queryResults.getData());
+            if (queryResults.getBinaryData() != null) {
+                for (String encodedPage : queryResults.getBinaryData()) {
+                    serializedPages.add(readSerializedPage(Slices.wrappedBuffer(Base64.getDecoder().decode(encodedPage)).getInput()));
+                }
+            }
+        }
+
+        if (queryResults.getError() != null) {
+            fail(queryResults.getError().toString());
+        }
+
+        List<SerializedPage> rawPages = responseHandler.getSerializedPages();
+        assertFalse(rawPages.isEmpty());
+        serializedPages.addAll(rawPages);
+
+        PagesSerde pagesSerde = new PagesSerdeFactory(new BlockEncodingManager(), CompressionCodec.LZ4, false).createPagesSerde();
+        long rows = 0;
+        long sum = 0;
+        for (SerializedPage serializedPage : serializedPages.build()) {
+            Page page = pagesSerde.deserialize(serializedPage);
+            assertEquals(page.getChannelCount(), 1);
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                sum += BIGINT.getLong(page.getBlock(0), position);
+            }
+            rows += page.getPositionCount();
+        }
+        assertEquals(rows, 200_000);
+        assertEquals(sum, 20_000_100_000L);
+    }
+
     @Test
     public void testQuery()
     {
@@ -776,6 +851,45 @@ public class TestServer
                 .build();
     }
 
+    private static class BinaryResultsResponseHandler
+            implements ResponseHandler<QueryResults, RuntimeException>
+    {
+        private final ImmutableList.Builder<SerializedPage> serializedPages = ImmutableList.builder();
+
+        public List<SerializedPage> getSerializedPages()
+        {
+            return serializedPages.build();
+        }
+
+        @Override
+        public QueryResults handleException(Request request, Exception exception)
+        {
+            throw propagate(request, exception);
+        }
+
+        @Override
+        public QueryResults handle(Request request, Response response)
+        {
+            assertEquals(response.getStatusCode(), OK.getStatusCode());
+            try {
+                byte[] body = ByteStreams.toByteArray(response.getInputStream());
+                if (!PRESTO_PAGES.equalsIgnoreCase(response.getHeader(CONTENT_TYPE))) {
+                    return QUERY_RESULTS_CODEC.fromJson(body);
+                }
+
+                assertEquals(response.getHeader(PRESTO_PAGES_COMPRESSION), "LZ4");
+                SliceInput input = Slices.wrappedBuffer(body).getInput();
+                QueryResults queryResults = QUERY_RESULTS_CODEC.fromJson(input.readSlice(input.readInt()).getBytes());
+                assertNull(queryResults.getBinaryData());
+                readSerializedPages(input).forEachRemaining(serializedPages::add);
+                return queryResults;
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
     private URI buildStatementUri()
     {
         return buildStatementUri(null, null, false);
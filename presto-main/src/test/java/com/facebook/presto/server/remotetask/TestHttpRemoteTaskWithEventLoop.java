@@ -30,6 +30,7 @@ import com.facebook.drift.codec.utils.DataSizeToBytesThriftCodec;
 import com.facebook.drift.codec.utils.DurationToMillisThriftCodec;
 import com.facebook.drift.codec.utils.JodaDateTimeToEpochMillisThriftCodec;
 import com.facebook.drift.codec.utils.LocaleToLanguageTagCodec;
+import com.facebook.presto.Session;
 import com.facebook.presto.client.NodeVersion;
 import com.facebook.presto.common.ErrorCode;
 import com.facebook.presto.common.type.Type;
@@ -128,6 +129,7 @@ import static com.facebook.airlift.json.JsonCodecBinder.jsonCodecBinder;
 import static com.facebook.airlift.json.smile.SmileCodecBinder.smileCodecBinder;
 import static com.facebook.drift.codec.guice.ThriftCodecBinder.thriftCodecBinder;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.SystemSessionProperties.MAX_SPLITS_PER_TASK_UPDATE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CURRENT_STATE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_MAX_WAIT;
 import static com.facebook.presto.execution.TaskTestUtils.TABLE_SCAN_NODE_ID;
@@ -222,6 +224,41 @@ public class TestHttpRemoteTaskWithEventLoop
         httpRemoteTaskFactory.stop();
     }
 
+    @Test(timeOut = 60000)
+    public void testSplitBatches()
+            throws Exception
+    {
+        AtomicLong lastActivityNanos = new AtomicLong(System.nanoTime());
+        TestingTaskResource testingTaskResource = new TestingTaskResource(lastActivityNanos, FailureScenario.NO_FAILURE);
+
+        HttpRemoteTaskFactory httpRemoteTaskFactory = createHttpRemoteTaskFactory(testingTaskResource, false);
+
+        Session session = Session.builder(TEST_SESSION)
+                .setSystemProperty(MAX_SPLITS_PER_TASK_UPDATE, "2")
+                .build();
+        RemoteTask remoteTask = createRemoteTask(httpRemoteTaskFactory, session);
+
+        testingTaskResource.setInitialTaskInfo(remoteTask.getTaskInfo());
+        ImmutableMultimap.Builder<PlanNodeId, Split> splits = ImmutableMultimap.builder();
+        for (int i = 0; i < 5; i++) {
+            splits.put(TABLE_SCAN_NODE_ID, new Split(new ConnectorId("test"), TestingTransactionHandle.create(), TestingSplit.createLocalSplit(), Lifespan.taskWide(), NON_CACHEABLE));
+        }
+        remoteTask.addSplits(splits.build());
+        remoteTask.noMoreSplits(TABLE_SCAN_NODE_ID);
+        remoteTask.start();
+
+        // the source is completed only by the update that carries its last splits
+        poll(() -> testingTaskResource.getTaskSource(TABLE_SCAN_NODE_ID) != null && testingTaskResource.getTaskSource(TABLE_SCAN_NODE_ID).isNoMoreSplits());
+        assertEquals(testingTaskResource.getTaskSource(TABLE_SCAN_NODE_ID).getSplits().size(), 5);
+        assertEquals(testingTaskResource.getMaxSplitsPerUpdate(), 2);
+        poll(() -> remoteTask.getPartitionedSplitsInfo().getCount() == 0);
+
+        remoteTask.cancel();
+        poll(() -> remoteTask.getTaskStatus().getState().isDone());
+
+        httpRemoteTaskFactory.stop();
+    }
+
     @Test(timeOut = 50000)
     public void testHTTPRemoteTaskSize()
             throws Exception
@@ -343,9 +380,14 @@ public class TestHttpRemoteTaskWithEventLoop
     }
 
     private RemoteTask createRemoteTask(HttpRemoteTaskFactory httpRemoteTaskFactory)
+    {
+        return createRemoteTask(httpRemoteTaskFactory, TEST_SESSION);
+    }
+
+    private RemoteTask createRemoteTask(HttpRemoteTaskFactory httpRemoteTaskFactory, Session session)
     {
         return httpRemoteTaskFactory.createRemoteTask(
-                TEST_SESSION,
+                session,
                 new TaskId("test", 1, 0, 2, 0),
                 new InternalNode("node-id", URI.create("http://fake.invalid/"), new NodeVersion("version"), false),
                 createPlanFragment(),
@@ -556,6 +598,7 @@ public class TestHttpRemoteTaskWithEventLoop
 
         Map<PlanNodeId, TaskSource> taskSourceMap = new HashMap<>();
         private TaskUpdateRequest lastTaskUpdateRequest;
+        private int maxSplitsPerUpdate;
 
         @POST
         @Path("{taskId}")
@@ -567,6 +610,7 @@ public class TestHttpRemoteTaskWithEventLoop
                 @Context UriInfo uriInfo)
         {
             this.lastTaskUpdateRequest = taskUpdateRequest;
+            maxSplitsPerUpdate = Math.max(maxSplitsPerUpdate, taskUpdateRequest.getSources().stream().mapToInt(source -> source.getSplits().size()).sum());
             for (TaskSource source : taskUpdateRequest.getSources()) {
                 taskSourceMap.compute(source.getPlanNodeId(), (planNodeId, taskSource) -> taskSource == null ? source : taskSource.update(source));
             }
@@ -583,6 +627,11 @@ public class TestHttpRemoteTaskWithEventLoop
             return new TaskSource(source.getPlanNodeId(), source.getSplits(), source.getNoMoreSplitsForLifespan(), source.isNoMoreSplits());
         }
 
+        public synchronized int getMaxSplitsPerUpdate()
+        {
+            return maxSplitsPerUpdate;
+        }
+
         public synchronized TaskUpdateRequest getLastTaskUpdateRequest()
         {
             return lastTaskUpdateRequest;
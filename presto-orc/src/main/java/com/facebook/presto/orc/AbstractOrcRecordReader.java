@@ -20,9 +20,11 @@ import com.facebook.presto.common.Subfield;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.type.FixedWidthType;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.orc.StripeReader.StripeId;
 import com.facebook.presto.orc.metadata.MetadataReader;
 import com.facebook.presto.orc.metadata.OrcType;
 import com.facebook.presto.orc.metadata.PostScript;
+import com.facebook.presto.orc.metadata.StripeFooter;
 import com.facebook.presto.orc.metadata.StripeInformation;
 import com.facebook.presto.orc.metadata.statistics.ColumnStatistics;
 import com.facebook.presto.orc.metadata.statistics.StripeStatistics;
@@ -36,6 +38,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.common.io.Closer;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import org.joda.time.DateTimeZone;
@@ -54,6 +57,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import static com.facebook.presto.orc.AbstractOrcRecordReader.LinearProbeRangeFinder.createTinyStripesRangeFinder;
@@ -62,9 +66,11 @@ import static com.facebook.presto.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges
 import static com.facebook.presto.orc.OrcReader.BATCH_SIZE_GROWTH_FACTOR;
 import static com.facebook.presto.orc.OrcReader.MAX_BATCH_SIZE;
 import static com.facebook.presto.orc.OrcWriteValidation.WriteChecksumBuilder.createWriteChecksumBuilder;
+import static com.facebook.presto.orc.StripeReader.getStripeFooterDiskRange;
 import static com.facebook.presto.orc.metadata.OrcType.OrcTypeKind.STRUCT;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
+import static com.google.common.util.concurrent.Futures.immediateVoidFuture;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
@@ -77,6 +83,7 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
     protected final OrcAggregatedMemoryContext systemMemoryUsage;
 
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(AbstractOrcRecordReader.class).instanceSize();
+    private static final ListenableFuture<?> NOT_BLOCKED = immediateVoidFuture();
 
     private final OrcDataSource orcDataSource;
 
@@ -101,6 +108,10 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
     private OrcAggregatedMemoryContext currentStripeSystemMemoryContext;
     private Optional<DwrfEncryptionInfo> dwrfEncryptionInfo = Optional.empty();
 
+    private final Optional<PrefetchingOrcDataSource> prefetchingDataSource;
+    private int prefetchedStripe = -1;
+    private Optional<StripeFooter> prefetchedStripeFooter = Optional.empty();
+
     private final long fileRowCount;
     private final List<Long> stripeFilePositions;
     private long filePosition;
@@ -148,6 +159,8 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
             DataSize maxMergeDistance,
             DataSize tinyStripeThreshold,
             DataSize maxBlockSize,
+            Optional<Executor> stripePrefetchExecutor,
+            DataSize stripePrefetchMaxBufferSize,
             Map<String, Slice> userMetadata,
             OrcAggregatedMemoryContext systemMemoryUsage,
             Optional<OrcWriteValidation> writeValidation,
@@ -230,7 +243,22 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
         this.stripes = stripes.build();
         this.stripeFilePositions = stripeFilePositions.build();
 
-        orcDataSource = wrapWithCacheIfTinyStripes(orcDataSource, this.stripes, maxMergeDistance, tinyStripeThreshold, systemMemoryUsage);
+        OrcDataSource cachingDataSource = wrapWithCacheIfTinyStripes(orcDataSource, this.stripes, maxMergeDistance, tinyStripeThreshold, systemMemoryUsage);
+        // tiny stripes are already read in a few large chunks, so there is nothing to gain by prefetching them
+        if (stripePrefetchExecutor.isPresent() && cachingDataSource == orcDataSource && this.stripes.size() > 0) {
+            PrefetchingOrcDataSource prefetchingDataSource = new PrefetchingOrcDataSource(
+                    orcDataSource,
+                    stripePrefetchExecutor.get(),
+                    maxMergeDistance,
+                    requireNonNull(stripePrefetchMaxBufferSize, "stripePrefetchMaxBufferSize is null"),
+                    systemMemoryUsage.newOrcLocalMemoryContext(PrefetchingOrcDataSource.class.getSimpleName()));
+            this.prefetchingDataSource = Optional.of(prefetchingDataSource);
+            orcDataSource = prefetchingDataSource;
+        }
+        else {
+            this.prefetchingDataSource = Optional.empty();
+            orcDataSource = cachingDataSource;
+        }
         this.orcDataSource = orcDataSource;
         this.splitLength = splitLength;
 
@@ -635,6 +663,7 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
     {
         currentStripeSystemMemoryContext.close();
         currentStripeSystemMemoryContext = systemMemoryUsage.newOrcAggregatedMemoryContext();
+        prefetchingDataSource.ifPresent(PrefetchingOrcDataSource::releaseStreamBuffers);
         rowGroups = ImmutableList.<RowGroup>of().iterator();
 
         if (currentStripe >= 0) {
@@ -669,7 +698,12 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
         }
 
         SharedBuffer sharedDecompressionBuffer = new SharedBuffer(currentStripeSystemMemoryContext.newOrcLocalMemoryContext("sharedDecompressionBuffer"));
-        Stripe stripe = stripeReader.readStripe(stripeInformation, currentStripeSystemMemoryContext, dwrfEncryptionInfo, sharedDecompressionBuffer);
+        Optional<StripeFooter> stripeFooter = currentStripe == prefetchedStripe ? prefetchedStripeFooter : Optional.empty();
+        Stripe stripe = stripeReader.readStripe(stripeInformation, stripeFooter, currentStripeSystemMemoryContext, dwrfEncryptionInfo, sharedDecompressionBuffer);
+        if (prefetchingDataSource.isPresent()) {
+            // the streams of the stripe now own the prefetched buffers
+            prefetchStripe(currentStripe + 1);
+        }
         if (stripe != null) {
             for (StreamReader column : streamReaders) {
                 if (column != null) {
@@ -682,6 +716,68 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
         fileIntrospector.ifPresent(introspector -> introspector.onStripe(stripeInformation, stripe));
     }
 
+    /**
+     * Returns a future that is not done while the reader is waiting for the data of the next
+     * stripe to be prefetched. Reading while the future is not done blocks the caller until
+     * the prefetch completes.
+     */
+    public ListenableFuture<?> isBlocked()
+            throws IOException
+    {
+        if (!prefetchingDataSource.isPresent() || rowGroups == null) {
+            return NOT_BLOCKED;
+        }
+        // the current stripe still has data to decode
+        if (nextRowInGroup < currentGroupRowCount || rowGroups.hasNext()) {
+            return NOT_BLOCKED;
+        }
+        return prefetchStripe(currentStripe + 1);
+    }
+
+    /**
+     * Reads the data of the included streams of the stripe in the background. The stripe footer is
+     * needed to locate the streams, so if it was not prefetched together with the previous stripe,
+     * only the footer is fetched first, and the data is requested once the footer is available.
+     */
+    private ListenableFuture<?> prefetchStripe(int stripeIndex)
+            throws IOException
+    {
+        if (stripeIndex >= stripes.size()) {
+            return NOT_BLOCKED;
+        }
+        PrefetchingOrcDataSource dataSource = prefetchingDataSource.get();
+        if (stripeIndex == prefetchedStripe) {
+            return dataSource.getPrefetchFuture();
+        }
+
+        StripeInformation stripe = stripes.get(stripeIndex);
+        DiskRange footerRange = getStripeFooterDiskRange(stripe);
+        if (!dataSource.isPrefetched(footerRange)) {
+            if (!dataSource.prefetch(ImmutableList.of(footerRange))) {
+                return NOT_BLOCKED;
+            }
+            return dataSource.getPrefetchFuture();
+        }
+        ListenableFuture<?> footerFuture = dataSource.getPrefetchFuture();
+        if (!footerFuture.isDone()) {
+            return footerFuture;
+        }
+
+        StripeFooter stripeFooter = stripeReader.readStripeFooter(new StripeId(orcDataSource.getId(), stripe.getOffset()), stripe, systemMemoryUsage);
+        prefetchedStripe = stripeIndex;
+        prefetchedStripeFooter = Optional.of(stripeFooter);
+
+        ImmutableList.Builder<DiskRange> diskRanges = ImmutableList.builder();
+        diskRanges.addAll(stripeReader.getIncludedStreamDiskRanges(stripe, stripeFooter));
+        if (stripeIndex + 1 < stripes.size()) {
+            diskRanges.add(getStripeFooterDiskRange(stripes.get(stripeIndex + 1)));
+        }
+        if (!dataSource.prefetch(diskRanges.build())) {
+            return NOT_BLOCKED;
+        }
+        return dataSource.getPrefetchFuture();
+    }
+
     @VisibleForTesting
     public static List<byte[]> getDecryptionKeyMetadata(int currentStripe, List<StripeInformation> stripes)
     {
@@ -15,13 +15,18 @@ package com.facebook.presto.orc;
 
 import com.facebook.airlift.units.DataSize;
 
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
 import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
 
 public class OrcReaderOptions
 {
     private static final DataSize DEFAULT_MAX_SLICE_SIZE = new DataSize(1, GIGABYTE);
+    private static final DataSize DEFAULT_STRIPE_PREFETCH_MAX_BUFFER_SIZE = new DataSize(64, MEGABYTE);
     private final DataSize maxMergeDistance;
     private final DataSize tinyStripeThreshold;
     private final DataSize maxBlockSize;
@@ -32,6 +37,9 @@ public class OrcReaderOptions
     // slice reader will throw if the slice size is larger than this value
     private final DataSize maxSliceSize;
     private final boolean resetAllReaders;
+    // if present, the next stripe is read on this executor while the current stripe is decoded
+    private final Optional<Executor> stripePrefetchExecutor;
+    private final DataSize stripePrefetchMaxBufferSize;
 
     /**
      * Read column statistics for flat map columns. Usually there are quite a
@@ -48,7 +56,9 @@ public class OrcReaderOptions
             boolean appendRowNumber,
             boolean readMapStatistics,
             DataSize maxSliceSize,
-            boolean resetAllReaders)
+            boolean resetAllReaders,
+            Optional<Executor> stripePrefetchExecutor,
+            DataSize stripePrefetchMaxBufferSize)
     {
         this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
         this.maxBlockSize = requireNonNull(maxBlockSize, "maxBlockSize is null");
@@ -59,6 +69,8 @@ public class OrcReaderOptions
         this.readMapStatistics = readMapStatistics;
         this.maxSliceSize = maxSliceSize;
         this.resetAllReaders = resetAllReaders;
+        this.stripePrefetchExecutor = requireNonNull(stripePrefetchExecutor, "stripePrefetchExecutor is null");
+        this.stripePrefetchMaxBufferSize = requireNonNull(stripePrefetchMaxBufferSize, "stripePrefetchMaxBufferSize is null");
     }
 
     public DataSize getMaxMergeDistance()
@@ -106,6 +118,16 @@ public class OrcReaderOptions
         return resetAllReaders;
     }
 
+    public Optional<Executor> getStripePrefetchExecutor()
+    {
+        return stripePrefetchExecutor;
+    }
+
+    public DataSize getStripePrefetchMaxBufferSize()
+    {
+        return stripePrefetchMaxBufferSize;
+    }
+
     @Override
     public String toString()
     {
@@ -119,6 +141,8 @@ public class OrcReaderOptions
                 .add("readMapStatistics", readMapStatistics)
                 .add("maxSliceSize", maxSliceSize)
                 .add("resetAllReaders", resetAllReaders)
+                .add("stripePrefetchEnabled", stripePrefetchExecutor.isPresent())
+                .add("stripePrefetchMaxBufferSize", stripePrefetchMaxBufferSize)
                 .toString();
     }
 
@@ -138,6 +162,8 @@ public class OrcReaderOptions
         private boolean readMapStatistics;
         private DataSize maxSliceSize = DEFAULT_MAX_SLICE_SIZE;
         private boolean resetAllReaders;
+        private Optional<Executor> stripePrefetchExecutor = Optional.empty();
+        private DataSize stripePrefetchMaxBufferSize = DEFAULT_STRIPE_PREFETCH_MAX_BUFFER_SIZE;
 
         private Builder() {}
 
@@ -195,6 +221,22 @@ public class OrcReaderOptions
             return this;
         }
 
+        /**
+         * Read the next stripe on {@code stripePrefetchExecutor} while the current stripe is decoded.
+         * The {@link OrcDataSource} passed to the reader must support concurrent positional reads.
+         */
+        public Builder withStripePrefetchExecutor(Executor stripePrefetchExecutor)
+        {
+            this.stripePrefetchExecutor = Optional.of(requireNonNull(stripePrefetchExecutor, "stripePrefetchExecutor is null"));
+            return this;
+        }
+
+        public Builder withStripePrefetchMaxBufferSize(DataSize stripePrefetchMaxBufferSize)
+        {
+            this.stripePrefetchMaxBufferSize = requireNonNull(stripePrefetchMaxBufferSize, "stripePrefetchMaxBufferSize is null");
+            return this;
+        }
+
         public OrcReaderOptions build()
         {
             return new OrcReaderOptions(
@@ -206,7 +248,9 @@ public class OrcReaderOptions
                     appendRowNumber,
                     readMapStatistics,
                     maxSliceSize,
-                    resetAllReaders);
+                    resetAllReaders,
+                    stripePrefetchExecutor,
+                    stripePrefetchMaxBufferSize);
         }
     }
 }
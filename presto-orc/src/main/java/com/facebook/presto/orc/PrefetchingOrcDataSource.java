@@ -0,0 +1,283 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.airlift.units.DataSize;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.slice.Slices;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import static com.facebook.presto.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.nonCancellationPropagating;
+import static com.google.common.util.concurrent.Futures.submit;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads a set of disk ranges on a background executor, so that the reader thread does
+ * not block on I/O when it advances to the next stripe. Reads fully contained in a
+ * prefetched range are served from memory, all other reads go to the underlying data source.
+ * <p>
+ * The underlying data source must support concurrent positional reads, since a prefetch
+ * may be in flight while the reader thread lazily loads streams of the current stripe.
+ * <p>
+ * The streams of a stripe keep the prefetched buffers they are read from, so those buffers
+ * stay accounted until {@link #releaseStreamBuffers()} is called for the stripe, even if the
+ * prefetch that read them is discarded.
+ */
+class PrefetchingOrcDataSource
+        implements OrcDataSource
+{
+    private final OrcDataSource dataSource;
+    private final Executor executor;
+    private final DataSize maxMergeDistance;
+    private final DataSize maxBufferSize;
+    private final OrcLocalMemoryContext systemMemoryContext;
+
+    private List<DiskRange> prefetchedRanges = ImmutableList.of();
+    private ListenableFuture<Map<DiskRange, byte[]>> prefetchedBuffers = immediateFuture(ImmutableMap.of());
+    private long prefetchedBytes;
+    // bytes of the current prefetch that are held by streams, and accounted as stream buffers
+    private long prefetchedStreamBufferBytes;
+    private final Set<byte[]> streamBuffers = Sets.newIdentityHashSet();
+    private long streamBufferBytes;
+
+    public PrefetchingOrcDataSource(OrcDataSource dataSource, Executor executor, DataSize maxMergeDistance, DataSize maxBufferSize, OrcLocalMemoryContext systemMemoryContext)
+    {
+        this.dataSource = requireNonNull(dataSource, "dataSource is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
+        this.maxBufferSize = requireNonNull(maxBufferSize, "maxBufferSize is null");
+        this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null");
+    }
+
+    /**
+     * Discards the current prefetch and starts reading {@code diskRanges} in the background.
+     *
+     * @return false if the ranges do not fit in the prefetch buffer, in which case nothing is read
+     */
+    public boolean prefetch(List<DiskRange> diskRanges)
+    {
+        discardPrefetch();
+        if (diskRanges.isEmpty()) {
+            return false;
+        }
+
+        List<DiskRange> mergedRanges = mergeAdjacentDiskRanges(diskRanges, maxMergeDistance, maxBufferSize);
+        long totalBytes = 0;
+        for (DiskRange range : mergedRanges) {
+            totalBytes += range.getLength();
+        }
+        if (totalBytes > maxBufferSize.toBytes()) {
+            return false;
+        }
+
+        prefetchedBytes = totalBytes;
+        updateMemoryUsage();
+        prefetchedRanges = mergedRanges;
+        prefetchedBuffers = submit(() -> readRanges(mergedRanges), executor);
+        return true;
+    }
+
+    /**
+     * Returns true if {@code diskRange} is covered by the current prefetch, whether or not it has completed.
+     */
+    public boolean isPrefetched(DiskRange diskRange)
+    {
+        return findRange(diskRange) != null;
+    }
+
+    public ListenableFuture<?> getPrefetchFuture()
+    {
+        return nonCancellationPropagating(prefetchedBuffers);
+    }
+
+    public void discardPrefetch()
+    {
+        prefetchedBuffers.cancel(false);
+        prefetchedBuffers = immediateFuture(ImmutableMap.of());
+        prefetchedRanges = ImmutableList.of();
+        prefetchedBytes = 0;
+        prefetchedStreamBufferBytes = 0;
+        updateMemoryUsage();
+    }
+
+    /**
+     * Releases the prefetched buffers held by the streams of the current stripe. It must only be
+     * called once the streams are no longer used.
+     */
+    public void releaseStreamBuffers()
+    {
+        streamBuffers.clear();
+        streamBufferBytes = 0;
+        prefetchedStreamBufferBytes = 0;
+        updateMemoryUsage();
+    }
+
+    @Override
+    public OrcDataSourceId getId()
+    {
+        return dataSource.getId();
+    }
+
+    @Override
+    public long getReadBytes()
+    {
+        return dataSource.getReadBytes();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return dataSource.getReadTimeNanos();
+    }
+
+    @Override
+    public long getSize()
+    {
+        return dataSource.getSize();
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer)
+            throws IOException
+    {
+        readFully(position, buffer, 0, buffer.length);
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
+            throws IOException
+    {
+        DiskRange diskRange = new DiskRange(position, bufferLength);
+        DiskRange prefetchedRange = findRange(diskRange);
+        if (prefetchedRange != null) {
+            byte[] prefetchedBuffer = getPrefetchedBuffers().get(prefetchedRange);
+            if (prefetchedBuffer != null) {
+                System.arraycopy(prefetchedBuffer, toIntExact(position - prefetchedRange.getOffset()), buffer, bufferOffset, bufferLength);
+                return;
+            }
+        }
+        dataSource.readFully(position, buffer, bufferOffset, bufferLength);
+    }
+
+    @Override
+    public <K> Map<K, OrcDataSourceInput> readFully(Map<K, DiskRange> diskRanges)
+            throws IOException
+    {
+        ImmutableMap.Builder<K, OrcDataSourceInput> inputs = ImmutableMap.builder();
+        Map<K, DiskRange> remainingRanges = new LinkedHashMap<>();
+        Map<DiskRange, byte[]> buffers = null;
+        for (Entry<K, DiskRange> entry : diskRanges.entrySet()) {
+            DiskRange diskRange = entry.getValue();
+            DiskRange prefetchedRange = findRange(diskRange);
+            if (prefetchedRange == null) {
+                remainingRanges.put(entry.getKey(), diskRange);
+                continue;
+            }
+            if (buffers == null) {
+                buffers = getPrefetchedBuffers();
+            }
+            byte[] buffer = buffers.get(prefetchedRange);
+            if (buffer == null) {
+                remainingRanges.put(entry.getKey(), diskRange);
+                continue;
+            }
+            // the stream keeps the whole buffer, which is accounted here rather than by the stream
+            if (streamBuffers.add(buffer)) {
+                streamBufferBytes += buffer.length;
+                prefetchedStreamBufferBytes += buffer.length;
+                updateMemoryUsage();
+            }
+            int offset = toIntExact(diskRange.getOffset() - prefetchedRange.getOffset());
+            inputs.put(entry.getKey(), new OrcDataSourceInput(Slices.wrappedBuffer(buffer, offset, diskRange.getLength()).getInput(), 0));
+        }
+        if (!remainingRanges.isEmpty()) {
+            inputs.putAll(dataSource.readFully(remainingRanges));
+        }
+        return inputs.build();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        discardPrefetch();
+        releaseStreamBuffers();
+        dataSource.close();
+    }
+
+    @Override
+    public String toString()
+    {
+        return dataSource.toString();
+    }
+
+    private void updateMemoryUsage()
+    {
+        systemMemoryContext.setBytes(prefetchedBytes - prefetchedStreamBufferBytes + streamBufferBytes);
+    }
+
+    private DiskRange findRange(DiskRange diskRange)
+    {
+        for (DiskRange prefetchedRange : prefetchedRanges) {
+            if (prefetchedRange.contains(diskRange)) {
+                return prefetchedRange;
+            }
+        }
+        return null;
+    }
+
+    private Map<DiskRange, byte[]> getPrefetchedBuffers()
+            throws IOException
+    {
+        try {
+            return prefetchedBuffers.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for prefetched stripe data");
+        }
+        catch (ExecutionException e) {
+            // the failed ranges will be read again from the underlying data source,
+            // which reports the error in the context of the reader thread
+            return ImmutableMap.of();
+        }
+    }
+
+    private Map<DiskRange, byte[]> readRanges(List<DiskRange> diskRanges)
+            throws IOException
+    {
+        ImmutableMap.Builder<DiskRange, byte[]> buffers = ImmutableMap.builder();
+        for (DiskRange diskRange : diskRanges) {
+            byte[] buffer = new byte[diskRange.getLength()];
+            dataSource.readFully(diskRange.getOffset(), buffer);
+            buffers.put(diskRange, buffer);
+        }
+        return buffers.build();
+    }
+}
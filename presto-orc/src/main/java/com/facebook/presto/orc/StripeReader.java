@@ -155,11 +155,40 @@ public class StripeReader
             Optional<DwrfEncryptionInfo> decryptors,
             SharedBuffer sharedDecompressionBuffer)
             throws IOException
+    {
+        return readStripe(stripe, Optional.empty(), systemMemoryUsage, decryptors, sharedDecompressionBuffer);
+    }
+
+    /**
+     * Reads the stripe, using {@code stripeFooter} if the footer has already been read
+     * (e.g., to prefetch the stripe data) instead of reading it again.
+     */
+    public Stripe readStripe(
+            StripeInformation stripe,
+            Optional<StripeFooter> stripeFooter,
+            OrcAggregatedMemoryContext systemMemoryUsage,
+            Optional<DwrfEncryptionInfo> decryptors,
+            SharedBuffer sharedDecompressionBuffer)
+            throws IOException
     {
         StripeId stripeId = new StripeId(orcDataSource.getId(), stripe.getOffset());
 
         // read the stripe footer
-        StripeFooter stripeFooter = readStripeFooter(stripeId, stripe, systemMemoryUsage);
+        if (!stripeFooter.isPresent()) {
+            stripeFooter = Optional.of(readStripeFooter(stripeId, stripe, systemMemoryUsage));
+        }
+        return readStripe(stripeId, stripe, stripeFooter.get(), systemMemoryUsage, decryptors, sharedDecompressionBuffer);
+    }
+
+    private Stripe readStripe(
+            StripeId stripeId,
+            StripeInformation stripe,
+            StripeFooter stripeFooter,
+            OrcAggregatedMemoryContext systemMemoryUsage,
+            Optional<DwrfEncryptionInfo> decryptors,
+            SharedBuffer sharedDecompressionBuffer)
+            throws IOException
+    {
         fileIntrospector.ifPresent(introspector -> introspector.onStripeFooter(stripe, stripeFooter));
 
         // get streams for selected columns
@@ -480,11 +509,37 @@ public class StripeReader
         return new RowGroup(groupId, rowOffset, rowCount, totalRowGroupBytes, rowGroupStreams);
     }
 
+    /**
+     * Returns the file ranges of the non-empty streams of the included columns, as listed in
+     * the stripe footer. Streams of encrypted columns are not listed in the footer itself and
+     * are not returned.
+     */
+    public List<DiskRange> getIncludedStreamDiskRanges(StripeInformation stripe, StripeFooter stripeFooter)
+    {
+        Map<StreamId, Stream> includedStreams = new HashMap<>();
+        addIncludedStreams(stripeFooter.getColumnEncodings(), stripeFooter.getStreams(), includedStreams);
+
+        ImmutableList.Builder<DiskRange> diskRanges = ImmutableList.builder();
+        for (Entry<StreamId, DiskRange> entry : getDiskRanges(ImmutableList.of(stripeFooter.getStreams())).entrySet()) {
+            if (includedStreams.containsKey(entry.getKey())) {
+                DiskRange diskRange = entry.getValue();
+                diskRanges.add(new DiskRange(stripe.getOffset() + diskRange.getOffset(), diskRange.getLength()));
+            }
+        }
+        return diskRanges.build();
+    }
+
+    public static DiskRange getStripeFooterDiskRange(StripeInformation stripe)
+    {
+        return new DiskRange(stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength(), toIntExact(stripe.getFooterLength()));
+    }
+
     public StripeFooter readStripeFooter(StripeId stripeId, StripeInformation stripe, OrcAggregatedMemoryContext systemMemoryUsage)
             throws IOException
     {
-        long footerOffset = stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength();
-        int footerLength = toIntExact(stripe.getFooterLength());
+        DiskRange footerRange = getStripeFooterDiskRange(stripe);
+        long footerOffset = footerRange.getOffset();
+        int footerLength = footerRange.getLength();
 
         // read the footer
         Slice footerSlice = stripeMetadataSource.getStripeFooterSlice(orcDataSource, stripeId, footerOffset, footerLength, cacheable, fileModificationTime);
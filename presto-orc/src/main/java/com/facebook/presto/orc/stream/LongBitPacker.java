@@ -29,6 +29,8 @@ public final class LongBitPacker
 {
     // ORC uses no more than 9 bits to store run lengths (https://orc.apache.org/docs/run-length.html#direct)
     private static final int MAX_BUFFERED_POSITIONS = 512;
+    // widest value that can be extracted from a single unaligned 64-bit read
+    private static final int MAX_WORD_UNPACK_BIT_SIZE = Long.SIZE - 7;
 
     // We use this temp buffer to work around poor read performance of single bytes from Slice.
     // Benchmarks show that reading from this byte[] is ~3x faster, even after accounting for the
@@ -76,7 +78,35 @@ public final class LongBitPacker
                 unpack64(buffer, offset, len, input);
                 break;
             default:
-                unpackGeneric(buffer, offset, len, bitSize, input);
+                if (bitSize <= MAX_WORD_UNPACK_BIT_SIZE) {
+                    unpackWords(buffer, offset, len, bitSize, input);
+                }
+                else {
+                    unpackGeneric(buffer, offset, len, bitSize, input);
+                }
+        }
+    }
+
+    /**
+     * Unpacks values of any width up to 56 bits by reading the whole run into the temp buffer and
+     * extracting each value from the big-endian 64-bit word that starts at the value's first byte.
+     * A value starts at most 7 bits into that word, so it always fits in the remaining 57 bits.
+     */
+    private void unpackWords(long[] buffer, int offset, int len, int bitSize, InputStream input)
+            throws IOException
+    {
+        int blockReadableBytes = (bitSize * len + 7) / 8;
+        for (int i = 0; i < blockReadableBytes; ) {
+            i += input.read(tmp, i, blockReadableBytes - i);
+        }
+        int valueShift = Long.SIZE - bitSize;
+        int bitOffset = 0;
+        for (int i = offset; i < offset + len; i++) {
+            // It's safe to read 8-bytes at a time, because slice is a view over tmp,
+            // which has 8 bytes of buffer space for every position
+            long word = Long.reverseBytes(getLongUnchecked(slice, bitOffset >>> 3));
+            buffer[i] = (word << (bitOffset & 7)) >>> valueShift;
+            bitOffset += bitSize;
         }
     }
 
@@ -31,6 +31,8 @@ public class LongInputStreamV2
 {
     private static final int MIN_REPEAT_SIZE = 3;
     private static final int MAX_LITERAL_SIZE = 512;
+    // the patch list length is stored in 5 bits
+    private static final int MAX_PATCH_LIST_SIZE = 31;
 
     private enum EncodingType
     {
@@ -41,6 +43,9 @@ public class LongInputStreamV2
     private final OrcInputStream input;
     private final boolean signed;
     private final long[] literals = new long[MAX_LITERAL_SIZE];
+    // scratch buffers for patched base runs, reused to avoid allocating per run
+    private final long[] unpacked = new long[MAX_LITERAL_SIZE];
+    private final long[] unpackedPatch = new long[MAX_PATCH_LIST_SIZE];
     private int numLiterals;
     private int used;
     private final boolean skipCorrupt;
@@ -124,16 +129,18 @@ public class LongInputStreamV2
             // value to result buffer. if the delta base value is negative then it
             // is a decreasing sequence else an increasing sequence
             packer.unpack(literals, numLiterals, length, fixedBits, input);
-            while (length > 0) {
-                if (deltaBase < 0) {
-                    literals[numLiterals] = prevVal - literals[numLiterals];
+            int end = numLiterals + length;
+            if (deltaBase < 0) {
+                for (; numLiterals < end; numLiterals++) {
+                    prevVal -= literals[numLiterals];
+                    literals[numLiterals] = prevVal;
                 }
-                else {
-                    literals[numLiterals] = prevVal + literals[numLiterals];
+            }
+            else {
+                for (; numLiterals < end; numLiterals++) {
+                    prevVal += literals[numLiterals];
+                    literals[numLiterals] = prevVal;
                 }
-                prevVal = literals[numLiterals];
-                length--;
-                numLiterals++;
             }
         }
     }
@@ -179,12 +186,12 @@ public class LongInputStreamV2
         }
 
         // unpack the data blob
-        long[] unpacked = new long[length];
         packer.unpack(unpacked, 0, length, fb, input);
 
         // unpack the patch blob
-        long[] unpackedPatch = new long[patchListLength];
-
+        if (patchListLength == 0) {
+            throw new OrcCorruptionException(input.getOrcDataSourceId(), "Invalid RLEv2 encoded stream: patched base run without patches");
+        }
         if ((patchWidth + patchGapWidth) > 64 && !skipCorrupt) {
             throw new OrcCorruptionException(input.getOrcDataSourceId(), "Invalid RLEv2 encoded stream");
         }
@@ -213,7 +220,7 @@ public class LongInputStreamV2
         actualGap += currentGap;
 
         // unpack data blob, patch it (if required), add base to get final result
-        for (int i = 0; i < unpacked.length; i++) {
+        for (int i = 0; i < length; i++) {
             if (i == actualGap) {
                 // extract the patch value
                 long patchedValue = unpacked[i] | (currentPatch << fb);
@@ -0,0 +1,220 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+import static com.facebook.airlift.testing.Assertions.assertGreaterThanOrEqual;
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.orc.DwrfEncryptionProvider.NO_ENCRYPTION;
+import static com.facebook.presto.orc.NoopOrcAggregatedMemoryContext.NOOP_ORC_AGGREGATED_MEMORY_CONTEXT;
+import static com.facebook.presto.orc.OrcEncoding.ORC;
+import static com.facebook.presto.orc.OrcReader.INITIAL_BATCH_SIZE;
+import static com.facebook.presto.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
+import static com.facebook.presto.orc.OrcTester.createOrcWriter;
+import static com.facebook.presto.orc.metadata.CompressionKind.ZLIB;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestPrefetchingOrcDataSource
+{
+    @Test
+    public void testPrefetch()
+            throws IOException
+    {
+        TestingOrcDataSource testingOrcDataSource = new TestingOrcDataSource(NoopOrcDataSource.INSTANCE);
+        OrcAggregatedMemoryContext systemMemoryContext = new TestingHiveOrcAggregatedMemoryContext();
+        PrefetchingOrcDataSource dataSource = new PrefetchingOrcDataSource(
+                testingOrcDataSource,
+                directExecutor(),
+                new DataSize(10, BYTE),
+                new DataSize(100, BYTE),
+                systemMemoryContext.newOrcLocalMemoryContext(PrefetchingOrcDataSource.class.getSimpleName()));
+
+        assertTrue(dataSource.prefetch(ImmutableList.of(new DiskRange(0, 20), new DiskRange(25, 10), new DiskRange(60, 20))));
+        // close ranges are merged into a single read
+        assertEquals(testingOrcDataSource.getReadRanges(), ImmutableList.of(new DiskRange(0, 35), new DiskRange(60, 20)));
+        assertEquals(systemMemoryContext.getBytes(), 55);
+        assertTrue(dataSource.getPrefetchFuture().isDone());
+        assertTrue(dataSource.isPrefetched(new DiskRange(5, 30)));
+        assertFalse(dataSource.isPrefetched(new DiskRange(30, 10)));
+
+        // reads within the prefetched ranges are served from memory
+        dataSource.readFully(5, new byte[10]);
+        Map<String, OrcDataSourceInput> inputs = dataSource.readFully(ImmutableMap.of("a", new DiskRange(0, 35), "b", new DiskRange(65, 5)));
+        assertEquals(inputs.keySet(), ImmutableSet.of("a", "b"));
+        assertEquals(testingOrcDataSource.getReadCount(), 2);
+
+        // other reads go to the underlying data source
+        dataSource.readFully(30, new byte[10]);
+        assertEquals(testingOrcDataSource.getReadCount(), 3);
+        assertEquals(testingOrcDataSource.getLastReadRanges(), ImmutableList.of(new DiskRange(30, 10)));
+
+        // the buffers are accounted only once, even if the streams read them again
+        dataSource.readFully(ImmutableMap.of("c", new DiskRange(10, 5)));
+        assertEquals(systemMemoryContext.getBytes(), 55);
+
+        // ranges exceeding the buffer size are not prefetched
+        assertFalse(dataSource.prefetch(ImmutableList.of(new DiskRange(0, 50), new DiskRange(200, 60))));
+        assertEquals(testingOrcDataSource.getReadCount(), 3);
+        assertFalse(dataSource.isPrefetched(new DiskRange(0, 10)));
+
+        // the buffers held by the streams stay accounted until the streams are released
+        assertEquals(systemMemoryContext.getBytes(), 55);
+        dataSource.releaseStreamBuffers();
+        assertEquals(systemMemoryContext.getBytes(), 0);
+
+        // a buffer that is not held by any stream is accounted with the prefetch
+        assertTrue(dataSource.prefetch(ImmutableList.of(new DiskRange(0, 20), new DiskRange(60, 20))));
+        dataSource.readFully(ImmutableMap.of("a", new DiskRange(0, 20)));
+        assertEquals(systemMemoryContext.getBytes(), 40);
+        dataSource.releaseStreamBuffers();
+        assertEquals(systemMemoryContext.getBytes(), 40);
+        dataSource.discardPrefetch();
+        assertEquals(systemMemoryContext.getBytes(), 0);
+
+        dataSource.close();
+        assertEquals(systemMemoryContext.getBytes(), 0);
+    }
+
+    @Test
+    public void testSelectiveRecordReader()
+            throws Exception
+    {
+        Random random = new Random(0);
+        List<String> values = Stream.generate(() -> Long.toHexString(random.nextLong())).limit(100_000).collect(toImmutableList());
+        try (TempFile tempFile = new TempFile()) {
+            OrcWriterOptions writerOptions = OrcWriterOptions.builder()
+                    .withFlushPolicy(DefaultOrcWriterFlushPolicy.builder().withStripeMaxRowCount(20_000).build())
+                    .build();
+            try (OrcWriter writer = createOrcWriter(tempFile.getFile(), ORC, ZLIB, Optional.empty(), ImmutableList.of(VARCHAR), writerOptions, new NoOpOrcWriterStats())) {
+                for (List<String> chunk : Lists.partition(values, 10_000)) {
+                    BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, chunk.size());
+                    chunk.forEach(value -> VARCHAR.writeString(blockBuilder, value));
+                    writer.write(new Page(blockBuilder.build()));
+                }
+            }
+
+            QueuedExecutor executor = new QueuedExecutor();
+            TestingOrcDataSource orcDataSource = new TestingOrcDataSource(
+                    new FileOrcDataSource(tempFile.getFile(), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE), true));
+            OrcReader orcReader = new OrcReader(
+                    orcDataSource,
+                    ORC,
+                    new StorageOrcFileTailSource(),
+                    new StorageStripeMetadataSource(),
+                    NOOP_ORC_AGGREGATED_MEMORY_CONTEXT,
+                    OrcReaderOptions.builder()
+                            .withMaxMergeDistance(new DataSize(1, MEGABYTE))
+                            .withTinyStripeThreshold(new DataSize(1, KILOBYTE))
+                            .withMaxBlockSize(new DataSize(1, MEGABYTE))
+                            .withStripePrefetchExecutor(executor)
+                            .withStripePrefetchMaxBufferSize(new DataSize(16, MEGABYTE))
+                            .build(),
+                    false,
+                    NO_ENCRYPTION,
+                    DwrfKeyProvider.EMPTY,
+                    new RuntimeStats());
+            int stripeCount = orcReader.getFooter().getStripes().size();
+            assertGreaterThanOrEqual(stripeCount, 3);
+
+            List<String> actual = new ArrayList<>();
+            int blockedCount = 0;
+            try (OrcSelectiveRecordReader recordReader = orcReader.createSelectiveRecordReader(
+                    ImmutableMap.of(0, VARCHAR),
+                    ImmutableList.of(0),
+                    ImmutableMap.of(),
+                    ImmutableList.of(),
+                    ImmutableMap.of(),
+                    ImmutableMap.of(),
+                    ImmutableMap.of(),
+                    ImmutableMap.of(),
+                    OrcPredicate.TRUE,
+                    0,
+                    orcDataSource.getSize(),
+                    HIVE_STORAGE_TIME_ZONE,
+                    new TestingHiveOrcAggregatedMemoryContext(),
+                    Optional.empty(),
+                    INITIAL_BATCH_SIZE)) {
+                while (true) {
+                    ListenableFuture<?> blocked = recordReader.isBlocked();
+                    while (!blocked.isDone()) {
+                        blockedCount++;
+                        // nothing is read on the reader thread while the prefetch is pending
+                        int readCount = orcDataSource.getReadCount();
+                        executor.runPending();
+                        assertTrue(orcDataSource.getReadCount() > readCount);
+                        blocked = recordReader.isBlocked();
+                    }
+                    Page page = recordReader.getNextPage();
+                    if (page == null) {
+                        break;
+                    }
+                    Block block = page.getBlock(0).getLoadedBlock();
+                    for (int position = 0; position < block.getPositionCount(); position++) {
+                        actual.add(VARCHAR.getSlice(block, position).toStringUtf8());
+                    }
+                }
+            }
+            assertEquals(actual, values);
+            // the footer of the first stripe, and the data of every stripe
+            assertEquals(blockedCount, stripeCount + 1);
+        }
+    }
+
+    private static class QueuedExecutor
+            implements Executor
+    {
+        private final List<Runnable> pending = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command)
+        {
+            pending.add(command);
+        }
+
+        public void runPending()
+        {
+            List<Runnable> tasks = ImmutableList.copyOf(pending);
+            pending.clear();
+            tasks.forEach(Runnable::run);
+        }
+    }
+}
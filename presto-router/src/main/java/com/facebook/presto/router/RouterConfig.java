@@ -14,11 +14,17 @@
 package com.facebook.presto.router;
 
 import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
+import com.facebook.airlift.units.Duration;
 import jakarta.validation.constraints.NotNull;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
 public class RouterConfig
 {
     private String configFile;
+    private boolean predictionsEnabled;
+    private Duration predictionTimeout = new Duration(100, MILLISECONDS);
 
     @NotNull
     public String getConfigFile()
@@ -32,4 +38,31 @@ public class RouterConfig
         this.configFile = configFile;
         return this;
     }
+
+    public boolean isPredictionsEnabled()
+    {
+        return predictionsEnabled;
+    }
+
+    @Config("router.predictions-enabled")
+    @ConfigDescription("Fetch the predicted CPU and memory usage of each query for the load-aware scheduler")
+    public RouterConfig setPredictionsEnabled(boolean predictionsEnabled)
+    {
+        this.predictionsEnabled = predictionsEnabled;
+        return this;
+    }
+
+    @NotNull
+    public Duration getPredictionTimeout()
+    {
+        return predictionTimeout;
+    }
+
+    @Config("router.prediction-timeout")
+    @ConfigDescription("Time to wait for the prediction of a query that is not cached before routing it as an average query")
+    public RouterConfig setPredictionTimeout(Duration predictionTimeout)
+    {
+        this.predictionTimeout = predictionTimeout;
+        return this;
+    }
 }
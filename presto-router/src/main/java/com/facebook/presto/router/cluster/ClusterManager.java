@@ -16,6 +16,7 @@ package com.facebook.presto.router.cluster;
 import com.facebook.airlift.log.Logger;
 import com.facebook.airlift.units.Duration;
 import com.facebook.presto.router.RouterConfig;
+import com.facebook.presto.router.predictor.PredictorManager;
 import com.facebook.presto.router.scheduler.CustomSchedulerManager;
 import com.facebook.presto.router.scheduler.SchedulerFactory;
 import com.facebook.presto.router.scheduler.SchedulerType;
@@ -58,6 +59,7 @@ import java.util.stream.Collectors;
 import static com.facebook.airlift.concurrent.Threads.threadsNamed;
 import static com.facebook.presto.router.RouterUtil.parseRouterConfig;
 import static com.facebook.presto.router.scheduler.SchedulerType.CUSTOM_PLUGIN_SCHEDULER;
+import static com.facebook.presto.router.scheduler.SchedulerType.LOAD_AWARE;
 import static com.facebook.presto.router.scheduler.SchedulerType.ROUND_ROBIN;
 import static com.facebook.presto.router.scheduler.SchedulerType.WEIGHTED_RANDOM_CHOICE;
 import static com.facebook.presto.router.scheduler.SchedulerType.WEIGHTED_ROUND_ROBIN;
@@ -88,18 +90,21 @@ public class ClusterManager
     private final RemoteInfoFactory remoteInfoFactory;
     private final HashMap<String, HashMap<URI, Integer>> serverWeights = new HashMap<>();
     private final CustomSchedulerManager schedulerManager;
+    private final Optional<PredictorManager> predictorManager;
     private final ScheduledExecutorService scheduledExecutorService;
     private final ScheduledFuture<?> configDetection;
     private final WatchService watchService;
     private final WatchKey watchKey;
 
     @Inject
-    public ClusterManager(RouterConfig config, RemoteInfoFactory remoteInfoFactory, CustomSchedulerManager schedulerManager)
+    public ClusterManager(RouterConfig config, RemoteInfoFactory remoteInfoFactory, CustomSchedulerManager schedulerManager, PredictorManager predictorManager)
             throws IOException
     {
         this.configFile = Paths.get(requireNonNull(config, "config is null").getConfigFile());
         this.remoteInfoFactory = requireNonNull(remoteInfoFactory, "remoteInfoFactory is null");
         this.schedulerManager = schedulerManager;
+        requireNonNull(predictorManager, "predictorManager is null");
+        this.predictorManager = config.isPredictionsEnabled() ? Optional.of(predictorManager) : Optional.empty();
         reloadConfig();
         initializeServerWeights();
         watchService = FileSystems.getDefault().newWatchService();
@@ -155,7 +160,7 @@ public class ClusterManager
                 .orElseThrow(() -> new PrestoException(CONFIGURATION_INVALID, "Failed to load router config"));
         Map<String, GroupSpec> newGroups = newRouterSpec.getGroups().stream().collect(toImmutableMap(GroupSpec::getName, group -> group));
         List<SelectorRuleSpec> newGroupSelectors = ImmutableList.copyOf(newRouterSpec.getSelectors());
-        Scheduler newScheduler = new SchedulerFactory(newRouterSpec.getSchedulerType(), schedulerManager).create();
+        Scheduler newScheduler = new SchedulerFactory(newRouterSpec.getSchedulerType(), schedulerManager, predictorManager).create();
         SchedulerType newSchedulerType = newRouterSpec.getSchedulerType();
 
         List<URI> updatedAllClusters = newGroups.values().stream()
@@ -228,8 +233,12 @@ public class ClusterManager
                 return Optional.empty();
             }
         }
+        else if (config.getSchedulerType() == LOAD_AWARE) {
+            Map<URI, RemoteClusterInfo> healthyRemoteClusterInfos = Maps.filterValues(remoteClusterInfos, RemoteState::isHealthy);
+            config.getScheduler().setClusterInfos(ImmutableMap.copyOf(healthyRemoteClusterInfos));
+        }
 
-        if (config.getSchedulerType() == ROUND_ROBIN || config.getSchedulerType() == WEIGHTED_ROUND_ROBIN) {
+        if (config.getSchedulerType() == ROUND_ROBIN || config.getSchedulerType() == WEIGHTED_ROUND_ROBIN || config.getSchedulerType() == LOAD_AWARE) {
             config.getScheduler().setCandidateGroupName(target.get());
         }
 
@@ -17,18 +17,31 @@ import com.facebook.airlift.log.Logger;
 import com.facebook.presto.router.RouterConfig;
 import com.facebook.presto.router.spec.RouterSpec;
 import com.facebook.presto.spi.PrestoException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 
 import java.net.URI;
 import java.nio.file.Paths;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
 
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.presto.router.RouterUtil.parseRouterConfig;
 import static com.facebook.presto.spi.StandardErrorCode.CONFIGURATION_INVALID;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 /**
  * The manager of fetching predicted resource usage of a SQL statement from the
@@ -38,9 +51,24 @@ import static java.util.Objects.requireNonNull;
 public class PredictorManager
 {
     private static final Logger log = Logger.get(PredictorManager.class);
+    private static final int PREDICTION_THREADS = 4;
+    private static final int MAX_PENDING_PREDICTIONS = 1_000;
 
     private final RemoteQueryFactory remoteQueryFactory;
     private final URI uri;
+    private final long predictionTimeoutMillis;
+    private final ExecutorService predictionExecutor = new ThreadPoolExecutor(
+            PREDICTION_THREADS,
+            PREDICTION_THREADS,
+            0,
+            MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_PENDING_PREDICTIONS),
+            daemonThreadsNamed("router-predictor-%s"));
+    // the predictions of the statements that are run again, such as those of dashboards and scheduled jobs
+    private final Cache<String, CompletableFuture<Optional<ResourceGroup>>> predictions = CacheBuilder.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(10, MINUTES)
+            .build();
 
     @Inject
     public PredictorManager(RemoteQueryFactory remoteQueryFactory, RouterConfig config)
@@ -50,6 +78,54 @@ public class PredictorManager
 
         this.remoteQueryFactory = requireNonNull(remoteQueryFactory, "");
         this.uri = routerSpec.getPredictorUri().orElse(null);
+        this.predictionTimeoutMillis = config.getPredictionTimeout().toMillis();
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        predictionExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns the prediction of the statement if it is cached, or if the predictor returns it within the
+     * prediction timeout. A prediction that arrives later is cached for the next run of the same statement.
+     */
+    public Optional<ResourceGroup> getPrediction(String statement)
+    {
+        CompletableFuture<Optional<ResourceGroup>> prediction;
+        try {
+            prediction = predictions.get(statement, () -> newPrediction(statement));
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            // too many predictions are pending
+            return Optional.empty();
+        }
+
+        try {
+            return prediction.get(predictionTimeoutMillis, MILLISECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException | TimeoutException e) {
+            // the query is routed without its prediction
+        }
+        return Optional.empty();
+    }
+
+    private CompletableFuture<Optional<ResourceGroup>> newPrediction(String statement)
+    {
+        CompletableFuture<Optional<ResourceGroup>> prediction = supplyAsync(
+                () -> fetchPrediction(statement).filter(resourceGroup -> resourceGroup.getCpuInfo() != null && resourceGroup.getMemoryInfo() != null),
+                predictionExecutor);
+        // the statement is predicted again on its next run when the predictor fails
+        prediction.whenComplete((resourceGroup, failure) -> {
+            if (failure != null || !resourceGroup.isPresent()) {
+                predictions.asMap().remove(statement, prediction);
+            }
+        });
+        return prediction;
     }
 
     public Optional<ResourceGroup> fetchPrediction(String statement)
@@ -0,0 +1,175 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.router.scheduler;
+
+import com.facebook.presto.router.predictor.PredictorManager;
+import com.facebook.presto.router.predictor.ResourceGroup;
+import com.facebook.presto.spi.router.ClusterInfo;
+import com.facebook.presto.spi.router.RouterRequestInfo;
+import com.facebook.presto.spi.router.Scheduler;
+import com.google.common.collect.ImmutableMap;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Routes each query to the cluster with the lowest predicted queueing delay, which is estimated
+ * from the running and queued queries per active worker that the clusters report, plus the
+ * queries routed to them since their last report. Only two random candidates are compared, so
+ * that routers with the same stale view of the clusters do not all pick the same one, and the
+ * previous destination of the group is kept until another cluster is clearly less loaded.
+ */
+public class LoadAwareScheduler
+        implements Scheduler
+{
+    // another cluster is chosen only when its delay is below this fraction of the delay of the previous destination
+    private static final double HYSTERESIS = 0.8;
+
+    private final Optional<PredictorManager> predictorManager;
+    private final Map<URI, ClusterLoad> clusterLoads = new ConcurrentHashMap<>();
+    private final Map<String, URI> lastDestinations = new ConcurrentHashMap<>();
+
+    private List<URI> candidates;
+    private Map<URI, ClusterInfo> clusterInfos = ImmutableMap.of();
+    private String candidateGroupName = "";
+
+    public LoadAwareScheduler(Optional<PredictorManager> predictorManager)
+    {
+        this.predictorManager = requireNonNull(predictorManager, "predictorManager is null");
+    }
+
+    @Override
+    public Optional<URI> getDestination(RouterRequestInfo routerRequestInfo)
+    {
+        List<URI> candidates = this.candidates;
+        Map<URI, ClusterInfo> clusterInfos = this.clusterInfos;
+        if (candidates == null || candidates.isEmpty()) {
+            return Optional.empty();
+        }
+
+        URI destination = candidates.get(0);
+        if (candidates.size() > 1) {
+            double queryCost = getQueryCost(routerRequestInfo.getQuery());
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(candidates.size());
+            int second = random.nextInt(candidates.size() - 1);
+            if (second >= first) {
+                second++;
+            }
+            destination = candidates.get(first);
+            double delay = getPredictedDelay(destination, clusterInfos, queryCost);
+            if (getPredictedDelay(candidates.get(second), clusterInfos, queryCost) < delay) {
+                destination = candidates.get(second);
+                delay = getPredictedDelay(destination, clusterInfos, queryCost);
+            }
+
+            URI lastDestination = lastDestinations.get(candidateGroupName);
+            if (lastDestination != null && !lastDestination.equals(destination) && candidates.contains(lastDestination) &&
+                    delay >= HYSTERESIS * getPredictedDelay(lastDestination, clusterInfos, queryCost)) {
+                destination = lastDestination;
+            }
+        }
+
+        lastDestinations.put(candidateGroupName, destination);
+        clusterLoads.computeIfAbsent(destination, uri -> new ClusterLoad()).addRoutedQuery(clusterInfos.get(destination));
+        return Optional.of(destination);
+    }
+
+    @Override
+    public void setCandidates(List<URI> candidates)
+    {
+        this.candidates = candidates;
+    }
+
+    @Override
+    public void setClusterInfos(Map<URI, ClusterInfo> clusterInfos)
+    {
+        this.clusterInfos = requireNonNull(clusterInfos, "clusterInfos is null");
+    }
+
+    @Override
+    public void setCandidateGroupName(String candidateGroupName)
+    {
+        this.candidateGroupName = requireNonNull(candidateGroupName, "candidateGroupName is null");
+    }
+
+    /**
+     * Returns the cost of the query in units of an average query, which grows with the CPU
+     * and memory usage buckets that the predictor assigns to the query. A query without a
+     * prediction, such as one whose prediction takes longer than the prediction timeout, costs one unit.
+     */
+    private double getQueryCost(String query)
+    {
+        if (!predictorManager.isPresent() || query == null || query.isEmpty()) {
+            return 1;
+        }
+        // the predictions are cached, and a query is not delayed by the predictor for more than the prediction timeout
+        Optional<ResourceGroup> prediction = predictorManager.get().getPrediction(query);
+        return prediction
+                .map(resourceGroup -> 1.0 + resourceGroup.getCpuInfo().getCpuTimeLabel() + resourceGroup.getMemoryInfo().getMemoryBytesLabel())
+                .orElse(1.0);
+    }
+
+    private double getPredictedDelay(URI cluster, Map<URI, ClusterInfo> clusterInfos, double queryCost)
+    {
+        ClusterInfo clusterInfo = clusterInfos.get(cluster);
+        if (clusterInfo == null) {
+            // the cluster is not healthy, or has not reported its state yet
+            return Double.MAX_VALUE;
+        }
+        ClusterLoad clusterLoad = clusterLoads.get(cluster);
+        long pendingQueries = clusterLoad == null ? 0 : clusterLoad.getPendingQueries(clusterInfo);
+        double queries = clusterInfo.getRunningQueries() + clusterInfo.getQueuedQueries() + pendingQueries + queryCost;
+        return queries / Math.max(clusterInfo.getActiveWorkers(), 1);
+    }
+
+    /**
+     * The queries routed to a cluster that it has not reported yet. They are forgotten as soon as
+     * the cluster reports a different number of running and queued queries.
+     */
+    private static class ClusterLoad
+    {
+        private long reportedQueries = -1;
+        private long pendingQueries;
+
+        public synchronized long getPendingQueries(ClusterInfo clusterInfo)
+        {
+            update(clusterInfo);
+            return pendingQueries;
+        }
+
+        public synchronized void addRoutedQuery(ClusterInfo clusterInfo)
+        {
+            if (clusterInfo != null) {
+                update(clusterInfo);
+            }
+            pendingQueries++;
+        }
+
+        private void update(ClusterInfo clusterInfo)
+        {
+            long queries = clusterInfo.getRunningQueries() + clusterInfo.getQueuedQueries();
+            if (queries != reportedQueries) {
+                reportedQueries = queries;
+                pendingQueries = 0;
+            }
+        }
+    }
+}
@@ -13,9 +13,12 @@
  */
 package com.facebook.presto.router.scheduler;
 
+import com.facebook.presto.router.predictor.PredictorManager;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.router.Scheduler;
 
+import java.util.Optional;
+
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
 import static java.util.Objects.requireNonNull;
 
@@ -23,11 +26,13 @@ public class SchedulerFactory
 {
     private final SchedulerType schedulerType;
     private final CustomSchedulerManager schedulerManager;
+    private final Optional<PredictorManager> predictorManager;
 
-    public SchedulerFactory(SchedulerType schedulerType, CustomSchedulerManager schedulerManager)
+    public SchedulerFactory(SchedulerType schedulerType, CustomSchedulerManager schedulerManager, Optional<PredictorManager> predictorManager)
     {
         this.schedulerType = requireNonNull(schedulerType, "schedulerType is null");
         this.schedulerManager = requireNonNull(schedulerManager, "schedulerManager is null");
+        this.predictorManager = requireNonNull(predictorManager, "predictorManager is null");
     }
 
     public Scheduler create()
@@ -43,6 +48,8 @@ public class SchedulerFactory
                 return new RoundRobinScheduler();
             case WEIGHTED_ROUND_ROBIN:
                 return new WeightedRoundRobinScheduler();
+            case LOAD_AWARE:
+                return new LoadAwareScheduler(predictorManager);
             case CUSTOM_PLUGIN_SCHEDULER:
                 schedulerManager.loadScheduler();
                 return schedulerManager.getScheduler();
@@ -15,6 +15,7 @@ package com.facebook.presto.router;
 
 import com.facebook.presto.router.cluster.ClusterManager;
 import com.facebook.presto.router.cluster.RemoteInfoFactory;
+import com.facebook.presto.router.predictor.PredictorManager;
 import com.facebook.presto.router.scheduler.CustomSchedulerManager;
 
 import java.io.IOException;
@@ -28,10 +29,10 @@ public class BarrierClusterManager
 {
     private final CyclicBarrier barrier;
 
-    public BarrierClusterManager(RouterConfig config, RemoteInfoFactory remoteInfoFactory, CyclicBarrier barrier, CustomSchedulerManager schedulerManager)
+    public BarrierClusterManager(RouterConfig config, RemoteInfoFactory remoteInfoFactory, CyclicBarrier barrier, CustomSchedulerManager schedulerManager, PredictorManager predictorManager)
             throws IOException
     {
-        super(config, remoteInfoFactory, schedulerManager);
+        super(config, remoteInfoFactory, schedulerManager, predictorManager);
         this.barrier = barrier;
     }
 
@@ -27,6 +27,7 @@ import com.facebook.presto.jdbc.PrestoResultSet;
 import com.facebook.presto.router.cluster.ClusterManager;
 import com.facebook.presto.router.cluster.ClusterManager.ClusterStatusTracker;
 import com.facebook.presto.router.cluster.RemoteInfoFactory;
+import com.facebook.presto.router.predictor.PredictorManager;
 import com.facebook.presto.router.scheduler.CustomSchedulerManager;
 import com.facebook.presto.router.security.RouterSecurityModule;
 import com.facebook.presto.router.spec.RouterSpec;
@@ -74,6 +75,7 @@ public class TestClusterManager
     private File configFile;
     private RemoteInfoFactory remoteInfoFactory;
     private CustomSchedulerManager schedulerManager;
+    private PredictorManager predictorManager;
     private URI httpServerUri;
 
     @BeforeClass
@@ -108,6 +110,7 @@ public class TestClusterManager
         httpServerInfo = injector.getInstance(HttpServerInfo.class);
         clusterStatusTracker = injector.getInstance(ClusterStatusTracker.class);
         schedulerManager = injector.getInstance(CustomSchedulerManager.class);
+        predictorManager = injector.getInstance(PredictorManager.class);
         httpServerUri = httpServerInfo.getHttpUri();
         remoteInfoFactory = injector.getInstance(RemoteInfoFactory.class);
     }
@@ -162,7 +165,7 @@ public class TestClusterManager
         RouterConfig newRouterConfig = new RouterConfig();
         newRouterConfig.setConfigFile(newConfig.getAbsolutePath());
         CyclicBarrier barrier = new CyclicBarrier(2);
-        try (ClusterManager barrierClusterManager = new BarrierClusterManager(newRouterConfig, remoteInfoFactory, barrier, schedulerManager)) {
+        try (ClusterManager barrierClusterManager = new BarrierClusterManager(newRouterConfig, remoteInfoFactory, barrier, schedulerManager, predictorManager)) {
             // the file watching service has a few second initial delay before it starts detecting
             // file updates, so we need to first wait until the barrier is properly being triggered
             // by setting the file last-modified-time until we get the expected synchronization
@@ -15,15 +15,22 @@ package com.facebook.presto.router;
 
 import com.facebook.airlift.bootstrap.Bootstrap;
 import com.facebook.airlift.bootstrap.LifeCycleManager;
+import com.facebook.airlift.http.client.jetty.JettyHttpClient;
 import com.facebook.airlift.http.server.testing.TestingHttpServerModule;
 import com.facebook.airlift.jaxrs.JaxrsModule;
 import com.facebook.airlift.json.JsonModule;
 import com.facebook.airlift.log.Logging;
 import com.facebook.airlift.node.testing.TestingNodeModule;
+import com.facebook.airlift.units.Duration;
 import com.facebook.presto.router.predictor.CpuInfo;
 import com.facebook.presto.router.predictor.MemoryInfo;
 import com.facebook.presto.router.predictor.PredictorManager;
+import com.facebook.presto.router.predictor.RemoteQueryFactory;
 import com.facebook.presto.router.predictor.ResourceGroup;
+import com.facebook.presto.router.security.RouterSecurityModule;
+import com.facebook.presto.router.spec.GroupSpec;
+import com.facebook.presto.router.spec.RouterSpec;
+import com.facebook.presto.router.spec.SelectorRuleSpec;
 import com.facebook.presto.server.testing.TestingPrestoServer;
 import com.facebook.presto.tpch.TpchPlugin;
 import com.google.common.collect.ImmutableList;
@@ -38,11 +45,18 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.facebook.airlift.json.JsonCodec.jsonCodec;
 import static com.facebook.presto.router.TestingRouterUtil.getConfigFile;
+import static com.facebook.presto.router.scheduler.SchedulerType.ROUND_ROBIN;
 import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 
@@ -76,11 +90,13 @@ public class TestPredictorManager
                 new TestingHttpServerModule(),
                 new JsonModule(),
                 new JaxrsModule(true),
+                new RouterSecurityModule(),
                 new RouterModule(Optional.empty()));
 
         Injector injector = app
                 .doNotInitializeLogging()
                 .setRequiredConfigurationProperty("router.config-file", configFile.getAbsolutePath())
+                .setRequiredConfigurationProperty("presto.version", "test")
                 .quiet()
                 .initialize();
 
@@ -117,6 +133,54 @@ public class TestPredictorManager
         assertTrue(memoryInfo.getMemoryBytesLabel() <= high, "Memory bytes label should be smaller or equal to " + high);
     }
 
+    @Test(timeOut = 60_000)
+    public void testCachedPrediction()
+            throws Exception
+    {
+        String sql = "select * from presto.logs";
+        AtomicInteger requests = new AtomicInteger();
+        try (MockWebServer slowPredictorServer = new MockWebServer();
+                JettyHttpClient httpClient = new JettyHttpClient()) {
+            slowPredictorServer.setDispatcher(createDispatcher(requests, 500));
+            slowPredictorServer.start();
+
+            File tempFile = File.createTempFile("router", "json");
+            RouterSpec spec = new RouterSpec(
+                    ImmutableList.of(new GroupSpec("all", ImmutableList.of(prestoServers.get(0).getBaseUrl()), Optional.empty(), Optional.empty())),
+                    ImmutableList.of(new SelectorRuleSpec(Optional.empty(), Optional.empty(), Optional.empty(), "all")),
+                    Optional.of(ROUND_ROBIN),
+                    Optional.of(slowPredictorServer.url("/v1").uri()),
+                    Optional.empty());
+            Files.write(tempFile.toPath(), jsonCodec(RouterSpec.class).toBytes(spec));
+
+            PredictorManager manager = new PredictorManager(
+                    new RemoteQueryFactory(httpClient, httpClient),
+                    new RouterConfig()
+                            .setConfigFile(tempFile.getAbsolutePath())
+                            .setPredictionTimeout(new Duration(10, MILLISECONDS)));
+            try {
+                // the predictor is slower than the prediction timeout
+                assertFalse(manager.getPrediction(sql).isPresent());
+
+                // the prediction is cached when it arrives
+                Optional<ResourceGroup> resourceGroup = manager.getPrediction(sql);
+                while (!resourceGroup.isPresent()) {
+                    Thread.sleep(10);
+                    resourceGroup = manager.getPrediction(sql);
+                }
+                assertEquals(resourceGroup.get().getCpuInfo().getCpuTimeLabel(), 2);
+                assertEquals(resourceGroup.get().getMemoryInfo().getMemoryBytesLabel(), 2);
+                assertEquals(requests.get(), 2);
+
+                assertTrue(manager.getPrediction(sql).isPresent());
+                assertEquals(requests.get(), 2);
+            }
+            finally {
+                manager.destroy();
+            }
+        }
+    }
+
     @AfterClass(alwaysRun = true)
     public void tearDownServer()
             throws Exception
@@ -142,27 +206,33 @@ public class TestPredictorManager
     private void initializePredictorServer()
             throws IOException
     {
-        Dispatcher dispatcher = new Dispatcher()
+        predictorServer = new MockWebServer();
+        predictorServer.setDispatcher(createDispatcher(new AtomicInteger(), 0));
+        predictorServer.start(8000);
+    }
+
+    private static Dispatcher createDispatcher(AtomicInteger requests, long delayMillis)
+    {
+        return new Dispatcher()
         {
             @Override
             public MockResponse dispatch(RecordedRequest request)
             {
+                requests.incrementAndGet();
                 switch (request.getPath()) {
                     case "/v1/cpu":
                         return new MockResponse()
                                 .addHeader(CONTENT_TYPE, "application/json")
-                                .setBody("{\"cpu_pred_label\": 2, \"cpu_pred_str\": \"1h - 5h\"}");
+                                .setBody("{\"cpu_pred_label\": 2, \"cpu_pred_str\": \"1h - 5h\"}")
+                                .setBodyDelay(delayMillis, MILLISECONDS);
                     case "/v1/memory":
                         return new MockResponse()
                                 .addHeader(CONTENT_TYPE, "application/json")
-                                .setBody("{\"memory_pred_label\": 2, \"memory_pred_str\": \"> 1TB\"}");
+                                .setBody("{\"memory_pred_label\": 2, \"memory_pred_str\": \"> 1TB\"}")
+                                .setBodyDelay(delayMillis, MILLISECONDS);
                 }
                 return new MockResponse().setResponseCode(404);
             }
         };
-
-        predictorServer = new MockWebServer();
-        predictorServer.setDispatcher(dispatcher);
-        predictorServer.start(8000);
     }
 }
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.router;
 
+import com.facebook.airlift.units.Duration;
 import com.google.common.collect.ImmutableMap;
 import org.testng.annotations.Test;
 
@@ -21,21 +22,33 @@ import java.util.Map;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 public class TestRouterConfig
 {
     @Test
     public void testDefaults()
     {
-        assertRecordedDefaults(recordDefaults(RouterConfig.class).setConfigFile(null));
+        assertRecordedDefaults(recordDefaults(RouterConfig.class)
+                .setConfigFile(null)
+                .setPredictionsEnabled(false)
+                .setPredictionTimeout(new Duration(100, MILLISECONDS)));
     }
 
     @Test
     public void testExplicitPropertyMappings()
     {
-        Map<String, String> properties = new ImmutableMap.Builder<String, String>().put("router.config-file", "test").build();
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("router.config-file", "test")
+                .put("router.predictions-enabled", "true")
+                .put("router.prediction-timeout", "1s")
+                .build();
 
-        RouterConfig expected = new RouterConfig().setConfigFile("test");
+        RouterConfig expected = new RouterConfig()
+                .setConfigFile("test")
+                .setPredictionsEnabled(true)
+                .setPredictionTimeout(new Duration(1, SECONDS));
 
         assertFullMapping(properties, expected);
     }
@@ -13,13 +13,16 @@
  */
 package com.facebook.presto.router;
 
+import com.facebook.presto.router.scheduler.LoadAwareScheduler;
 import com.facebook.presto.router.scheduler.RandomChoiceScheduler;
 import com.facebook.presto.router.scheduler.RoundRobinScheduler;
 import com.facebook.presto.router.scheduler.UserHashScheduler;
 import com.facebook.presto.router.scheduler.WeightedRandomChoiceScheduler;
 import com.facebook.presto.router.scheduler.WeightedRoundRobinScheduler;
+import com.facebook.presto.spi.router.ClusterInfo;
 import com.facebook.presto.spi.router.RouterRequestInfo;
 import com.facebook.presto.spi.router.Scheduler;
+import com.google.common.collect.ImmutableMap;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -29,8 +32,10 @@ import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Optional;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 public class TestScheduler
@@ -200,6 +205,55 @@ public class TestScheduler
         testScheduler(weightSum, scheduler, weights);
     }
 
+    @Test
+    public void testLoadAwareScheduler()
+            throws Exception
+    {
+        Scheduler scheduler = new LoadAwareScheduler(Optional.empty());
+        scheduler.setCandidates(servers);
+        scheduler.setCandidateGroupName("");
+        scheduler.setClusterInfos(ImmutableMap.of(
+                servers.get(0), new TestingClusterInfo(0, 0, 10),
+                servers.get(1), new TestingClusterInfo(0, 0, 10),
+                servers.get(2), new TestingClusterInfo(100, 300, 10)));
+
+        HashMap<URI, Integer> hitCounter = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            URI target = scheduler.getDestination(new RouterRequestInfo("test")).orElse(new URI("invalid"));
+            assertTrue(servers.contains(target));
+            hitCounter.put(target, hitCounter.getOrDefault(target, 0) + 1);
+        }
+
+        // the loaded cluster is never chosen, and the routed queries are spread over the others
+        assertFalse(hitCounter.containsKey(servers.get(2)));
+        assertEquals(((float) hitCounter.get(servers.get(1)) / hitCounter.get(servers.get(0))), 1, 3E-1);
+    }
+
+    @Test
+    public void testLoadAwareSchedulerClusterSize()
+            throws Exception
+    {
+        Scheduler scheduler = new LoadAwareScheduler(Optional.empty());
+        scheduler.setCandidates(servers.subList(0, 2));
+        scheduler.setCandidateGroupName("");
+        scheduler.setClusterInfos(ImmutableMap.of(
+                servers.get(0), new TestingClusterInfo(10, 0, 10),
+                servers.get(1), new TestingClusterInfo(50, 0, 100)));
+
+        // the larger cluster runs more queries, but has less of them per worker
+        for (int i = 0; i < 50; i++) {
+            assertEquals(scheduler.getDestination(new RouterRequestInfo("test")), Optional.of(servers.get(1)));
+        }
+
+        // until it reports the queries routed to it
+        scheduler.setClusterInfos(ImmutableMap.of(
+                servers.get(0), new TestingClusterInfo(10, 0, 10),
+                servers.get(1), new TestingClusterInfo(100, 50, 100)));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(scheduler.getDestination(new RouterRequestInfo("test")), Optional.of(servers.get(0)));
+        }
+    }
+
     private void testScheduler(int weightSum, Scheduler scheduler, HashMap<URI, Integer> weights)
             throws URISyntaxException
     {
@@ -222,4 +276,49 @@ public class TestScheduler
         }
         assertEquals(serverDiffCount, servers.size());
     }
+
+    private static class TestingClusterInfo
+            implements ClusterInfo
+    {
+        private final long runningQueries;
+        private final long queuedQueries;
+        private final long activeWorkers;
+
+        public TestingClusterInfo(long runningQueries, long queuedQueries, long activeWorkers)
+        {
+            this.runningQueries = runningQueries;
+            this.queuedQueries = queuedQueries;
+            this.activeWorkers = activeWorkers;
+        }
+
+        @Override
+        public long getRunningQueries()
+        {
+            return runningQueries;
+        }
+
+        @Override
+        public long getBlockedQueries()
+        {
+            return 0;
+        }
+
+        @Override
+        public long getQueuedQueries()
+        {
+            return queuedQueries;
+        }
+
+        @Override
+        public long getActiveWorkers()
+        {
+            return activeWorkers;
+        }
+
+        @Override
+        public long getRunningDrivers()
+        {
+            return 0;
+        }
+    }
 }
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.spark;
 
+import com.facebook.airlift.concurrent.BoundedExecutor;
 import com.facebook.airlift.configuration.AbstractConfigurationAwareModule;
 import com.facebook.airlift.json.Codec;
 import com.facebook.airlift.json.JsonCodec;
@@ -91,6 +92,7 @@ import com.facebook.presto.metadata.TablePropertyManager;
 import com.facebook.presto.nodeManager.PluginNodeManager;
 import com.facebook.presto.operator.FileFragmentResultCacheConfig;
 import com.facebook.presto.operator.FileFragmentResultCacheManager;
+import com.facebook.presto.operator.ForJoinHashBuild;
 import com.facebook.presto.operator.FragmentCacheStats;
 import com.facebook.presto.operator.FragmentResultCacheManager;
 import com.facebook.presto.operator.LookupJoinOperators;
@@ -184,6 +186,7 @@ import com.facebook.presto.sql.analyzer.QueryExplainer;
 import com.facebook.presto.sql.analyzer.QueryPreparerProviderManager;
 import com.facebook.presto.sql.expressions.ExpressionOptimizerManager;
 import com.facebook.presto.sql.expressions.JsonCodecRowExpressionSerde;
+import com.facebook.presto.sql.gen.CompilerCacheBudget;
 import com.facebook.presto.sql.gen.ExpressionCompiler;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.sql.gen.JoinFilterFunctionCompiler;
@@ -412,6 +415,8 @@ public class PrestoSparkModule
         binder.bind(PageIndexerFactory.class).to(GroupByHashPageIndexerFactory.class).in(Scopes.SINGLETON);
 
         // compilers
+        binder.bind(CompilerCacheBudget.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(CompilerCacheBudget.class).withGeneratedName();
         binder.bind(JoinFilterFunctionCompiler.class).in(Scopes.SINGLETON);
         newExporter(binder).export(JoinFilterFunctionCompiler.class).withGeneratedName();
         binder.bind(JoinCompiler.class).in(Scopes.SINGLETON);
@@ -602,6 +607,14 @@ public class PrestoSparkModule
         return InMemoryTransactionManager.create(config, scheduledExecutor, catalogManager, executor);
     }
 
+    @Provides
+    @Singleton
+    @ForJoinHashBuild
+    public static BoundedExecutor createJoinHashBuildExecutor(TaskManagerConfig config)
+    {
+        return new BoundedExecutor(newCachedThreadPool(daemonThreadsNamed("join-hash-build-%s")), config.getJoinHashBuildThreads());
+    }
+
     @Provides
     @Singleton
     public static FragmentResultCacheManager createFragmentResultCacheManager(FileFragmentResultCacheConfig config, BlockEncodingSerde blockEncodingSerde, FragmentCacheStats fragmentCacheStats)
@@ -319,6 +319,18 @@ public interface ConnectorMetadata
         return TableStatistics.empty();
     }
 
+    /**
+     * Returns an identifier of the version of the data that is read through the table handle and
+     * layout, such as a snapshot id, or empty if the connector cannot tell. The identifier must
+     * change whenever the data read through the handle may change, as results of queries that
+     * read the table are reused for as long as it does not. Connectors that return a version must
+     * keep the constraints of the layout in its identifier for the CONNECTOR canonicalization strategy.
+     */
+    default Optional<String> getTableVersion(ConnectorSession session, ConnectorTableHandle tableHandle, Optional<ConnectorTableLayoutHandle> tableLayoutHandle)
+    {
+        return Optional.empty();
+    }
+
     /**
      * Creates a schema.
      */
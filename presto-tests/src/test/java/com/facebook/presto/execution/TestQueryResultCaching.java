@@ -0,0 +1,149 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.spi.security.Identity;
+import com.facebook.presto.testing.MaterializedResult;
+import com.facebook.presto.tests.DistributedQueryRunner;
+import com.facebook.presto.tpch.TpchPlugin;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static com.facebook.presto.SystemSessionProperties.QUERY_RESULT_CACHING_ENABLED;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+
+@Test(singleThreaded = true)
+public class TestQueryResultCaching
+{
+    private static final Session SESSION = testSessionBuilder()
+            .setCatalog("tpch")
+            .setSchema("tiny")
+            .setSystemProperty(QUERY_RESULT_CACHING_ENABLED, "true")
+            .build();
+
+    private DistributedQueryRunner queryRunner;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        queryRunner = DistributedQueryRunner.builder(SESSION)
+                .setNodeCount(2)
+                .build();
+        queryRunner.installPlugin(new TpchPlugin());
+        queryRunner.createCatalog("tpch", "tpch");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        if (queryRunner != null) {
+            queryRunner.close();
+            queryRunner = null;
+        }
+    }
+
+    @Test
+    public void testCachedResults()
+    {
+        String sql = "SELECT orderstatus, count(*) FROM orders GROUP BY orderstatus";
+        long hits = getHits();
+        MaterializedResult expected = queryRunner.execute(sql);
+        assertEquals(getHits(), hits);
+
+        MaterializedResult actual = queryRunner.execute(sql);
+        assertEquals(getHits(), hits + 1);
+        assertEquals(actual.getTypes(), expected.getTypes());
+        assertEquals(actual.getMaterializedRows(), expected.getMaterializedRows());
+    }
+
+    @Test
+    public void testDifferentQueries()
+    {
+        long hits = getHits();
+        long misses = getMisses();
+        MaterializedResult result = queryRunner.execute("SELECT orderkey, custkey FROM orders WHERE orderkey < 100 ORDER BY orderkey");
+
+        // the order of the columns and the constants are part of the key
+        MaterializedResult reordered = queryRunner.execute("SELECT custkey, orderkey FROM orders WHERE orderkey < 100 ORDER BY orderkey");
+        MaterializedResult otherConstant = queryRunner.execute("SELECT orderkey, custkey FROM orders WHERE orderkey < 200 ORDER BY orderkey");
+        assertEquals(getHits(), hits);
+        assertEquals(getMisses(), misses + 3);
+        assertEquals(reordered.getMaterializedRows().get(0).getField(0), result.getMaterializedRows().get(0).getField(1));
+        assertEquals(reordered.getMaterializedRows().get(0).getField(1), result.getMaterializedRows().get(0).getField(0));
+        assertNotEquals(otherConstant.getRowCount(), result.getRowCount());
+    }
+
+    @Test
+    public void testNonDeterministicQuery()
+    {
+        long hits = getHits();
+        long misses = getMisses();
+        queryRunner.execute("SELECT orderkey, rand() FROM orders WHERE orderkey < 100");
+        queryRunner.execute("SELECT orderkey, rand() FROM orders WHERE orderkey < 100");
+        queryRunner.execute("SELECT current_timestamp FROM orders WHERE orderkey < 100");
+        queryRunner.execute("SELECT current_timestamp FROM orders WHERE orderkey < 100");
+
+        // the queries are not cacheable, so they are neither hits nor misses
+        assertEquals(getHits(), hits);
+        assertEquals(getMisses(), misses);
+    }
+
+    @Test
+    public void testResultsAreNotSharedBetweenUsers()
+    {
+        Session alice = Session.builder(SESSION)
+                .setIdentity(new Identity("alice", Optional.empty()))
+                .build();
+        Session bob = Session.builder(SESSION)
+                .setIdentity(new Identity("bob", Optional.empty()))
+                .build();
+
+        String sql = "SELECT orderkey, orderstatus FROM orders WHERE orderkey < 50 ORDER BY orderkey";
+        long hits = getHits();
+        MaterializedResult expected = queryRunner.execute(alice, sql);
+        assertEquals(queryRunner.execute(alice, sql).getMaterializedRows(), expected.getMaterializedRows());
+        assertEquals(getHits(), hits + 1);
+
+        // the same query of another user is not answered from the results of the first one
+        MaterializedResult result = queryRunner.execute(bob, sql);
+        assertEquals(getHits(), hits + 1);
+        assertEquals(result.getMaterializedRows(), expected.getMaterializedRows());
+
+        // queries that depend on the user are not cached at all
+        long misses = getMisses();
+        String userSql = "SELECT orderkey FROM orders WHERE orderkey < 50 AND current_user = 'alice' ORDER BY orderkey";
+        assertEquals(queryRunner.execute(alice, userSql).getRowCount(), expected.getRowCount());
+        assertEquals(queryRunner.execute(alice, userSql).getRowCount(), expected.getRowCount());
+        assertEquals(queryRunner.execute(bob, userSql).getRowCount(), 0);
+        assertEquals(getHits(), hits + 1);
+        assertEquals(getMisses(), misses);
+    }
+
+    private long getHits()
+    {
+        return queryRunner.getCoordinator().getQueryManager().getStats().getResultCacheHits().getTotalCount();
+    }
+
+    private long getMisses()
+    {
+        return queryRunner.getCoordinator().getQueryManager().getStats().getResultCacheMisses().getTotalCount();
+    }
+}
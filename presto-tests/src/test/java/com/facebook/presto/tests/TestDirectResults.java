@@ -0,0 +1,260 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.tests;
+
+import com.facebook.airlift.units.Duration;
+import com.facebook.presto.client.ClientSession;
+import com.facebook.presto.client.StatementClient;
+import com.facebook.presto.tests.tpch.TpchQueryRunnerBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.facebook.presto.SystemSessionProperties.DIRECT_RESULTS_ENABLED;
+import static com.facebook.presto.SystemSessionProperties.FORCE_SINGLE_NODE_OUTPUT;
+import static com.facebook.presto.client.StatementClientFactory.newStatementClient;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+@Test(singleThreaded = true)
+public class TestDirectResults
+{
+    private static final String DIRECT_RESULTS_PATH = "/v1/results/";
+
+    private DistributedQueryRunner queryRunner;
+    private final List<ObservedRequest> requests = new CopyOnWriteArrayList<>();
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        // the rows are only read from the workers
+        queryRunner = TpchQueryRunnerBuilder.builder()
+                .setNodeCount(3)
+                .setCoordinatorProperties(ImmutableMap.of("node-scheduler.include-coordinator", "false"))
+                .build();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        if (queryRunner != null) {
+            queryRunner.close();
+            queryRunner = null;
+        }
+    }
+
+    @Test(timeOut = 120_000)
+    public void testResultsAreReadFromAllWorkers()
+    {
+        requests.clear();
+        SortedSet<Long> orderKeys = new TreeSet<>();
+        try (StatementClient client = startQuery(createHttpClient(Optional.empty()), "SELECT orderkey FROM orders")) {
+            while (client.isRunning()) {
+                Iterable<List<Object>> data = client.currentData().getData();
+                if (data != null) {
+                    for (List<Object> row : data) {
+                        assertTrue(orderKeys.add(((Number) row.get(0)).longValue()), "duplicate row");
+                    }
+                }
+                client.advance();
+            }
+            assertFalse(client.isClientError());
+            assertFalse(client.isClientAborted());
+        }
+
+        List<Long> expected = queryRunner.execute("SELECT orderkey FROM orders").getMaterializedRows().stream()
+                .map(row -> ((Number) row.getField(0)).longValue())
+                .collect(toImmutableList());
+        assertEquals(orderKeys, ImmutableSortedSet.copyOf(expected));
+
+        // every worker holds a part of the results, and none of them is read through the coordinator
+        Set<Integer> workerPorts = queryRunner.getServers().stream()
+                .filter(server -> !server.isCoordinator())
+                .map(server -> server.getBaseUrl().getPort())
+                .collect(toImmutableSet());
+        Set<Integer> readPorts = directResultRequests("GET").stream()
+                .map(request -> request.url.port())
+                .collect(toImmutableSet());
+        assertEquals(readPorts, workerPorts);
+
+        // every buffer is destroyed once it is read
+        Set<HttpUrl> segments = directResultRequests("GET").stream()
+                .map(request -> segmentOf(request.url))
+                .collect(toImmutableSet());
+        List<ObservedRequest> deletes = awaitDeletes(segments.size());
+        assertEquals(deletes.stream().map(request -> request.url).collect(toImmutableSet()), segments);
+        deletes.forEach(request -> assertEquals(request.status, 204));
+    }
+
+    @Test(timeOut = 120_000)
+    public void testTamperedSegmentIsRejected()
+    {
+        requests.clear();
+        // replaces the signature of the segments
+        Interceptor tamper = chain -> {
+            HttpUrl url = chain.request().url();
+            if (url.encodedPath().startsWith(DIRECT_RESULTS_PATH)) {
+                url = url.newBuilder().setPathSegment(4, "AAAA").build();
+            }
+            return chain.proceed(chain.request().newBuilder().url(url).build());
+        };
+
+        try (StatementClient client = startQuery(createHttpClient(Optional.of(tamper)), "SELECT orderkey FROM orders")) {
+            while (client.isRunning()) {
+                client.advance();
+            }
+            fail("expected the query to fail");
+        }
+        catch (RuntimeException e) {
+            assertEquals(e.getMessage(), "Error reading query results from the workers");
+        }
+
+        List<ObservedRequest> reads = directResultRequests("GET");
+        assertFalse(reads.isEmpty());
+        reads.forEach(request -> assertEquals(request.status, 403));
+    }
+
+    @Test(timeOut = 120_000)
+    public void testCloseDestroysBuffers()
+    {
+        requests.clear();
+        try (StatementClient client = startQuery(createHttpClient(Optional.empty()), "SELECT * FROM tpch.sf1.orders")) {
+            while (client.isRunning() && client.currentData().getData() == null) {
+                client.advance();
+            }
+            assertTrue(client.isRunning());
+        }
+
+        // the buffers that are not completely read are destroyed when the client is closed
+        Set<HttpUrl> segments = directResultRequests("GET").stream()
+                .map(request -> segmentOf(request.url))
+                .collect(toImmutableSet());
+        assertFalse(segments.isEmpty());
+        List<ObservedRequest> deletes = awaitDeletes(segments.size());
+        assertEquals(deletes.stream().map(request -> request.url).collect(toImmutableSet()), segments);
+    }
+
+    private StatementClient startQuery(OkHttpClient httpClient, String sql)
+    {
+        ClientSession clientSession = new ClientSession(
+                queryRunner.getCoordinator().getBaseUrl(),
+                "user",
+                "source",
+                Optional.empty(),
+                ImmutableSet.of(),
+                null,
+                "tpch",
+                "tiny",
+                "America/Los_Angeles",
+                Locale.ENGLISH,
+                ImmutableMap.of(),
+                ImmutableMap.of(DIRECT_RESULTS_ENABLED, "true", FORCE_SINGLE_NODE_OUTPUT, "false"),
+                ImmutableMap.of(),
+                ImmutableMap.of(),
+                ImmutableMap.of(),
+                null,
+                new Duration(2, MINUTES),
+                true,
+                ImmutableMap.of(),
+                ImmutableMap.of(),
+                false,
+                true);
+        return newStatementClient(httpClient, clientSession, sql);
+    }
+
+    private OkHttpClient createHttpClient(Optional<Interceptor> interceptor)
+    {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        interceptor.ifPresent(builder::addInterceptor);
+        return builder
+                .addNetworkInterceptor(chain -> {
+                    Request request = chain.request();
+                    Response response = chain.proceed(request);
+                    requests.add(new ObservedRequest(request.method(), request.url(), response.code()));
+                    return response;
+                })
+                .build();
+    }
+
+    private List<ObservedRequest> directResultRequests(String method)
+    {
+        return requests.stream()
+                .filter(request -> request.method.equals(method))
+                .filter(request -> request.url.encodedPath().startsWith(DIRECT_RESULTS_PATH))
+                .collect(toImmutableList());
+    }
+
+    private List<ObservedRequest> awaitDeletes(int count)
+    {
+        // the buffers are destroyed asynchronously
+        List<ObservedRequest> deletes = directResultRequests("DELETE");
+        while (deletes.size() < count) {
+            try {
+                Thread.sleep(10);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            deletes = directResultRequests("DELETE");
+        }
+        return deletes;
+    }
+
+    private static HttpUrl segmentOf(HttpUrl url)
+    {
+        // {taskId}/{bufferId}/{signature}/{token}[/acknowledge]
+        List<String> segments = new ArrayList<>(url.pathSegments().subList(0, 5));
+        HttpUrl.Builder builder = url.newBuilder().encodedPath("/");
+        segments.forEach(builder::addPathSegment);
+        return builder.build();
+    }
+
+    private static class ObservedRequest
+    {
+        private final String method;
+        private final HttpUrl url;
+        private final int status;
+
+        private ObservedRequest(String method, HttpUrl url, int status)
+        {
+            this.method = method;
+            this.url = url;
+            this.status = status;
+        }
+    }
+}
@@ -346,6 +346,14 @@ public class TpchMetadata
                 .orElse(TableStatistics.empty());
     }
 
+    @Override
+    public Optional<String> getTableVersion(ConnectorSession session, ConnectorTableHandle tableHandle, Optional<ConnectorTableLayoutHandle> tableLayoutHandle)
+    {
+        // the data is generated from the scale factor, so it never changes
+        TpchTableHandle tpchTableHandle = (TpchTableHandle) tableHandle;
+        return Optional.of(tpchTableHandle.getTableName() + ":" + tpchTableHandle.getScaleFactor());
+    }
+
     protected ColumnNaming getColumnNaming()
     {
         return columnNaming;